@@ -127,6 +127,32 @@ public abstract class AbstractArray<T> extends AbstractBaseArray<Array<T>>implem
     };
   }
 
+  /**
+   * @return a view of {@code this} array as a {@linkplain org.briljantframework.array.FloatArray}
+   * @throws java.lang.ClassCastException if {@code T} is not {@linkplain Float}
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public FloatArray asFloat() {
+    return new AsFloatArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+      @Override
+      protected float getElement(int i) {
+        return (Float) AbstractArray.this.getElement(i);
+      }
+
+      @Override
+      protected void setElement(int i, float value) {
+        AbstractArray.this.setElement(i, (T) Float.valueOf(value));
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractArray.this.elementSize();
+      }
+    };
+  }
+
   /**
    * @return a view
    * @throws java.lang.ClassCastException if {@code T} is not {@linkplain Double}
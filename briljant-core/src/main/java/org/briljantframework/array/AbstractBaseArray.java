@@ -29,6 +29,7 @@ import java.util.function.Consumer;
 
 import org.briljantframework.Check;
 import org.briljantframework.array.api.ArrayFactory;
+import org.briljantframework.exceptions.NonConformantException;
 
 /**
  * This class provides a skeletal implementation
@@ -91,7 +92,7 @@ public abstract class AbstractBaseArray<E extends BaseArray<E>> implements BaseA
 
   @Override
   public void assign(E o) {
-    Check.size(this, o);
+    o = broadcastOperand(o);
     for (int i = 0; i < o.size(); i++) {
       set(i, o, i);
     }
@@ -195,6 +196,18 @@ public abstract class AbstractBaseArray<E extends BaseArray<E>> implements BaseA
     Check.argument(index < vectors, INVALID_VECTOR, index, vectors);
 
     int offset = getOffset();
+    if (isBroadcast()) {
+      // the vectors of broadcast views are enumerated in column-major order of the remaining
+      // dimensions, since several vectors share storage
+      for (int d = 0; d < dims; d++) {
+        if (d != dimension) {
+          offset += (index % shape[d]) * stride[d];
+          index /= shape[d];
+        }
+      }
+      return asView(offset, new int[] {size(dimension)}, new int[] {stride(dimension)});
+    }
+
     int stride = stride(dimension);
     int shape = size(dimension);
     int indexMajorStride = index * stride(majorStride);
@@ -210,6 +223,34 @@ public abstract class AbstractBaseArray<E extends BaseArray<E>> implements BaseA
     return bj;
   }
 
+  /**
+   * Returns a cursor over the positions of the elements of this array in the underlying storage.
+   * Iterating the cursor is equivalent to, but considerably faster than, computing the position
+   * of each linearized index {@code 0, 1, ..., size() - 1}.
+   *
+   * @return a new cursor
+   */
+  protected StrideCursor cursor() {
+    return new StrideCursor(offset, shape, stride);
+  }
+
+  /**
+   * Returns the given array as an instance of the given abstract array type, to give access to the
+   * elements using positions in the underlying storage. Every array of this package extends one of
+   * the abstract array types.
+   *
+   * @param array the array
+   * @param type the abstract array type
+   * @param <A> the abstract array type
+   * @return an abstract array
+   * @throws IllegalArgumentException if the array is not an instance of the given type
+   */
+  static <A extends AbstractBaseArray<?>> A elementsOf(BaseArray<?> array, Class<A> type) {
+    Check.argument(type.isInstance(array), "%s is not an instance of %s",
+        array.getClass().getName(), type.getSimpleName());
+    return type.cast(array);
+  }
+
   @Override
   public int getOffset() {
     return offset;
@@ -287,6 +328,48 @@ public abstract class AbstractBaseArray<E extends BaseArray<E>> implements BaseA
     return asView(offset, shape, stride, 0);
   }
 
+  @Override
+  public E broadcast(int... shape) {
+    if (!Indexer.isBroadcastable(this.shape, shape)) {
+      throw new NonConformantException(String.format("Can't broadcast %s to %s",
+          Arrays.toString(this.shape), Arrays.toString(shape)));
+    }
+    int lead = shape.length - dims();
+    int[] stride = new int[shape.length];
+    for (int d = lead; d < shape.length; d++) {
+      stride[d] = this.shape[d - lead] == shape[d] ? this.stride[d - lead] : 0;
+    }
+    return asView(getOffset(), shape.clone(), stride, lead == 0 ? majorStride : 0);
+  }
+
+  /**
+   * Returns {@code other} if it has the same size as this array; otherwise {@code other}
+   * broadcast to the shape of this array.
+   *
+   * @param other the operand of an element-wise operation which assigns to this array
+   * @return an operand with the same size as this array
+   * @throws NonConformantException if the size differs and {@code other} can't be broadcast
+   */
+  protected final <T extends BaseArray<T>> T broadcastOperand(T other) {
+    return other.size() == size() ? other : other.broadcast(shape);
+  }
+
+  /**
+   * Returns true if the elements of some dimension of this array (with more than one element) are
+   * stored at the same position, i.e., the array is a {@linkplain #broadcast(int...) broadcast}
+   * view.
+   *
+   * @return true if this array is a broadcast view
+   */
+  protected final boolean isBroadcast() {
+    for (int d = 0; d < shape.length; d++) {
+      if (stride[d] == 0 && shape[d] > 1) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Return the number of elements in the data source.
    *
@@ -339,7 +422,7 @@ public abstract class AbstractBaseArray<E extends BaseArray<E>> implements BaseA
 
   @Override
   public boolean isContiguous() {
-    return majorStride == 0;
+    return majorStride == 0 && !isBroadcast();
   }
 
   @Override
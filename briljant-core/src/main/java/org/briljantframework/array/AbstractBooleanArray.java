@@ -107,17 +107,21 @@ public abstract class AbstractBooleanArray extends AbstractBaseArray<BooleanArra
 
   @Override
   public BooleanArray map(Function<Boolean, Boolean> mapper) {
-    BooleanArray empty = newEmptyArray(getShape());
-    for (int i = 0, size = size(); i < size; i++) {
-      empty.set(i, mapper.apply(get(i)));
+    AbstractBooleanArray empty = elementsOf(newEmptyArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = empty.cursor();
+    while (from.hasNext()) {
+      empty.setElement(to.next(), mapper.apply(getElement(from.next())));
     }
     return empty;
   }
 
   @Override
   public void apply(UnaryOperator<Boolean> operator) {
-    for (int i = 0; i < size(); i++) {
-      set(i, operator.apply(get(i)));
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      int position = cursor.next();
+      setElement(position, operator.apply(getElement(position)));
     }
   }
 
@@ -154,8 +158,9 @@ public abstract class AbstractBooleanArray extends AbstractBaseArray<BooleanArra
 
   @Override
   public void assign(Supplier<Boolean> supplier) {
-    for (int i = 0; i < size(); i++) {
-      set(i, supplier.get());
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      setElement(cursor.next(), supplier.get());
     }
   }
 
@@ -171,11 +176,8 @@ public abstract class AbstractBooleanArray extends AbstractBaseArray<BooleanArra
 
   @Override
   public BooleanArray eq(BooleanArray other) {
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      bits.set(i, get(i) == other.get(i));
-    }
-    return bits;
+    Check.size(this, other);
+    return combine(other, (a, b) -> a == b);
   }
 
   @Override
@@ -190,16 +192,18 @@ public abstract class AbstractBooleanArray extends AbstractBaseArray<BooleanArra
 
   @Override
   public void assign(boolean value) {
-    for (int i = 0; i < size(); i++) {
-      set(i, value);
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      setElement(cursor.next(), value);
     }
   }
 
   @Override
   public int hashCode() {
     int value = Objects.hash(getShape(), getStride());
-    for (int i = 0; i < size(); i++) {
-      value = value * 31 + Boolean.hashCode(get(i));
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      value = value * 31 + Boolean.hashCode(getElement(cursor.next()));
     }
     return value;
   }
@@ -214,8 +218,11 @@ public abstract class AbstractBooleanArray extends AbstractBaseArray<BooleanArra
       if (!Arrays.equals(shape, o.getShape())) {
         return false;
       }
-      for (int i = 0; i < size(); i++) {
-        if (get(i) != o.get(i)) {
+      AbstractBooleanArray other = elementsOf(o, AbstractBooleanArray.class);
+      StrideCursor cursor = cursor();
+      StrideCursor otherCursor = other.cursor();
+      while (cursor.hasNext()) {
+        if (getElement(cursor.next()) != other.getElement(otherCursor.next())) {
           return false;
         }
       }
@@ -264,6 +271,27 @@ public abstract class AbstractBooleanArray extends AbstractBaseArray<BooleanArra
     };
   }
 
+  @Override
+  public FloatArray asFloat() {
+    return new AsFloatArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+      @Override
+      protected float getElement(int i) {
+        return AbstractBooleanArray.this.getElement(i) ? 1 : 0;
+      }
+
+      @Override
+      protected void setElement(int i, float value) {
+        AbstractBooleanArray.this.setElement(i, value == 1);
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractBooleanArray.this.elementSize();
+      }
+    };
+  }
+
   @Override
   public IntArray asInt() {
     return new AsIntArray(getArrayFactory(), getOffset(), getShape(), getStride(),
@@ -339,10 +367,14 @@ public abstract class AbstractBooleanArray extends AbstractBaseArray<BooleanArra
   @Override
   public BooleanArray slice(BooleanArray bits) {
     Check.shape(this, bits);
+    AbstractBooleanArray mask = elementsOf(bits, AbstractBooleanArray.class);
     IncrementalBuilder builder = new IncrementalBuilder();
-    for (int i = 0; i < size(); i++) {
-      if (bits.get(i)) {
-        builder.add(get(i));
+    StrideCursor cursor = cursor();
+    StrideCursor maskCursor = mask.cursor();
+    while (cursor.hasNext()) {
+      int position = cursor.next();
+      if (mask.getElement(maskCursor.next())) {
+        builder.add(getElement(position));
       }
     }
     return builder.build();
@@ -350,17 +382,16 @@ public abstract class AbstractBooleanArray extends AbstractBaseArray<BooleanArra
 
   @Override
   public Stream<Boolean> stream() {
+    StrideCursor cursor = cursor();
     return StreamSupport.stream(Spliterators.spliterator(new Iterator<Boolean>() {
-      int current = 0;
-
       @Override
       public boolean hasNext() {
-        return current < size();
+        return cursor.hasNext();
       }
 
       @Override
       public Boolean next() {
-        return get(current++);
+        return getElement(cursor.next());
       }
     }, size(), Spliterator.SIZED), false);
   }
@@ -394,9 +425,11 @@ public abstract class AbstractBooleanArray extends AbstractBaseArray<BooleanArra
 
   @Override
   public BooleanArray copy() {
-    BooleanArray n = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      n.set(i, get(i));
+    AbstractBooleanArray n = elementsOf(newEmptyArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = n.cursor();
+    while (from.hasNext()) {
+      n.setElement(to.next(), getElement(from.next()));
     }
     return n;
   }
@@ -404,64 +437,92 @@ public abstract class AbstractBooleanArray extends AbstractBaseArray<BooleanArra
   @Override
   public BooleanArray xor(BooleanArray other) {
     Check.shape(this, other);
-    BooleanArray bm = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      boolean otherHas = other.get(i);
-      boolean thisHas = get(i);
-      bm.set(i, (thisHas || otherHas) && !(thisHas && otherHas));
-    }
-    return bm;
+    return combine(other, (a, b) -> a ^ b);
   }
 
   @Override
   public BooleanArray or(BooleanArray other) {
     Check.shape(this, other);
-    BooleanArray bm = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      bm.set(i, get(i) || other.get(i));
-    }
-    return bm;
+    return combine(other, (a, b) -> a || b);
   }
 
   @Override
   public BooleanArray orNot(BooleanArray other) {
     Check.shape(this, other);
-    BooleanArray bm = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      bm.set(i, get(i) || !other.get(i));
-    }
-    return bm;
+    return combine(other, (a, b) -> a || !b);
   }
 
   @Override
   public BooleanArray and(BooleanArray other) {
     Check.shape(this, other);
-    BooleanArray bm = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      bm.set(i, get(i) && other.get(i));
-    }
-    return bm;
+    return combine(other, (a, b) -> a && b);
   }
 
   @Override
   public BooleanArray andNot(BooleanArray other) {
     Check.shape(this, other);
-    BooleanArray bm = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      bm.set(i, get(i) && !other.get(i));
-    }
-    return bm;
+    return combine(other, (a, b) -> a && !b);
   }
 
   @Override
   public BooleanArray not() {
-    BooleanArray bm = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      bm.set(i, !get(i));
+    AbstractBooleanArray bm = elementsOf(newEmptyArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = bm.cursor();
+    while (from.hasNext()) {
+      bm.setElement(to.next(), !getElement(from.next()));
     }
     return bm;
   }
 
+  @Override
+  public int cardinality() {
+    int count = 0;
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      if (getElement(cursor.next())) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public int nextSetBit(int fromIndex) {
+    if (fromIndex < 0) {
+      throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+    }
+    for (int i = fromIndex; i < size(); i++) {
+      if (get(i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns a new array with the result of combining the elements of this array with the elements
+   * of {@code array} using {@code combine}
+   */
+  private BooleanArray combine(BooleanArray array, BooleanBinaryOperator combine) {
+    AbstractBooleanArray other = elementsOf(array, AbstractBooleanArray.class);
+    AbstractBooleanArray result = elementsOf(newEmptyArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor otherFrom = other.cursor();
+    StrideCursor to = result.cursor();
+    while (from.hasNext()) {
+      result.setElement(to.next(),
+          combine.applyAsBoolean(getElement(from.next()), other.getElement(otherFrom.next())));
+    }
+    return result;
+  }
+
+  @FunctionalInterface
+  private interface BooleanBinaryOperator {
+
+    boolean applyAsBoolean(boolean a, boolean b);
+  }
+
   public class IncrementalBuilder {
 
     private boolean[] buffer = new boolean[10];
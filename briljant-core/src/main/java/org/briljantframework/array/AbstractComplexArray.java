@@ -48,6 +48,7 @@ import java.util.stream.StreamSupport;
 import org.apache.commons.math3.complex.Complex;
 import org.briljantframework.Check;
 import org.briljantframework.array.api.ArrayFactory;
+import org.briljantframework.complex.MutableComplex;
 
 /**
  * @author Isak Karlsson
@@ -100,6 +101,27 @@ public abstract class AbstractComplexArray extends AbstractBaseArray<ComplexArra
     return getElement(Indexer.linearized(index, getOffset(), stride, shape));
   }
 
+  @Override
+  public final void set(int index, double real, double imag) {
+    setElement(Indexer.linearized(index, getOffset(), stride, shape), real, imag);
+  }
+
+  @Override
+  public final double getReal(int index) {
+    return getRealElement(Indexer.linearized(index, getOffset(), stride, shape));
+  }
+
+  @Override
+  public final double getImaginary(int index) {
+    return getImaginaryElement(Indexer.linearized(index, getOffset(), stride, shape));
+  }
+
+  @Override
+  public final MutableComplex get(int index, MutableComplex out) {
+    int i = Indexer.linearized(index, getOffset(), stride, shape);
+    return out.set(getRealElement(i), getImaginaryElement(i));
+  }
+
   /**
    * Sets the element at index {@code i}, ignoring offsets and strides.
    *
@@ -116,6 +138,39 @@ public abstract class AbstractComplexArray extends AbstractBaseArray<ComplexArra
    */
   protected abstract Complex getElement(int i);
 
+  /**
+   * Sets the element at index {@code i}, ignoring offsets and strides. Implementations storing
+   * the real and imaginary parts separately should override this method to avoid allocating a
+   * {@link Complex}.
+   *
+   * @param i the index
+   * @param real the real part
+   * @param imag the imaginary part
+   */
+  protected void setElement(int i, double real, double imag) {
+    setElement(i, Complex.valueOf(real, imag));
+  }
+
+  /**
+   * Gets the real part of the element at index {@code i}, ignoring offsets and strides.
+   *
+   * @param i the index
+   * @return the real part
+   */
+  protected double getRealElement(int i) {
+    return getElement(i).getReal();
+  }
+
+  /**
+   * Gets the imaginary part of the element at index {@code i}, ignoring offsets and strides.
+   *
+   * @param i the index
+   * @return the imaginary part
+   */
+  protected double getImaginaryElement(int i) {
+    return getElement(i).getImaginary();
+  }
+
   @Override
   public ComplexArray assign(Complex value) {
     for (int i = 0; i < size(); i++) {
@@ -127,10 +182,8 @@ public abstract class AbstractComplexArray extends AbstractBaseArray<ComplexArra
   @Override
   public void assign(double[] value) {
     Check.argument(value.length == size() * 2);
-    int j = 0;
     for (int i = 0; i < size(); i++) {
-      Complex c = Complex.valueOf(value[j], value[j + 1]);
-      j += 2;
+      set(i, value[i * 2], value[i * 2 + 1]);
     }
   }
 
@@ -172,7 +225,7 @@ public abstract class AbstractComplexArray extends AbstractBaseArray<ComplexArra
   public ComplexArray assign(DoubleArray matrix) {
     Check.argument(matrix.size() == size());
     for (int i = 0; i < size(); i++) {
-      set(i, Complex.valueOf(matrix.get(i)));
+      set(i, matrix.get(i), 0);
     }
     return this;
   }
@@ -236,12 +289,33 @@ public abstract class AbstractComplexArray extends AbstractBaseArray<ComplexArra
 
       @Override
       protected void setElement(int i, double value) {
-        AbstractComplexArray.this.setElement(i, Complex.valueOf(value));
+        AbstractComplexArray.this.setElement(i, value, 0);
       }
 
       @Override
       protected double getElement(int i) {
-        return AbstractComplexArray.this.getElement(i).getReal();
+        return AbstractComplexArray.this.getRealElement(i);
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractComplexArray.this.elementSize();
+      }
+    };
+  }
+
+  @Override
+  public FloatArray asFloat() {
+    return new AsFloatArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+      @Override
+      protected float getElement(int i) {
+        return (float) AbstractComplexArray.this.getRealElement(i);
+      }
+
+      @Override
+      protected void setElement(int i, float value) {
+        AbstractComplexArray.this.setElement(i, value, 0);
       }
 
       @Override
@@ -258,12 +332,12 @@ public abstract class AbstractComplexArray extends AbstractBaseArray<ComplexArra
 
       @Override
       public int getElement(int index) {
-        return (int) AbstractComplexArray.this.getElement(index).getReal();
+        return (int) AbstractComplexArray.this.getRealElement(index);
       }
 
       @Override
       public void setElement(int index, int value) {
-        AbstractComplexArray.this.setElement(index, Complex.valueOf(value));
+        AbstractComplexArray.this.setElement(index, value, 0);
       }
 
       @Override
@@ -399,12 +473,12 @@ public abstract class AbstractComplexArray extends AbstractBaseArray<ComplexArra
         getMajorStrideIndex()) {
       @Override
       public long getElement(int index) {
-        return (long) AbstractComplexArray.this.getElement(index).getReal();
+        return (long) AbstractComplexArray.this.getRealElement(index);
       }
 
       @Override
       public void setElement(int index, long value) {
-        AbstractComplexArray.this.setElement(index, Complex.valueOf(value));
+        AbstractComplexArray.this.setElement(index, value, 0);
       }
 
       @Override
@@ -496,9 +570,10 @@ public abstract class AbstractComplexArray extends AbstractBaseArray<ComplexArra
 
   @Override
   public void swap(int a, int b) {
-    Complex tmp = get(a);
-    set(a, get(b));
-    set(b, tmp);
+    double real = getReal(a);
+    double imag = getImaginary(a);
+    set(a, getReal(b), getImaginary(b));
+    set(b, real, imag);
   }
 
   @Override
@@ -550,7 +625,7 @@ public abstract class AbstractComplexArray extends AbstractBaseArray<ComplexArra
   public ComplexArray copy() {
     ComplexArray n = newEmptyArray(getShape());
     for (int i = 0; i < size(); i++) {
-      n.set(i, get(i));
+      n.set(i, getReal(i), getImaginary(i));
     }
     return n;
   }
@@ -602,12 +677,9 @@ public abstract class AbstractComplexArray extends AbstractBaseArray<ComplexArra
   @Override
   public double[] data() {
     double[] data = new double[size() * 2];
-    int j = 0;
     for (int i = 0; i < size(); i++) {
-      Complex c = get(i);
-      data[j] = c.getReal();
-      data[j + 1] = c.getImaginary();
-      j += 2;
+      data[i * 2] = getReal(i);
+      data[i * 2 + 1] = getImaginary(i);
     }
     return data;
   }
@@ -30,6 +30,7 @@ import java.util.Objects;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.function.BiConsumer;
 import java.util.function.DoubleBinaryOperator;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleFunction;
@@ -72,56 +73,93 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
 
   @Override
   public void assign(double value) {
-    final int size = size();
-    for (int i = 0; i < size; i++) {
-      set(i, value);
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        setElement(i, value);
+      }
+    } else {
+      while (cursor.hasNext()) {
+        setElement(cursor.next(), value);
+      }
     }
   }
 
   @Override
   public void assign(double[] array) {
     Check.size(this.size(), array.length);
-    for (int i = 0; i < array.length; i++) {
-      set(i, array[i]);
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      for (int i = offset; i < offset + array.length; i++) {
+        setElement(i, array[i - offset]);
+      }
+    } else {
+      for (int i = 0; i < array.length; i++) {
+        setElement(cursor.next(), array[i]);
+      }
     }
   }
 
   @Override
   public void assign(DoubleSupplier supplier) {
-    for (int i = 0; i < size(); i++) {
-      set(i, supplier.getAsDouble());
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        setElement(i, supplier.getAsDouble());
+      }
+    } else {
+      while (cursor.hasNext()) {
+        setElement(cursor.next(), supplier.getAsDouble());
+      }
     }
   }
 
   @Override
   public void assign(DoubleArray matrix, DoubleUnaryOperator operator) {
-    Check.size(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, operator.applyAsDouble(matrix.get(i)));
+    AbstractDoubleArray other = elementsOf(broadcastOperand(matrix), AbstractDoubleArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), operator.applyAsDouble(other.getElement(from.next())));
     }
   }
 
   @Override
   public void assign(DoubleArray matrix, DoubleBinaryOperator combine) {
-    Check.size(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, combine.applyAsDouble(get(i), matrix.get(i)));
+    AbstractDoubleArray other = elementsOf(broadcastOperand(matrix), AbstractDoubleArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      int position = to.next();
+      setElement(position,
+          combine.applyAsDouble(getElement(position), other.getElement(from.next())));
     }
   }
 
   @Override
   public void assign(IntArray matrix, IntToDoubleFunction function) {
     Check.size(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, function.applyAsDouble(matrix.get(i)));
+    AbstractIntArray other = elementsOf(matrix, AbstractIntArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), function.applyAsDouble(other.getElement(from.next())));
     }
   }
 
   @Override
   public void assign(LongArray matrix, LongToDoubleFunction function) {
     Check.size(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, function.applyAsDouble(matrix.get(i)));
+    AbstractLongArray other = elementsOf(matrix, AbstractLongArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), function.applyAsDouble(other.getElement(from.next())));
     }
   }
 
@@ -130,26 +168,60 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
     return this;
   }
 
+  @Override
+  public FloatArray asFloat() {
+    return new AsFloatArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+      @Override
+      protected float getElement(int i) {
+        return (float) AbstractDoubleArray.this.getElement(i);
+      }
+
+      @Override
+      protected void setElement(int i, float value) {
+        AbstractDoubleArray.this.setElement(i, value);
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractDoubleArray.this.elementSize();
+      }
+    };
+  }
+
   @Override
   public void assign(ComplexArray other, ToDoubleFunction<? super Complex> function) {
     Check.size(this, other);
-    for (int i = 0; i < size(); i++) {
-      set(i, function.applyAsDouble(other.get(i)));
+    StrideCursor cursor = cursor();
+    for (int i = 0; cursor.hasNext(); i++) {
+      setElement(cursor.next(), function.applyAsDouble(other.get(i)));
     }
   }
 
   @Override
   public void apply(DoubleUnaryOperator operator) {
-    for (int i = 0; i < size(); i++) {
-      set(i, operator.applyAsDouble(get(i)));
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        setElement(i, operator.applyAsDouble(getElement(i)));
+      }
+    } else {
+      while (cursor.hasNext()) {
+        int position = cursor.next();
+        setElement(position, operator.applyAsDouble(getElement(position)));
+      }
     }
   }
 
   @Override
   public <R, C> R collect(Collector<? super Double, C, R> collector) {
     C accum = collector.supplier().get();
-    for (int i = 0; i < size(); i++) {
-      collector.accumulator().accept(accum, get(i));
+    BiConsumer<C, ? super Double> accumulator = collector.accumulator();
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      accumulator.accept(accum, getElement(cursor.next()));
     }
     return collector.finisher().apply(accum);
   }
@@ -157,35 +229,51 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
   @Override
   public <T> T collect(Supplier<T> supplier, ObjDoubleConsumer<T> consumer) {
     T accumulator = supplier.get();
-    for (int i = 0; i < size(); i++) {
-      consumer.accept(accumulator, get(i));
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      consumer.accept(accumulator, getElement(cursor.next()));
     }
     return accumulator;
   }
 
   @Override
   public DoubleArray map(DoubleUnaryOperator operator) {
-    DoubleArray mat = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      mat.set(i, operator.applyAsDouble(get(i)));
+    AbstractDoubleArray mat = elementsOf(newEmptyArray(getShape()), AbstractDoubleArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = mat.cursor();
+    if (from.isContiguous() && to.isContiguous()) {
+      int offset = from.getOffset();
+      int n = from.size();
+      int shift = to.getOffset() - offset;
+      for (int i = offset; i < offset + n; i++) {
+        mat.setElement(i + shift, operator.applyAsDouble(getElement(i)));
+      }
+    } else {
+      while (from.hasNext()) {
+        mat.setElement(to.next(), operator.applyAsDouble(getElement(from.next())));
+      }
     }
     return mat;
   }
 
   @Override
   public IntArray mapToInt(DoubleToIntFunction function) {
-    IntArray m = bj.intArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      m.set(i, function.applyAsInt(get(i)));
+    AbstractIntArray m = elementsOf(bj.intArray(getShape()), AbstractIntArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = m.cursor();
+    while (from.hasNext()) {
+      m.setElement(to.next(), function.applyAsInt(getElement(from.next())));
     }
     return m;
   }
 
   @Override
   public LongArray mapToLong(DoubleToLongFunction function) {
-    LongArray m = bj.longArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      m.set(i, function.applyAsLong(get(i)));
+    AbstractLongArray m = elementsOf(bj.longArray(getShape()), AbstractLongArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = m.cursor();
+    while (from.hasNext()) {
+      m.setElement(to.next(), function.applyAsLong(getElement(from.next())));
     }
     return m;
   }
@@ -193,8 +281,9 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
   @Override
   public ComplexArray mapToComplex(DoubleFunction<Complex> function) {
     ComplexArray m = bj.complexArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      m.set(i, function.apply(get(i)));
+    StrideCursor cursor = cursor();
+    for (int i = 0; cursor.hasNext(); i++) {
+      m.set(i, function.apply(getElement(cursor.next())));
     }
     return m;
   }
@@ -202,8 +291,9 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
   @Override
   public <T> Array<T> mapToObj(DoubleFunction<? extends T> mapper) {
     Array<T> array = getArrayFactory().referenceArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      array.set(i, mapper.apply(get(i)));
+    StrideCursor cursor = cursor();
+    for (int i = 0; cursor.hasNext(); i++) {
+      array.set(i, mapper.apply(getElement(cursor.next())));
     }
     return array;
   }
@@ -211,8 +301,9 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
   @Override
   public DoubleArray filter(DoublePredicate predicate) {
     DoubleList builder = new DoubleList();
-    for (int i = 0; i < size(); i++) {
-      double value = get(i);
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      double value = getElement(cursor.next());
       if (predicate.test(value)) {
         builder.add(value);
       }
@@ -222,27 +313,46 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
 
   @Override
   public BooleanArray where(DoublePredicate predicate) {
-    BooleanArray bits = bj.booleanArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      bits.set(i, predicate.test(get(i)));
+    AbstractBooleanArray bits =
+        elementsOf(bj.booleanArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = bits.cursor();
+    while (from.hasNext()) {
+      bits.setElement(to.next(), predicate.test(getElement(from.next())));
     }
     return bits;
   }
 
   @Override
   public BooleanArray where(DoubleArray matrix, DoubleBiPredicate predicate) {
+    matrix = broadcastOperand(matrix);
     Check.shape(this, matrix);
-    BooleanArray bits = bj.booleanArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      bits.set(i, predicate.test(get(i), matrix.get(i)));
+    AbstractDoubleArray other = elementsOf(matrix, AbstractDoubleArray.class);
+    AbstractBooleanArray bits =
+        elementsOf(bj.booleanArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor otherFrom = other.cursor();
+    StrideCursor to = bits.cursor();
+    while (from.hasNext()) {
+      bits.setElement(to.next(),
+          predicate.test(getElement(from.next()), other.getElement(otherFrom.next())));
     }
     return bits;
   }
 
   @Override
   public void forEachDouble(DoubleConsumer consumer) {
-    for (int i = 0; i < size(); i++) {
-      consumer.accept(get(i));
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        consumer.accept(getElement(i));
+      }
+    } else {
+      while (cursor.hasNext()) {
+        consumer.accept(getElement(cursor.next()));
+      }
     }
   }
 
@@ -253,8 +363,17 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
 
   @Override
   public double reduce(double identity, DoubleBinaryOperator reduce, DoubleUnaryOperator map) {
-    for (int i = 0; i < size(); i++) {
-      identity = reduce.applyAsDouble(identity, map.applyAsDouble(get(i)));
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        identity = reduce.applyAsDouble(identity, map.applyAsDouble(getElement(i)));
+      }
+    } else {
+      while (cursor.hasNext()) {
+        identity = reduce.applyAsDouble(identity, map.applyAsDouble(getElement(cursor.next())));
+      }
     }
     return identity;
   }
@@ -406,55 +525,44 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
 
   @Override
   public BooleanArray lt(DoubleArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) < other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a < b);
   }
 
   @Override
   public BooleanArray gt(DoubleArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) > other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a > b);
   }
 
   @Override
   public BooleanArray eq(DoubleArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) == other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a == b);
   }
 
   @Override
   public BooleanArray lte(DoubleArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) <= other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a <= b);
   }
 
   @Override
   public BooleanArray gte(DoubleArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) >= other.get(i));
+    return compare(other, (a, b) -> a >= b);
+  }
+
+  private BooleanArray compare(DoubleArray array, DoubleBiPredicate predicate) {
+    if (!Arrays.equals(array.getShape(), getShape())) {
+      int[] shape = Indexer.broadcast(getShape(), array.getShape());
+      return elementsOf(broadcast(shape), AbstractDoubleArray.class)
+          .compare(array.broadcast(shape), predicate);
+    }
+    AbstractDoubleArray other = elementsOf(array, AbstractDoubleArray.class);
+    AbstractBooleanArray bits =
+        elementsOf(getArrayFactory().booleanArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor otherFrom = other.cursor();
+    StrideCursor to = bits.cursor();
+    while (from.hasNext()) {
+      bits.setElement(to.next(),
+          predicate.test(getElement(from.next()), other.getElement(otherFrom.next())));
     }
     return bits;
   }
@@ -462,8 +570,9 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
   @Override
   public int hashCode() {
     int result = 1;
-    for (int i = 0; i < size(); i++) {
-      long bits = Double.doubleToLongBits(get(i));
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      long bits = Double.doubleToLongBits(getElement(cursor.next()));
       result = 31 * result + (int) (bits ^ (bits >>> 32));
     }
 
@@ -481,8 +590,13 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
         return false;
       }
 
-      for (int i = 0; i < size(); i++) {
-        if (!Precision.equalsIncludingNaN(get(i), mat.get(i))) {
+      AbstractDoubleArray other = elementsOf(mat, AbstractDoubleArray.class);
+      StrideCursor cursor = cursor();
+      StrideCursor otherCursor = other.cursor();
+      while (cursor.hasNext()) {
+        double a = getElement(cursor.next());
+        double b = other.getElement(otherCursor.next());
+        if (!Precision.equalsIncludingNaN(a, b)) {
           return false;
         }
       }
@@ -524,6 +638,21 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
         return Complex.valueOf(AbstractDoubleArray.this.getElement(index));
       }
 
+      @Override
+      protected void setElement(int i, double real, double imag) {
+        AbstractDoubleArray.this.setElement(i, real);
+      }
+
+      @Override
+      protected double getRealElement(int i) {
+        return AbstractDoubleArray.this.getElement(i);
+      }
+
+      @Override
+      protected double getImaginaryElement(int i) {
+        return 0;
+      }
+
       @Override
       protected int elementSize() {
         return AbstractDoubleArray.this.elementSize();
@@ -534,10 +663,14 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
   @Override
   public DoubleArray slice(BooleanArray bits) {
     Check.shape(this, bits);
+    AbstractBooleanArray mask = elementsOf(bits, AbstractBooleanArray.class);
     IncrementalBuilder builder = new IncrementalBuilder();
-    for (int i = 0; i < size(); i++) {
-      if (bits.get(i)) {
-        builder.add(get(i));
+    StrideCursor cursor = cursor();
+    StrideCursor maskCursor = mask.cursor();
+    while (cursor.hasNext()) {
+      int position = cursor.next();
+      if (mask.getElement(maskCursor.next())) {
+        builder.add(getElement(position));
       }
     }
     return builder.build();
@@ -545,26 +678,36 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
 
   @Override
   public DoubleArray copy() {
-    DoubleArray n = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      n.set(i, get(i));
+    AbstractDoubleArray copy = elementsOf(newEmptyArray(getShape()), AbstractDoubleArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = copy.cursor();
+    if (from.isContiguous() && to.isContiguous()) {
+      int offset = from.getOffset();
+      int n = from.size();
+      int shift = to.getOffset() - offset;
+      for (int i = offset; i < offset + n; i++) {
+        copy.setElement(i + shift, getElement(i));
+      }
+    } else {
+      while (from.hasNext()) {
+        copy.setElement(to.next(), getElement(from.next()));
+      }
     }
-    return n;
+    return copy;
   }
 
   @Override
   public DoubleStream stream() {
+    StrideCursor cursor = cursor();
     PrimitiveIterator.OfDouble ofDouble = new PrimitiveIterator.OfDouble() {
-      public int current = 0;
-
       @Override
       public double nextDouble() {
-        return get(current++);
+        return getElement(cursor.next());
       }
 
       @Override
       public boolean hasNext() {
-        return current < size();
+        return cursor.hasNext();
       }
     };
 
@@ -615,21 +758,12 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
 
   @Override
   public DoubleArray times(double alpha, DoubleArray other, double beta) {
-    Check.size(this, other);
-    DoubleArray m = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      m.set(i, alpha * get(i) * other.get(i) * beta);
-    }
-    return m;
+    return combine(other, (a, b) -> alpha * a * b * beta);
   }
 
   @Override
   public DoubleArray times(double scalar) {
-    DoubleArray m = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      m.set(i, get(i) * scalar);
-    }
-    return m;
+    return map(v -> v * scalar);
   }
 
   @Override
@@ -664,21 +798,12 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
 
   @Override
   public DoubleArray plus(double scalar) {
-    DoubleArray x = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      x.set(i, get(i) + scalar);
-    }
-    return x;
+    return map(v -> v + scalar);
   }
 
   @Override
   public DoubleArray plus(double alpha, DoubleArray other, double beta) {
-    Check.size(this, other);
-    DoubleArray matrix = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, alpha * get(i) + other.get(i) * beta);
-    }
-    return matrix;
+    return combine(other, (a, b) -> alpha * a + b * beta);
   }
 
   @Override
@@ -693,32 +818,17 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
 
   @Override
   public DoubleArray minus(double alpha, DoubleArray other, double beta) {
-    Check.size(this, other);
-    DoubleArray matrix = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, alpha * get(i) - other.get(i) * beta);
-    }
-    return matrix;
+    return combine(other, (a, b) -> alpha * a - b * beta);
   }
 
   @Override
   public DoubleArray reverseMinus(double scalar) {
-    DoubleArray matrix = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, scalar - get(i));
-    }
-
-    return matrix;
+    return map(v -> scalar - v);
   }
 
   @Override
   public DoubleArray div(DoubleArray other) {
-    Check.size(this, other);
-    DoubleArray matrix = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, get(i) / other.get(i));
-    }
-    return matrix;
+    return combine(other, (a, b) -> a / b);
   }
 
   @Override
@@ -728,20 +838,12 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
 
   @Override
   public DoubleArray reverseDiv(double other) {
-    DoubleArray matrix = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, other / get(i));
-    }
-    return matrix;
+    return map(v -> other / v);
   }
 
   @Override
   public DoubleArray negate() {
-    DoubleArray n = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      n.set(i, -get(i));
-    }
-    return n;
+    return map(v -> -v);
   }
 
   @Override
@@ -769,6 +871,28 @@ public abstract class AbstractDoubleArray extends AbstractBaseArray<DoubleArray>
     apply(v -> other / v);
   }
 
+  /**
+   * Returns a new array with the result of combining the elements of this array with the elements
+   * of {@code array} using {@code combine}
+   */
+  private DoubleArray combine(DoubleArray array, DoubleBinaryOperator combine) {
+    if (!Arrays.equals(array.getShape(), getShape())) {
+      int[] shape = Indexer.broadcast(getShape(), array.getShape());
+      return elementsOf(broadcast(shape), AbstractDoubleArray.class)
+          .combine(array.broadcast(shape), combine);
+    }
+    AbstractDoubleArray other = elementsOf(array, AbstractDoubleArray.class);
+    AbstractDoubleArray result = elementsOf(newEmptyArray(getShape()), AbstractDoubleArray.class);
+    StrideCursor from = cursor();
+    StrideCursor otherFrom = other.cursor();
+    StrideCursor to = result.cursor();
+    while (from.hasNext()) {
+      result.setElement(to.next(),
+          combine.applyAsDouble(getElement(from.next()), other.getElement(otherFrom.next())));
+    }
+    return result;
+  }
+
   private class IncrementalBuilder {
 
     private double[] buffer = new double[10];
@@ -0,0 +1,764 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.util.Precision;
+import org.briljantframework.Check;
+import org.briljantframework.array.api.ArrayFactory;
+import org.briljantframework.function.DoubleBiPredicate;
+import org.briljantframework.primitive.ArrayAllocations;
+
+/**
+ * @author Isak Karlsson
+ */
+public abstract class AbstractFloatArray extends AbstractBaseArray<FloatArray>
+    implements FloatArray {
+
+  protected AbstractFloatArray(ArrayFactory bj, int[] shape) {
+    super(bj, shape);
+  }
+
+  protected AbstractFloatArray(ArrayFactory bj, int offset, int[] shape, int[] stride,
+      int majorStride) {
+    super(bj, offset, shape, stride, majorStride);
+  }
+
+  @Override
+  public void assign(float value) {
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      setElement(cursor.next(), value);
+    }
+  }
+
+  @Override
+  public void assign(float[] values) {
+    Check.size(this.size(), values.length);
+    StrideCursor cursor = cursor();
+    for (int i = 0; i < values.length; i++) {
+      setElement(cursor.next(), values[i]);
+    }
+  }
+
+  @Override
+  public void assign(DoubleSupplier supplier) {
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      setElement(cursor.next(), (float) supplier.getAsDouble());
+    }
+  }
+
+  @Override
+  public void assign(FloatArray matrix, DoubleUnaryOperator operator) {
+    Check.size(this, matrix);
+    AbstractFloatArray other = elementsOf(matrix, AbstractFloatArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), (float) operator.applyAsDouble(other.getElement(from.next())));
+    }
+  }
+
+  @Override
+  public void assign(FloatArray matrix, DoubleBinaryOperator combine) {
+    Check.size(this, matrix);
+    AbstractFloatArray other = elementsOf(matrix, AbstractFloatArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      int position = to.next();
+      setElement(position,
+          (float) combine.applyAsDouble(getElement(position), other.getElement(from.next())));
+    }
+  }
+
+  @Override
+  public void assign(DoubleArray matrix, DoubleUnaryOperator operator) {
+    Check.size(this, matrix);
+    AbstractDoubleArray other = elementsOf(matrix, AbstractDoubleArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), (float) operator.applyAsDouble(other.getElement(from.next())));
+    }
+  }
+
+  @Override
+  public void assign(IntArray matrix, IntToDoubleFunction function) {
+    Check.size(this, matrix);
+    AbstractIntArray other = elementsOf(matrix, AbstractIntArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), (float) function.applyAsDouble(other.getElement(from.next())));
+    }
+  }
+
+  @Override
+  public void apply(DoubleUnaryOperator operator) {
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      int position = cursor.next();
+      setElement(position, (float) operator.applyAsDouble(getElement(position)));
+    }
+  }
+
+  @Override
+  public FloatArray map(DoubleUnaryOperator operator) {
+    AbstractFloatArray mat = elementsOf(newEmptyArray(getShape()), AbstractFloatArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = mat.cursor();
+    while (from.hasNext()) {
+      mat.setElement(to.next(), (float) operator.applyAsDouble(getElement(from.next())));
+    }
+    return mat;
+  }
+
+  @Override
+  public DoubleArray mapToDouble(DoubleUnaryOperator operator) {
+    AbstractDoubleArray m = elementsOf(bj.doubleArray(getShape()), AbstractDoubleArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = m.cursor();
+    while (from.hasNext()) {
+      m.setElement(to.next(), operator.applyAsDouble(getElement(from.next())));
+    }
+    return m;
+  }
+
+  @Override
+  public <T> Array<T> mapToObj(DoubleFunction<? extends T> mapper) {
+    Array<T> array = getArrayFactory().referenceArray(getShape());
+    StrideCursor cursor = cursor();
+    for (int i = 0; cursor.hasNext(); i++) {
+      array.set(i, mapper.apply(getElement(cursor.next())));
+    }
+    return array;
+  }
+
+  @Override
+  public FloatArray filter(DoublePredicate predicate) {
+    IncrementalBuilder builder = new IncrementalBuilder();
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      float value = getElement(cursor.next());
+      if (predicate.test(value)) {
+        builder.add(value);
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public BooleanArray where(DoublePredicate predicate) {
+    AbstractBooleanArray bits =
+        elementsOf(bj.booleanArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = bits.cursor();
+    while (from.hasNext()) {
+      bits.setElement(to.next(), predicate.test(getElement(from.next())));
+    }
+    return bits;
+  }
+
+  @Override
+  public BooleanArray where(FloatArray matrix, DoubleBiPredicate predicate) {
+    Check.shape(this, matrix);
+    return compare(matrix, predicate);
+  }
+
+  @Override
+  public double reduce(double identity, DoubleBinaryOperator reduce) {
+    return reduce(identity, reduce, DoubleUnaryOperator.identity());
+  }
+
+  @Override
+  public double reduce(double identity, DoubleBinaryOperator reduce, DoubleUnaryOperator map) {
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      identity = reduce.applyAsDouble(identity, map.applyAsDouble(getElement(cursor.next())));
+    }
+    return identity;
+  }
+
+  @Override
+  public FloatArray reduceVectors(int dim, ToDoubleFunction<? super FloatArray> reduce) {
+    Check.argument(dim < dims(), INVALID_DIMENSION, dim, dims());
+    FloatArray reduced = newEmptyArray(Indexer.remove(getShape(), dim));
+    int vectors = vectors(dim);
+    for (int i = 0; i < vectors; i++) {
+      reduced.set(i, (float) reduce.applyAsDouble(getVector(dim, i)));
+    }
+    return reduced;
+  }
+
+  @Override
+  public FloatArray asFloat() {
+    return this;
+  }
+
+  @Override
+  public DoubleArray asDouble() {
+    return new AsDoubleArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+      @Override
+      protected double getElement(int i) {
+        return AbstractFloatArray.this.getElement(i);
+      }
+
+      @Override
+      protected void setElement(int i, double value) {
+        AbstractFloatArray.this.setElement(i, (float) value);
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractFloatArray.this.elementSize();
+      }
+    };
+  }
+
+  @Override
+  public IntArray asInt() {
+    return new AsIntArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+      @Override
+      protected int getElement(int index) {
+        return (int) AbstractFloatArray.this.getElement(index);
+      }
+
+      @Override
+      protected void setElement(int index, int value) {
+        AbstractFloatArray.this.setElement(index, value);
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractFloatArray.this.elementSize();
+      }
+    };
+  }
+
+  @Override
+  public LongArray asLong() {
+    return new AsLongArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+
+      @Override
+      public long getElement(int index) {
+        return (long) AbstractFloatArray.this.getElement(index);
+      }
+
+      @Override
+      public void setElement(int index, long value) {
+        AbstractFloatArray.this.setElement(index, value);
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractFloatArray.this.elementSize();
+      }
+    };
+  }
+
+  @Override
+  public BooleanArray asBoolean() {
+    return new AsBooleanArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+
+      @Override
+      protected void setElement(int index, boolean value) {
+        AbstractFloatArray.this.setElement(index, value ? 1 : 0);
+      }
+
+      @Override
+      protected boolean getElement(int index) {
+        return AbstractFloatArray.this.getElement(index) == 1;
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractFloatArray.this.elementSize();
+      }
+    };
+  }
+
+  @Override
+  public ComplexArray asComplex() {
+    return new AsComplexArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+      @Override
+      public void setElement(int index, Complex value) {
+        AbstractFloatArray.this.setElement(index, (float) value.getReal());
+      }
+
+      @Override
+      public Complex getElement(int index) {
+        return Complex.valueOf(AbstractFloatArray.this.getElement(index));
+      }
+
+      @Override
+      protected void setElement(int i, double real, double imag) {
+        AbstractFloatArray.this.setElement(i, (float) real);
+      }
+
+      @Override
+      protected double getRealElement(int i) {
+        return AbstractFloatArray.this.getElement(i);
+      }
+
+      @Override
+      protected double getImaginaryElement(int i) {
+        return 0;
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractFloatArray.this.elementSize();
+      }
+    };
+  }
+
+  @Override
+  public final void set(int[] ix, float value) {
+    Check.argument(ix.length == dims());
+    setElement(Indexer.columnMajorStride(ix, getOffset(), stride), value);
+  }
+
+  @Override
+  public final float get(int... ix) {
+    Check.argument(ix.length == dims());
+    return getElement(Indexer.columnMajorStride(ix, getOffset(), stride));
+  }
+
+  @Override
+  public final void set(int i, int j, float value) {
+    Check.argument(isMatrix());
+    setElement(getOffset() + i * stride(0) + j * stride(1), value);
+  }
+
+  @Override
+  public final float get(int i, int j) {
+    Check.argument(isMatrix());
+    return getElement(getOffset() + i * stride(0) + j * stride(1));
+  }
+
+  @Override
+  public final void set(int index, float value) {
+    setElement(Indexer.linearized(index, getOffset(), stride, shape), value);
+  }
+
+  @Override
+  public final float get(int index) {
+    return getElement(Indexer.linearized(index, getOffset(), stride, shape));
+  }
+
+  protected abstract void setElement(int i, float value);
+
+  protected abstract float getElement(int i);
+
+  @Override
+  public void set(int toIndex, FloatArray from, int fromIndex) {
+    set(toIndex, from.get(fromIndex));
+  }
+
+  @Override
+  public void set(int toRow, int toColumn, FloatArray from, int fromRow, int fromColumn) {
+    set(toRow, toColumn, from.get(fromRow, fromColumn));
+  }
+
+  @Override
+  public void set(int[] toIndex, FloatArray from, int[] fromIndex) {
+    set(toIndex, from.get(fromIndex));
+  }
+
+  @Override
+  public int compare(int a, int b) {
+    return Float.compare(get(a), get(b));
+  }
+
+  @Override
+  public void swap(int a, int b) {
+    float tmp = get(a);
+    set(a, get(b));
+    set(b, tmp);
+  }
+
+  @Override
+  public BooleanArray lt(FloatArray other) {
+    Check.size(this, other);
+    return compare(other, (a, b) -> a < b);
+  }
+
+  @Override
+  public BooleanArray gt(FloatArray other) {
+    Check.size(this, other);
+    return compare(other, (a, b) -> a > b);
+  }
+
+  @Override
+  public BooleanArray eq(FloatArray other) {
+    Check.size(this, other);
+    return compare(other, (a, b) -> a == b);
+  }
+
+  @Override
+  public BooleanArray lte(FloatArray other) {
+    Check.size(this, other);
+    return compare(other, (a, b) -> a <= b);
+  }
+
+  @Override
+  public BooleanArray gte(FloatArray other) {
+    Check.size(this, other);
+    return compare(other, (a, b) -> a >= b);
+  }
+
+  private BooleanArray compare(FloatArray array, DoubleBiPredicate predicate) {
+    AbstractFloatArray other = elementsOf(array, AbstractFloatArray.class);
+    AbstractBooleanArray bits =
+        elementsOf(getArrayFactory().booleanArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor otherFrom = other.cursor();
+    StrideCursor to = bits.cursor();
+    while (from.hasNext()) {
+      bits.setElement(to.next(),
+          predicate.test(getElement(from.next()), other.getElement(otherFrom.next())));
+    }
+    return bits;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 1;
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      result = 31 * result + Float.floatToIntBits(getElement(cursor.next()));
+    }
+    return Objects.hash(getShape(), getStride(), result);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj instanceof FloatArray) {
+      FloatArray mat = (FloatArray) obj;
+      if (!Arrays.equals(shape, mat.getShape())) {
+        return false;
+      }
+
+      AbstractFloatArray other = elementsOf(mat, AbstractFloatArray.class);
+      StrideCursor cursor = cursor();
+      StrideCursor otherCursor = other.cursor();
+      while (cursor.hasNext()) {
+        float a = getElement(cursor.next());
+        float b = other.getElement(otherCursor.next());
+        if (!Precision.equalsIncludingNaN(a, b)) {
+          return false;
+        }
+      }
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    try {
+      ArrayPrinter.print(builder, this);
+    } catch (IOException e) {
+      return getClass().getSimpleName();
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public FloatArray slice(BooleanArray bits) {
+    Check.shape(this, bits);
+    AbstractBooleanArray mask = elementsOf(bits, AbstractBooleanArray.class);
+    IncrementalBuilder builder = new IncrementalBuilder();
+    StrideCursor cursor = cursor();
+    StrideCursor maskCursor = mask.cursor();
+    while (cursor.hasNext()) {
+      int position = cursor.next();
+      if (mask.getElement(maskCursor.next())) {
+        builder.add(getElement(position));
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public FloatArray copy() {
+    AbstractFloatArray n = elementsOf(newEmptyArray(getShape()), AbstractFloatArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = n.cursor();
+    while (from.hasNext()) {
+      n.setElement(to.next(), getElement(from.next()));
+    }
+    return n;
+  }
+
+  @Override
+  public DoubleStream stream() {
+    StrideCursor cursor = cursor();
+    PrimitiveIterator.OfDouble ofDouble = new PrimitiveIterator.OfDouble() {
+      @Override
+      public double nextDouble() {
+        return getElement(cursor.next());
+      }
+
+      @Override
+      public boolean hasNext() {
+        return cursor.hasNext();
+      }
+    };
+
+    Spliterator.OfDouble spliterator =
+        Spliterators.spliterator(ofDouble, size(), Spliterator.SIZED);
+    return StreamSupport.doubleStream(spliterator, false);
+  }
+
+  @Override
+  public List<Float> toList() {
+    return new FloatListView();
+  }
+
+  @Override
+  public Iterator<Float> iterator() {
+    return toList().iterator();
+  }
+
+  @Override
+  public Array<Float> boxed() {
+    return new AsArray<Float>(this) {
+      @Override
+      protected Float getElement(int i) {
+        return AbstractFloatArray.this.getElement(i);
+      }
+
+      @Override
+      protected void setElement(int i, Float value) {
+        AbstractFloatArray.this.setElement(i, value);
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractFloatArray.this.elementSize();
+      }
+
+      @Override
+      public FloatArray asFloat() {
+        return AbstractFloatArray.this;
+      }
+    };
+  }
+
+  @Override
+  public FloatArray times(FloatArray other) {
+    return times(1, other, 1);
+  }
+
+  @Override
+  public FloatArray times(float alpha, FloatArray other, float beta) {
+    Check.size(this, other);
+    return combine(other, (a, b) -> alpha * a * b * beta);
+  }
+
+  @Override
+  public FloatArray times(float scalar) {
+    return map(v -> v * scalar);
+  }
+
+  @Override
+  public void timesAssign(float scalar) {
+    apply(v -> v * scalar);
+  }
+
+  @Override
+  public void timesAssign(FloatArray array) {
+    assign(array, (a, b) -> a * b);
+  }
+
+  @Override
+  public FloatArray plus(FloatArray other) {
+    return plus(1, other, 1);
+  }
+
+  @Override
+  public FloatArray plus(float scalar) {
+    return map(v -> v + scalar);
+  }
+
+  @Override
+  public void plusAssign(FloatArray other) {
+    assign(other, (a, b) -> a + b);
+  }
+
+  @Override
+  public void plusAssign(float scalar) {
+    apply(v -> v + scalar);
+  }
+
+  @Override
+  public FloatArray plus(float alpha, FloatArray other, float beta) {
+    Check.size(this, other);
+    return combine(other, (a, b) -> alpha * a + b * beta);
+  }
+
+  @Override
+  public FloatArray minus(float scalar) {
+    return plus(-scalar);
+  }
+
+  @Override
+  public FloatArray minus(FloatArray other) {
+    return minus(1, other, 1);
+  }
+
+  @Override
+  public void minusAssign(float scalar) {
+    apply(v -> v - scalar);
+  }
+
+  @Override
+  public void minusAssign(FloatArray other) {
+    assign(other, (a, b) -> a - b);
+  }
+
+  @Override
+  public FloatArray minus(float alpha, FloatArray other, float beta) {
+    Check.size(this, other);
+    return combine(other, (a, b) -> alpha * a - b * beta);
+  }
+
+  @Override
+  public FloatArray reverseMinus(float scalar) {
+    return map(v -> scalar - v);
+  }
+
+  @Override
+  public FloatArray div(float other) {
+    return map(v -> v / other);
+  }
+
+  @Override
+  public FloatArray div(FloatArray other) {
+    Check.size(this, other);
+    return combine(other, (a, b) -> a / b);
+  }
+
+  @Override
+  public void divAssign(FloatArray other) {
+    assign(other, (a, b) -> a / b);
+  }
+
+  @Override
+  public void divAssign(float value) {
+    apply(v -> v / value);
+  }
+
+  @Override
+  public FloatArray reverseDiv(float other) {
+    return map(v -> other / v);
+  }
+
+  @Override
+  public FloatArray negate() {
+    return map(v -> -v);
+  }
+
+  /**
+   * Returns a new array with the result of combining the elements of this array with the elements
+   * of {@code array} using {@code combine}
+   */
+  private FloatArray combine(FloatArray array, DoubleBinaryOperator combine) {
+    AbstractFloatArray other = elementsOf(array, AbstractFloatArray.class);
+    AbstractFloatArray result = elementsOf(newEmptyArray(getShape()), AbstractFloatArray.class);
+    StrideCursor from = cursor();
+    StrideCursor otherFrom = other.cursor();
+    StrideCursor to = result.cursor();
+    while (from.hasNext()) {
+      result.setElement(to.next(), (float) combine.applyAsDouble(getElement(from.next()),
+          other.getElement(otherFrom.next())));
+    }
+    return result;
+  }
+
+  private class IncrementalBuilder {
+
+    private float[] buffer = new float[10];
+    private int size = 0;
+
+    public void add(float value) {
+      buffer = ArrayAllocations.ensureCapacity(buffer, size + 1);
+      buffer[size++] = value;
+    }
+
+    public FloatArray build() {
+      return bj.array(Arrays.copyOf(buffer, size));
+    }
+  }
+
+  private class FloatListView extends AbstractList<Float> {
+
+    @Override
+    public Float get(int i) {
+      return AbstractFloatArray.this.get(i);
+    }
+
+    @Override
+    public Float set(int i, Float value) {
+      Float old = AbstractFloatArray.this.get(i);
+      AbstractFloatArray.this.set(i, value);
+      return old;
+    }
+
+    @Override
+    public int size() {
+      return AbstractFloatArray.this.size();
+    }
+  }
+}
@@ -151,49 +151,106 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
     };
   }
 
+  @Override
+  public FloatArray asFloat() {
+    return new AsFloatArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+      @Override
+      protected float getElement(int i) {
+        return AbstractIntArray.this.getElement(i);
+      }
+
+      @Override
+      protected void setElement(int i, float value) {
+        AbstractIntArray.this.setElement(i, (int) value);
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractIntArray.this.elementSize();
+      }
+    };
+  }
+
   @Override
   public void assign(int value) {
-    for (int i = 0; i < size(); i++) {
-      set(i, value);
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        setElement(i, value);
+      }
+    } else {
+      while (cursor.hasNext()) {
+        setElement(cursor.next(), value);
+      }
     }
   }
 
   @Override
   public void assign(int[] data) {
     Check.size(this.size(), data.length);
-    for (int i = 0; i < data.length; i++) {
-      set(i, data[i]);
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      for (int i = offset; i < offset + data.length; i++) {
+        setElement(i, data[i - offset]);
+      }
+    } else {
+      for (int i = 0; i < data.length; i++) {
+        setElement(cursor.next(), data[i]);
+      }
     }
   }
 
   @Override
   public void assign(IntSupplier supplier) {
-    for (int i = 0; i < size(); i++) {
-      set(i, supplier.getAsInt());
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        setElement(i, supplier.getAsInt());
+      }
+    } else {
+      while (cursor.hasNext()) {
+        setElement(cursor.next(), supplier.getAsInt());
+      }
     }
   }
 
   @Override
   public void assign(IntArray matrix, IntUnaryOperator operator) {
+    matrix = broadcastOperand(matrix);
     Check.shape(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, operator.applyAsInt(matrix.get(i)));
+    AbstractIntArray other = elementsOf(matrix, AbstractIntArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), operator.applyAsInt(other.getElement(from.next())));
     }
   }
 
   @Override
   public void assign(IntArray matrix, IntBinaryOperator combine) {
+    matrix = broadcastOperand(matrix);
     Check.shape(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, combine.applyAsInt(get(i), matrix.get(i)));
+    AbstractIntArray other = elementsOf(matrix, AbstractIntArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      int position = to.next();
+      setElement(position, combine.applyAsInt(getElement(position), other.getElement(from.next())));
     }
   }
 
   @Override
   public void assign(ComplexArray matrix, ToIntFunction<? super Complex> function) {
     Check.size(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, function.applyAsInt(matrix.get(i)));
+    StrideCursor cursor = cursor();
+    for (int i = 0; cursor.hasNext(); i++) {
+      setElement(cursor.next(), function.applyAsInt(matrix.get(i)));
     }
   }
 
@@ -205,48 +262,82 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
   @Override
   public void assign(DoubleArray matrix, DoubleToIntFunction function) {
     Check.size(this, matrix);
-    for (int i = 0; i < matrix.size(); i++) {
-      set(i, function.applyAsInt(matrix.get(i)));
+    AbstractDoubleArray other = elementsOf(matrix, AbstractDoubleArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), function.applyAsInt(other.getElement(from.next())));
     }
   }
 
   @Override
   public void assign(LongArray matrix, LongToIntFunction operator) {
     Check.size(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, operator.applyAsInt(matrix.get(i)));
+    AbstractLongArray other = elementsOf(matrix, AbstractLongArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), operator.applyAsInt(other.getElement(from.next())));
     }
   }
 
   @Override
   public void assign(BooleanArray matrix, ToIntObjIntBiFunction<Boolean> function) {
     Check.shape(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, function.applyAsInt(matrix.get(i), get(i)));
+    AbstractBooleanArray other = elementsOf(matrix, AbstractBooleanArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      int position = to.next();
+      setElement(position,
+          function.applyAsInt(other.getElement(from.next()), getElement(position)));
     }
   }
 
   @Override
   public void apply(IntUnaryOperator operator) {
-    for (int i = 0; i < size(); i++) {
-      set(i, operator.applyAsInt(get(i)));
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        setElement(i, operator.applyAsInt(getElement(i)));
+      }
+    } else {
+      while (cursor.hasNext()) {
+        int position = cursor.next();
+        setElement(position, operator.applyAsInt(getElement(position)));
+      }
     }
   }
 
   @Override
   public IntArray map(IntUnaryOperator operator) {
-    IntArray mat = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      mat.set(i, operator.applyAsInt(get(i)));
+    AbstractIntArray mat = elementsOf(newEmptyArray(getShape()), AbstractIntArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = mat.cursor();
+    if (from.isContiguous() && to.isContiguous()) {
+      int offset = from.getOffset();
+      int n = from.size();
+      int shift = to.getOffset() - offset;
+      for (int i = offset; i < offset + n; i++) {
+        mat.setElement(i + shift, operator.applyAsInt(getElement(i)));
+      }
+    } else {
+      while (from.hasNext()) {
+        mat.setElement(to.next(), operator.applyAsInt(getElement(from.next())));
+      }
     }
     return mat;
   }
 
   @Override
   public LongArray mapToLong(IntToLongFunction function) {
-    LongArray matrix = bj.longArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, function.applyAsLong(get(i)));
+    AbstractLongArray matrix = elementsOf(bj.longArray(getShape()), AbstractLongArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = matrix.cursor();
+    while (from.hasNext()) {
+      matrix.setElement(to.next(), function.applyAsLong(getElement(from.next())));
     }
     return matrix;
   }
@@ -274,18 +365,21 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
 
   @Override
   public DoubleArray mapToDouble(IntToDoubleFunction function) {
-    DoubleArray matrix = bj.doubleArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, function.applyAsDouble(get(i)));
+    AbstractDoubleArray matrix = elementsOf(bj.doubleArray(getShape()), AbstractDoubleArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = matrix.cursor();
+    while (from.hasNext()) {
+      matrix.setElement(to.next(), function.applyAsDouble(getElement(from.next())));
     }
     return matrix;
   }
 
   @Override
   public ComplexArray mapToComplex(IntFunction<Complex> function) {
-    ComplexArray matrix = bj.complexArray();
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, function.apply(get(i)));
+    ComplexArray matrix = bj.complexArray(getShape());
+    StrideCursor cursor = cursor();
+    for (int i = 0; cursor.hasNext(); i++) {
+      matrix.set(i, function.apply(getElement(cursor.next())));
     }
     return matrix;
   }
@@ -293,8 +387,9 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
   @Override
   public <U> Array<U> mapToObj(IntFunction<? extends U> function) {
     Array<U> array = getArrayFactory().referenceArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      array.set(i, function.apply(get(i)));
+    StrideCursor cursor = cursor();
+    for (int i = 0; cursor.hasNext(); i++) {
+      array.set(i, function.apply(getElement(cursor.next())));
     }
     return array;
   }
@@ -302,8 +397,9 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
   @Override
   public IntArray filter(IntPredicate operator) {
     IntList builder = new IntList();
-    for (int i = 0; i < size(); i++) {
-      int value = get(i);
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      int value = getElement(cursor.next());
       if (operator.test(value)) {
         builder.add(value);
       }
@@ -313,27 +409,36 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
 
   @Override
   public BooleanArray where(IntPredicate predicate) {
-    BooleanArray bits = bj.booleanArray();
-    for (int i = 0; i < size(); i++) {
-      bits.set(i, predicate.test(get(i)));
+    AbstractBooleanArray bits =
+        elementsOf(bj.booleanArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = bits.cursor();
+    while (from.hasNext()) {
+      bits.setElement(to.next(), predicate.test(getElement(from.next())));
     }
     return bits;
   }
 
   @Override
   public BooleanArray where(IntArray matrix, IntBiPredicate predicate) {
+    matrix = broadcastOperand(matrix);
     Check.shape(this, matrix);
-    BooleanArray bits = bj.booleanArray();
-    for (int i = 0; i < size(); i++) {
-      bits.set(i, predicate.test(get(i), matrix.get(i)));
-    }
-    return bits;
+    return compare(matrix, predicate);
   }
 
   @Override
   public void forEach(IntConsumer consumer) {
-    for (int i = 0; i < size(); i++) {
-      consumer.accept(get(i));
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        consumer.accept(getElement(i));
+      }
+    } else {
+      while (cursor.hasNext()) {
+        consumer.accept(getElement(cursor.next()));
+      }
     }
   }
 
@@ -366,8 +471,17 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
 
   @Override
   public int reduce(int identity, IntBinaryOperator reduce, IntUnaryOperator map) {
-    for (int i = 0, size = size(); i < size; i++) {
-      identity = reduce.applyAsInt(map.applyAsInt(get(i)), identity);
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        identity = reduce.applyAsInt(map.applyAsInt(getElement(i)), identity);
+      }
+    } else {
+      while (cursor.hasNext()) {
+        identity = reduce.applyAsInt(map.applyAsInt(getElement(cursor.next())), identity);
+      }
     }
     return identity;
   }
@@ -386,64 +500,35 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
 
   @Override
   public BooleanArray lt(IntArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) < other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a < b);
   }
 
   @Override
   public BooleanArray gt(IntArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) > other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a > b);
   }
 
   @Override
   public BooleanArray eq(IntArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) == other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a == b);
   }
 
   @Override
   public BooleanArray lte(IntArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) <= other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a <= b);
   }
 
   @Override
   public BooleanArray gte(IntArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) >= other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a >= b);
   }
 
   @Override
   public int hashCode() {
     int result = 1;
-    for (int i = 0; i < size(); i++) {
-      int bits = get(i);
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      int bits = getElement(cursor.next());
       result = 31 * result + bits;
     }
 
@@ -467,8 +552,11 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
       if (!equalShape) {
         return false;
       }
-      for (int i = 0; i < size(); i++) {
-        if (get(i) != mat.get(i)) {
+      AbstractIntArray other = elementsOf(mat, AbstractIntArray.class);
+      StrideCursor cursor = cursor();
+      StrideCursor otherCursor = other.cursor();
+      while (cursor.hasNext()) {
+        if (getElement(cursor.next()) != other.getElement(otherCursor.next())) {
           return false;
         }
       }
@@ -512,9 +600,20 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
 
   @Override
   public IntArray copy() {
-    IntArray matrix = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, get(i));
+    AbstractIntArray matrix = elementsOf(newEmptyArray(getShape()), AbstractIntArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = matrix.cursor();
+    if (from.isContiguous() && to.isContiguous()) {
+      int offset = from.getOffset();
+      int n = from.size();
+      int shift = to.getOffset() - offset;
+      for (int i = offset; i < offset + n; i++) {
+        matrix.setElement(i + shift, getElement(i));
+      }
+    } else {
+      while (from.hasNext()) {
+        matrix.setElement(to.next(), getElement(from.next()));
+      }
     }
     return matrix;
   }
@@ -531,20 +630,17 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
 
   @Override
   public IntStream stream() {
+    StrideCursor cursor = cursor();
     PrimitiveIterator.OfInt ofInt = new PrimitiveIterator.OfInt() {
-      private int current = 0;
-
       @Override
       public int nextInt() {
-        return get(current++);
+        return getElement(cursor.next());
       }
 
       @Override
       public boolean hasNext() {
-        return current < size();
+        return cursor.hasNext();
       }
-
-
     };
     Spliterator.OfInt spliterator = Spliterators.spliterator(ofInt, size(), Spliterator.SIZED);
     return StreamSupport.intStream(spliterator, false);
@@ -640,25 +736,12 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
 
   @Override
   public IntArray times(int alpha, IntArray other, int beta) {
-    Check.size(this, other);
-    IntArray m = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        m.set(i, j, alpha * get(i, j) * other.get(i, j) * beta);
-      }
-    }
-    return m;
+    return combine(other, (a, b) -> alpha * a * b * beta);
   }
 
   @Override
   public IntArray times(int scalar) {
-    IntArray m = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        m.set(i, j, get(i, j) * scalar);
-      }
-    }
-    return m;
+    return map(v -> v * scalar);
   }
 
   @Override
@@ -668,25 +751,12 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
 
   @Override
   public IntArray plus(int scalar) {
-    IntArray matrix = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        matrix.set(i, j, get(i, j) + scalar);
-      }
-    }
-    return matrix;
+    return map(v -> v + scalar);
   }
 
   @Override
   public IntArray plus(int alpha, IntArray other) {
-    Check.size(this, other);
-    IntArray matrix = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        matrix.set(i, j, alpha * get(i, j) + other.get(i, j));
-      }
-    }
-    return matrix;
+    return combine(other, (a, b) -> alpha * a + b);
   }
 
   @Override
@@ -701,78 +771,91 @@ public abstract class AbstractIntArray extends AbstractBaseArray<IntArray> imple
 
   @Override
   public IntArray minus(int alpha, IntArray other) {
-    Check.size(this, other);
-    IntArray matrix = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        matrix.set(i, j, alpha * get(i, j) - other.get(i, j));
-      }
-    }
-    return matrix;
+    return combine(other, (a, b) -> alpha * a - b);
   }
 
   @Override
   public IntArray reverseMinus(int scalar) {
-    IntArray matrix = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        matrix.set(i, j, scalar - get(i, j));
-      }
-    }
-    return matrix;
+    return map(v -> scalar - v);
   }
 
   @Override
   public IntArray div(IntArray other) {
-    Check.size(this, other);
-    IntArray matrix = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        matrix.set(i, j, get(i, j) / other.get(i, j));
-      }
-    }
-    return matrix;
+    return combine(other, (a, b) -> a / b);
   }
 
   @Override
   public IntArray div(int other) {
-    IntArray m = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      m.set(i, get(i) / other);
-    }
-    return m;
+    return map(v -> v / other);
   }
 
   @Override
   public IntArray reverseDiv(int other) {
-    IntArray matrix = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, other / get(i));
-    }
-    return matrix;
+    return map(v -> other / v);
   }
 
   @Override
   public IntArray negate() {
-    IntArray n = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      n.set(i, -get(i));
-    }
-    return n;
+    return map(v -> -v);
   }
 
   @Override
   public IntArray slice(BooleanArray bits) {
     Check.shape(this, bits);
+    AbstractBooleanArray mask = elementsOf(bits, AbstractBooleanArray.class);
     IntList list = new IntList();
-    for (int i = 0; i < size(); i++) {
-      if (bits.get(i)) {
-        list.add(get(i));
+    StrideCursor cursor = cursor();
+    StrideCursor maskCursor = mask.cursor();
+    while (cursor.hasNext()) {
+      int position = cursor.next();
+      if (mask.getElement(maskCursor.next())) {
+        list.add(getElement(position));
       }
     }
     return bj.array(Arrays.copyOf(list.elementData, list.size()));
   }
 
+  private BooleanArray compare(IntArray array, IntBiPredicate predicate) {
+    if (!Arrays.equals(array.getShape(), getShape())) {
+      int[] shape = Indexer.broadcast(getShape(), array.getShape());
+      return elementsOf(broadcast(shape), AbstractIntArray.class)
+          .compare(array.broadcast(shape), predicate);
+    }
+    AbstractIntArray other = elementsOf(array, AbstractIntArray.class);
+    AbstractBooleanArray bits =
+        elementsOf(getArrayFactory().booleanArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor otherFrom = other.cursor();
+    StrideCursor to = bits.cursor();
+    while (from.hasNext()) {
+      bits.setElement(to.next(),
+          predicate.test(getElement(from.next()), other.getElement(otherFrom.next())));
+    }
+    return bits;
+  }
+
+  /**
+   * Returns a new array with the result of combining the elements of this array with the elements
+   * of {@code array} using {@code combine}
+   */
+  private IntArray combine(IntArray array, IntBinaryOperator combine) {
+    if (!Arrays.equals(array.getShape(), getShape())) {
+      int[] shape = Indexer.broadcast(getShape(), array.getShape());
+      return elementsOf(broadcast(shape), AbstractIntArray.class)
+          .combine(array.broadcast(shape), combine);
+    }
+    AbstractIntArray other = elementsOf(array, AbstractIntArray.class);
+    AbstractIntArray result = elementsOf(newEmptyArray(getShape()), AbstractIntArray.class);
+    StrideCursor from = cursor();
+    StrideCursor otherFrom = other.cursor();
+    StrideCursor to = result.cursor();
+    while (from.hasNext()) {
+      result.setElement(to.next(),
+          combine.applyAsInt(getElement(from.next()), other.getElement(otherFrom.next())));
+    }
+    return result;
+  }
+
   private class IntListView extends AbstractList<Integer> {
 
     @Override
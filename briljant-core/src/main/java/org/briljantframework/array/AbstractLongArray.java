@@ -132,8 +132,9 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
 
   @Override
   public LongArray assign(long value) {
-    for (int i = 0; i < size(); i++) {
-      set(i, value);
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      setElement(cursor.next(), value);
     }
     return this;
   }
@@ -141,8 +142,16 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
   @Override
   public void assign(long[] values) {
     Check.size(this.size(), values.length);
-    for (int i = 0; i < values.length; i++) {
-      set(i, values[i]);
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      for (int i = offset; i < offset + values.length; i++) {
+        setElement(i, values[i - offset]);
+      }
+    } else {
+      for (int i = 0; i < values.length; i++) {
+        setElement(cursor.next(), values[i]);
+      }
     }
   }
 
@@ -167,28 +176,58 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
     };
   }
 
+  @Override
+  public FloatArray asFloat() {
+    return new AsFloatArray(getArrayFactory(), getOffset(), getShape(), getStride(),
+        getMajorStrideIndex()) {
+      @Override
+      protected float getElement(int i) {
+        return AbstractLongArray.this.getElement(i);
+      }
+
+      @Override
+      protected void setElement(int i, float value) {
+        AbstractLongArray.this.setElement(i, (long) value);
+      }
+
+      @Override
+      protected int elementSize() {
+        return AbstractLongArray.this.elementSize();
+      }
+    };
+  }
+
   @Override
   public LongArray assign(LongSupplier supplier) {
-    for (int i = 0; i < size(); i++) {
-      set(i, supplier.getAsLong());
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      setElement(cursor.next(), supplier.getAsLong());
     }
     return this;
   }
 
   @Override
   public LongArray assign(LongArray matrix, LongUnaryOperator operator) {
-    Check.size(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, operator.applyAsLong(matrix.get(i)));
+    AbstractLongArray other = elementsOf(broadcastOperand(matrix), AbstractLongArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), operator.applyAsLong(other.getElement(from.next())));
     }
     return this;
   }
 
   @Override
   public LongArray assign(LongArray matrix, LongBinaryOperator combine) {
+    matrix = broadcastOperand(matrix);
     Check.shape(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, combine.applyAsLong(get(i), matrix.get(i)));
+    AbstractLongArray other = elementsOf(matrix, AbstractLongArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      int position = to.next();
+      setElement(position,
+          combine.applyAsLong(getElement(position), other.getElement(from.next())));
     }
     return this;
   }
@@ -196,8 +235,9 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
   @Override
   public LongArray assign(ComplexArray matrix, ToLongFunction<? super Complex> function) {
     Check.size(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, function.applyAsLong(matrix.get(i)));
+    StrideCursor cursor = cursor();
+    for (int i = 0; cursor.hasNext(); i++) {
+      setElement(cursor.next(), function.applyAsLong(matrix.get(i)));
     }
     return this;
   }
@@ -205,16 +245,23 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
   @Override
   public LongArray assign(IntArray matrix, IntToLongFunction operator) {
     Check.size(this, matrix);
-    for (int i = 0; i < size(); i++) {
-      set(i, operator.applyAsLong(matrix.get(i)));
+    AbstractIntArray other = elementsOf(matrix, AbstractIntArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), operator.applyAsLong(other.getElement(from.next())));
     }
     return this;
   }
 
   @Override
   public LongArray assign(DoubleArray matrix, DoubleToLongFunction function) {
-    for (int i = 0; i < matrix.size(); i++) {
-      set(i, function.applyAsLong(matrix.get(i)));
+    Check.size(this, matrix);
+    AbstractDoubleArray other = elementsOf(matrix, AbstractDoubleArray.class);
+    StrideCursor to = cursor();
+    StrideCursor from = other.cursor();
+    while (to.hasNext()) {
+      setElement(to.next(), function.applyAsLong(other.getElement(from.next())));
     }
     return this;
   }
@@ -242,43 +289,69 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
 
   @Override
   public void apply(LongUnaryOperator operator) {
-    for (int i = 0; i < size(); i++) {
-      set(i, operator.applyAsLong(get(i)));
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        setElement(i, operator.applyAsLong(getElement(i)));
+      }
+    } else {
+      while (cursor.hasNext()) {
+        int position = cursor.next();
+        setElement(position, operator.applyAsLong(getElement(position)));
+      }
     }
   }
 
   @Override
   public LongArray map(LongUnaryOperator operator) {
-    LongArray mat = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      mat.set(i, operator.applyAsLong(get(i)));
+    AbstractLongArray mat = elementsOf(newEmptyArray(getShape()), AbstractLongArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = mat.cursor();
+    if (from.isContiguous() && to.isContiguous()) {
+      int offset = from.getOffset();
+      int n = from.size();
+      int shift = to.getOffset() - offset;
+      for (int i = offset; i < offset + n; i++) {
+        mat.setElement(i + shift, operator.applyAsLong(getElement(i)));
+      }
+    } else {
+      while (from.hasNext()) {
+        mat.setElement(to.next(), operator.applyAsLong(getElement(from.next())));
+      }
     }
     return mat;
   }
 
   @Override
   public IntArray mapToInt(LongToIntFunction map) {
-    IntArray matrix = bj.intArray(3, 3);
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, map.applyAsInt(get(i)));
+    AbstractIntArray matrix = elementsOf(bj.intArray(getShape()), AbstractIntArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = matrix.cursor();
+    while (from.hasNext()) {
+      matrix.setElement(to.next(), map.applyAsInt(getElement(from.next())));
     }
     return matrix;
   }
 
   @Override
   public DoubleArray mapToDouble(LongToDoubleFunction map) {
-    DoubleArray matrix = bj.doubleArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, map.applyAsDouble(get(i)));
+    AbstractDoubleArray matrix = elementsOf(bj.doubleArray(getShape()), AbstractDoubleArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = matrix.cursor();
+    while (from.hasNext()) {
+      matrix.setElement(to.next(), map.applyAsDouble(getElement(from.next())));
     }
     return matrix;
   }
 
   @Override
   public ComplexArray mapToComplex(LongFunction<Complex> map) {
-    ComplexArray matrix = bj.complexArray();
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, map.apply(get(i)));
+    ComplexArray matrix = bj.complexArray(getShape());
+    StrideCursor cursor = cursor();
+    for (int i = 0; cursor.hasNext(); i++) {
+      matrix.set(i, map.apply(getElement(cursor.next())));
     }
     return matrix;
   }
@@ -286,29 +359,30 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
   @Override
   public <T> Array<T> mapToObj(LongFunction<? extends T> mapper) {
     Array<T> array = getArrayFactory().referenceArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      array.set(i, mapper.apply(get(i)));
+    StrideCursor cursor = cursor();
+    for (int i = 0; cursor.hasNext(); i++) {
+      array.set(i, mapper.apply(getElement(cursor.next())));
     }
     return array;
   }
 
   @Override
   public BooleanArray where(LongPredicate predicate) {
-    BooleanArray bits = bj.booleanArray();
-    for (int i = 0; i < size(); i++) {
-      bits.set(i, predicate.test(get(i)));
+    AbstractBooleanArray bits =
+        elementsOf(bj.booleanArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = bits.cursor();
+    while (from.hasNext()) {
+      bits.setElement(to.next(), predicate.test(getElement(from.next())));
     }
     return bits;
   }
 
   @Override
   public BooleanArray where(LongArray matrix, LongBiPredicate predicate) {
+    matrix = broadcastOperand(matrix);
     Check.shape(this, matrix);
-    BooleanArray bits = bj.booleanArray();
-    for (int i = 0; i < size(); i++) {
-      bits.set(i, predicate.test(get(i), matrix.get(i)));
-    }
-    return bits;
+    return compare(matrix, predicate);
   }
 
   @Override
@@ -323,8 +397,17 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
 
   @Override
   public long reduce(long identity, LongBinaryOperator reduce, LongUnaryOperator map) {
-    for (int i = 0; i < size(); i++) {
-      identity = reduce.applyAsLong(map.applyAsLong(get(i)), identity);
+    StrideCursor cursor = cursor();
+    if (cursor.isContiguous()) {
+      int offset = cursor.getOffset();
+      int n = cursor.size();
+      for (int i = offset; i < offset + n; i++) {
+        identity = reduce.applyAsLong(map.applyAsLong(getElement(i)), identity);
+      }
+    } else {
+      while (cursor.hasNext()) {
+        identity = reduce.applyAsLong(map.applyAsLong(getElement(cursor.next())), identity);
+      }
     }
     return identity;
   }
@@ -344,8 +427,9 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
   @Override
   public LongArray filter(LongPredicate operator) {
     IncrementalBuilder builder = new IncrementalBuilder();
-    for (int i = 0; i < size(); i++) {
-      long value = get(i);
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      long value = getElement(cursor.next());
       if (operator.test(value)) {
         builder.add(value);
       }
@@ -377,17 +461,16 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
 
   @Override
   public LongStream stream() {
+    StrideCursor cursor = cursor();
     PrimitiveIterator.OfLong ofLong = new PrimitiveIterator.OfLong() {
-      public int current = 0;
-
       @Override
       public long nextLong() {
-        return get(current++);
+        return getElement(cursor.next());
       }
 
       @Override
       public boolean hasNext() {
-        return current < size();
+        return cursor.hasNext();
       }
     };
     Spliterator.OfLong spliterator = Spliterators.spliterator(ofLong, size(), Spliterator.SIZED);
@@ -503,23 +586,12 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
 
   @Override
   public LongArray times(long alpha, LongArray other, long beta) {
-    Check.size(this, other);
-    LongArray m = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        m.set(i, j, alpha * get(i, j) * other.get(i, j) * beta);
-      }
-    }
-    return m;
+    return combine(other, (a, b) -> alpha * a * b * beta);
   }
 
   @Override
   public LongArray times(long scalar) {
-    LongArray m = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      m.set(i, get(i) * scalar);
-    }
-    return m;
+    return map(v -> v * scalar);
   }
 
   @Override
@@ -529,25 +601,12 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
 
   @Override
   public LongArray plus(long scalar) {
-    LongArray matrix = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        matrix.set(i, j, get(i, j) + scalar);
-      }
-    }
-    return matrix;
+    return map(v -> v + scalar);
   }
 
   @Override
   public LongArray plus(long alpha, LongArray other, long beta) {
-    Check.size(this, other);
-    LongArray matrix = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        matrix.set(i, j, alpha * get(i, j) + other.get(i, j) * beta);
-      }
-    }
-    return matrix;
+    return combine(other, (a, b) -> alpha * a + b * beta);
   }
 
   @Override
@@ -562,126 +621,65 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
 
   @Override
   public LongArray minus(long alpha, LongArray other, long beta) {
-    Check.size(this, other);
-    LongArray matrix = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        matrix.set(i, j, alpha * get(i, j) - other.get(i, j) * beta);
-      }
-    }
-    return matrix;
+    return combine(other, (a, b) -> alpha * a - b * beta);
   }
 
   @Override
   public LongArray reverseMinus(long scalar) {
-    LongArray matrix = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        matrix.set(i, j, scalar - get(i, j));
-      }
-    }
-    return matrix;
+    return map(v -> scalar - v);
   }
 
   @Override
   public LongArray div(LongArray other) {
-    Check.size(this, other);
-    LongArray matrix = newEmptyArray(getShape());
-    for (int j = 0; j < columns(); j++) {
-      for (int i = 0; i < rows(); i++) {
-        matrix.set(i, j, get(i, j) / other.get(i, j));
-      }
-    }
-    return matrix;
+    return combine(other, (a, b) -> a / b);
   }
 
   @Override
   public LongArray div(long other) {
-    LongArray m = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      m.set(i, get(i) / other);
-    }
-    return m;
+    return map(v -> v / other);
   }
 
   @Override
   public LongArray reverseDiv(long other) {
-    LongArray matrix = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, other / get(i));
-    }
-    return matrix;
+    return map(v -> other / v);
   }
 
   @Override
   public LongArray negate() {
-    LongArray n = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      n.set(i, -get(i));
-    }
-    return n;
+    return map(v -> -v);
   }
 
   @Override
   public BooleanArray lt(LongArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) < other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a < b);
   }
 
   @Override
   public BooleanArray gt(LongArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) > other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a > b);
   }
 
   @Override
   public BooleanArray eq(LongArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) == other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a == b);
   }
 
   @Override
   public BooleanArray lte(LongArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) <= other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a <= b);
   }
 
   @Override
   public BooleanArray gte(LongArray other) {
-    Check.size(this, other);
-    BooleanArray bits = getArrayFactory().booleanArray(getShape());
-    int m = size();
-    for (int i = 0; i < m; i++) {
-      bits.set(i, get(i) >= other.get(i));
-    }
-    return bits;
+    return compare(other, (a, b) -> a >= b);
   }
 
   @Override
   public int hashCode() {
     int result = 1;
-    for (int i = 0; i < size(); i++) {
-      long bits = get(i);
+    StrideCursor cursor = cursor();
+    while (cursor.hasNext()) {
+      long bits = getElement(cursor.next());
       result = 31 * result + (int) (bits ^ (bits >>> 32));
     }
 
@@ -698,8 +696,11 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
       if (!Arrays.equals(shape, mat.getShape())) {
         return false;
       }
-      for (int i = 0; i < size(); i++) {
-        if (get(i) != mat.get(i)) {
+      AbstractLongArray other = elementsOf(mat, AbstractLongArray.class);
+      StrideCursor cursor = cursor();
+      StrideCursor otherCursor = other.cursor();
+      while (cursor.hasNext()) {
+        if (getElement(cursor.next()) != other.getElement(otherCursor.next())) {
           return false;
         }
       }
@@ -740,24 +741,80 @@ public abstract class AbstractLongArray extends AbstractBaseArray<LongArray>impl
   @Override
   public LongArray slice(BooleanArray bits) {
     Check.shape(this, bits);
+    AbstractBooleanArray mask = elementsOf(bits, AbstractBooleanArray.class);
     IncrementalBuilder builder = new IncrementalBuilder();
-    for (int i = 0; i < size(); i++) {
-      if (bits.get(i)) {
-        builder.add(get(i));
+    StrideCursor cursor = cursor();
+    StrideCursor maskCursor = mask.cursor();
+    while (cursor.hasNext()) {
+      int position = cursor.next();
+      if (mask.getElement(maskCursor.next())) {
+        builder.add(getElement(position));
       }
     }
     return builder.build();
   }
 
   @Override
-  public final LongArray copy() {
-    LongArray matrix = newEmptyArray(getShape());
-    for (int i = 0; i < size(); i++) {
-      matrix.set(i, get(i));
+  public LongArray copy() {
+    AbstractLongArray matrix = elementsOf(newEmptyArray(getShape()), AbstractLongArray.class);
+    StrideCursor from = cursor();
+    StrideCursor to = matrix.cursor();
+    if (from.isContiguous() && to.isContiguous()) {
+      int offset = from.getOffset();
+      int n = from.size();
+      int shift = to.getOffset() - offset;
+      for (int i = offset; i < offset + n; i++) {
+        matrix.setElement(i + shift, getElement(i));
+      }
+    } else {
+      while (from.hasNext()) {
+        matrix.setElement(to.next(), getElement(from.next()));
+      }
     }
     return matrix;
   }
 
+  private BooleanArray compare(LongArray array, LongBiPredicate predicate) {
+    if (!Arrays.equals(array.getShape(), getShape())) {
+      int[] shape = Indexer.broadcast(getShape(), array.getShape());
+      return elementsOf(broadcast(shape), AbstractLongArray.class)
+          .compare(array.broadcast(shape), predicate);
+    }
+    AbstractLongArray other = elementsOf(array, AbstractLongArray.class);
+    AbstractBooleanArray bits =
+        elementsOf(getArrayFactory().booleanArray(getShape()), AbstractBooleanArray.class);
+    StrideCursor from = cursor();
+    StrideCursor otherFrom = other.cursor();
+    StrideCursor to = bits.cursor();
+    while (from.hasNext()) {
+      bits.setElement(to.next(),
+          predicate.test(getElement(from.next()), other.getElement(otherFrom.next())));
+    }
+    return bits;
+  }
+
+  /**
+   * Returns a new array with the result of combining the elements of this array with the elements
+   * of {@code array} using {@code combine}
+   */
+  private LongArray combine(LongArray array, LongBinaryOperator combine) {
+    if (!Arrays.equals(array.getShape(), getShape())) {
+      int[] shape = Indexer.broadcast(getShape(), array.getShape());
+      return elementsOf(broadcast(shape), AbstractLongArray.class)
+          .combine(array.broadcast(shape), combine);
+    }
+    AbstractLongArray other = elementsOf(array, AbstractLongArray.class);
+    AbstractLongArray result = elementsOf(newEmptyArray(getShape()), AbstractLongArray.class);
+    StrideCursor from = cursor();
+    StrideCursor otherFrom = other.cursor();
+    StrideCursor to = result.cursor();
+    while (from.hasNext()) {
+      result.setElement(to.next(),
+          combine.applyAsLong(getElement(from.next()), other.getElement(otherFrom.next())));
+    }
+    return result;
+  }
+
   private class IncrementalBuilder {
 
     private long[] buffer = new long[10];
@@ -81,6 +81,18 @@ public final class ArrayPrinter {
     print(out, new DoubleToStringArray(matrix, floatFormat), "[", "]");
   }
 
+  public static void print(FloatArray matrix) {
+    try {
+      print(System.out, matrix);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  public static void print(Appendable out, FloatArray matrix) throws IOException {
+    print(out, new DoubleToStringArray(matrix.asDouble(), floatFormat), "[", "]");
+  }
+
   public static void print(BooleanArray matrix) {
     try {
       print(System.out, matrix);
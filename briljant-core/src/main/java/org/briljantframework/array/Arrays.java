@@ -53,7 +53,7 @@ public final class Arrays {
   public static final String VERSION = "0.1";
   private static final RealDistribution normalDistribution = new NormalDistribution(0, 1);
   private static final RealDistribution uniformDistribution = new UniformRealDistribution(-1, 1);
-  private static final ArrayFactory ARRAY_FACTORY;
+  static final ArrayFactory ARRAY_FACTORY;
   private static final ArrayRoutines ARRAY_ROUTINES;
 
   static {
@@ -302,6 +302,50 @@ public final class Arrays {
     return ARRAY_FACTORY.array(data);
   }
 
+  /**
+   * @see org.briljantframework.array.api.ArrayFactory#floatArray(int...)
+   */
+  public static FloatArray newFloatArray(int... shape) {
+    return ARRAY_FACTORY.floatArray(shape);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayFactory#array(float[])
+   */
+  public static FloatArray newFloatVector(float... data) {
+    return ARRAY_FACTORY.array(data);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayFactory#sparseMatrixBuilder(int, int)
+   */
+  public static SparseDoubleMatrix.Builder newSparseMatrixBuilder(int rows, int columns) {
+    return ARRAY_FACTORY.sparseMatrixBuilder(rows, columns);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayFactory#chunkedDoubleArray(long)
+   */
+  public static ChunkedDoubleArray newChunkedDoubleArray(long size) {
+    return ARRAY_FACTORY.chunkedDoubleArray(size);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayFactory#chunkedDoubleArray(long, int)
+   */
+  public static ChunkedDoubleArray newChunkedDoubleArray(long size, int chunkSize) {
+    return ARRAY_FACTORY.chunkedDoubleArray(size, chunkSize);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayFactory#sparseMatrix(DoubleArray,
+   *      SparseDoubleMatrix.Format)
+   */
+  public static SparseDoubleMatrix newSparseMatrix(DoubleArray matrix,
+      SparseDoubleMatrix.Format format) {
+    return ARRAY_FACTORY.sparseMatrix(matrix, format);
+  }
+
   /**
    * @see org.briljantframework.array.api.ArrayFactory#booleanArray(int...)
    */
@@ -337,6 +381,13 @@ public final class Arrays {
     return ARRAY_ROUTINES.mean(x);
   }
 
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#mean(org.briljantframework.array.FloatArray)
+   */
+  public static double mean(FloatArray x) {
+    return ARRAY_ROUTINES.mean(x);
+  }
+
   /**
    * @see org.briljantframework.array.api.ArrayRoutines#mean(int,
    *      org.briljantframework.array.DoubleArray)
@@ -383,7 +434,7 @@ public final class Arrays {
   }
 
   public static int sum(BooleanArray x) {
-    return sum(x.asInt());
+    return x.cardinality();
   }
 
   public static IntArray sum(int dim, BooleanArray x) {
@@ -405,6 +456,13 @@ public final class Arrays {
     return ARRAY_ROUTINES.sum(x);
   }
 
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#sum(org.briljantframework.array.FloatArray)
+   */
+  public static double sum(FloatArray x) {
+    return ARRAY_ROUTINES.sum(x);
+  }
+
   /**
    * @see org.briljantframework.array.api.ArrayRoutines#sum(int,
    *      org.briljantframework.array.DoubleArray)
@@ -578,6 +636,55 @@ public final class Arrays {
     return ARRAY_ROUTINES.max(dim, x);
   }
 
+  /**
+   * @see ArrayRoutines#plus(DoubleArray, DoubleArray, DoubleArray)
+   */
+  public static DoubleArray plus(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return ARRAY_ROUTINES.plus(a, b, out);
+  }
+
+  /**
+   * @see ArrayRoutines#minus(DoubleArray, DoubleArray, DoubleArray)
+   */
+  public static DoubleArray minus(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return ARRAY_ROUTINES.minus(a, b, out);
+  }
+
+  /**
+   * @see ArrayRoutines#times(DoubleArray, DoubleArray, DoubleArray)
+   */
+  public static DoubleArray times(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return ARRAY_ROUTINES.times(a, b, out);
+  }
+
+  /**
+   * @see ArrayRoutines#div(DoubleArray, DoubleArray, DoubleArray)
+   */
+  public static DoubleArray div(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return ARRAY_ROUTINES.div(a, b, out);
+  }
+
+  /**
+   * @see ArrayRoutines#min(DoubleArray, DoubleArray, DoubleArray)
+   */
+  public static DoubleArray min(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return ARRAY_ROUTINES.min(a, b, out);
+  }
+
+  /**
+   * @see ArrayRoutines#max(DoubleArray, DoubleArray, DoubleArray)
+   */
+  public static DoubleArray max(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return ARRAY_ROUTINES.max(a, b, out);
+  }
+
+  /**
+   * @see ArrayRoutines#fma(DoubleArray, DoubleArray, DoubleArray, DoubleArray)
+   */
+  public static DoubleArray fma(DoubleArray a, DoubleArray b, DoubleArray c, DoubleArray out) {
+    return ARRAY_ROUTINES.fma(a, b, c, out);
+  }
+
   /**
    * @see org.briljantframework.array.api.ArrayRoutines#norm2(org.briljantframework.array.DoubleArray)
    */
@@ -585,6 +692,13 @@ public final class Arrays {
     return ARRAY_ROUTINES.norm2(a);
   }
 
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#norm2(org.briljantframework.array.FloatArray)
+   */
+  public static double norm2(FloatArray a) {
+    return ARRAY_ROUTINES.norm2(a);
+  }
+
   /**
    * @see org.briljantframework.array.api.ArrayRoutines#norm2(org.briljantframework.array.ComplexArray)
    */
@@ -642,6 +756,13 @@ public final class Arrays {
     return ARRAY_ROUTINES.trace(x);
   }
 
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#traceBatch(org.briljantframework.array.DoubleArray)
+   */
+  public static DoubleArray traceBatch(DoubleArray x) {
+    return ARRAY_ROUTINES.traceBatch(x);
+  }
+
   /**
    */
   public static <T extends BaseArray<T>> List<T> vsplit(T array, int parts) {
@@ -842,6 +963,51 @@ public final class Arrays {
     return ARRAY_ROUTINES.sort(dim, x, cmp);
   }
 
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#argsort(org.briljantframework.array.DoubleArray)
+   */
+  public static IntArray argsort(DoubleArray x) {
+    return ARRAY_ROUTINES.argsort(x);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#argsort(int,
+   *      org.briljantframework.array.DoubleArray)
+   */
+  public static IntArray argsort(int dim, DoubleArray x) {
+    return ARRAY_ROUTINES.argsort(dim, x);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#argsort(org.briljantframework.array.IntArray)
+   */
+  public static IntArray argsort(IntArray x) {
+    return ARRAY_ROUTINES.argsort(x);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#argsort(int,
+   *      org.briljantframework.array.IntArray)
+   */
+  public static IntArray argsort(int dim, IntArray x) {
+    return ARRAY_ROUTINES.argsort(dim, x);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#argsort(org.briljantframework.array.LongArray)
+   */
+  public static IntArray argsort(LongArray x) {
+    return ARRAY_ROUTINES.argsort(x);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#argsort(int,
+   *      org.briljantframework.array.LongArray)
+   */
+  public static IntArray argsort(int dim, LongArray x) {
+    return ARRAY_ROUTINES.argsort(dim, x);
+  }
+
   public static <T extends BaseArray<T>> T shuffle(T x) {
     T out = x.copy();
     out.permute(out.size());
@@ -1014,6 +1180,50 @@ public final class Arrays {
     gemm(Op.KEEP, Op.KEEP, 1, a, b, 1, c);
   }
 
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#gemm(org.briljantframework.array.Op,
+   *      org.briljantframework.array.Op, float, org.briljantframework.array.FloatArray,
+   *      org.briljantframework.array.FloatArray, float, org.briljantframework.array.FloatArray)
+   */
+  public static void gemm(Op transA, Op transB, float alpha, FloatArray a, FloatArray b,
+      float beta, FloatArray c) {
+    ARRAY_ROUTINES.gemm(transA, transB, alpha, a, b, beta, c);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#gemv(org.briljantframework.array.Op,
+   *      double, org.briljantframework.array.SparseDoubleMatrix,
+   *      org.briljantframework.array.DoubleArray, double, org.briljantframework.array.DoubleArray)
+   */
+  public static void gemv(Op transA, double alpha, SparseDoubleMatrix a, DoubleArray x,
+      double beta, DoubleArray y) {
+    ARRAY_ROUTINES.gemv(transA, alpha, a, x, beta, y);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#gemm(org.briljantframework.array.Op,
+   *      org.briljantframework.array.Op, double, org.briljantframework.array.SparseDoubleMatrix,
+   *      org.briljantframework.array.DoubleArray, double, org.briljantframework.array.DoubleArray)
+   */
+  public static void gemm(Op transA, Op transB, double alpha, SparseDoubleMatrix a, DoubleArray b,
+      double beta, DoubleArray c) {
+    ARRAY_ROUTINES.gemm(transA, transB, alpha, a, b, beta, c);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#gemmBatch(org.briljantframework.array.Op,
+   *      org.briljantframework.array.Op, double, org.briljantframework.array.DoubleArray,
+   *      org.briljantframework.array.DoubleArray, double, org.briljantframework.array.DoubleArray)
+   */
+  public static void gemmBatch(Op transA, Op transB, double alpha, DoubleArray a, DoubleArray b,
+      double beta, DoubleArray c) {
+    ARRAY_ROUTINES.gemmBatch(transA, transB, alpha, a, b, beta, c);
+  }
+
+  public static void gemmBatch(DoubleArray a, DoubleArray b, DoubleArray c) {
+    gemmBatch(Op.KEEP, Op.KEEP, 1, a, b, 0, c);
+  }
+
   /**
    * @param array the array
    * @return the index of the maximum value
@@ -1060,11 +1270,58 @@ public final class Arrays {
    * @return a new array; the returned matrix has the same type as {@code array} (as returned by
    */
   public static <T extends BaseArray<T>> T take(T array, IntArray indexes) {
-    T taken = array.newEmptyArray(indexes.size());
-    for (int i = 0; i < indexes.size(); i++) {
-      taken.set(i, array, indexes.get(i));
-    }
-    return taken;
+    return ARRAY_ROUTINES.take(array, indexes);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#take(BaseArray, IntArray, int)
+   */
+  public static <T extends BaseArray<T>> T take(T array, IntArray indexes, int dim) {
+    return ARRAY_ROUTINES.take(array, indexes, dim);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#put(BaseArray, IntArray, BaseArray)
+   */
+  public static <T extends BaseArray<T>> void put(T array, IntArray indexes, T values) {
+    ARRAY_ROUTINES.put(array, indexes, values);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#put(BaseArray, IntArray, int, BaseArray)
+   */
+  public static <T extends BaseArray<T>> void put(T array, IntArray indexes, int dim, T values) {
+    ARRAY_ROUTINES.put(array, indexes, dim, values);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#compress(BaseArray, BooleanArray)
+   */
+  public static <T extends BaseArray<T>> T compress(T array, BooleanArray condition) {
+    return ARRAY_ROUTINES.compress(array, condition);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#compress(BaseArray, BooleanArray, int)
+   */
+  public static <T extends BaseArray<T>> T compress(T array, BooleanArray condition, int dim) {
+    return ARRAY_ROUTINES.compress(array, condition, dim);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#convolve(DoubleArray, DoubleArray,
+   *      ConvolutionMode)
+   */
+  public static DoubleArray convolve(DoubleArray x, DoubleArray kernel, ConvolutionMode mode) {
+    return ARRAY_ROUTINES.convolve(x, kernel, mode);
+  }
+
+  /**
+   * @see org.briljantframework.array.api.ArrayRoutines#correlate(DoubleArray, DoubleArray,
+   *      ConvolutionMode)
+   */
+  public static DoubleArray correlate(DoubleArray x, DoubleArray kernel, ConvolutionMode mode) {
+    return ARRAY_ROUTINES.correlate(x, kernel, mode);
   }
 
   /**
@@ -1143,11 +1400,11 @@ public final class Arrays {
   }
 
   public static IntArray order(DoubleArray array) {
-    return order(array, Double::compare);
+    return argsort(array);
   }
 
   public static IntArray order(int dim, DoubleArray array) {
-    return order(dim, array, Double::compare);
+    return argsort(dim, array);
   }
 
   public static DoubleArray cos(ComplexArray array) {
@@ -1158,34 +1415,66 @@ public final class Arrays {
     return ARRAY_ROUTINES.sqrt(array);
   }
 
+  public static DoubleArray sqrt(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.sqrt(in, out);
+  }
+
   public static DoubleArray pow(DoubleArray in, double power) {
     return ARRAY_ROUTINES.pow(in, power);
   }
 
+  public static DoubleArray pow(DoubleArray in, double power, DoubleArray out) {
+    return ARRAY_ROUTINES.pow(in, power, out);
+  }
+
   public static DoubleArray log2(DoubleArray array) {
     return ARRAY_ROUTINES.log2(array);
   }
 
+  public static DoubleArray log2(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.log2(in, out);
+  }
+
   public static DoubleArray acos(DoubleArray array) {
     return ARRAY_ROUTINES.acos(array);
   }
 
+  public static DoubleArray acos(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.acos(in, out);
+  }
+
   public static DoubleArray cosh(DoubleArray array) {
     return ARRAY_ROUTINES.cosh(array);
   }
 
+  public static DoubleArray cosh(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.cosh(in, out);
+  }
+
   public static DoubleArray signum(DoubleArray in) {
     return ARRAY_ROUTINES.signum(in);
   }
 
+  public static DoubleArray signum(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.signum(in, out);
+  }
+
   public static DoubleArray cos(DoubleArray array) {
     return ARRAY_ROUTINES.cos(array);
   }
 
+  public static DoubleArray cos(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.cos(in, out);
+  }
+
   public static DoubleArray asin(DoubleArray array) {
     return ARRAY_ROUTINES.asin(array);
   }
 
+  public static DoubleArray asin(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.asin(in, out);
+  }
+
   public static LongArray abs(LongArray array) {
     return ARRAY_ROUTINES.abs(array);
   }
@@ -1194,30 +1483,58 @@ public final class Arrays {
     return ARRAY_ROUTINES.cbrt(array);
   }
 
+  public static DoubleArray cbrt(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.cbrt(in, out);
+  }
+
   public static DoubleArray abs(DoubleArray array) {
     return ARRAY_ROUTINES.abs(array);
   }
 
+  public static DoubleArray abs(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.abs(in, out);
+  }
+
   public static DoubleArray ceil(DoubleArray array) {
     return ARRAY_ROUTINES.ceil(array);
   }
 
+  public static DoubleArray ceil(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.ceil(in, out);
+  }
+
   public static DoubleArray sinh(DoubleArray array) {
     return ARRAY_ROUTINES.sinh(array);
   }
 
+  public static DoubleArray sinh(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.sinh(in, out);
+  }
+
   public static DoubleArray log(DoubleArray array) {
     return ARRAY_ROUTINES.log(array);
   }
 
+  public static DoubleArray log(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.log(in, out);
+  }
+
   public static DoubleArray tanh(DoubleArray array) {
     return ARRAY_ROUTINES.tanh(array);
   }
 
+  public static DoubleArray tanh(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.tanh(in, out);
+  }
+
   public static DoubleArray sin(DoubleArray array) {
     return ARRAY_ROUTINES.sin(array);
   }
 
+  public static DoubleArray sin(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.sin(in, out);
+  }
+
   public static DoubleArray scalb(DoubleArray array, int scaleFactor) {
     return ARRAY_ROUTINES.scalb(array, scaleFactor);
   }
@@ -1226,18 +1543,34 @@ public final class Arrays {
     return ARRAY_ROUTINES.exp(array);
   }
 
+  public static DoubleArray exp(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.exp(in, out);
+  }
+
   public static DoubleArray log10(DoubleArray in) {
     return ARRAY_ROUTINES.log10(in);
   }
 
+  public static DoubleArray log10(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.log10(in, out);
+  }
+
   public static DoubleArray floor(DoubleArray array) {
     return ARRAY_ROUTINES.floor(array);
   }
 
+  public static DoubleArray floor(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.floor(in, out);
+  }
+
   public static DoubleArray tan(DoubleArray array) {
     return ARRAY_ROUTINES.tan(array);
   }
 
+  public static DoubleArray tan(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.tan(in, out);
+  }
+
   public static IntArray abs(IntArray array) {
     return ARRAY_ROUTINES.abs(array);
   }
@@ -1250,6 +1583,10 @@ public final class Arrays {
     return ARRAY_ROUTINES.atan(array);
   }
 
+  public static DoubleArray atan(DoubleArray in, DoubleArray out) {
+    return ARRAY_ROUTINES.atan(in, out);
+  }
+
   public static ComplexArray sinh(ComplexArray array) {
     return ARRAY_ROUTINES.sinh(array);
   }
@@ -51,6 +51,21 @@ abstract class AsComplexArray extends AbstractComplexArray {
         return AsComplexArray.this.getElement(i);
       }
 
+      @Override
+      protected void setElement(int i, double real, double imag) {
+        AsComplexArray.this.setElement(i, real, imag);
+      }
+
+      @Override
+      protected double getRealElement(int i) {
+        return AsComplexArray.this.getRealElement(i);
+      }
+
+      @Override
+      protected double getImaginaryElement(int i) {
+        return AsComplexArray.this.getImaginaryElement(i);
+      }
+
       @Override
       protected int elementSize() {
         return AsComplexArray.this.elementSize();
@@ -946,6 +946,39 @@ public interface BaseArray<S extends BaseArray<S>> extends Swappable {
    */
   S asView(int offset, int[] shape, int[] stride, int majorStride);
 
+  /**
+   * Returns a view of this array broadcast to the given shape. The shapes are aligned at the last
+   * dimension; dimensions of size {@code 1} (and missing leading dimensions) are repeated by
+   * giving them a stride of {@code 0}, hence, no elements are copied. Since several elements of
+   * the view share storage, the view should in general only be read.
+   *
+   * <p>
+   * Example
+   *
+   * <pre>
+   * {@code
+   * > DoubleArray x = Arrays.newDoubleVector(1, 2, 3).reshape(3, 1);
+   * > x.broadcast(3, 2)
+   * array([[1.000, 1.000],
+   *        [2.000, 2.000],
+   *        [3.000, 3.000]])
+   * }
+   * </pre>
+   *
+   * <p>
+   * Element-wise operations between arrays of different shapes (e.g., {@code plus} or {@code gt})
+   * broadcast their operands to a common shape in the same way, e.g., adding arrays of shape
+   * {@code [3, 1]} and {@code [1, 3]} gives an array of shape {@code [3, 3]}. In-place operations
+   * (e.g., {@code assign} or {@code plusAssign}) broadcast operands of different size to the shape
+   * of the assigned array, and combine arrays of equal size element-wise in linearized order.
+   *
+   * @param shape the shape of the view
+   * @return a broadcast view
+   * @throws org.briljantframework.exceptions.NonConformantException if this array can't be
+   *         broadcast to {@code shape}
+   */
+  S broadcast(int... shape);
+
   /**
    * Create a new array with the given shape.
    *
@@ -964,6 +997,11 @@ public interface BaseArray<S extends BaseArray<S>> extends Swappable {
    */
   DoubleArray asDouble();
 
+  /**
+   * @return this matrix as a {@link FloatArray}.
+   */
+  FloatArray asFloat();
+
   /**
    * @return this matrix as an {@link IntArray}.
    */
@@ -102,6 +102,30 @@ public interface BooleanArray
 
   BooleanArray not();
 
+  /**
+   * Returns the number of elements that are {@code true}.
+   *
+   * @return the number of {@code true} elements
+   */
+  int cardinality();
+
+  /**
+   * Returns the (linearized) index of the first element that is {@code true} on or after
+   * {@code fromIndex}, or {@code -1} if there is no such element. To iterate over the indexes of
+   * the {@code true} elements, use:
+   *
+   * <pre>
+   * for (int i = array.nextSetBit(0); i &gt;= 0; i = array.nextSetBit(i + 1)) {
+   *   // operate on index i here
+   * }
+   * </pre>
+   *
+   * @param fromIndex the index to start checking from (inclusive)
+   * @return the index of the next {@code true} element, or {@code -1}
+   * @throws IndexOutOfBoundsException if {@code fromIndex} is negative
+   */
+  int nextSetBit(int fromIndex);
+
   Array<Boolean> boxed();
 
   Stream<Boolean> stream();
@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A one-dimensional {@code double} array indexed by {@code long}, which is stored in fixed-size
+ * chunks (i.e., several Java arrays). Unlike a {@link DoubleArray}, which is limited to
+ * {@code Integer.MAX_VALUE} elements, a chunked array can hold more than 2<sup>31</sup> elements,
+ * e.g., to store a large embedding table without sharding it by hand.
+ *
+ * <p>
+ * The element-wise operations and the reductions are computed in parallel (using fork/join) for
+ * large arrays; the reductions split the array at fixed positions and combine the partial results
+ * pairwise and are hence deterministic. Each chunk (or the part of a chunk spanned by a view) is
+ * available as an ordinary {@link DoubleArray} using {@link #getChunk(int)}, to be used with the
+ * routines in {@link Arrays}. To store the rows of a {@code rows x columns} table in single chunks,
+ * use a chunk size which is a multiple of {@code columns}, and {@link #getDense(long, int)} to get
+ * the row.
+ *
+ * <pre>
+ * {@code
+ * > ChunkedDoubleArray table = Arrays.newChunkedDoubleArray(5_000_000_000L, 300 * 100_000);
+ * > DoubleArray row = table.getDense(123_456_789L * 300, 300);
+ * }
+ * </pre>
+ *
+ * @author Isak Karlsson
+ */
+public interface ChunkedDoubleArray {
+
+  /**
+   * The default number of elements in each chunk
+   */
+  int DEFAULT_CHUNK_SIZE = 1 << 24;
+
+  /**
+   * @return the number of elements
+   */
+  long size();
+
+  /**
+   * @return the (maximum) number of elements in each chunk of the underlying storage
+   */
+  int getChunkSize();
+
+  /**
+   * @return the number of chunks spanned by this array
+   */
+  int chunks();
+
+  /**
+   * Returns the elements of this array which are stored in the {@code i:th} chunk spanned by this
+   * array as a (1d-array) view. Note that if this array is a view, the first and the last chunk can
+   * be partial.
+   *
+   * @param i the index of the chunk ({@code 0 <= i < chunks()})
+   * @return a view of the elements in the chunk
+   */
+  DoubleArray getChunk(int i);
+
+  double get(long index);
+
+  void set(long index, double value);
+
+  void addTo(long index, double value);
+
+  /**
+   * Returns a view of {@code length} elements starting at {@code offset}.
+   *
+   * @param offset the first element
+   * @param length the number of elements
+   * @return a view
+   */
+  ChunkedDoubleArray getView(long offset, long length);
+
+  /**
+   * Returns a view of {@code length} elements starting at {@code offset}, which must be stored in
+   * a single chunk.
+   *
+   * @param offset the first element
+   * @param length the number of elements
+   * @return a view
+   * @throws IllegalArgumentException if the elements are stored in several chunks
+   */
+  DoubleArray getDense(long offset, int length);
+
+  void assign(double value);
+
+  /**
+   * Assigns the elements of {@code other} (which must have the same size) to this array.
+   *
+   * @param other the other array
+   */
+  void assign(ChunkedDoubleArray other);
+
+  /**
+   * Assigns {@code combine.applyAsDouble(this[i], other[i])} to {@code this[i]}.
+   *
+   * @param other the other array
+   * @param combine the combining operator
+   */
+  void assign(ChunkedDoubleArray other, DoubleBinaryOperator combine);
+
+  void apply(DoubleUnaryOperator operator);
+
+  ChunkedDoubleArray map(DoubleUnaryOperator operator);
+
+  void plusAssign(ChunkedDoubleArray other);
+
+  void minusAssign(ChunkedDoubleArray other);
+
+  void timesAssign(ChunkedDoubleArray other);
+
+  void timesAssign(double scalar);
+
+  /**
+   * Reduces the elements sequentially (in order), i.e., {@code reduce} need not be associative.
+   *
+   * @param identity the initial value
+   * @param reduce the reduction
+   * @return the reduced value
+   */
+  double reduce(double identity, DoubleBinaryOperator reduce);
+
+  double sum();
+
+  double min();
+
+  double max();
+
+  /**
+   * @return the inner product of this array and {@code other}
+   */
+  double inner(ChunkedDoubleArray other);
+
+  /**
+   * @return a copy of this array (which is not a view)
+   */
+  ChunkedDoubleArray copy();
+}
@@ -38,6 +38,7 @@ import java.util.stream.Stream;
 
 import org.apache.commons.math3.complex.Complex;
 import org.briljantframework.Listable;
+import org.briljantframework.complex.MutableComplex;
 
 /**
  * Implements a 2-dimensional matrix of complex numbers.
@@ -220,6 +221,16 @@ public interface ComplexArray
 
   void set(int[] index, Complex complex);
 
+  /**
+   * Sets the real and imaginary parts of the element at {@code index} (in column-major order)
+   * without allocating a {@link Complex}.
+   *
+   * @param index the index
+   * @param real the real part
+   * @param imag the imaginary part
+   */
+  void set(int index, double real, double imag);
+
   /**
    * Flattens the traversal of the matrix in column-major order. The matrix is traversed in
    * column-major order. For example, given the following matrix
@@ -262,6 +273,32 @@ public interface ComplexArray
 
   Complex get(int... index);
 
+  /**
+   * Returns the real part of the element at {@code index} (in column-major order).
+   *
+   * @param index the index
+   * @return the real part
+   */
+  double getReal(int index);
+
+  /**
+   * Returns the imaginary part of the element at {@code index} (in column-major order).
+   *
+   * @param index the index
+   * @return the imaginary part
+   */
+  double getImaginary(int index);
+
+  /**
+   * Sets {@code out} to the element at {@code index} (in column-major order). In contrast to
+   * {@link #get(int)}, no {@link Complex} is allocated.
+   *
+   * @param index the index
+   * @param out the receiver of the value
+   * @return {@code out} modified
+   */
+  MutableComplex get(int index, MutableComplex out);
+
   Stream<Complex> stream();
 
   List<Complex> toList();
@@ -390,5 +427,13 @@ public interface ComplexArray
    */
   ComplexArray negate();
 
+  /**
+   * Returns the elements as an array of interleaved real and imaginary parts, i.e., the real part
+   * of element {@code i} at {@code 2 * i} and the imaginary part at {@code 2 * i + 1}. If
+   * {@linkplain #isView()} is {@code false}, the returned array is the storage of this array
+   * (i.e., modifications are visible in both); otherwise a copy is returned.
+   *
+   * @return the interleaved elements
+   */
   double[] data();
 }
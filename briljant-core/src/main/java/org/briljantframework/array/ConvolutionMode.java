@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+/**
+ * The part of the full discrete convolution (or correlation) of a series of length {@code n} and
+ * a kernel of length {@code m} to return.
+ *
+ * @author Isak Karlsson
+ */
+public enum ConvolutionMode {
+  /**
+   * The full convolution, with {@code n + m - 1} elements
+   */
+  FULL,
+
+  /**
+   * The {@code n} elements at the center of the full convolution
+   */
+  SAME,
+
+  /**
+   * The {@code n - m + 1} elements where the kernel completely overlaps the series
+   */
+  VALID;
+
+  /**
+   * Returns the index of the first returned element in the full convolution.
+   *
+   * @param n the length of the series
+   * @param m the length of the kernel
+   * @return the index of the first element
+   */
+  public int start(int n, int m) {
+    switch (this) {
+      case SAME:
+        return (m - 1) / 2;
+      case VALID:
+        return m - 1;
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Returns the number of returned elements.
+   *
+   * @param n the length of the series
+   * @param m the length of the kernel
+   * @return the number of elements
+   */
+  public int size(int n, int m) {
+    switch (this) {
+      case SAME:
+        return n;
+      case VALID:
+        return n - m + 1;
+      default:
+        return n + m - 1;
+    }
+  }
+}
@@ -449,9 +449,27 @@ public interface DoubleArray extends BaseArray<DoubleArray>, Iterable<Double>, L
 
   /**
    * Returns a double array representation of this matrix. If {@linkplain #isView()} is {@code true}
-   * , a copy is returned.
+   * , a copy is returned. Arrays whose elements are not stored in a java array (e.g., off-heap
+   * arrays) always return a copy.
    *
    * @return a double array
    */
   double[] data();
+
+  /**
+   * Returns a lazily evaluated expression of this array. Element-wise operations on the
+   * expression are recorded (rather than computed) and evaluated in a single pass, without
+   * intermediate arrays, when the expression is evaluated or reduced.
+   *
+   * <pre>
+   * {@code
+   * DoubleArray r = a.lazy().times(b).plus(c).map(Math::exp).evaluate();
+   * }
+   * </pre>
+   *
+   * @return a lazy expression of this array
+   */
+  default DoubleExpression lazy() {
+    return DoubleExpression.of(this);
+  }
 }
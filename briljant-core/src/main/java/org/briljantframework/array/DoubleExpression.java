@@ -0,0 +1,493 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import org.briljantframework.Check;
+
+/**
+ * A lazily evaluated, element-wise expression over double arrays. Instead of allocating a new
+ * array for each intermediate result (as, e.g., {@code a.times(b).plus(c).map(Math::exp)} does),
+ * the operations are recorded as an expression tree which is evaluated in a single (fused) pass
+ * when the result is {@linkplain #evaluate() materialized} or reduced (e.g., using
+ * {@link #sum()}).
+ *
+ * <pre>
+ * {@code
+ * DoubleArray r = a.lazy().times(b).plus(c).map(Math::exp).evaluate();
+ * double norm = a.lazy().minus(b).norm2();
+ * }
+ * </pre>
+ *
+ * <p>
+ * Operands are broadcast, i.e., the shapes are aligned at the last dimension and dimensions of
+ * size {@code 1} (or missing leading dimensions) are repeated. For example, adding a vector of
+ * shape {@code [n]} to a matrix of shape {@code [m, n]} adds the vector to each row of the matrix.
+ * Scalars broadcast to any shape.
+ *
+ * <p>
+ * Expressions are immutable and can be evaluated several times; since the arrays are read when
+ * the expression is evaluated, modifications of the operands between evaluations are visible in
+ * the result.
+ *
+ * @author Isak Karlsson
+ * @see DoubleArray#lazy()
+ */
+public abstract class DoubleExpression {
+
+  private final int[] shape;
+
+  DoubleExpression(int[] shape) {
+    this.shape = shape;
+  }
+
+  /**
+   * Returns an expression of the elements of the given array.
+   *
+   * @param array the array
+   * @return an expression
+   */
+  public static DoubleExpression of(DoubleArray array) {
+    return new ArrayNode(Objects.requireNonNull(array));
+  }
+
+  /**
+   * Returns an expression of the given scalar (of shape {@code [1]}).
+   *
+   * @param value the value
+   * @return an expression
+   */
+  public static DoubleExpression of(double value) {
+    return new ScalarNode(value);
+  }
+
+  /**
+   * Returns the shape of the result of this expression.
+   *
+   * @return the shape
+   */
+  public final int[] getShape() {
+    return shape.clone();
+  }
+
+  /**
+   * Returns the number of elements of the result of this expression.
+   *
+   * @return the size
+   */
+  public final int size() {
+    return Indexer.size(shape);
+  }
+
+  public DoubleExpression plus(DoubleExpression other) {
+    return new BinaryNode(this, other, Operator.PLUS);
+  }
+
+  public DoubleExpression plus(DoubleArray other) {
+    return plus(of(other));
+  }
+
+  public DoubleExpression plus(double scalar) {
+    return plus(of(scalar));
+  }
+
+  public DoubleExpression minus(DoubleExpression other) {
+    return new BinaryNode(this, other, Operator.MINUS);
+  }
+
+  public DoubleExpression minus(DoubleArray other) {
+    return minus(of(other));
+  }
+
+  public DoubleExpression minus(double scalar) {
+    return minus(of(scalar));
+  }
+
+  public DoubleExpression times(DoubleExpression other) {
+    return new BinaryNode(this, other, Operator.TIMES);
+  }
+
+  public DoubleExpression times(DoubleArray other) {
+    return times(of(other));
+  }
+
+  public DoubleExpression times(double scalar) {
+    return times(of(scalar));
+  }
+
+  public DoubleExpression div(DoubleExpression other) {
+    return new BinaryNode(this, other, Operator.DIV);
+  }
+
+  public DoubleExpression div(DoubleArray other) {
+    return div(of(other));
+  }
+
+  public DoubleExpression div(double scalar) {
+    return div(of(scalar));
+  }
+
+  public DoubleExpression negate() {
+    return map(v -> -v);
+  }
+
+  /**
+   * Returns an expression applying {@code operator} to each element of this expression.
+   *
+   * @param operator the operator
+   * @return a new expression
+   */
+  public DoubleExpression map(DoubleUnaryOperator operator) {
+    return new MapNode(this, Objects.requireNonNull(operator));
+  }
+
+  /**
+   * Returns an expression combining the elements of this expression and {@code other} using
+   * {@code combine}.
+   *
+   * @param other the other expression
+   * @param combine the combining function
+   * @return a new expression
+   */
+  public DoubleExpression combine(DoubleExpression other, DoubleBinaryOperator combine) {
+    return new CombineNode(this, other, Objects.requireNonNull(combine));
+  }
+
+  /**
+   * Evaluates the expression into a new array.
+   *
+   * @return a new array with the shape of the expression
+   */
+  public DoubleArray evaluate() {
+    DoubleArray prototype = getPrototype();
+    DoubleArray out = prototype != null ? prototype.newEmptyArray(getShape())
+        : Arrays.newDoubleArray(getShape());
+    evaluate(out);
+    return out;
+  }
+
+  /**
+   * Evaluates the expression into the given array. The expression is broadcast to the shape of
+   * {@code out}. The array can be an operand of the expression only if the operand is read without
+   * broadcasting (e.g. {@code a.lazy().times(2).evaluate(a)}).
+   *
+   * @param out the array
+   */
+  public void evaluate(DoubleArray out) {
+    int[] outShape = out.getShape();
+    Check.argument(Indexer.isBroadcastable(shape, outShape),
+        "Can't broadcast %s to %s", java.util.Arrays.toString(shape),
+        java.util.Arrays.toString(outShape));
+    ExpressionContext context = new ExpressionContext(outShape);
+    double[] buffer = context.acquireDoubles();
+    AbstractDoubleArray target =
+        out instanceof AbstractDoubleArray ? (AbstractDoubleArray) out : null;
+    boolean linear = target != null && context.isLinear(target);
+    int size = out.size();
+    for (int from = 0; from < size; from += ExpressionContext.CHUNK_SIZE) {
+      int length = Math.min(ExpressionContext.CHUNK_SIZE, size - from);
+      evaluate(context, from, length, buffer);
+      if (linear) {
+        int offset = target.getOffset() + from;
+        for (int i = 0; i < length; i++) {
+          target.setElement(offset + i, buffer[i]);
+        }
+      } else if (target != null) {
+        int[] positions = context.positions(target, from, length);
+        for (int i = 0; i < length; i++) {
+          target.setElement(positions[i], buffer[i]);
+        }
+      } else {
+        for (int i = 0; i < length; i++) {
+          out.set(from + i, buffer[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the sum of the elements of the expression, without materializing the expression.
+   *
+   * @return the sum
+   */
+  public double sum() {
+    ExpressionContext context = new ExpressionContext(shape);
+    double[] buffer = context.acquireDoubles();
+    double sum = 0;
+    int size = size();
+    for (int from = 0; from < size; from += ExpressionContext.CHUNK_SIZE) {
+      int length = Math.min(ExpressionContext.CHUNK_SIZE, size - from);
+      evaluate(context, from, length, buffer);
+      double chunk = 0;
+      for (int i = 0; i < length; i++) {
+        chunk += buffer[i];
+      }
+      sum += chunk;
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the mean of the elements of the expression, without materializing the expression.
+   *
+   * @return the mean
+   */
+  public double mean() {
+    return sum() / size();
+  }
+
+  /**
+   * Returns the euclidean norm of the elements of the expression, without materializing the
+   * expression.
+   *
+   * @return the 2-norm
+   */
+  public double norm2() {
+    ExpressionContext context = new ExpressionContext(shape);
+    double[] buffer = context.acquireDoubles();
+    double sum = 0;
+    int size = size();
+    for (int from = 0; from < size; from += ExpressionContext.CHUNK_SIZE) {
+      int length = Math.min(ExpressionContext.CHUNK_SIZE, size - from);
+      evaluate(context, from, length, buffer);
+      double chunk = 0;
+      for (int i = 0; i < length; i++) {
+        chunk += buffer[i] * buffer[i];
+      }
+      sum += chunk;
+    }
+    return Math.sqrt(sum);
+  }
+
+  @Override
+  public String toString() {
+    return "DoubleExpression" + java.util.Arrays.toString(shape);
+  }
+
+  /**
+   * Writes the elements {@code [from, from + length)} (in column-major order of the evaluated
+   * shape) of this expression to {@code out}.
+   */
+  abstract void evaluate(ExpressionContext context, int from, int length, double[] out);
+
+  /**
+   * Returns an operand array (used to allocate the result), or {@code null}.
+   */
+  abstract DoubleArray getPrototype();
+
+  private enum Operator {
+    PLUS, MINUS, TIMES, DIV
+  }
+
+  private static final class ArrayNode extends DoubleExpression {
+
+    private final DoubleArray array;
+
+    ArrayNode(DoubleArray array) {
+      super(array.getShape());
+      this.array = array;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, double[] out) {
+      if (array instanceof AbstractDoubleArray) {
+        AbstractDoubleArray source = (AbstractDoubleArray) array;
+        if (context.isLinear(source)) {
+          int offset = source.getOffset() + from;
+          for (int i = 0; i < length; i++) {
+            out[i] = source.getElement(offset + i);
+          }
+        } else {
+          int[] positions = context.positions(source, from, length);
+          for (int i = 0; i < length; i++) {
+            out[i] = source.getElement(positions[i]);
+          }
+        }
+      } else {
+        Check.argument(java.util.Arrays.equals(context.getShape(), array.getShape()),
+            "Can't broadcast %s", array.getClass().getSimpleName());
+        for (int i = 0; i < length; i++) {
+          out[i] = array.get(from + i);
+        }
+      }
+    }
+
+    @Override
+    DoubleArray getPrototype() {
+      return array;
+    }
+  }
+
+  private static final class ScalarNode extends DoubleExpression {
+
+    private final double value;
+
+    ScalarNode(double value) {
+      super(new int[] {1});
+      this.value = value;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, double[] out) {
+      java.util.Arrays.fill(out, 0, length, value);
+    }
+
+    @Override
+    DoubleArray getPrototype() {
+      return null;
+    }
+  }
+
+  private static final class BinaryNode extends DoubleExpression {
+
+    private final DoubleExpression left;
+    private final DoubleExpression right;
+    private final Operator operator;
+
+    BinaryNode(DoubleExpression left, DoubleExpression right, Operator operator) {
+      super(Indexer.broadcast(left.shape, right.shape));
+      this.left = left;
+      this.right = right;
+      this.operator = operator;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, double[] out) {
+      left.evaluate(context, from, length, out);
+      if (right instanceof ScalarNode) {
+        double v = ((ScalarNode) right).value;
+        switch (operator) {
+          case PLUS:
+            for (int i = 0; i < length; i++) {
+              out[i] += v;
+            }
+            break;
+          case MINUS:
+            for (int i = 0; i < length; i++) {
+              out[i] -= v;
+            }
+            break;
+          case TIMES:
+            for (int i = 0; i < length; i++) {
+              out[i] *= v;
+            }
+            break;
+          default:
+            for (int i = 0; i < length; i++) {
+              out[i] /= v;
+            }
+        }
+        return;
+      }
+
+      double[] tmp = context.acquireDoubles();
+      right.evaluate(context, from, length, tmp);
+      switch (operator) {
+        case PLUS:
+          for (int i = 0; i < length; i++) {
+            out[i] += tmp[i];
+          }
+          break;
+        case MINUS:
+          for (int i = 0; i < length; i++) {
+            out[i] -= tmp[i];
+          }
+          break;
+        case TIMES:
+          for (int i = 0; i < length; i++) {
+            out[i] *= tmp[i];
+          }
+          break;
+        default:
+          for (int i = 0; i < length; i++) {
+            out[i] /= tmp[i];
+          }
+      }
+      context.release(tmp);
+    }
+
+    @Override
+    DoubleArray getPrototype() {
+      DoubleArray prototype = left.getPrototype();
+      return prototype != null ? prototype : right.getPrototype();
+    }
+  }
+
+  private static final class MapNode extends DoubleExpression {
+
+    private final DoubleExpression expression;
+    private final DoubleUnaryOperator operator;
+
+    MapNode(DoubleExpression expression, DoubleUnaryOperator operator) {
+      super(expression.shape);
+      this.expression = expression;
+      this.operator = operator;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, double[] out) {
+      expression.evaluate(context, from, length, out);
+      for (int i = 0; i < length; i++) {
+        out[i] = operator.applyAsDouble(out[i]);
+      }
+    }
+
+    @Override
+    DoubleArray getPrototype() {
+      return expression.getPrototype();
+    }
+  }
+
+  private static final class CombineNode extends DoubleExpression {
+
+    private final DoubleExpression left;
+    private final DoubleExpression right;
+    private final DoubleBinaryOperator combine;
+
+    CombineNode(DoubleExpression left, DoubleExpression right, DoubleBinaryOperator combine) {
+      super(Indexer.broadcast(left.shape, right.shape));
+      this.left = left;
+      this.right = right;
+      this.combine = combine;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, double[] out) {
+      double[] tmp = context.acquireDoubles();
+      left.evaluate(context, from, length, out);
+      right.evaluate(context, from, length, tmp);
+      for (int i = 0; i < length; i++) {
+        out[i] = combine.applyAsDouble(out[i], tmp[i]);
+      }
+      context.release(tmp);
+    }
+
+    @Override
+    DoubleArray getPrototype() {
+      DoubleArray prototype = left.getPrototype();
+      return prototype != null ? prototype : right.getPrototype();
+    }
+  }
+}
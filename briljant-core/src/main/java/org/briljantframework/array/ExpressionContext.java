@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+import java.util.ArrayDeque;
+
+/**
+ * The state of a single evaluation of a {@link DoubleExpression} or an {@link IntExpression}.
+ * Expressions are evaluated in chunks of {@link #CHUNK_SIZE} elements (in column-major order of
+ * the shape of the evaluated expression); each node in the expression tree writes its values for
+ * the current chunk to a buffer borrowed from the context. Hence, the only temporaries are a
+ * handful of chunk sized buffers, which are reused for each chunk.
+ *
+ * @author Isak Karlsson
+ */
+final class ExpressionContext {
+
+  static final int CHUNK_SIZE = 1024;
+
+  private final int[] shape;
+  private final int[] positions = new int[CHUNK_SIZE];
+  private final ArrayDeque<double[]> doubleBuffers = new ArrayDeque<>();
+  private final ArrayDeque<int[]> intBuffers = new ArrayDeque<>();
+
+  ExpressionContext(int[] shape) {
+    this.shape = shape;
+  }
+
+  int[] getShape() {
+    return shape;
+  }
+
+  double[] acquireDoubles() {
+    double[] buffer = doubleBuffers.poll();
+    return buffer != null ? buffer : new double[CHUNK_SIZE];
+  }
+
+  void release(double[] buffer) {
+    doubleBuffers.push(buffer);
+  }
+
+  int[] acquireInts() {
+    int[] buffer = intBuffers.poll();
+    return buffer != null ? buffer : new int[CHUNK_SIZE];
+  }
+
+  void release(int[] buffer) {
+    intBuffers.push(buffer);
+  }
+
+  /**
+   * Returns true if the element at (linearized) index {@code i} of the evaluated shape is stored
+   * at position {@code array.getOffset() + i} of {@code array}.
+   */
+  boolean isLinear(BaseArray<?> array) {
+    if (!array.isContiguous() || !java.util.Arrays.equals(shape, array.getShape())) {
+      return false;
+    }
+    return java.util.Arrays.equals(array.getStride(), Indexer.computeStride(1, shape));
+  }
+
+  /**
+   * Computes the storage positions of the elements {@code [from, from + length)} of
+   * {@code array} broadcast to the evaluated shape.
+   *
+   * @return the positions (valid until the next call)
+   */
+  int[] positions(BaseArray<?> array, int from, int length) {
+    int dims = shape.length;
+    int lead = dims - array.dims();
+    int[] stride = new int[dims];
+    for (int d = lead; d < dims; d++) {
+      stride[d] = array.size(d - lead) == 1 ? 0 : array.stride(d - lead);
+    }
+
+    int[] index = new int[dims];
+    int position = array.getOffset();
+    for (int d = 0, rest = from; d < dims; d++) {
+      index[d] = rest % shape[d];
+      rest /= shape[d];
+      position += index[d] * stride[d];
+    }
+
+    for (int i = 0; i < length; i++) {
+      positions[i] = position;
+      for (int d = 0; d < dims; d++) {
+        position += stride[d];
+        if (++index[d] < shape[d]) {
+          break;
+        }
+        position -= index[d] * stride[d];
+        index[d] = 0;
+      }
+    }
+    return positions;
+  }
+}
@@ -0,0 +1,300 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.DoubleStream;
+
+import org.briljantframework.Listable;
+import org.briljantframework.function.DoubleBiPredicate;
+
+/**
+ * A single precision (i.e., {@code float}) n-dimensional array, stored in column-major order as
+ * {@link DoubleArray}.
+ *
+ * <p>
+ * A float array requires half the memory (and memory bandwidth) of a double array, which is often
+ * sufficient for, e.g., feature matrices. Since {@code java.util.function} has no {@code float}
+ * specializations, the functional methods operate on the (widened) {@code double} values and the
+ * results are rounded to the nearest {@code float} when stored. Reductions (e.g.,
+ * {@link #reduce(double, DoubleBinaryOperator)} or
+ * {@link org.briljantframework.array.api.ArrayRoutines#sum(FloatArray)}) accumulate in double
+ * precision.
+ *
+ * @author Isak Karlsson
+ */
+public interface FloatArray extends BaseArray<FloatArray>, Iterable<Float>, Listable<Float> {
+
+  static FloatArray zeros(int... shape) {
+    return Arrays.newFloatArray(shape);
+  }
+
+  static FloatArray ones(int... shape) {
+    FloatArray array = zeros(shape);
+    array.assign(1);
+    return array;
+  }
+
+  /**
+   * @see Arrays#newFloatVector(float...)
+   */
+  static FloatArray of(float... data) {
+    return Arrays.newFloatVector(data);
+  }
+
+  /**
+   * Assign {@code value} to {@code this}
+   *
+   * @param value the value to assign
+   */
+  void assign(float value);
+
+  void assign(float[] values);
+
+  /**
+   * Assign value returned by {@link #size()} successive calls to
+   * {@link java.util.function.DoubleSupplier#getAsDouble()}
+   *
+   * @param supplier the supplier
+   */
+  void assign(DoubleSupplier supplier);
+
+  /**
+   * Assign {@code matrix} to {@code this}, applying {@code operator} to each value.
+   *
+   * @param matrix the matrix
+   * @param operator the operator
+   */
+  void assign(FloatArray matrix, DoubleUnaryOperator operator);
+
+  void assign(FloatArray matrix, DoubleBinaryOperator combine);
+
+  void assign(DoubleArray matrix, DoubleUnaryOperator operator);
+
+  void assign(IntArray matrix, IntToDoubleFunction function);
+
+  // Transform
+
+  /**
+   * Perform {@code operator} element wise to receiver, returning a new array.
+   *
+   * @param operator the operator to apply to each element
+   * @return a new array
+   */
+  FloatArray map(DoubleUnaryOperator operator);
+
+  /**
+   * Perform {@code operator} element wise to receiver, returning a new double array (i.e., the
+   * results are not rounded to single precision).
+   *
+   * @param operator the operator to apply to each element
+   * @return a new double array
+   */
+  DoubleArray mapToDouble(DoubleUnaryOperator operator);
+
+  <T> Array<T> mapToObj(DoubleFunction<? extends T> mapper);
+
+  /**
+   * Perform {@code operator} element wise to receiver.
+   *
+   * @param operator the operator to apply to each element
+   */
+  void apply(DoubleUnaryOperator operator);
+
+  // Filter
+
+  FloatArray filter(DoublePredicate predicate);
+
+  BooleanArray where(DoublePredicate predicate);
+
+  BooleanArray where(FloatArray matrix, DoubleBiPredicate predicate);
+
+  // Reduce
+
+  /**
+   * Reduces {@code this} into a real value, in double precision.
+   *
+   * @param identity the initial value
+   * @param reduce takes two values and reduces them to one
+   * @return the result
+   */
+  double reduce(double identity, DoubleBinaryOperator reduce);
+
+  double reduce(double identity, DoubleBinaryOperator reduce, DoubleUnaryOperator map);
+
+  FloatArray reduceVectors(int dim, ToDoubleFunction<? super FloatArray> reduce);
+
+  // GET SET
+
+  void set(int index, float value);
+
+  void set(int i, int j, float value);
+
+  void set(int[] ix, float value);
+
+  float get(int index);
+
+  float get(int i, int j);
+
+  float get(int... ix);
+
+  /**
+   * @return a stream of the (widened) values of this array
+   */
+  DoubleStream stream();
+
+  List<Float> toList();
+
+  Array<Float> boxed();
+
+  // Arithmetical operations ///////////
+
+  FloatArray times(FloatArray other);
+
+  /**
+   * Element wise multiplication. Scaling {@code this} with {@code alpha} and {@code other} with
+   * {@code beta}. Hence, it computes {@code this.times(alpha).times(other.times(beta))}, but in one
+   * pass.
+   *
+   * @param alpha scaling for {@code this}
+   * @param other the other matrix
+   * @param beta scaling for {@code other}
+   * @return a new matrix
+   */
+  FloatArray times(float alpha, FloatArray other, float beta);
+
+  FloatArray times(float scalar);
+
+  void timesAssign(float scalar);
+
+  void timesAssign(FloatArray array);
+
+  FloatArray plus(FloatArray other);
+
+  FloatArray plus(float scalar);
+
+  void plusAssign(FloatArray other);
+
+  void plusAssign(float scalar);
+
+  /**
+   * Element wise addition. Scaling {@code this} with {@code alpha} and {@code other} with
+   * {@code beta}. Hence, it computes {@code this.times(alpha).plus(other.times(beta))}, but in one
+   * pass.
+   *
+   * @param alpha scaling for {@code this}
+   * @param other the other matrix
+   * @param beta scaling for {@code other}
+   * @return a new matrix
+   */
+  FloatArray plus(float alpha, FloatArray other, float beta);
+
+  FloatArray minus(float scalar);
+
+  FloatArray minus(FloatArray other);
+
+  void minusAssign(float scalar);
+
+  void minusAssign(FloatArray other);
+
+  /**
+   * Element wise subtraction. Scaling {@code this} with {@code alpha} and {@code other} with
+   * {@code beta}. Hence, it computes {@code this.times(alpha).minus(other.times(beta))}, but in one
+   * pass.
+   *
+   * @param alpha scaling for {@code this}
+   * @param other the other matrix
+   * @param beta scaling for {@code other}
+   * @return a new matrix
+   */
+  FloatArray minus(float alpha, FloatArray other, float beta);
+
+  /**
+   * <u>R</u>eversed element wise subtraction. {@code scalar - this}.
+   *
+   * @param scalar the scalar
+   * @return a new matrix
+   */
+  FloatArray reverseMinus(float scalar);
+
+  FloatArray div(float other);
+
+  FloatArray div(FloatArray other);
+
+  void divAssign(FloatArray other);
+
+  void divAssign(float value);
+
+  /**
+   * Element wise division. {@code other / this}.
+   *
+   * @param other the scalar
+   * @return a new matrix
+   */
+  FloatArray reverseDiv(float other);
+
+  /**
+   * Returns a new matrix with elements negated.
+   *
+   * @return a new matrix
+   */
+  FloatArray negate();
+
+  default BooleanArray gt(float v) {
+    return where(x -> x > v);
+  }
+
+  default BooleanArray gte(float v) {
+    return where(x -> x >= v);
+  }
+
+  default BooleanArray lt(float v) {
+    return where(x -> x < v);
+  }
+
+  default BooleanArray lte(float v) {
+    return where(x -> x <= v);
+  }
+
+  default BooleanArray eq(float v) {
+    return where(x -> x == v);
+  }
+
+  default BooleanArray neq(float v) {
+    return where(x -> x != v);
+  }
+
+  /**
+   * Returns a float array representation of this array. If {@linkplain #isView()} is {@code true},
+   * a copy is returned.
+   *
+   * @return a float array
+   */
+  float[] data();
+}
@@ -26,6 +26,8 @@ import java.util.AbstractList;
 import java.util.List;
 import java.util.Objects;
 
+import org.briljantframework.exceptions.NonConformantException;
+
 /**
  * @author Isak Karlsson
  */
@@ -204,4 +206,40 @@ public final class Indexer {
       }
     };
   }
+
+  /**
+   * Returns the shape of the result of an element-wise operation between arrays of shape
+   * {@code a} and {@code b}. The shapes are aligned at the last dimension; dimensions of size
+   * {@code 1} (and missing leading dimensions) are broadcast.
+   *
+   * @throws NonConformantException if the shapes can't be broadcast
+   */
+  public static int[] broadcast(int[] a, int[] b) {
+    int[] shape = new int[Math.max(a.length, b.length)];
+    for (int i = 1; i <= shape.length; i++) {
+      int x = i <= a.length ? a[a.length - i] : 1;
+      int y = i <= b.length ? b[b.length - i] : 1;
+      if (x != y && x != 1 && y != 1) {
+        throw new NonConformantException("a", a, "b", b);
+      }
+      shape[shape.length - i] = x == 1 ? y : x;
+    }
+    return shape;
+  }
+
+  /**
+   * Returns true if an array of shape {@code shape} can be broadcast to {@code target}.
+   */
+  public static boolean isBroadcastable(int[] shape, int[] target) {
+    if (shape.length > target.length) {
+      return false;
+    }
+    for (int i = 1; i <= shape.length; i++) {
+      int x = shape[shape.length - i];
+      if (x != 1 && x != target[target.length - i]) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
@@ -355,4 +355,21 @@ public interface IntArray extends BaseArray<IntArray>, Listable<Integer> {
   IntArray negate();
 
   int[] data();
+
+  /**
+   * Returns a lazily evaluated expression of this array. Element-wise operations on the
+   * expression are recorded (rather than computed) and evaluated in a single pass, without
+   * intermediate arrays, when the expression is evaluated or reduced.
+   *
+   * <pre>
+   * {@code
+   * IntArray r = a.lazy().times(b).plus(1).evaluate();
+   * }
+   * </pre>
+   *
+   * @return a lazy expression of this array
+   */
+  default IntExpression lazy() {
+    return IntExpression.of(this);
+  }
 }
@@ -0,0 +1,505 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+import java.util.Objects;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+import org.briljantframework.Check;
+
+/**
+ * A lazily evaluated, element-wise expression over int arrays. This is the {@code int}
+ * counterpart of {@link DoubleExpression}; see that class for a description of the evaluation
+ * and broadcasting rules. Arithmetic follows the rules of Java {@code int} arithmetic (i.e.,
+ * overflows wrap around and division truncates).
+ *
+ * <pre>
+ * {@code
+ * IntArray r = a.lazy().times(b).plus(1).evaluate();
+ * double mean = a.lazy().minus(b).asDouble().div(2).mean();
+ * }
+ * </pre>
+ *
+ * @author Isak Karlsson
+ * @see IntArray#lazy()
+ */
+public abstract class IntExpression {
+
+  private final int[] shape;
+
+  IntExpression(int[] shape) {
+    this.shape = shape;
+  }
+
+  /**
+   * Returns an expression of the elements of the given array.
+   *
+   * @param array the array
+   * @return an expression
+   */
+  public static IntExpression of(IntArray array) {
+    return new ArrayNode(Objects.requireNonNull(array));
+  }
+
+  /**
+   * Returns an expression of the given scalar (of shape {@code [1]}).
+   *
+   * @param value the value
+   * @return an expression
+   */
+  public static IntExpression of(int value) {
+    return new ScalarNode(value);
+  }
+
+  /**
+   * Returns the shape of the result of this expression.
+   *
+   * @return the shape
+   */
+  public final int[] getShape() {
+    return shape.clone();
+  }
+
+  /**
+   * Returns the number of elements of the result of this expression.
+   *
+   * @return the size
+   */
+  public final int size() {
+    return Indexer.size(shape);
+  }
+
+  public IntExpression plus(IntExpression other) {
+    return new BinaryNode(this, other, Operator.PLUS);
+  }
+
+  public IntExpression plus(IntArray other) {
+    return plus(of(other));
+  }
+
+  public IntExpression plus(int scalar) {
+    return plus(of(scalar));
+  }
+
+  public IntExpression minus(IntExpression other) {
+    return new BinaryNode(this, other, Operator.MINUS);
+  }
+
+  public IntExpression minus(IntArray other) {
+    return minus(of(other));
+  }
+
+  public IntExpression minus(int scalar) {
+    return minus(of(scalar));
+  }
+
+  public IntExpression times(IntExpression other) {
+    return new BinaryNode(this, other, Operator.TIMES);
+  }
+
+  public IntExpression times(IntArray other) {
+    return times(of(other));
+  }
+
+  public IntExpression times(int scalar) {
+    return times(of(scalar));
+  }
+
+  public IntExpression div(IntExpression other) {
+    return new BinaryNode(this, other, Operator.DIV);
+  }
+
+  public IntExpression div(IntArray other) {
+    return div(of(other));
+  }
+
+  public IntExpression div(int scalar) {
+    return div(of(scalar));
+  }
+
+  public IntExpression negate() {
+    return map(v -> -v);
+  }
+
+  /**
+   * Returns an expression applying {@code operator} to each element of this expression.
+   *
+   * @param operator the operator
+   * @return a new expression
+   */
+  public IntExpression map(IntUnaryOperator operator) {
+    return new MapNode(this, Objects.requireNonNull(operator));
+  }
+
+  /**
+   * Returns an expression combining the elements of this expression and {@code other} using
+   * {@code combine}.
+   *
+   * @param other the other expression
+   * @param combine the combining function
+   * @return a new expression
+   */
+  public IntExpression combine(IntExpression other, IntBinaryOperator combine) {
+    return new CombineNode(this, other, Objects.requireNonNull(combine));
+  }
+
+  /**
+   * Returns an expression converting the elements of this expression to {@code double}.
+   *
+   * @return a new expression
+   */
+  public DoubleExpression asDouble() {
+    return new AsDoubleNode(this);
+  }
+
+  /**
+   * Evaluates the expression into a new array.
+   *
+   * @return a new array with the shape of the expression
+   */
+  public IntArray evaluate() {
+    IntArray prototype = getPrototype();
+    IntArray out = prototype != null ? prototype.newEmptyArray(getShape())
+        : Arrays.newIntArray(getShape());
+    evaluate(out);
+    return out;
+  }
+
+  /**
+   * Evaluates the expression into the given array. The expression is broadcast to the shape of
+   * {@code out}. The array can be an operand of the expression only if the operand is read without
+   * broadcasting (e.g. {@code a.lazy().times(2).evaluate(a)}).
+   *
+   * @param out the array
+   */
+  public void evaluate(IntArray out) {
+    int[] outShape = out.getShape();
+    Check.argument(Indexer.isBroadcastable(shape, outShape),
+        "Can't broadcast %s to %s", java.util.Arrays.toString(shape),
+        java.util.Arrays.toString(outShape));
+    ExpressionContext context = new ExpressionContext(outShape);
+    int[] buffer = context.acquireInts();
+    AbstractIntArray target =
+        out instanceof AbstractIntArray ? (AbstractIntArray) out : null;
+    boolean linear = target != null && context.isLinear(target);
+    int size = out.size();
+    for (int from = 0; from < size; from += ExpressionContext.CHUNK_SIZE) {
+      int length = Math.min(ExpressionContext.CHUNK_SIZE, size - from);
+      evaluate(context, from, length, buffer);
+      if (linear) {
+        int offset = target.getOffset() + from;
+        for (int i = 0; i < length; i++) {
+          target.setElement(offset + i, buffer[i]);
+        }
+      } else if (target != null) {
+        int[] positions = context.positions(target, from, length);
+        for (int i = 0; i < length; i++) {
+          target.setElement(positions[i], buffer[i]);
+        }
+      } else {
+        for (int i = 0; i < length; i++) {
+          out.set(from + i, buffer[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the sum of the elements of the expression, without materializing the expression.
+   *
+   * @return the sum
+   */
+  public int sum() {
+    ExpressionContext context = new ExpressionContext(shape);
+    int[] buffer = context.acquireInts();
+    int sum = 0;
+    int size = size();
+    for (int from = 0; from < size; from += ExpressionContext.CHUNK_SIZE) {
+      int length = Math.min(ExpressionContext.CHUNK_SIZE, size - from);
+      evaluate(context, from, length, buffer);
+      int chunk = 0;
+      for (int i = 0; i < length; i++) {
+        chunk += buffer[i];
+      }
+      sum += chunk;
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the mean of the elements of the expression, without materializing the expression.
+   *
+   * @return the mean
+   */
+  public double mean() {
+    ExpressionContext context = new ExpressionContext(shape);
+    int[] buffer = context.acquireInts();
+    double sum = 0;
+    int size = size();
+    for (int from = 0; from < size; from += ExpressionContext.CHUNK_SIZE) {
+      int length = Math.min(ExpressionContext.CHUNK_SIZE, size - from);
+      evaluate(context, from, length, buffer);
+      long chunk = 0;
+      for (int i = 0; i < length; i++) {
+        chunk += buffer[i];
+      }
+      sum += chunk;
+    }
+    return sum / size;
+  }
+
+  @Override
+  public String toString() {
+    return "IntExpression" + java.util.Arrays.toString(shape);
+  }
+
+  /**
+   * Writes the elements {@code [from, from + length)} (in column-major order of the evaluated
+   * shape) of this expression to {@code out}.
+   */
+  abstract void evaluate(ExpressionContext context, int from, int length, int[] out);
+
+  /**
+   * Returns an operand array (used to allocate the result), or {@code null}.
+   */
+  abstract IntArray getPrototype();
+
+  private enum Operator {
+    PLUS, MINUS, TIMES, DIV
+  }
+
+  private static final class AsDoubleNode extends DoubleExpression {
+
+    private final IntExpression expression;
+
+    AsDoubleNode(IntExpression expression) {
+      super(expression.shape);
+      this.expression = expression;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, double[] out) {
+      int[] tmp = context.acquireInts();
+      expression.evaluate(context, from, length, tmp);
+      for (int i = 0; i < length; i++) {
+        out[i] = tmp[i];
+      }
+      context.release(tmp);
+    }
+
+    @Override
+    DoubleArray getPrototype() {
+      return null;
+    }
+  }
+
+  private static final class ArrayNode extends IntExpression {
+
+    private final IntArray array;
+
+    ArrayNode(IntArray array) {
+      super(array.getShape());
+      this.array = array;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, int[] out) {
+      if (array instanceof AbstractIntArray) {
+        AbstractIntArray source = (AbstractIntArray) array;
+        if (context.isLinear(source)) {
+          int offset = source.getOffset() + from;
+          for (int i = 0; i < length; i++) {
+            out[i] = source.getElement(offset + i);
+          }
+        } else {
+          int[] positions = context.positions(source, from, length);
+          for (int i = 0; i < length; i++) {
+            out[i] = source.getElement(positions[i]);
+          }
+        }
+      } else {
+        Check.argument(java.util.Arrays.equals(context.getShape(), array.getShape()),
+            "Can't broadcast %s", array.getClass().getSimpleName());
+        for (int i = 0; i < length; i++) {
+          out[i] = array.get(from + i);
+        }
+      }
+    }
+
+    @Override
+    IntArray getPrototype() {
+      return array;
+    }
+  }
+
+  private static final class ScalarNode extends IntExpression {
+
+    private final int value;
+
+    ScalarNode(int value) {
+      super(new int[] {1});
+      this.value = value;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, int[] out) {
+      java.util.Arrays.fill(out, 0, length, value);
+    }
+
+    @Override
+    IntArray getPrototype() {
+      return null;
+    }
+  }
+
+  private static final class BinaryNode extends IntExpression {
+
+    private final IntExpression left;
+    private final IntExpression right;
+    private final Operator operator;
+
+    BinaryNode(IntExpression left, IntExpression right, Operator operator) {
+      super(Indexer.broadcast(left.shape, right.shape));
+      this.left = left;
+      this.right = right;
+      this.operator = operator;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, int[] out) {
+      left.evaluate(context, from, length, out);
+      if (right instanceof ScalarNode) {
+        int v = ((ScalarNode) right).value;
+        switch (operator) {
+          case PLUS:
+            for (int i = 0; i < length; i++) {
+              out[i] += v;
+            }
+            break;
+          case MINUS:
+            for (int i = 0; i < length; i++) {
+              out[i] -= v;
+            }
+            break;
+          case TIMES:
+            for (int i = 0; i < length; i++) {
+              out[i] *= v;
+            }
+            break;
+          default:
+            for (int i = 0; i < length; i++) {
+              out[i] /= v;
+            }
+        }
+        return;
+      }
+
+      int[] tmp = context.acquireInts();
+      right.evaluate(context, from, length, tmp);
+      switch (operator) {
+        case PLUS:
+          for (int i = 0; i < length; i++) {
+            out[i] += tmp[i];
+          }
+          break;
+        case MINUS:
+          for (int i = 0; i < length; i++) {
+            out[i] -= tmp[i];
+          }
+          break;
+        case TIMES:
+          for (int i = 0; i < length; i++) {
+            out[i] *= tmp[i];
+          }
+          break;
+        default:
+          for (int i = 0; i < length; i++) {
+            out[i] /= tmp[i];
+          }
+      }
+      context.release(tmp);
+    }
+
+    @Override
+    IntArray getPrototype() {
+      IntArray prototype = left.getPrototype();
+      return prototype != null ? prototype : right.getPrototype();
+    }
+  }
+
+  private static final class MapNode extends IntExpression {
+
+    private final IntExpression expression;
+    private final IntUnaryOperator operator;
+
+    MapNode(IntExpression expression, IntUnaryOperator operator) {
+      super(expression.shape);
+      this.expression = expression;
+      this.operator = operator;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, int[] out) {
+      expression.evaluate(context, from, length, out);
+      for (int i = 0; i < length; i++) {
+        out[i] = operator.applyAsInt(out[i]);
+      }
+    }
+
+    @Override
+    IntArray getPrototype() {
+      return expression.getPrototype();
+    }
+  }
+
+  private static final class CombineNode extends IntExpression {
+
+    private final IntExpression left;
+    private final IntExpression right;
+    private final IntBinaryOperator combine;
+
+    CombineNode(IntExpression left, IntExpression right, IntBinaryOperator combine) {
+      super(Indexer.broadcast(left.shape, right.shape));
+      this.left = left;
+      this.right = right;
+      this.combine = combine;
+    }
+
+    @Override
+    void evaluate(ExpressionContext context, int from, int length, int[] out) {
+      int[] tmp = context.acquireInts();
+      left.evaluate(context, from, length, out);
+      right.evaluate(context, from, length, tmp);
+      for (int i = 0; i < length; i++) {
+        out[i] = combine.applyAsInt(out[i], tmp[i]);
+      }
+      context.release(tmp);
+    }
+
+    @Override
+    IntArray getPrototype() {
+      IntArray prototype = left.getPrototype();
+      return prototype != null ? prototype : right.getPrototype();
+    }
+  }
+}
@@ -0,0 +1,598 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.api.ArrayFactory;
+
+/**
+ * Reads and writes arrays in the NumPy {@code .npy} and {@code .npz} formats.
+ *
+ * <p>
+ * Arrays with the data types {@code f8} and {@code f4} are returned as {@link DoubleArray},
+ * {@code i1}, {@code i2}, {@code i4}, {@code u1} and {@code u2} as {@link IntArray} and
+ * {@code i8} and {@code u4} as {@link LongArray}, in either byte order. Arrays stored in C
+ * (row-major) order are returned with row-major strides (i.e., as the {@linkplain
+ * BaseArray#transpose() transpose} of the column-major array with reversed shape), so no elements
+ * are reordered.
+ *
+ * <p>
+ * A {@code .npy} file can also be {@linkplain #map(Path, FileChannel.MapMode) memory mapped}, in
+ * which case the returned array reads (and writes) the mapped file directly. Opening a mapped
+ * array only reads the header; the operating system pages in the parts of the file that are
+ * accessed.
+ *
+ * <pre>
+ * {@code
+ * DoubleArray x = (DoubleArray) Npy.map(Paths.get("features.npy"));
+ * Npy.write(Paths.get("copy.npy"), x);
+ * }
+ * </pre>
+ *
+ * @author Isak Karlsson
+ */
+public final class Npy {
+
+  private static final byte[] MAGIC = {(byte) 0x93, 'N', 'U', 'M', 'P', 'Y'};
+  private static final int ALIGNMENT = 64;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The size (in bytes) of the mapped regions. Since a mapped region is limited to 2 GB, larger
+   * files are mapped in several regions.
+   */
+  private static final int REGION_SHIFT = 30;
+
+  private static final Pattern DESCR = Pattern.compile("'descr'\\s*:\\s*'([^']*)'");
+  private static final Pattern FORTRAN_ORDER =
+      Pattern.compile("'fortran_order'\\s*:\\s*(True|False)");
+  private static final Pattern SHAPE = Pattern.compile("'shape'\\s*:\\s*\\(([^)]*)\\)");
+
+  private Npy() {}
+
+  /**
+   * Reads the {@code .npy} file into a new array.
+   *
+   * @param path the path
+   * @return a double, int or long array (depending on the data type of the file)
+   * @throws IOException if the file is not a valid {@code .npy} file or has an unsupported type
+   */
+  public static BaseArray<?> read(Path path) throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+      return read(in);
+    }
+  }
+
+  /**
+   * Reads an array in the {@code .npy} format from the input stream.
+   *
+   * @param in the input stream
+   * @return a double, int or long array (depending on the data type)
+   * @throws IOException if the stream is not a valid {@code .npy} stream or has an unsupported type
+   */
+  public static BaseArray<?> read(InputStream in) throws IOException {
+    Header header = Header.read(in);
+    int size = header.size();
+    ReadableByteChannel channel = Channels.newChannel(in);
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(header.order);
+    ArrayFactory bj = Arrays.ARRAY_FACTORY;
+    BaseArray<?> array;
+    switch (header.kind) {
+      case DOUBLE: {
+        double[] data = new double[size];
+        for (int i = 0; i < size;) {
+          readFully(channel, buffer, Math.min(size - i, buffer.capacity() / header.itemSize)
+              * header.itemSize);
+          while (buffer.hasRemaining()) {
+            data[i++] = header.itemSize == 8 ? buffer.getDouble() : buffer.getFloat();
+          }
+        }
+        array = bj.array(data);
+        break;
+      }
+      case INT: {
+        int[] data = new int[size];
+        for (int i = 0; i < size;) {
+          readFully(channel, buffer, Math.min(size - i, buffer.capacity() / header.itemSize)
+              * header.itemSize);
+          while (buffer.hasRemaining()) {
+            data[i++] = header.getInt(buffer);
+          }
+        }
+        array = bj.array(data);
+        break;
+      }
+      default: {
+        long[] data = new long[size];
+        for (int i = 0; i < size;) {
+          readFully(channel, buffer, Math.min(size - i, buffer.capacity() / header.itemSize)
+              * header.itemSize);
+          while (buffer.hasRemaining()) {
+            data[i++] = header.getLong(buffer);
+          }
+        }
+        array = bj.array(data);
+      }
+    }
+    return header.reshape(array);
+  }
+
+  /**
+   * Memory maps the {@code .npy} file as a read-only array.
+   *
+   * @param path the path
+   * @return a double, int or long array (depending on the data type of the file)
+   * @throws IOException if the file is not a valid {@code .npy} file or has an unsupported type
+   * @see #map(Path, FileChannel.MapMode)
+   */
+  public static BaseArray<?> map(Path path) throws IOException {
+    return map(path, FileChannel.MapMode.READ_ONLY);
+  }
+
+  /**
+   * Memory maps the {@code .npy} file. No elements are read or copied; the returned array reads
+   * the mapped file directly. Depending on {@code mode}, the returned array is read-only
+   * ({@link FileChannel.MapMode#READ_ONLY}), writes through to the file
+   * ({@link FileChannel.MapMode#READ_WRITE}) or is copy-on-write
+   * ({@link FileChannel.MapMode#PRIVATE}). Note that the two latter modes require write
+   * permission to the file.
+   *
+   * <p>
+   * Writing to a read-only array throws {@link java.nio.ReadOnlyBufferException}. Operations
+   * returning new arrays (e.g., {@code copy()} or {@code plus(...)}) allocate ordinary arrays.
+   *
+   * @param path the path
+   * @param mode the map mode
+   * @return a double, int or long array (depending on the data type of the file)
+   * @throws IOException if the file is not a valid {@code .npy} file or has an unsupported type
+   */
+  public static BaseArray<?> map(Path path, FileChannel.MapMode mode) throws IOException {
+    StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+        ? new StandardOpenOption[] {StandardOpenOption.READ}
+        : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+    try (FileChannel channel = FileChannel.open(path, options)) {
+      InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+      Header header = Header.read(in);
+      long bytes = (long) header.size() * header.itemSize;
+      if (channel.size() < header.length + bytes) {
+        throw new EOFException("Truncated .npy file");
+      }
+
+      int regions = (int) ((bytes + (1L << REGION_SHIFT) - 1) >>> REGION_SHIFT);
+      ByteBuffer[] buffers = new ByteBuffer[Math.max(1, regions)];
+      for (int i = 0; i < buffers.length; i++) {
+        long position = (long) i << REGION_SHIFT;
+        long length = Math.min(1L << REGION_SHIFT, bytes - position);
+        buffers[i] = channel.map(mode, header.length + position, length).order(header.order);
+      }
+      return header.reshape(header.newMappedArray(new Regions(buffers, header.itemSize)));
+    }
+  }
+
+  /**
+   * Writes the array to a {@code .npy} file.
+   *
+   * @param path the path
+   * @param array a double, int or long array
+   * @throws IOException if an I/O error occurs
+   */
+  public static void write(Path path, BaseArray<?> array) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+      write(out, array);
+    }
+  }
+
+  /**
+   * Writes the array in the {@code .npy} format to the output stream. The elements are written
+   * in Fortran (column-major) order, i.e., in the linear order of the array.
+   *
+   * @param out the output stream
+   * @param array a double, int or long array
+   * @throws IOException if an I/O error occurs
+   */
+  public static void write(OutputStream out, BaseArray<?> array) throws IOException {
+    String descr;
+    if (array instanceof DoubleArray) {
+      descr = "<f8";
+    } else if (array instanceof IntArray) {
+      descr = "<i4";
+    } else if (array instanceof LongArray) {
+      descr = "<i8";
+    } else {
+      throw new IllegalArgumentException("Unsupported array type: " + array.getClass());
+    }
+
+    StringJoiner shape = new StringJoiner(", ", "(", array.dims() == 1 ? ",)" : ")");
+    for (int i = 0; i < array.dims(); i++) {
+      shape.add(String.valueOf(array.size(i)));
+    }
+    StringBuilder header = new StringBuilder().append("{'descr': '").append(descr)
+        .append("', 'fortran_order': True, 'shape': ").append(shape).append(", }");
+    int unpadded = MAGIC.length + 4 + header.length() + 1;
+    for (int i = 0; i < (ALIGNMENT - unpadded % ALIGNMENT) % ALIGNMENT; i++) {
+      header.append(' ');
+    }
+    header.append('\n');
+    byte[] headerBytes = header.toString().getBytes(StandardCharsets.ISO_8859_1);
+    Check.argument(headerBytes.length <= 0xFFFF, "too many dimensions");
+
+    out.write(MAGIC);
+    out.write(new byte[] {1, 0, (byte) headerBytes.length, (byte) (headerBytes.length >>> 8)});
+    out.write(headerBytes);
+
+    WritableByteChannel channel = Channels.newChannel(out);
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    int size = array.size();
+    for (int i = 0; i < size; i++) {
+      if (buffer.remaining() < 8) {
+        writeFully(channel, buffer);
+      }
+      if (array instanceof DoubleArray) {
+        buffer.putDouble(((DoubleArray) array).get(i));
+      } else if (array instanceof IntArray) {
+        buffer.putInt(((IntArray) array).get(i));
+      } else {
+        buffer.putLong(((LongArray) array).get(i));
+      }
+    }
+    writeFully(channel, buffer);
+  }
+
+  /**
+   * Reads the arrays of the {@code .npz} file, i.e., a zip-archive of {@code .npy} files.
+   *
+   * @param path the path
+   * @return the arrays, by name (without the {@code .npy} suffix), in the order of the archive
+   * @throws IOException if the archive contains an invalid {@code .npy} file or an unsupported
+   *         type
+   */
+  public static Map<String, BaseArray<?>> readNpz(Path path) throws IOException {
+    Map<String, BaseArray<?>> arrays = new LinkedHashMap<>();
+    try (ZipInputStream in =
+        new ZipInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      ZipEntry entry;
+      while ((entry = in.getNextEntry()) != null) {
+        String name = entry.getName();
+        if (name.endsWith(".npy")) {
+          name = name.substring(0, name.length() - 4);
+        }
+        arrays.put(name, read(in));
+      }
+    }
+    return arrays;
+  }
+
+  /**
+   * Writes the arrays to a (compressed) {@code .npz} file.
+   *
+   * @param path the path
+   * @param arrays the double, int or long arrays, by name
+   * @throws IOException if an I/O error occurs
+   */
+  public static void writeNpz(Path path, Map<String, ? extends BaseArray<?>> arrays)
+      throws IOException {
+    try (ZipOutputStream out =
+        new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+      for (Map.Entry<String, ? extends BaseArray<?>> entry : arrays.entrySet()) {
+        out.putNextEntry(new ZipEntry(entry.getKey() + ".npy"));
+        write(out, entry.getValue());
+        out.closeEntry();
+      }
+    }
+  }
+
+  private static void readFully(ReadableByteChannel channel, ByteBuffer buffer, int length)
+      throws IOException {
+    buffer.clear().limit(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new EOFException("Truncated .npy data");
+      }
+    }
+    buffer.flip();
+  }
+
+  private static void writeFully(WritableByteChannel channel, ByteBuffer buffer)
+      throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private enum Kind {
+    DOUBLE, INT, LONG
+  }
+
+  /**
+   * The parsed header of a {@code .npy} file.
+   */
+  private static final class Header {
+
+    private final int length;
+    private final char type;
+    private final int itemSize;
+    private final Kind kind;
+    private final ByteOrder order;
+    private final boolean fortranOrder;
+    private final int[] shape;
+
+    private Header(int length, String descr, boolean fortranOrder, int[] shape)
+        throws IOException {
+      this.length = length;
+      this.fortranOrder = fortranOrder;
+      this.shape = shape;
+      if (descr.length() < 3) {
+        throw new IOException("Invalid descr: " + descr);
+      }
+      this.order = descr.charAt(0) == '>' ? ByteOrder.BIG_ENDIAN
+          : descr.charAt(0) == '=' ? ByteOrder.nativeOrder() : ByteOrder.LITTLE_ENDIAN;
+      this.type = descr.charAt(1);
+      this.itemSize = Integer.parseInt(descr.substring(2));
+      switch (descr.substring(1)) {
+        case "f8":
+        case "f4":
+          kind = Kind.DOUBLE;
+          break;
+        case "i1":
+        case "i2":
+        case "i4":
+        case "u1":
+        case "u2":
+          kind = Kind.INT;
+          break;
+        case "i8":
+        case "u4":
+          kind = Kind.LONG;
+          break;
+        default:
+          throw new IOException("Unsupported data type: " + descr);
+      }
+    }
+
+    static Header read(InputStream in) throws IOException {
+      DataInputStream data = new DataInputStream(in);
+      byte[] magic = new byte[MAGIC.length];
+      data.readFully(magic);
+      if (!java.util.Arrays.equals(magic, MAGIC)) {
+        throw new IOException("Not a .npy file");
+      }
+      int major = data.readUnsignedByte();
+      data.readUnsignedByte();
+      int headerLength;
+      int prefix;
+      if (major == 1) {
+        headerLength = data.readUnsignedByte() | data.readUnsignedByte() << 8;
+        prefix = MAGIC.length + 4;
+      } else if (major == 2 || major == 3) {
+        headerLength = data.readUnsignedByte() | data.readUnsignedByte() << 8
+            | data.readUnsignedByte() << 16 | data.readUnsignedByte() << 24;
+        prefix = MAGIC.length + 6;
+      } else {
+        throw new IOException("Unsupported .npy version: " + major);
+      }
+
+      byte[] headerBytes = new byte[headerLength];
+      data.readFully(headerBytes);
+      String header = new String(headerBytes,
+          major == 3 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+      Matcher descr = DESCR.matcher(header);
+      Matcher fortranOrder = FORTRAN_ORDER.matcher(header);
+      Matcher shape = SHAPE.matcher(header);
+      if (!descr.find() || !fortranOrder.find() || !shape.find()) {
+        throw new IOException("Invalid .npy header: " + header);
+      }
+
+      String[] dims = shape.group(1).split(",");
+      int[] s = new int[dims.length];
+      int n = 0;
+      for (String dim : dims) {
+        dim = dim.trim().replace("L", "");
+        if (!dim.isEmpty()) {
+          s[n++] = Integer.parseInt(dim);
+        }
+      }
+      s = n == 0 ? new int[] {1} : java.util.Arrays.copyOf(s, n);
+      return new Header(prefix + headerLength, descr.group(1),
+          fortranOrder.group(1).equals("True"), s);
+    }
+
+    int size() {
+      return Indexer.size(shape);
+    }
+
+    /**
+     * Reshapes the (1-d) array with the elements in file order to the shape of the header.
+     */
+    BaseArray<?> reshape(BaseArray<?> array) {
+      if (fortranOrder || shape.length == 1) {
+        return array.reshape(shape);
+      } else {
+        return array.reshape(Indexer.reverse(shape)).transpose();
+      }
+    }
+
+    int getInt(ByteBuffer buffer) {
+      switch (itemSize) {
+        case 1:
+          return type == 'u' ? buffer.get() & 0xFF : buffer.get();
+        case 2:
+          return type == 'u' ? buffer.getShort() & 0xFFFF : buffer.getShort();
+        default:
+          return buffer.getInt();
+      }
+    }
+
+    long getLong(ByteBuffer buffer) {
+      return type == 'u' ? buffer.getInt() & 0xFFFFFFFFL : buffer.getLong();
+    }
+
+    BaseArray<?> newMappedArray(Regions regions) {
+      ArrayFactory bj = Arrays.ARRAY_FACTORY;
+      int size = size();
+      int[] shape = {size};
+      int[] stride = {1};
+      switch (kind) {
+        case DOUBLE:
+          return new AsDoubleArray(bj, 0, shape, stride, 0) {
+            @Override
+            protected void setElement(int i, double value) {
+              ByteBuffer buffer = regions.buffer(i);
+              if (itemSize == 8) {
+                buffer.putDouble(regions.position(i), value);
+              } else {
+                buffer.putFloat(regions.position(i), (float) value);
+              }
+            }
+
+            @Override
+            protected double getElement(int i) {
+              ByteBuffer buffer = regions.buffer(i);
+              return itemSize == 8 ? buffer.getDouble(regions.position(i))
+                  : buffer.getFloat(regions.position(i));
+            }
+
+            @Override
+            protected int elementSize() {
+              return size;
+            }
+          };
+        case INT:
+          return new AsIntArray(bj, 0, shape, stride, 0) {
+            @Override
+            protected void setElement(int i, int value) {
+              ByteBuffer buffer = regions.buffer(i);
+              int position = regions.position(i);
+              switch (itemSize) {
+                case 1:
+                  buffer.put(position, (byte) value);
+                  break;
+                case 2:
+                  buffer.putShort(position, (short) value);
+                  break;
+                default:
+                  buffer.putInt(position, value);
+              }
+            }
+
+            @Override
+            protected int getElement(int i) {
+              ByteBuffer buffer = regions.buffer(i);
+              int position = regions.position(i);
+              switch (itemSize) {
+                case 1:
+                  return type == 'u' ? buffer.get(position) & 0xFF : buffer.get(position);
+                case 2:
+                  return type == 'u' ? buffer.getShort(position) & 0xFFFF
+                      : buffer.getShort(position);
+                default:
+                  return buffer.getInt(position);
+              }
+            }
+
+            @Override
+            protected int elementSize() {
+              return size;
+            }
+          };
+        default:
+          return new AsLongArray(bj, 0, shape, stride, 0) {
+            @Override
+            protected void setElement(int i, long value) {
+              ByteBuffer buffer = regions.buffer(i);
+              if (itemSize == 8) {
+                buffer.putLong(regions.position(i), value);
+              } else {
+                buffer.putInt(regions.position(i), (int) value);
+              }
+            }
+
+            @Override
+            protected long getElement(int i) {
+              ByteBuffer buffer = regions.buffer(i);
+              return itemSize == 8 ? buffer.getLong(regions.position(i))
+                  : buffer.getInt(regions.position(i)) & 0xFFFFFFFFL;
+            }
+
+            @Override
+            protected int elementSize() {
+              return size;
+            }
+          };
+      }
+    }
+  }
+
+  /**
+   * The mapped regions of a file. Since the region size is a multiple of the element size, an
+   * element never spans two regions.
+   */
+  private static final class Regions {
+
+    private final ByteBuffer[] buffers;
+    private final int shift;
+    private final int mask;
+    private final int itemShift;
+
+    Regions(ByteBuffer[] buffers, int itemSize) {
+      this.buffers = buffers;
+      this.itemShift = Integer.numberOfTrailingZeros(itemSize);
+      this.shift = REGION_SHIFT - itemShift;
+      this.mask = (1 << shift) - 1;
+    }
+
+    ByteBuffer buffer(int index) {
+      return buffers[index >>> shift];
+    }
+
+    int position(int index) {
+      return (index & mask) << itemShift;
+    }
+  }
+}
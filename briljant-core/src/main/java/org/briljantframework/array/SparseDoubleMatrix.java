@@ -0,0 +1,236 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+/**
+ * A sparse {@code double} matrix in compressed sparse row ({@link Format#CSR CSR}) or compressed
+ * sparse column ({@link Format#CSC CSC}) format. Only the non-zero elements are stored. In the
+ * following, the <i>major</i> dimension is the compressed dimension (i.e., the rows of a CSR
+ * matrix) and the <i>minor</i> dimension is the other dimension.
+ *
+ * <p>
+ * The non-zero elements of the {@code k:th} major vector are stored at the positions
+ * {@code [pointers()[k], pointers()[k + 1])} of {@link #indices()} (the minor index of each
+ * element) and {@link #values()}, sorted by minor index. Note that slices and transposes are views
+ * which share indices and values with the matrix they are created from; hence, the first pointer
+ * is not necessarily {@code 0}.
+ *
+ * <p>
+ * Sparse matrices are created using a {@link Builder}, which accepts the non-zero elements in any
+ * order (i.e., in coordinate format) or from a dense matrix.
+ *
+ * <pre>
+ * {@code
+ * > SparseDoubleMatrix.Builder builder = Arrays.newSparseMatrixBuilder(3, 3);
+ * > builder.add(0, 0, 1).add(2, 1, 3).add(2, 1, 2);
+ * > builder.build().toDense()
+ * array([[1.000, 0.000, 0.000],
+ *        [0.000, 0.000, 0.000],
+ *        [0.000, 5.000, 0.000]])
+ * }
+ * </pre>
+ *
+ * The sparse-dense products are computed by
+ * {@link org.briljantframework.array.api.ArrayRoutines#gemv(Op, double, SparseDoubleMatrix,
+ * DoubleArray, double, DoubleArray)} and
+ * {@link org.briljantframework.array.api.ArrayRoutines#gemm(Op, Op, double, SparseDoubleMatrix,
+ * DoubleArray, double, DoubleArray)}.
+ *
+ * @author Isak Karlsson
+ */
+public interface SparseDoubleMatrix {
+
+  /**
+   * The storage format of a sparse matrix
+   */
+  enum Format {
+    /**
+     * Compressed sparse row, i.e., the rows are the major dimension
+     */
+    CSR,
+
+    /**
+     * Compressed sparse column, i.e., the columns are the major dimension
+     */
+    CSC;
+
+    /**
+     * @return the format of the transpose
+     */
+    public Format transpose() {
+      return this == CSR ? CSC : CSR;
+    }
+  }
+
+  /**
+   * @return the storage format
+   */
+  Format getFormat();
+
+  /**
+   * @return the number of rows
+   */
+  int rows();
+
+  /**
+   * @return the number of columns
+   */
+  int columns();
+
+  /**
+   * @return the number of stored (non-zero) elements
+   */
+  int nonZeros();
+
+  /**
+   * Returns the element at the given row and column. The cost is logarithmic in the number of
+   * non-zero elements of the major vector.
+   *
+   * @param i the row
+   * @param j the column
+   * @return the element
+   */
+  double get(int i, int j);
+
+  /**
+   * Returns the positions of the major vectors in {@link #indices()} and {@link #values()}. The
+   * returned array has one more element than the number of major vectors, and is not copied.
+   *
+   * @return the pointers
+   */
+  int[] pointers();
+
+  /**
+   * @return the minor index of the stored elements (not copied)
+   */
+  int[] indices();
+
+  /**
+   * @return the values of the stored elements (not copied)
+   */
+  double[] values();
+
+  /**
+   * Returns the transpose of this matrix. The transpose is a view, in the other format, of the
+   * storage of this matrix, e.g., the transpose of a CSR matrix is a CSC matrix.
+   *
+   * @return the transpose
+   */
+  SparseDoubleMatrix transpose();
+
+  /**
+   * Returns the rows {@code [from, to)}. For a {@linkplain Format#CSR CSR} matrix, the rows are a
+   * view; otherwise the selected elements are copied.
+   *
+   * @param from the first row (inclusive)
+   * @param to the last row (exclusive)
+   * @return the rows
+   */
+  SparseDoubleMatrix getRows(int from, int to);
+
+  /**
+   * Returns the columns {@code [from, to)}. For a {@linkplain Format#CSC CSC} matrix, the columns
+   * are a view; otherwise the selected elements are copied.
+   *
+   * @param from the first column (inclusive)
+   * @param to the last column (exclusive)
+   * @return the columns
+   */
+  SparseDoubleMatrix getColumns(int from, int to);
+
+  /**
+   * Returns a new matrix with each element multiplied by {@code scalar}.
+   *
+   * @param scalar the scalar
+   * @return a new matrix
+   */
+  SparseDoubleMatrix times(double scalar);
+
+  /**
+   * Returns a new matrix with each element multiplied by the corresponding element of
+   * {@code scale}, which is {@linkplain BaseArray#broadcast(int...) broadcast} to the shape of
+   * this matrix. Hence, a {@code [rows, 1]} array scales the rows and a {@code [1, columns]} (or
+   * {@code [columns]}) array scales the columns. The sparsity pattern is unchanged.
+   *
+   * @param scale the scale
+   * @return a new matrix
+   */
+  SparseDoubleMatrix times(DoubleArray scale);
+
+  /**
+   * Multiplies each (stored) element of this matrix by {@code scalar}.
+   *
+   * @param scalar the scalar
+   */
+  void timesAssign(double scalar);
+
+  /**
+   * Returns this matrix in the given format, converting (copying) it if necessary.
+   *
+   * @param format the format
+   * @return a matrix with the given format
+   */
+  SparseDoubleMatrix asFormat(Format format);
+
+  /**
+   * @return a dense copy of this matrix
+   */
+  DoubleArray toDense();
+
+  /**
+   * Builds a sparse matrix from elements given in any order. Elements added more than once are
+   * summed.
+   */
+  interface Builder {
+
+    /**
+     * Adds {@code value} to the element at the given row and column.
+     *
+     * @param i the row
+     * @param j the column
+     * @param value the value
+     * @return this builder
+     */
+    Builder add(int i, int j, double value);
+
+    /**
+     * Adds the non-zero elements of the given {@code [rows, columns]} matrix.
+     *
+     * @param matrix the matrix
+     * @return this builder
+     */
+    Builder addAll(DoubleArray matrix);
+
+    /**
+     * @return a new {@link Format#CSR CSR} matrix
+     */
+    default SparseDoubleMatrix build() {
+      return build(Format.CSR);
+    }
+
+    /**
+     * @param format the format of the matrix
+     * @return a new matrix
+     */
+    SparseDoubleMatrix build(Format format);
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A cursor over the positions in the underlying storage of an array with a given {@code offset},
+ * {@code shape} and {@code stride}. The positions are returned in the same order as the linearized
+ * (column-major) indexes, i.e., the {@code i:th} call to {@link #next()} returns the position of
+ * the {@code i:th} element.
+ *
+ * <p>
+ * Unlike {@link Indexer#linearized(int, int, int[], int[])}, which computes the position of each
+ * index using integer division and modulo, the cursor walks the storage incrementally. Moreover,
+ * adjacent dimensions that are laid out contiguously are merged, so that a dense array (or a dense
+ * sub-array) is traversed as a single dimension with unit stride.
+ *
+ * <pre>
+ * {@code
+ * StrideCursor cursor = new StrideCursor(offset, shape, stride);
+ * while (cursor.hasNext()) {
+ *   int position = cursor.next();
+ *   data[position] = ...;
+ * }
+ * }
+ * </pre>
+ *
+ * @author Isak Karlsson
+ */
+public final class StrideCursor {
+
+  private final int offset;
+  private final int size;
+
+  /**
+   * The shape and stride of the (possibly merged) dimensions, excluding the first
+   */
+  private final int[] shape;
+  private final int[] stride;
+  private final int[] index;
+
+  /**
+   * The shape and stride of the first (fastest varying) dimension
+   */
+  private final int shape0;
+  private final int stride0;
+
+  private int index0;
+  private int position;
+  private int remaining;
+
+  /**
+   * Construct a new cursor over the positions of an array with the given offset, shape and stride
+   *
+   * @param offset the offset
+   * @param shape the shape
+   * @param stride the stride
+   */
+  public StrideCursor(int offset, int[] shape, int[] stride) {
+    if (shape.length != stride.length) {
+      throw new IllegalArgumentException("shape and stride must have the same length");
+    }
+    int[] mergedShape = new int[shape.length];
+    int[] mergedStride = new int[shape.length];
+    int dims = 0;
+    int size = 1;
+    for (int i = 0; i < shape.length; i++) {
+      int n = shape[i];
+      size *= n;
+      if (n == 1) {
+        continue; // a singleton dimension never changes the position
+      }
+      if (dims > 0 && mergedStride[dims - 1] * mergedShape[dims - 1] == stride[i]) {
+        mergedShape[dims - 1] *= n;
+      } else {
+        mergedShape[dims] = n;
+        mergedStride[dims] = stride[i];
+        dims++;
+      }
+    }
+
+    this.offset = offset;
+    this.size = size;
+    if (dims == 0) {
+      this.shape0 = 1;
+      this.stride0 = 1;
+    } else {
+      this.shape0 = mergedShape[0];
+      this.stride0 = mergedStride[0];
+    }
+    int rest = Math.max(0, dims - 1);
+    this.shape = new int[rest];
+    this.stride = new int[rest];
+    this.index = new int[rest];
+    System.arraycopy(mergedShape, 1, this.shape, 0, rest);
+    System.arraycopy(mergedStride, 1, this.stride, 0, rest);
+    reset();
+  }
+
+  /**
+   * Construct a new cursor over the positions of the given array
+   *
+   * @param array the array
+   * @return a new cursor
+   */
+  public static StrideCursor of(BaseArray<?> array) {
+    return new StrideCursor(array.getOffset(), array.getShape(), array.getStride());
+  }
+
+  /**
+   * Returns the position of the first element
+   *
+   * @return the first position
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * Returns the total number of positions
+   *
+   * @return the number of positions
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns true if the positions are contiguous in the underlying storage, i.e., if the
+   * {@code i:th} position is {@code getOffset() + i}. The elements of a contiguous cursor can be
+   * traversed using a plain loop.
+   *
+   * @return true if the positions are contiguous
+   */
+  public boolean isContiguous() {
+    return shape.length == 0 && stride0 == 1;
+  }
+
+  /**
+   * Returns true if there are more positions
+   *
+   * @return true if there are more positions
+   */
+  public boolean hasNext() {
+    return remaining > 0;
+  }
+
+  /**
+   * Returns the next position and advance the cursor
+   *
+   * @return the next position
+   */
+  public int next() {
+    if (remaining <= 0) {
+      throw new NoSuchElementException();
+    }
+    int current = position;
+    remaining--;
+    if (++index0 < shape0) {
+      position += stride0;
+    } else {
+      carry();
+    }
+    return current;
+  }
+
+  /**
+   * Rewind the cursor to the first position
+   */
+  public void reset() {
+    index0 = 0;
+    position = offset;
+    remaining = size;
+    Arrays.fill(index, 0);
+  }
+
+  private void carry() {
+    index0 = 0;
+    position -= (shape0 - 1) * stride0;
+    for (int i = 0; i < shape.length; i++) {
+      if (++index[i] < shape[i]) {
+        position += stride[i];
+        return;
+      } else {
+        index[i] = 0;
+        position -= (shape[i] - 1) * stride[i];
+      }
+    }
+  }
+}
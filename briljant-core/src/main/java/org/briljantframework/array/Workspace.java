@@ -0,0 +1,321 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.briljantframework.Check;
+
+/**
+ * A scoped arena of scratch arrays, used to avoid allocating temporary arrays in loops. A
+ * workspace is opened in a try-with-resources statement and the arrays borrowed from it are
+ * returned when it is closed:
+ *
+ * <pre>
+ * for (int iter = 0; iter &lt; 100; iter++) {
+ *   try (Workspace ws = Workspace.open()) {
+ *     DoubleArray tmp = ws.doubleArray(n, m);
+ *     Arrays.exp(x, tmp);
+ *     ...
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>
+ * The returned arrays are kept (per thread) and handed out again when an array of the same shape is
+ * requested in a later scope. Hence, a loop which requests the same shapes in each iteration
+ * reaches a steady state in which nothing is allocated. Scopes can be nested; closing a scope
+ * returns the arrays borrowed since it was opened. By default, at most {@link #MAX_RETAINED_BYTES}
+ * are kept per thread; arrays returned beyond that are left to the garbage collector. Routines
+ * which know how much scratch memory they need (e.g., an optimizer with a history of {@code m}
+ * vectors) open their scope with {@link #open(long)} to raise the limit of the thread, so that
+ * repeated calls do not allocate either. Threads which are done with a workspace (e.g., pooled
+ * threads after a large computation) can drop the kept arrays and restore the default limit using
+ * {@link #trim()}.
+ *
+ * <p>
+ * Routines which need temporary storage (e.g., the work arrays of LAPACK) borrow it from the
+ * {@linkplain #active() active} workspace, if any.
+ *
+ * <p>
+ * A workspace is confined to the thread which opened it and the borrowed arrays must not be used
+ * after the scope is closed.
+ *
+ * @author Isak Karlsson
+ */
+public final class Workspace implements AutoCloseable {
+
+  public static final String MAX_RETAINED_BYTES_PROPERTY =
+      "org.briljantframework.array.workspace.maxRetainedBytes";
+
+  /**
+   * The default maximum number of bytes of unused buffers retained by a thread; {@code 16} MiB
+   * unless set by the system property {@value #MAX_RETAINED_BYTES_PROPERTY}
+   */
+  public static final long MAX_RETAINED_BYTES =
+      Long.getLong(MAX_RETAINED_BYTES_PROPERTY, 16L << 20);
+
+  /**
+   * The maximum number of unused buffers (of each kind) retained by a thread
+   */
+  private static final int MAX_RETAINED = 64;
+
+  private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+  private final Thread owner = Thread.currentThread();
+  private final List<DoubleArray> arrays = new ArrayList<>();
+  private final List<double[]> doubles = new ArrayList<>();
+  private final List<int[]> ints = new ArrayList<>();
+  private final List<Object> borrowed = new ArrayList<>();
+  private int[] scopes = new int[8];
+  private int depth = 0;
+  private long retainedBytes = 0;
+  private long borrowedBytes = 0;
+  private long maxRetainedBytes = MAX_RETAINED_BYTES;
+
+  private Workspace() {}
+
+  /**
+   * Opens a new scope in the workspace of the current thread.
+   *
+   * @return the workspace of the current thread
+   */
+  public static Workspace open() {
+    Workspace workspace = WORKSPACE.get();
+    if (workspace.depth == workspace.scopes.length) {
+      workspace.scopes = java.util.Arrays.copyOf(workspace.scopes, workspace.depth * 2);
+    }
+    workspace.scopes[workspace.depth++] = workspace.borrowed.size();
+    return workspace;
+  }
+
+  /**
+   * Opens a new scope in the workspace of the current thread, which will borrow (about)
+   * {@code bytes} bytes. The number of bytes of unused buffers retained by the thread is raised
+   * (until {@link #trim()} is called) to at least {@code bytes} plus the bytes borrowed by the
+   * enclosing scopes, so that the buffers of this scope and of the enclosing scopes are all kept
+   * for the next time the same scopes are opened.
+   *
+   * @param bytes the number of bytes borrowed in the scope
+   * @return the workspace of the current thread
+   */
+  public static Workspace open(long bytes) {
+    Check.argument(bytes >= 0, "bytes must be non-negative");
+    Workspace workspace = open();
+    workspace.maxRetainedBytes =
+        Math.max(workspace.maxRetainedBytes, workspace.borrowedBytes + bytes);
+    return workspace;
+  }
+
+  /**
+   * Returns the workspace of the current thread if a scope is open; otherwise {@code null}.
+   *
+   * @return the active workspace or {@code null}
+   */
+  public static Workspace active() {
+    Workspace workspace = WORKSPACE.get();
+    return workspace.depth > 0 ? workspace : null;
+  }
+
+  /**
+   * Drops the unused arrays retained by the workspace of the current thread and restores the
+   * default limit. Arrays borrowed in open scopes are not affected, but are retained (up to the
+   * limit) when their scope is closed.
+   */
+  public static void trim() {
+    Workspace workspace = WORKSPACE.get();
+    workspace.arrays.clear();
+    workspace.doubles.clear();
+    workspace.ints.clear();
+    workspace.retainedBytes = 0;
+    workspace.maxRetainedBytes = MAX_RETAINED_BYTES;
+    if (workspace.depth == 0) {
+      WORKSPACE.remove();
+    }
+  }
+
+  /**
+   * Returns a double array with the given shape, filled with zeros.
+   *
+   * @param shape the shape
+   * @return a scratch array, valid until the scope is closed
+   */
+  public DoubleArray doubleArray(int... shape) {
+    checkOpen();
+    DoubleArray array = null;
+    for (int i = 0; i < arrays.size(); i++) {
+      if (hasShape(arrays.get(i), shape)) {
+        array = removeAt(arrays, i);
+        retainedBytes -= bytes(array);
+        array.assign(0.0);
+        break;
+      }
+    }
+    if (array == null) {
+      array = Arrays.newDoubleArray(shape);
+    }
+    borrow(array);
+    return array;
+  }
+
+  /**
+   * Returns a {@code double[]} with at least {@code length} elements. The values are unspecified.
+   *
+   * @param length the minimum length
+   * @return a scratch buffer, valid until the scope is closed
+   */
+  public double[] doubles(int length) {
+    checkOpen();
+    double[] buffer = null;
+    int index = -1;
+    for (int i = 0; i < doubles.size(); i++) {
+      double[] candidate = doubles.get(i);
+      if (candidate.length >= length && (buffer == null || candidate.length < buffer.length)) {
+        buffer = candidate;
+        index = i;
+      }
+    }
+    if (index < 0) {
+      buffer = new double[length];
+    } else {
+      removeAt(doubles, index);
+      retainedBytes -= bytes(buffer);
+    }
+    borrow(buffer);
+    return buffer;
+  }
+
+  /**
+   * Returns an {@code int[]} with at least {@code length} elements. The values are unspecified.
+   *
+   * @param length the minimum length
+   * @return a scratch buffer, valid until the scope is closed
+   */
+  public int[] ints(int length) {
+    checkOpen();
+    int[] buffer = null;
+    int index = -1;
+    for (int i = 0; i < ints.size(); i++) {
+      int[] candidate = ints.get(i);
+      if (candidate.length >= length && (buffer == null || candidate.length < buffer.length)) {
+        buffer = candidate;
+        index = i;
+      }
+    }
+    if (index < 0) {
+      buffer = new int[length];
+    } else {
+      removeAt(ints, index);
+      retainedBytes -= bytes(buffer);
+    }
+    borrow(buffer);
+    return buffer;
+  }
+
+  /**
+   * Closes the innermost scope and returns the arrays borrowed in it to the workspace.
+   */
+  @Override
+  public void close() {
+    checkOpen();
+    int from = scopes[--depth];
+    for (int i = borrowed.size() - 1; i >= from; i--) {
+      Object buffer = borrowed.remove(i);
+      borrowedBytes -= bytes(buffer);
+      if (buffer instanceof DoubleArray) {
+        retain(arrays, (DoubleArray) buffer);
+      } else if (buffer instanceof double[]) {
+        retain(doubles, (double[]) buffer);
+      } else {
+        retain(ints, (int[]) buffer);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of bytes of the unused buffers retained by this workspace.
+   */
+  long retainedBytes() {
+    return retainedBytes;
+  }
+
+  private void checkOpen() {
+    if (depth == 0) {
+      throw new IllegalStateException("The workspace is closed");
+    }
+    if (Thread.currentThread() != owner) {
+      throw new IllegalStateException("The workspace belongs to another thread");
+    }
+  }
+
+  private void borrow(Object buffer) {
+    borrowed.add(buffer);
+    borrowedBytes += bytes(buffer);
+  }
+
+  private static boolean hasShape(DoubleArray array, int[] shape) {
+    if (array.dims() != shape.length) {
+      return false;
+    }
+    for (int i = 0; i < shape.length; i++) {
+      if (array.size(i) != shape[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Keeps {@code buffer} for later scopes, unless that exceeds the number of buffers of its kind
+   * or the number of bytes retained by this workspace.
+   */
+  private <T> void retain(List<T> buffers, T buffer) {
+    long bytes = bytes(buffer);
+    if (buffers.size() < MAX_RETAINED && retainedBytes + bytes <= maxRetainedBytes) {
+      buffers.add(buffer);
+      retainedBytes += bytes;
+    }
+  }
+
+  private static long bytes(Object buffer) {
+    if (buffer instanceof DoubleArray) {
+      return 8L * ((DoubleArray) buffer).size();
+    } else if (buffer instanceof double[]) {
+      return 8L * ((double[]) buffer).length;
+    } else {
+      return 4L * ((int[]) buffer).length;
+    }
+  }
+
+  /**
+   * Removes the element at {@code index} by replacing it with the last element.
+   */
+  private static <T> T removeAt(List<T> list, int index) {
+    T value = list.get(index);
+    T last = list.remove(list.size() - 1);
+    if (index < list.size()) {
+      list.set(index, last);
+    }
+    return value;
+  }
+}
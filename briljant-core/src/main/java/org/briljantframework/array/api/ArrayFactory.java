@@ -25,11 +25,14 @@ import org.apache.commons.math3.complex.Complex;
 import org.briljantframework.array.Array;
 import org.briljantframework.array.BaseArray;
 import org.briljantframework.array.BooleanArray;
+import org.briljantframework.array.ChunkedDoubleArray;
 import org.briljantframework.array.ComplexArray;
 import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.FloatArray;
 import org.briljantframework.array.IntArray;
 import org.briljantframework.array.LongArray;
 import org.briljantframework.array.Range;
+import org.briljantframework.array.SparseDoubleMatrix;
 
 import java.util.List;
 
@@ -96,6 +99,64 @@ public interface ArrayFactory {
    */
   DoubleArray array(double[] data);
 
+  /**
+   * Construct an empty single precision array with the given shape, filled with {@code 0}.
+   *
+   * @param shape the shape
+   * @return a new array
+   */
+  FloatArray floatArray(int... shape);
+
+  /**
+   * Create a single precision vector with the given data.
+   *
+   * @param data the data array
+   * @return a new array
+   */
+  FloatArray array(float[] data);
+
+  /**
+   * Returns a builder of a sparse {@code [rows, columns]} matrix, to which the non-zero elements
+   * can be added in any order.
+   *
+   * @param rows the number of rows
+   * @param columns the number of columns
+   * @return a new builder
+   */
+  SparseDoubleMatrix.Builder sparseMatrixBuilder(int rows, int columns);
+
+  /**
+   * Returns a sparse copy of the non-zero elements of the given matrix.
+   *
+   * @param matrix the matrix
+   * @param format the format of the sparse matrix
+   * @return a new sparse matrix
+   */
+  default SparseDoubleMatrix sparseMatrix(DoubleArray matrix, SparseDoubleMatrix.Format format) {
+    return sparseMatrixBuilder(matrix.rows(), matrix.columns()).addAll(matrix).build(format);
+  }
+
+  /**
+   * Create a chunked array with {@code size} elements (filled with zeros), stored in chunks of
+   * {@code chunkSize} elements.
+   *
+   * @param size the number of elements
+   * @param chunkSize the number of elements in each chunk
+   * @return a new chunked array
+   */
+  ChunkedDoubleArray chunkedDoubleArray(long size, int chunkSize);
+
+  /**
+   * Create a chunked array with {@code size} elements, stored in chunks of
+   * {@link ChunkedDoubleArray#DEFAULT_CHUNK_SIZE} elements.
+   *
+   * @param size the number of elements
+   * @return a new chunked array
+   */
+  default ChunkedDoubleArray chunkedDoubleArray(long size) {
+    return chunkedDoubleArray(size, ChunkedDoubleArray.DEFAULT_CHUNK_SIZE);
+  }
+
   /**
    * Create a matrix with given data in row-major order.
    *
@@ -28,11 +28,15 @@ import java.util.List;
 import org.apache.commons.math3.complex.Complex;
 import org.briljantframework.array.Array;
 import org.briljantframework.array.BaseArray;
+import org.briljantframework.array.BooleanArray;
 import org.briljantframework.array.ComplexArray;
+import org.briljantframework.array.ConvolutionMode;
 import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.FloatArray;
 import org.briljantframework.array.IntArray;
 import org.briljantframework.array.LongArray;
 import org.briljantframework.array.Op;
+import org.briljantframework.array.SparseDoubleMatrix;
 import org.briljantframework.sort.IndexComparator;
 
 /**
@@ -48,6 +52,14 @@ public interface ArrayRoutines {
    */
   double mean(DoubleArray x);
 
+  /**
+   * Computes the mean of {@code x}, accumulated in double precision.
+   *
+   * @param x the array
+   * @return the mean
+   */
+  double mean(FloatArray x);
+
   /**
    * Computes the mean of {@code x} along {@code dim}
    *
@@ -103,6 +115,8 @@ public interface ArrayRoutines {
 
   long min(LongArray x);
 
+  float min(FloatArray x);
+
   <T extends Comparable<T>> T min(Array<T> x);
 
   <T> T min(Array<T> x, Comparator<T> cmp);
@@ -137,6 +151,8 @@ public interface ArrayRoutines {
 
   long max(LongArray x);
 
+  float max(FloatArray x);
+
   <T extends Comparable<T>> T max(Array<T> x);
 
   <T> T max(Array<T> x, Comparator<T> cmp);
@@ -168,6 +184,14 @@ public interface ArrayRoutines {
 
   int sum(IntArray x);
 
+  /**
+   * Return the sum of {@code x}, accumulated in double precision.
+   *
+   * @param x the array
+   * @return the sum
+   */
+  double sum(FloatArray x);
+
   /**
    * Returns the sum of {@code x} along {@code dim}.
    *
@@ -179,6 +203,16 @@ public interface ArrayRoutines {
 
   IntArray sum(int dim, IntArray x);
 
+  /**
+   * Returns the sum of {@code x} along {@code dim}. Each sum is accumulated in double precision
+   * and rounded to single precision.
+   *
+   * @param dim the dimension
+   * @param x the array
+   * @return an array of sums
+   */
+  FloatArray sum(int dim, FloatArray x);
+
   /**
    * Returns the product of {@code x}.
    *
@@ -202,12 +236,24 @@ public interface ArrayRoutines {
 
   double inner(DoubleArray a, DoubleArray b);
 
+  /**
+   * Computes the inner product of {@code a} and {@code b}, accumulated in double precision (as
+   * {@code dsdot}).
+   *
+   * @param a the first vector
+   * @param b the second vector
+   * @return the inner product
+   */
+  double inner(FloatArray a, FloatArray b);
+
   Complex conjugateInner(ComplexArray a, ComplexArray b);
 
   Complex inner(ComplexArray a, ComplexArray b);
 
   double norm2(DoubleArray a);
 
+  double norm2(FloatArray a);
+
   Complex norm2(ComplexArray a);
 
   double asum(DoubleArray a);
@@ -222,6 +268,15 @@ public interface ArrayRoutines {
 
   double trace(DoubleArray x);
 
+  /**
+   * Returns the trace of each matrix in a stack of equally shaped matrices.
+   *
+   * @param x the stack of matrices (a 3d-array where the last dimension enumerates the matrices)
+   * @return a vector with {@code x.size(2)} elements
+   * @see #gemmBatch
+   */
+  DoubleArray traceBatch(DoubleArray x);
+
   /**
    * Compute y <- alpha*x+y
    *
@@ -243,6 +298,20 @@ public interface ArrayRoutines {
    */
   void gemv(Op transA, double alpha, DoubleArray a, DoubleArray x, double beta, DoubleArray y);
 
+  /**
+   * Compute y <- alpha*op(a)*x + beta * y, where {@code a} is sparse. Large products are computed
+   * in parallel.
+   *
+   * @param transA the operation op(.)
+   * @param alpha the scalar alpha
+   * @param a the sparse matrix a
+   * @param x the vector x
+   * @param beta the scalar beta
+   * @param y the vector y
+   */
+  void gemv(Op transA, double alpha, SparseDoubleMatrix a, DoubleArray x, double beta,
+      DoubleArray y);
+
   /**
    * Computes a <- alpha*x*y'+a
    *
@@ -267,6 +336,55 @@ public interface ArrayRoutines {
   void gemm(Op transA, Op transB, double alpha, DoubleArray a, DoubleArray b, double beta,
       DoubleArray c);
 
+  /**
+   * Computes c <- alpha * transA(a) * transB(b) + beta * c, where {@code a} is sparse and {@code b}
+   * and {@code c} are dense. The columns of {@code c} are computed in parallel.
+   *
+   * @param transA transpose of a
+   * @param transB transpose of b
+   * @param alpha the scalar for a
+   * @param a the sparse matrix a
+   * @param b the matrix b
+   * @param beta the scalar for c
+   * @param c the result matrix c
+   */
+  void gemm(Op transA, Op transB, double alpha, SparseDoubleMatrix a, DoubleArray b, double beta,
+      DoubleArray c);
+
+  /**
+   * Computes c <- alpha * transA(a) * transB(b) + beta * c, in single precision (as {@code sgemm}).
+   *
+   * @param transA transpose of a
+   * @param transB transpose of b
+   * @param alpha the scalar for a
+   * @param a the matrix a
+   * @param b the matrix b
+   * @param beta the scalar for c
+   * @param c the result matrix c
+   */
+  void gemm(Op transA, Op transB, float alpha, FloatArray a, FloatArray b, float beta,
+      FloatArray c);
+
+  /**
+   * Computes {@code c[:, :, i] <- alpha * transA(a[:, :, i]) * transB(b[:, :, i]) + beta * c[:, :,
+   * i]} for each matrix in a stack of equally shaped matrices, i.e., a 3d-array where the last
+   * dimension enumerates the matrices.
+   *
+   * <p>
+   * This is considerably faster than calling {@link #gemm} for each matrix, when the matrices are
+   * small.
+   *
+   * @param transA transpose of the matrices in a
+   * @param transB transpose of the matrices in b
+   * @param alpha the scalar for a
+   * @param a the stack of matrices a
+   * @param b the stack of matrices b
+   * @param beta the scalar for c
+   * @param c the stack of result matrices c
+   */
+  void gemmBatch(Op transA, Op transB, double alpha, DoubleArray a, DoubleArray b, double beta,
+      DoubleArray c);
+
   /**
    * Return a matrix containing {@code n} copies of {@code x}.
    *
@@ -286,6 +404,109 @@ public interface ArrayRoutines {
   @Deprecated
   <T extends BaseArray<T>> T take(T x, int num);
 
+  /**
+   * Returns a 1d-array with the elements of {@code x} (in column-major order) at the given indices,
+   * i.e., {@code out[i] = x[indices[i]]}.
+   *
+   * @param x the array
+   * @param indices the (linear) indices
+   * @return a new array
+   * @throws IndexOutOfBoundsException if an index is out of bounds
+   */
+  <T extends BaseArray<T>> T take(T x, IntArray indices);
+
+  /**
+   * Returns the slices of {@code x} along the {@code dim:th} dimension at the given indices, i.e.,
+   * the returned array has the shape of {@code x} except along {@code dim}, where it has
+   * {@code indices.size()} elements. For example, {@code take(x, indices, 0)} returns the given rows
+   * of a matrix (with repetitions, as required for bootstrap sampling).
+   *
+   * <p>
+   * For dense arrays, runs of consecutive indices are copied as blocks and large index sets are
+   * processed in parallel.
+   *
+   * @param x the array
+   * @param indices the indices
+   * @param dim the dimension
+   * @return a new array
+   * @throws IndexOutOfBoundsException if an index is out of bounds
+   */
+  <T extends BaseArray<T>> T take(T x, IntArray indices, int dim);
+
+  /**
+   * Assigns the elements of {@code values} to the given (linear) indices of {@code x}, i.e.,
+   * {@code x[indices[i]] = values[i]}. If an index is repeated, the last value is retained.
+   *
+   * @param x the array
+   * @param indices the indices
+   * @param values the values (with {@code indices.size()} elements)
+   */
+  <T extends BaseArray<T>> void put(T x, IntArray indices, T values);
+
+  /**
+   * Assigns the slices of {@code values} along the {@code dim:th} dimension to the slices of
+   * {@code x} at the given indices. This is the inverse of {@link #take(BaseArray, IntArray, int)}.
+   *
+   * @param x the array
+   * @param indices the indices
+   * @param dim the dimension
+   * @param values the values, with the shape of {@code take(x, indices, dim)}
+   */
+  <T extends BaseArray<T>> void put(T x, IntArray indices, int dim, T values);
+
+  /**
+   * Returns a 1d-array with the elements of {@code x} (in column-major order) for which
+   * {@code condition} is {@code true}.
+   *
+   * @param x the array
+   * @param condition the condition (with the same size as {@code x})
+   * @return a new array
+   */
+  <T extends BaseArray<T>> T compress(T x, BooleanArray condition);
+
+  /**
+   * Returns the slices of {@code x} along the {@code dim:th} dimension for which {@code condition}
+   * is {@code true}.
+   *
+   * @param x the array
+   * @param condition the condition (with {@code x.size(dim)} elements)
+   * @param dim the dimension
+   * @return a new array
+   * @see #take(BaseArray, IntArray, int)
+   */
+  <T extends BaseArray<T>> T compress(T x, BooleanArray condition, int dim);
+
+  /**
+   * Returns the discrete linear convolution of {@code x} and {@code kernel}, i.e.,
+   * {@code out[k] = sum(x[k - j] * kernel[j])}. If {@code x} is a matrix, each row is convolved
+   * with {@code kernel}.
+   *
+   * <p>
+   * Short kernels are convolved directly and long kernels using FFT overlap-add. Rows are
+   * convolved in parallel.
+   *
+   * @param x the series (a vector or a matrix with one series per row)
+   * @param kernel the kernel (a vector)
+   * @param mode the part of the full convolution to return
+   * @return a new array (a vector if {@code x} is a vector or else a matrix)
+   * @throws IllegalArgumentException if {@code mode} is {@code VALID} and the kernel is longer
+   *         than the series
+   */
+  DoubleArray convolve(DoubleArray x, DoubleArray kernel, ConvolutionMode mode);
+
+  /**
+   * Returns the discrete cross-correlation of {@code x} and {@code kernel}, i.e.,
+   * {@code out[k] = sum(x[k + j] * kernel[j])} (in the {@code VALID} mode). This is the
+   * convolution of {@code x} and the reversed kernel.
+   *
+   * @param x the series (a vector or a matrix with one series per row)
+   * @param kernel the kernel (a vector)
+   * @param mode the part of the full correlation to return
+   * @return a new array (a vector if {@code x} is a vector or else a matrix)
+   * @see #convolve(DoubleArray, DoubleArray, ConvolutionMode)
+   */
+  DoubleArray correlate(DoubleArray x, DoubleArray kernel, ConvolutionMode mode);
+
   default <T extends BaseArray<T>> T sort(T array) {
     return sort(array, (t, a, b) -> {
       return t.compare(a, b);
@@ -311,6 +532,47 @@ public interface ArrayRoutines {
 
   <T extends BaseArray<T>> T sort(int dim, T x, IndexComparator<T> cmp);
 
+  /**
+   * Returns the indexes that sort {@code x} in ascending order, as defined by
+   * {@link Double#compare(double, double)}. The sort is stable, i.e., equal elements keep their
+   * relative order. The returned array has the same shape as {@code x}, and its elements are
+   * linear indexes into {@code x}.
+   *
+   * @param x the array
+   * @return the sort permutation
+   */
+  IntArray argsort(DoubleArray x);
+
+  /**
+   * Returns, for each vector along {@code dim}, the indexes (within the vector) that sort the
+   * vector in ascending order. The sort is stable.
+   *
+   * @param dim the dimension
+   * @param x the array
+   * @return an array with the same shape as {@code x}
+   */
+  IntArray argsort(int dim, DoubleArray x);
+
+  /**
+   * @see #argsort(DoubleArray)
+   */
+  IntArray argsort(IntArray x);
+
+  /**
+   * @see #argsort(int, DoubleArray)
+   */
+  IntArray argsort(int dim, IntArray x);
+
+  /**
+   * @see #argsort(DoubleArray)
+   */
+  IntArray argsort(LongArray x);
+
+  /**
+   * @see #argsort(int, DoubleArray)
+   */
+  IntArray argsort(int dim, LongArray x);
+
   default <T extends Comparable<T>> Array<T> sort(Array<T> array) {
     return sort(array, (a, i, j) -> a.get(i).compareTo(a.get(j)));
   }
@@ -351,6 +613,19 @@ public interface ArrayRoutines {
    */
   DoubleArray sin(DoubleArray array);
 
+  /**
+   * Computes {@link Math#sin(double)} of each element in {@code in} and stores the result in the
+   * corresponding position of {@code out}. This and the other element-wise functions accepting an
+   * output array don't allocate; {@code in} and {@code out} can be the same array (to compute the
+   * function in-place), but must otherwise not overlap.
+   *
+   * @param in the input array
+   * @param out the output array
+   * @return {@code out}
+   * @throws org.briljantframework.exceptions.SizeMismatchException if the sizes differ
+   */
+  DoubleArray sin(DoubleArray in, DoubleArray out);
+
   /**
    * @see Complex#sin()
    */
@@ -361,6 +636,12 @@ public interface ArrayRoutines {
    */
   DoubleArray cos(DoubleArray array);
 
+  /**
+   * @see Math#cos(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray cos(DoubleArray in, DoubleArray out);
+
   /**
    * @see Complex#cos()
    */
@@ -371,6 +652,12 @@ public interface ArrayRoutines {
    */
   DoubleArray tan(DoubleArray array);
 
+  /**
+   * @see Math#tan(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray tan(DoubleArray in, DoubleArray out);
+
   /**
    * @see Complex#tan()
    */
@@ -381,6 +668,12 @@ public interface ArrayRoutines {
    */
   DoubleArray asin(DoubleArray array);
 
+  /**
+   * @see Math#asin(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray asin(DoubleArray in, DoubleArray out);
+
   /**
    * @see Complex#asin()
    */
@@ -391,6 +684,12 @@ public interface ArrayRoutines {
    */
   DoubleArray acos(DoubleArray array);
 
+  /**
+   * @see Math#acos(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray acos(DoubleArray in, DoubleArray out);
+
   /**
    * @see Complex#acos()
    */
@@ -401,6 +700,12 @@ public interface ArrayRoutines {
    */
   DoubleArray atan(DoubleArray array);
 
+  /**
+   * @see Math#atan(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray atan(DoubleArray in, DoubleArray out);
+
   /**
    * @see Complex#atan()
    */
@@ -411,6 +716,12 @@ public interface ArrayRoutines {
    */
   DoubleArray sinh(DoubleArray array);
 
+  /**
+   * @see Math#sinh(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray sinh(DoubleArray in, DoubleArray out);
+
   /**
    * @see Complex#sinh()
    */
@@ -421,6 +732,12 @@ public interface ArrayRoutines {
    */
   DoubleArray cosh(DoubleArray array);
 
+  /**
+   * @see Math#cosh(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray cosh(DoubleArray in, DoubleArray out);
+
   /**
    * @see Complex#cosh()
    */
@@ -431,6 +748,12 @@ public interface ArrayRoutines {
    */
   DoubleArray tanh(DoubleArray array);
 
+  /**
+   * @see Math#tanh(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray tanh(DoubleArray in, DoubleArray out);
+
   /**
    * @see Complex#tanh()
    */
@@ -441,6 +764,12 @@ public interface ArrayRoutines {
    */
   DoubleArray exp(DoubleArray array);
 
+  /**
+   * @see Math#exp(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray exp(DoubleArray in, DoubleArray out);
+
   /**
    * @see Complex#exp()
    */
@@ -451,11 +780,23 @@ public interface ArrayRoutines {
    */
   DoubleArray cbrt(DoubleArray array);
 
+  /**
+   * @see Math#cbrt(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray cbrt(DoubleArray in, DoubleArray out);
+
   /**
    * @see Math#ceil(double)
    */
   DoubleArray ceil(DoubleArray array);
 
+  /**
+   * @see Math#ceil(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray ceil(DoubleArray in, DoubleArray out);
+
   /**
    * Rounds the number to the next largest integer, rounding is applied separately to the real and
    * the imaginary parts.
@@ -471,6 +812,12 @@ public interface ArrayRoutines {
    */
   DoubleArray floor(DoubleArray array);
 
+  /**
+   * @see Math#floor(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray floor(DoubleArray in, DoubleArray out);
+
   /**
    * /** Rounds the number to the next smallest integer, rounding is applied separately to the real
    * and the imaginary parts.
@@ -496,6 +843,12 @@ public interface ArrayRoutines {
    */
   DoubleArray abs(DoubleArray array);
 
+  /**
+   * @see Math#abs(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray abs(DoubleArray in, DoubleArray out);
+
   /**
    * @see Math#cos(double)
    */
@@ -511,6 +864,12 @@ public interface ArrayRoutines {
    */
   DoubleArray sqrt(DoubleArray array);
 
+  /**
+   * @see Math#sqrt(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray sqrt(DoubleArray in, DoubleArray out);
+
   ComplexArray sqrt(ComplexArray array);
 
   /**
@@ -518,6 +877,12 @@ public interface ArrayRoutines {
    */
   DoubleArray log(DoubleArray array);
 
+  /**
+   * @see Math#log(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray log(DoubleArray in, DoubleArray out);
+
   ComplexArray log(ComplexArray array);
 
   /**
@@ -525,23 +890,126 @@ public interface ArrayRoutines {
    */
   DoubleArray log2(DoubleArray array);
 
+  /**
+   * @see Math#log(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray log2(DoubleArray in, DoubleArray out);
+
   /**
    * @see Math#pow(double, double)
    */
   DoubleArray pow(DoubleArray in, double power);
 
+  /**
+   * @see Math#pow(double, double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray pow(DoubleArray in, double power, DoubleArray out);
+
   /**
    * @see Math#log10(double)
    */
   DoubleArray log10(DoubleArray in);
 
+  /**
+   * @see Math#log10(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray log10(DoubleArray in, DoubleArray out);
+
   /**
    * @see Math#signum(double)
    */
   DoubleArray signum(DoubleArray in);
 
+  /**
+   * @see Math#signum(double)
+   * @see #sin(DoubleArray, DoubleArray)
+   */
+  DoubleArray signum(DoubleArray in, DoubleArray out);
+
   /**
    * @see Math#round(double)
    */
   LongArray round(DoubleArray in);
+
+  /**
+   * Computes {@code a + b} element-wise and stores the result in {@code out}. If the size of an
+   * operand differs from the size of {@code out}, the operand is broadcast to the shape of
+   * {@code out}. Like {@link #sin(DoubleArray, DoubleArray)}, {@code out} can be one of the
+   * operands.
+   *
+   * @param a the first operand
+   * @param b the second operand
+   * @param out the output array
+   * @return {@code out}
+   */
+  DoubleArray plus(DoubleArray a, DoubleArray b, DoubleArray out);
+
+  /**
+   * @see #plus(DoubleArray, DoubleArray, DoubleArray)
+   */
+  DoubleArray minus(DoubleArray a, DoubleArray b, DoubleArray out);
+
+  /**
+   * @see #plus(DoubleArray, DoubleArray, DoubleArray)
+   */
+  DoubleArray times(DoubleArray a, DoubleArray b, DoubleArray out);
+
+  /**
+   * @see #plus(DoubleArray, DoubleArray, DoubleArray)
+   */
+  DoubleArray div(DoubleArray a, DoubleArray b, DoubleArray out);
+
+  /**
+   * @see Math#min(double, double)
+   * @see #plus(DoubleArray, DoubleArray, DoubleArray)
+   */
+  DoubleArray min(DoubleArray a, DoubleArray b, DoubleArray out);
+
+  /**
+   * @see Math#max(double, double)
+   * @see #plus(DoubleArray, DoubleArray, DoubleArray)
+   */
+  DoubleArray max(DoubleArray a, DoubleArray b, DoubleArray out);
+
+  /**
+   * Computes {@code a * b + c} element-wise (without intermediate arrays) and stores the result in
+   * {@code out}.
+   *
+   * @see #plus(DoubleArray, DoubleArray, DoubleArray)
+   */
+  DoubleArray fma(DoubleArray a, DoubleArray b, DoubleArray c, DoubleArray out);
+
+  /**
+   * Computes {@code a < b} element-wise and stores the result in {@code out}. The operands are
+   * broadcast as for {@link #plus(DoubleArray, DoubleArray, DoubleArray)}.
+   *
+   * @param a the first operand
+   * @param b the second operand
+   * @param out the output array
+   * @return {@code out}
+   */
+  BooleanArray lt(DoubleArray a, DoubleArray b, BooleanArray out);
+
+  /**
+   * @see #lt(DoubleArray, DoubleArray, BooleanArray)
+   */
+  BooleanArray lte(DoubleArray a, DoubleArray b, BooleanArray out);
+
+  /**
+   * @see #lt(DoubleArray, DoubleArray, BooleanArray)
+   */
+  BooleanArray gt(DoubleArray a, DoubleArray b, BooleanArray out);
+
+  /**
+   * @see #lt(DoubleArray, DoubleArray, BooleanArray)
+   */
+  BooleanArray gte(DoubleArray a, DoubleArray b, BooleanArray out);
+
+  /**
+   * @see #lt(DoubleArray, DoubleArray, BooleanArray)
+   */
+  BooleanArray eq(DoubleArray a, DoubleArray b, BooleanArray out);
 }
@@ -25,11 +25,14 @@ import org.apache.commons.math3.complex.Complex;
 import org.briljantframework.array.Array;
 import org.briljantframework.array.BaseArray;
 import org.briljantframework.array.BooleanArray;
+import org.briljantframework.array.ChunkedDoubleArray;
 import org.briljantframework.array.ComplexArray;
 import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.FloatArray;
 import org.briljantframework.array.IntArray;
 import org.briljantframework.array.LongArray;
 import org.briljantframework.array.Range;
+import org.briljantframework.array.SparseDoubleMatrix;
 import org.briljantframework.array.api.ArrayFactory;
 
 /**
@@ -97,6 +100,26 @@ public class BaseArrayFactory implements ArrayFactory {
     return new BaseDoubleArray(this, data);
   }
 
+  @Override
+  public FloatArray floatArray(int... shape) {
+    return new BaseFloatArray(this, shape);
+  }
+
+  @Override
+  public FloatArray array(float[] data) {
+    return new BaseFloatArray(this, data);
+  }
+
+  @Override
+  public SparseDoubleMatrix.Builder sparseMatrixBuilder(int rows, int columns) {
+    return new BaseSparseMatrixBuilder(this, rows, columns);
+  }
+
+  @Override
+  public ChunkedDoubleArray chunkedDoubleArray(long size, int chunkSize) {
+    return new BaseChunkedDoubleArray(this, size, chunkSize);
+  }
+
   @Override
   public <T extends BaseArray<T>> T diag(T data) {
     if (data.isVector()) {
@@ -122,12 +145,12 @@ public class BaseArrayFactory implements ArrayFactory {
   }
 
   @Override
-  public ComplexArray complexArray(double... data) {
-    Complex[] c = new Complex[data.length];
+  public ComplexArray complexArray(double[] data) {
+    double[] c = new double[Math.multiplyExact(data.length, 2)];
     for (int i = 0; i < data.length; i++) {
-      c[i] = Complex.valueOf(data[i]);
+      c[i * 2] = data[i];
     }
-    return array(c);
+    return BaseComplexArray.interleaved(this, c);
   }
 
   @Override
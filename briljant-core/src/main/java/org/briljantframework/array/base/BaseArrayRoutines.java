@@ -21,12 +21,12 @@
 
 package org.briljantframework.array.base;
 
-
-import static org.briljantframework.array.Indexer.columnMajor;
-import static org.briljantframework.array.Indexer.rowMajor;
+import static org.briljantframework.array.AbstractBaseArray.INVALID_DIMENSION;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
 import org.apache.commons.math3.complex.Complex;
 import org.apache.commons.math3.util.FastMath;
@@ -34,14 +34,19 @@ import org.apache.commons.math3.util.Precision;
 import org.briljantframework.Check;
 import org.briljantframework.array.Array;
 import org.briljantframework.array.BaseArray;
+import org.briljantframework.array.BooleanArray;
 import org.briljantframework.array.ComplexArray;
+import org.briljantframework.array.ConvolutionMode;
 import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.FloatArray;
 import org.briljantframework.array.IntArray;
 import org.briljantframework.array.LongArray;
 import org.briljantframework.array.Op;
+import org.briljantframework.array.SparseDoubleMatrix;
 import org.briljantframework.array.api.ArrayRoutines;
 import org.briljantframework.complex.MutableComplex;
 import org.briljantframework.exceptions.NonConformantException;
+import org.briljantframework.math.transform.Convolution;
 import org.briljantframework.sort.IndexComparator;
 import org.briljantframework.sort.QuickSort;
 import org.briljantframework.statistics.FastStatistics;
@@ -58,16 +63,29 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public double mean(DoubleArray x) {
-    return x.reduce(0, Double::sum) / x.size();
+    return sum(x) / x.size();
+  }
+
+  @Override
+  public double mean(FloatArray x) {
+    return sum(x) / x.size();
   }
 
   @Override
   public DoubleArray mean(int dim, DoubleArray x) {
+    if (isMatrix(x)) {
+      DoubleArray mean = DoubleReductions.reduce(DoubleReductions.Op.SUM, dim, x);
+      mean.divAssign(x.size(dim));
+      return mean;
+    }
     return x.reduceVectors(dim, this::mean);
   }
 
   @Override
   public double var(DoubleArray x) {
+    if (hasDirectStorage(x)) {
+      return DoubleReductions.variance(x);
+    }
     FastStatistics s = new FastStatistics();
     x.forEachDouble(s::addValue);
     return s.getVariance();
@@ -75,6 +93,9 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray var(int dim, DoubleArray x) {
+    if (isMatrix(x)) {
+      return DoubleReductions.variance(dim, x);
+    }
     return x.reduceVectors(dim, this::var);
   }
 
@@ -85,16 +106,27 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray std(int dim, DoubleArray x) {
+    if (isMatrix(x)) {
+      DoubleArray std = DoubleReductions.variance(dim, x);
+      std.apply(Math::sqrt);
+      return std;
+    }
     return x.reduceVectors(dim, this::std);
   }
 
   @Override
   public double min(DoubleArray x) {
+    if (hasDirectStorage(x)) {
+      return DoubleReductions.reduce(DoubleReductions.Op.MIN, x);
+    }
     return x.reduce(Double.POSITIVE_INFINITY, Math::min);
   }
 
   @Override
   public int min(IntArray x) {
+    if (hasDirectStorage(x)) {
+      return IntReductions.reduce(IntReductions.Op.MIN, x);
+    }
     return x.reduce(Integer.MAX_VALUE, Math::min);
   }
 
@@ -103,6 +135,14 @@ public class BaseArrayRoutines implements ArrayRoutines {
     return x.reduce(Long.MAX_VALUE, Math::min);
   }
 
+  @Override
+  public float min(FloatArray x) {
+    if (hasDirectStorage(x)) {
+      return (float) FloatReductions.reduce(FloatReductions.Op.MIN, x);
+    }
+    return (float) x.reduce(Double.POSITIVE_INFINITY, Math::min);
+  }
+
   @Override
   public <T extends Comparable<T>> T min(Array<T> x) {
     return min(x, Comparable::compareTo);
@@ -124,11 +164,17 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray min(int dim, DoubleArray x) {
+    if (isMatrix(x)) {
+      return DoubleReductions.reduce(DoubleReductions.Op.MIN, dim, x);
+    }
     return x.reduceVectors(dim, this::min);
   }
 
   @Override
   public IntArray min(int dim, IntArray x) {
+    if (isMatrix(x)) {
+      return IntReductions.reduce(IntReductions.Op.MIN, dim, x);
+    }
     return x.reduceVectors(dim, this::min);
   }
 
@@ -149,11 +195,17 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public double max(DoubleArray x) {
+    if (hasDirectStorage(x)) {
+      return DoubleReductions.reduce(DoubleReductions.Op.MAX, x);
+    }
     return x.reduce(Double.NEGATIVE_INFINITY, Math::max);
   }
 
   @Override
   public int max(IntArray x) {
+    if (hasDirectStorage(x)) {
+      return IntReductions.reduce(IntReductions.Op.MAX, x);
+    }
     return x.reduce(Integer.MIN_VALUE, Math::max);
   }
 
@@ -162,6 +214,14 @@ public class BaseArrayRoutines implements ArrayRoutines {
     return x.reduce(Long.MIN_VALUE, Math::max);
   }
 
+  @Override
+  public float max(FloatArray x) {
+    if (hasDirectStorage(x)) {
+      return (float) FloatReductions.reduce(FloatReductions.Op.MAX, x);
+    }
+    return (float) x.reduce(Double.NEGATIVE_INFINITY, Math::max);
+  }
+
   @Override
   public <T extends Comparable<T>> T max(Array<T> x) {
     return max(x, Comparable::compareTo);
@@ -183,11 +243,17 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray max(int dim, DoubleArray x) {
+    if (isMatrix(x)) {
+      return DoubleReductions.reduce(DoubleReductions.Op.MAX, dim, x);
+    }
     return x.reduceVectors(dim, this::max);
   }
 
   @Override
   public IntArray max(int dim, IntArray x) {
+    if (isMatrix(x)) {
+      return IntReductions.reduce(IntReductions.Op.MAX, dim, x);
+    }
     return x.reduceVectors(dim, this::max);
   }
 
@@ -208,26 +274,57 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public double sum(DoubleArray x) {
+    if (hasDirectStorage(x)) {
+      return DoubleReductions.reduce(DoubleReductions.Op.SUM, x);
+    }
     return x.reduce(0, Double::sum);
   }
 
   @Override
   public int sum(IntArray x) {
+    if (hasDirectStorage(x)) {
+      return IntReductions.reduce(IntReductions.Op.SUM, x);
+    }
     return x.reduce(0, Integer::sum);
   }
 
+  @Override
+  public double sum(FloatArray x) {
+    if (hasDirectStorage(x)) {
+      return FloatReductions.reduce(FloatReductions.Op.SUM, x);
+    }
+    return x.reduce(0, Double::sum);
+  }
+
   @Override
   public DoubleArray sum(int dim, DoubleArray x) {
+    if (isMatrix(x)) {
+      return DoubleReductions.reduce(DoubleReductions.Op.SUM, dim, x);
+    }
     return x.reduceVectors(dim, this::sum);
   }
 
   @Override
   public IntArray sum(int dim, IntArray x) {
+    if (isMatrix(x)) {
+      return IntReductions.reduce(IntReductions.Op.SUM, dim, x);
+    }
+    return x.reduceVectors(dim, this::sum);
+  }
+
+  @Override
+  public FloatArray sum(int dim, FloatArray x) {
+    if (hasDirectStorage(x) && x.isMatrix()) {
+      return FloatReductions.reduce(FloatReductions.Op.SUM, dim, x);
+    }
     return x.reduceVectors(dim, this::sum);
   }
 
   @Override
   public double prod(DoubleArray x) {
+    if (hasDirectStorage(x)) {
+      return DoubleReductions.reduce(DoubleReductions.Op.PROD, x);
+    }
     double prod = x.get(0);
     for (int i = 1; i < x.size(); i++) {
       prod *= x.get(i);
@@ -237,6 +334,9 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray prod(int dim, DoubleArray x) {
+    if (isMatrix(x)) {
+      return DoubleReductions.reduce(DoubleReductions.Op.PROD, dim, x);
+    }
     return x.reduceVectors(dim, this::prod);
   }
 
@@ -279,6 +379,11 @@ public class BaseArrayRoutines implements ArrayRoutines {
   @Override
   public double inner(DoubleArray a, DoubleArray b) {
     Check.size(a, b);
+    StridedLayout la = segment(a), lb = segment(b);
+    if (la != null && lb != null) {
+      return DoubleKernels.inner(a.data(), la.position(0), la.stride(), b.data(), lb.position(0),
+          lb.stride(), a.size());
+    }
     double s = 0;
     for (int i = 0; i < a.size(); i++) {
       s += a.get(i) * b.get(i);
@@ -286,6 +391,19 @@ public class BaseArrayRoutines implements ArrayRoutines {
     return s;
   }
 
+  @Override
+  public double inner(FloatArray a, FloatArray b) {
+    Check.size(a, b);
+    if (hasDirectStorage(a) && hasDirectStorage(b) && !a.isView() && !b.isView()) {
+      return FloatReductions.inner(a.data(), b.data(), a.size());
+    }
+    double s = 0;
+    for (int i = 0; i < a.size(); i++) {
+      s += (double) a.get(i) * b.get(i);
+    }
+    return s;
+  }
+
   @Override
   public Complex conjugateInner(ComplexArray a, ComplexArray b) {
     return null;
@@ -298,6 +416,9 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public double norm2(DoubleArray a) {
+    if (hasDirectStorage(a)) {
+      return Math.sqrt(DoubleReductions.reduce(DoubleReductions.Op.SUM_OF_SQUARES, a));
+    }
     double sum = 0;
     for (int i = 0; i < a.size(); i++) {
       double v = a.get(i);
@@ -307,6 +428,14 @@ public class BaseArrayRoutines implements ArrayRoutines {
     return Math.sqrt(sum);
   }
 
+  @Override
+  public double norm2(FloatArray a) {
+    if (hasDirectStorage(a)) {
+      return Math.sqrt(FloatReductions.reduce(FloatReductions.Op.SUM_OF_SQUARES, a));
+    }
+    return Math.sqrt(a.reduce(0, (sum, v) -> sum + v * v));
+  }
+
   @Override
   public Complex norm2(ComplexArray a) {
     MutableComplex c = new MutableComplex(a.get(0).pow(2));
@@ -318,6 +447,10 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public double asum(DoubleArray a) {
+    StridedLayout layout = segment(a);
+    if (layout != null) {
+      return DoubleKernels.asum(a.data(), layout.position(0), layout.stride(), a.size());
+    }
     double sum = 0;
     for (int i = 0; i < a.size(); i++) {
       sum += Math.abs(a.get(i));
@@ -344,6 +477,11 @@ public class BaseArrayRoutines implements ArrayRoutines {
     if (alpha == 1) {
       return;
     }
+    StridedLayout layout = segment(x);
+    if (layout != null && layout.stride() != 0) {
+      DoubleKernels.scal(alpha, x.data(), layout.position(0), layout.stride(), x.size());
+      return;
+    }
     final int n = x.size();
     for (int i = 0; i < n; i++) {
       x.set(i, x.get(i) * alpha);
@@ -360,12 +498,32 @@ public class BaseArrayRoutines implements ArrayRoutines {
     return sum;
   }
 
+  @Override
+  public DoubleArray traceBatch(DoubleArray x) {
+    Check.argument(x.dims() == 3, "'x' has %s dims", x.dims());
+    DoubleArray trace = x.newEmptyArray(x.size(2));
+    if (hasDirectStorage(x)) {
+      trace.assign(DoubleBatch.trace(x));
+    } else {
+      for (int i = 0; i < trace.size(); i++) {
+        trace.set(i, trace(x.select(2, i)));
+      }
+    }
+    return trace;
+  }
+
   @Override
   public void axpy(double alpha, DoubleArray x, DoubleArray y) {
     Check.size(x, y);
     if (alpha == 0) {
       return;
     }
+    StridedLayout lx = segment(x), ly = segment(y);
+    if (lx != null && ly != null && ly.stride() != 0) {
+      DoubleKernels.axpy(alpha, x.data(), lx.position(0), lx.stride(), y.data(), ly.position(0),
+          ly.stride(), x.size());
+      return;
+    }
     int size = x.size();
     for (int i = 0; i < size; i++) {
       y.set(i, alpha * x.get(i) + y.get(i));
@@ -375,7 +533,35 @@ public class BaseArrayRoutines implements ArrayRoutines {
   @Override
   public void gemv(Op transA, double alpha, DoubleArray a, DoubleArray x, double beta,
       DoubleArray y) {
-    throw new UnsupportedOperationException();
+    Check.argument(a.isMatrix(), "'a' has %s dims", a.dims());
+    Check.all(x, y).argument(BaseArray::isVector, "x and y must be vectors");
+    boolean transpose = transA.isTrue();
+    int m = a.size(transpose ? 1 : 0);
+    int n = a.size(transpose ? 0 : 1);
+    Check.size(x.size(), n);
+    Check.size(y.size(), m);
+    for (int i = 0; i < m; i++) {
+      double sum = 0;
+      for (int j = 0; j < n; j++) {
+        sum += (transpose ? a.get(j, i) : a.get(i, j)) * x.get(j);
+      }
+      // following BLAS, y is overwritten if beta is zero
+      y.set(i, alpha * sum + (beta == 0 ? 0 : beta * y.get(i)));
+    }
+  }
+
+  @Override
+  public void gemv(Op transA, double alpha, SparseDoubleMatrix a, DoubleArray x, double beta,
+      DoubleArray y) {
+    Check.all(x, y).argument(BaseArray::isVector, "x and y must be vectors");
+    boolean transpose = transA.isTrue();
+    Check.size(x.size(), transpose ? a.rows() : a.columns());
+    Check.size(y.size(), transpose ? a.columns() : a.rows());
+    double[] values = values(y);
+    SparseKernels.gemv(transpose, alpha, a, values(x), beta, values, y.size());
+    if (!isStorage(y, values)) {
+      y.assign(values);
+    }
   }
 
   @Override
@@ -385,7 +571,7 @@ public class BaseArrayRoutines implements ArrayRoutines {
     Check.size(y.size(), a.columns());
     for (int i = 0; i < x.size(); i++) {
       for (int j = 0; j < y.size(); j++) {
-        a.set(i, j, alpha * x.get(i) * y.get(j));
+        a.set(i, j, a.get(i, j) + alpha * x.get(i) * y.get(j));
       }
     }
   }
@@ -393,43 +579,104 @@ public class BaseArrayRoutines implements ArrayRoutines {
   @Override
   public void gemm(Op transA, Op transB, double alpha, DoubleArray a, DoubleArray b, double beta,
       DoubleArray c) {
+    Check.argument(a.dims() == 2, "'a' has %s dims", a.dims());
+    Check.argument(b.dims() == 2, "'b' has %s dims", b.dims());
+    Check.argument(c.dims() == 2, "'c' has %s dims", c.dims());
 
-    int thisRows = a.rows();
-    int thisCols = a.columns();
-    if (transA.isTrue()) {
-      thisRows = a.columns();
-      thisCols = a.rows();
+    int m = a.size(transA == Op.KEEP ? 0 : 1);
+    int n = b.size(transB == Op.KEEP ? 1 : 0);
+    int dk = a.size(transA == Op.KEEP ? 1 : 0);
+    if (b.size(transB == Op.KEEP ? 0 : 1) != dk) {
+      throw new NonConformantException(m, dk, b.size(transB == Op.KEEP ? 0 : 1), n);
     }
-    int otherRows = b.rows();
-    int otherColumns = b.columns();
-    if (transB.isTrue()) {
-      otherRows = b.columns();
-      otherColumns = b.rows();
+    if (m != c.size(0) || n != c.size(1)) {
+      throw new NonConformantException(
+          String.format("a has size (%d,%d), b has size (%d,%d), c has size (%d, %d)", m, dk, dk, n,
+              c.size(0), c.size(1)));
     }
+    DoubleGemm.gemm(transA.isTrue(), transB.isTrue(), alpha, a, b, beta, c,
+        this::hasDirectStorage);
+  }
+
+  @Override
+  public void gemm(Op transA, Op transB, double alpha, SparseDoubleMatrix a, DoubleArray b,
+      double beta, DoubleArray c) {
+    Check.argument(b.dims() == 2, "'b' has %s dims", b.dims());
+    Check.argument(c.dims() == 2, "'c' has %s dims", c.dims());
 
-    if (thisCols != otherRows) {
-      throw new NonConformantException(thisRows, thisCols, otherRows, otherColumns);
+    int m = transA == Op.KEEP ? a.rows() : a.columns();
+    int n = b.size(transB == Op.KEEP ? 1 : 0);
+    int dk = transA == Op.KEEP ? a.columns() : a.rows();
+    if (b.size(transB == Op.KEEP ? 0 : 1) != dk) {
+      throw new NonConformantException(m, dk, b.size(transB == Op.KEEP ? 0 : 1), n);
+    }
+    if (m != c.size(0) || n != c.size(1)) {
+      throw new NonConformantException(
+          String.format("a has size (%d,%d), b has size (%d,%d), c has size (%d, %d)", m, dk, dk, n,
+              c.size(0), c.size(1)));
     }
+    double[] values = values(c);
+    SparseKernels.gemm(transA.isTrue(), transB.isTrue(), alpha, a, values(b), b.size(0), beta,
+        values, m, n);
+    if (!isStorage(c, values)) {
+      c.assign(values);
+    }
+  }
+
+  @Override
+  public void gemm(Op transA, Op transB, float alpha, FloatArray a, FloatArray b, float beta,
+      FloatArray c) {
+    Check.argument(a.dims() == 2, "'a' has %s dims", a.dims());
+    Check.argument(b.dims() == 2, "'b' has %s dims", b.dims());
+    Check.argument(c.dims() == 2, "'c' has %s dims", c.dims());
+
     int m = a.size(transA == Op.KEEP ? 0 : 1);
     int n = b.size(transB == Op.KEEP ? 1 : 0);
     int dk = a.size(transA == Op.KEEP ? 1 : 0);
+    if (b.size(transB == Op.KEEP ? 0 : 1) != dk) {
+      throw new NonConformantException(m, dk, b.size(transB == Op.KEEP ? 0 : 1), n);
+    }
     if (m != c.size(0) || n != c.size(1)) {
       throw new NonConformantException(
           String.format("a has size (%d,%d), b has size (%d,%d), c has size (%d, %d)", m, dk, dk, n,
               c.size(0), c.size(1)));
     }
+    FloatArray out = hasDirectStorage(c) ? c : c.copy();
+    FloatGemm.gemm(transA.isTrue(), transB.isTrue(), alpha, hasDirectStorage(a) ? a : a.copy(),
+        hasDirectStorage(b) ? b : b.copy(), beta, out);
+    if (out != c) {
+      c.assign(out, DoubleUnaryOperator.identity());
+    }
+  }
 
-    for (int row = 0; row < thisRows; row++) {
-      for (int col = 0; col < otherColumns; col++) {
-        double sum = 0.0;
-        for (int k = 0; k < thisCols; k++) {
-          int thisIndex = transA.isTrue() ? rowMajor(row, k, thisRows, thisCols)
-              : columnMajor(0, row, k, thisRows, thisCols);
-          int otherIndex = transB.isTrue() ? rowMajor(k, col, otherRows, otherColumns)
-              : columnMajor(0, k, col, otherRows, otherColumns);
-          sum += a.get(thisIndex) * b.get(otherIndex);
-        }
-        c.set(row, col, alpha * sum + beta * c.get(row, col));
+  @Override
+  public void gemmBatch(Op transA, Op transB, double alpha, DoubleArray a, DoubleArray b,
+      double beta, DoubleArray c) {
+    Check.argument(a.dims() == 3, "'a' has %s dims", a.dims());
+    Check.argument(b.dims() == 3, "'b' has %s dims", b.dims());
+    Check.argument(c.dims() == 3, "'c' has %s dims", c.dims());
+    int batch = c.size(2);
+    Check.size(a.size(2), batch, "'a' and 'c' have different numbers of matrices");
+    Check.size(b.size(2), batch, "'b' and 'c' have different numbers of matrices");
+
+    int m = a.size(transA == Op.KEEP ? 0 : 1);
+    int n = b.size(transB == Op.KEEP ? 1 : 0);
+    int dk = a.size(transA == Op.KEEP ? 1 : 0);
+    if (b.size(transB == Op.KEEP ? 0 : 1) != dk) {
+      throw new NonConformantException(m, dk, b.size(transB == Op.KEEP ? 0 : 1), n);
+    }
+    if (m != c.size(0) || n != c.size(1)) {
+      throw new NonConformantException(
+          String.format("a has size (%d,%d), b has size (%d,%d), c has size (%d, %d)", m, dk, dk, n,
+              c.size(0), c.size(1)));
+    }
+    // larger products are better served by the blocked (or native) gemm
+    if ((long) m * n * dk <= DoubleGemm.SMALL && hasDirectStorage(a) && hasDirectStorage(b)
+        && hasDirectStorage(c)) {
+      DoubleBatch.gemm(transA.isTrue(), transB.isTrue(), alpha, a, b, beta, c);
+    } else {
+      for (int i = 0; i < batch; i++) {
+        gemm(transA, transB, alpha, a.select(2, i), b.select(2, i), beta, c.select(2, i));
       }
     }
   }
@@ -452,26 +699,352 @@ public class BaseArrayRoutines implements ArrayRoutines {
   }
 
   @Override
-  public <T extends BaseArray<T>> T sort(T x, IndexComparator<T> cmp) {
+  public <T extends BaseArray<T>> T take(T x, IntArray indices) {
+    return take(x, validIndices(indices, x.size()));
+  }
+
+  @Override
+  public <T extends BaseArray<T>> T take(T x, IntArray indices, int dim) {
+    Check.argument(dim >= 0 && dim < x.dims(), INVALID_DIMENSION, dim, x.dims());
+    return take(x, validIndices(indices, x.size(dim)), dim);
+  }
+
+  private <T extends BaseArray<T>> T take(T x, int[] index) {
+    T out = x.newEmptyArray(index.length);
+    Object src = storage(x), dst = storage(out);
+    if (src != null && dst != null && src.getClass() == dst.getClass()) {
+      DoubleReductions.forEachRange(1, index.length,
+          (from, to) -> Gather.take(src, x.size(), 1, 1, index, from, to, dst, index.length));
+    } else {
+      for (int i = 0; i < index.length; i++) {
+        out.set(i, x, index[i]);
+      }
+    }
+    return out;
+  }
+
+  private <T extends BaseArray<T>> T take(T x, int[] index, int dim) {
+    int[] shape = x.getShape();
+    shape[dim] = index.length;
+    T out = x.newEmptyArray(shape);
+    Object src = storage(x), dst = storage(out);
+    if (src != null && dst != null && src.getClass() == dst.getClass()) {
+      int inner = inner(x, dim), outer = outer(x, dim);
+      DoubleReductions.forEachRange(inner * outer, index.length,
+          (from, to) -> Gather.take(src, x.size(dim), inner, outer, index, from, to, dst,
+              index.length));
+    } else if (x.dims() == 1) {
+      for (int i = 0; i < index.length; i++) {
+        out.set(i, x, index[i]);
+      }
+    } else {
+      for (int i = 0; i < index.length; i++) {
+        out.select(dim, i).assign(x.select(dim, index[i]));
+      }
+    }
+    return out;
+  }
+
+  @Override
+  public <T extends BaseArray<T>> void put(T x, IntArray indices, T values) {
+    int[] index = validIndices(indices, x.size());
+    Check.size(values.size(), index.length);
+    Object dst = storage(x), src = storage(values);
+    if (src != null && dst != null && src.getClass() == dst.getClass()) {
+      Gather.put(dst, x.size(), 1, 0, 1, index, src, index.length);
+    } else {
+      for (int i = 0; i < index.length; i++) {
+        x.set(index[i], values, i);
+      }
+    }
+  }
+
+  @Override
+  public <T extends BaseArray<T>> void put(T x, IntArray indices, int dim, T values) {
+    Check.argument(dim >= 0 && dim < x.dims(), INVALID_DIMENSION, dim, x.dims());
+    int[] index = validIndices(indices, x.size(dim));
+    int[] shape = x.getShape();
+    shape[dim] = index.length;
+    Check.argument(Arrays.equals(shape, values.getShape()), "Illegal shape of values: %s",
+        Arrays.toString(values.getShape()));
+    Object dst = storage(x), src = storage(values);
+    if (src != null && dst != null && src.getClass() == dst.getClass()) {
+      // the outer blocks are disjoint, which (unlike the indices) can be repeated
+      int inner = inner(x, dim), outer = outer(x, dim);
+      DoubleReductions.forEachRange(inner * index.length, outer,
+          (from, to) -> Gather.put(dst, x.size(dim), inner, from, to, index, src, index.length));
+    } else if (x.dims() == 1) {
+      for (int i = 0; i < index.length; i++) {
+        x.set(index[i], values, i);
+      }
+    } else {
+      for (int i = 0; i < index.length; i++) {
+        x.select(dim, index[i]).assign(values.select(dim, i));
+      }
+    }
+  }
+
+  @Override
+  public <T extends BaseArray<T>> T compress(T x, BooleanArray condition) {
+    Check.size(x.size(), condition.size());
+    return take(x, nonZero(condition));
+  }
+
+  @Override
+  public <T extends BaseArray<T>> T compress(T x, BooleanArray condition, int dim) {
+    Check.argument(dim >= 0 && dim < x.dims(), INVALID_DIMENSION, dim, x.dims());
+    Check.size(x.size(dim), condition.size());
+    return take(x, nonZero(condition), dim);
+  }
+
+  @Override
+  public DoubleArray convolve(DoubleArray x, DoubleArray kernel, ConvolutionMode mode) {
+    return convolve(x, kernel, mode, false);
+  }
+
+  @Override
+  public DoubleArray correlate(DoubleArray x, DoubleArray kernel, ConvolutionMode mode) {
+    return convolve(x, kernel, mode, true);
+  }
+
+  private DoubleArray convolve(DoubleArray x, DoubleArray kernel, ConvolutionMode mode,
+      boolean reverse) {
+    Check.argument(x.dims() <= 2, "series must be a vector or a matrix");
+    Check.argument(kernel.isVector() && kernel.size() > 0, "kernel must be a non-empty vector");
+    boolean vector = x.dims() == 1;
+    int rows = vector ? 1 : x.rows();
+    int n = vector ? x.size() : x.columns();
+    int m = kernel.size();
+    Check.argument(n > 0, "empty series");
+    Check.argument(mode != ConvolutionMode.VALID || n >= m,
+        "kernel (%d) longer than series (%d)", m, n);
+
+    double[] h = new double[m];
+    for (int i = 0; i < m; i++) {
+      h[reverse ? m - i - 1 : i] = kernel.get(i);
+    }
+    int size = mode.size(n, m);
+    double[][] series = new double[rows][n];
+    double[][] out = new double[rows][size];
+    for (int i = 0; i < rows; i++) {
+      DoubleArray row = vector ? x : x.getRow(i);
+      for (int j = 0; j < n; j++) {
+        series[i][j] = row.get(j);
+      }
+    }
+    Convolution.convolve(series, h, out, mode.start(n, m));
+
+    DoubleArray result = vector ? x.newEmptyArray(size) : x.newEmptyArray(rows, size);
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < size; j++) {
+        result.set(j * rows + i, out[i][j]);
+      }
+    }
+    return result;
+  }
+
+  private static int[] nonZero(BooleanArray condition) {
+    int n = 0;
+    for (int i = 0; i < condition.size(); i++) {
+      if (condition.get(i)) {
+        n++;
+      }
+    }
+    int[] index = new int[n];
+    for (int i = 0, j = 0; j < n; i++) {
+      if (condition.get(i)) {
+        index[j++] = i;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Returns the indices (exactly {@code indices.size()} elements) as an {@code int[]}, after
+   * checking that each index is in {@code [0, size)}.
+   */
+  private int[] validIndices(IntArray indices, int size) {
+    int[] index = values(indices);
+    for (int i = 0; i < index.length; i++) {
+      if (index[i] < 0 || index[i] >= size) {
+        throw new IndexOutOfBoundsException(
+            String.format("Index %d out of bounds for size %d", index[i], size));
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Returns the dense column-major storage of {@code x}, or {@code null} if {@code x} has no
+   * directly accessible storage holding exactly its elements (e.g., a view, or a leading vector of
+   * a matrix, which shares the storage of the matrix).
+   */
+  private Object storage(BaseArray<?> x) {
+    if (x.isView()) {
+      return null;
+    }
+    Object storage = null;
+    if (x instanceof DoubleArray && hasDirectStorage((DoubleArray) x)) {
+      storage = ((DoubleArray) x).data();
+    } else if (x instanceof IntArray && hasDirectStorage((IntArray) x)) {
+      storage = ((IntArray) x).data();
+    } else if (x instanceof FloatArray && hasDirectStorage((FloatArray) x)) {
+      storage = ((FloatArray) x).data();
+    } else if (x instanceof BaseLongArray) {
+      storage = ((BaseLongArray) x).data();
+    }
+    if (storage == null || java.lang.reflect.Array.getLength(storage) != x.size()) {
+      return null;
+    }
+    return storage;
+  }
+
+  /**
+   * Returns the number of elements in the dimensions before {@code dim}.
+   */
+  private static int inner(BaseArray<?> x, int dim) {
+    int inner = 1;
+    for (int d = 0; d < dim; d++) {
+      inner *= x.size(d);
+    }
+    return inner;
+  }
+
+  /**
+   * Returns the number of elements in the dimensions after {@code dim}.
+   */
+  private static int outer(BaseArray<?> x, int dim) {
+    int outer = 1;
+    for (int d = dim + 1; d < x.dims(); d++) {
+      outer *= x.size(d);
+    }
+    return outer;
+  }
+
+  @Override
+  public <T extends BaseArray<T>> T sort(T x) {
+    return sort0(-1, x);
+  }
+
+  @Override
+  public <T extends BaseArray<T>> T sort(int dim, T x) {
+    Check.argument(dim >= 0 && dim < x.dims(), INVALID_DIMENSION, dim, x.dims());
+    return sort0(dim, x);
+  }
+
+  /**
+   * Sorts a copy of {@code x} in natural order, along {@code dim} or, if {@code dim < 0}, in
+   * column-major order.
+   */
+  private <T extends BaseArray<T>> T sort0(int dim, T x) {
     T out = x.copy();
-    if (x instanceof DoubleArray) {
-      Arrays.sort(((DoubleArray) out).data());
+    if (out instanceof DoubleArray) {
+      DoubleArray array = (DoubleArray) out;
+      double[] values = values(array);
+      if (dim < 0) {
+        PrimitiveSort.sort(values);
+      } else {
+        PrimitiveSort.sort(dim, array.getShape(), values);
+      }
+      if (!isStorage(array, values)) {
+        array.assign(values);
+      }
+    } else if (out instanceof IntArray) {
+      IntArray array = (IntArray) out;
+      int[] values = values(array);
+      if (dim < 0) {
+        PrimitiveSort.sort(values);
+      } else {
+        PrimitiveSort.sort(dim, array.getShape(), values);
+      }
+      if (!isStorage(array, values)) {
+        array.assign(values);
+      }
+    } else if (out instanceof LongArray) {
+      LongArray array = (LongArray) out;
+      long[] values = values(array);
+      if (dim < 0) {
+        PrimitiveSort.sort(values);
+      } else {
+        PrimitiveSort.sort(dim, array.getShape(), values);
+      }
+      if (!isStorage(array, values)) {
+        array.assign(values);
+      }
+    } else if (dim < 0) {
+      QuickSort.quickSort(0, out.size(), out::compare, out);
     } else {
-      QuickSort.quickSort(0, out.size(), (a, b) -> cmp.compare(out, a, b), out);
+      sortVectors(dim, out, (t, a, b) -> t.compare(a, b));
     }
     return out;
   }
 
+  @Override
+  public <T extends BaseArray<T>> T sort(T x, IndexComparator<T> cmp) {
+    T out = x.copy();
+    QuickSort.quickSort(0, out.size(), (a, b) -> cmp.compare(out, a, b), out);
+    return out;
+  }
+
   @Override
   public <T extends BaseArray<T>> T sort(int dim, T x, IndexComparator<T> cmp) {
     T out = x.copy();
-    int m = x.vectors(dim);
+    sortVectors(dim, out, cmp);
+    return out;
+  }
+
+  private <T extends BaseArray<T>> void sortVectors(int dim, T out, IndexComparator<T> cmp) {
+    int m = out.vectors(dim);
     for (int i = 0; i < m; i++) {
       T v = out.getVector(dim, i);
       QuickSort.quickSort(0, v.size(), (a, b) -> cmp.compare(v, a, b), v);
     }
+  }
 
-    return out;
+  @Override
+  public IntArray argsort(DoubleArray x) {
+    return newOrder(x, PrimitiveSort.argsort(values(x)));
+  }
+
+  @Override
+  public IntArray argsort(int dim, DoubleArray x) {
+    Check.argument(dim >= 0 && dim < x.dims(), INVALID_DIMENSION, dim, x.dims());
+    int[] order = PrimitiveSort.argsort(dim, x.getShape(), values(x));
+    return newOrder(x, order);
+  }
+
+  @Override
+  public IntArray argsort(IntArray x) {
+    return newOrder(x, PrimitiveSort.argsort(values(x)));
+  }
+
+  @Override
+  public IntArray argsort(int dim, IntArray x) {
+    Check.argument(dim >= 0 && dim < x.dims(), INVALID_DIMENSION, dim, x.dims());
+    int[] order = PrimitiveSort.argsort(dim, x.getShape(), values(x));
+    return newOrder(x, order);
+  }
+
+  @Override
+  public IntArray argsort(LongArray x) {
+    return newOrder(x, PrimitiveSort.argsort(values(x)));
+  }
+
+  @Override
+  public IntArray argsort(int dim, LongArray x) {
+    Check.argument(dim >= 0 && dim < x.dims(), INVALID_DIMENSION, dim, x.dims());
+    int[] order = PrimitiveSort.argsort(dim, x.getShape(), values(x));
+    return newOrder(x, order);
+  }
+
+  /**
+   * Returns an int array, from the factory of {@code x}, with the shape of {@code x} and the given
+   * elements (in column-major order).
+   */
+  private static IntArray newOrder(BaseArray<?> x, int[] order) {
+    IntArray array = x.asInt().newEmptyArray(x.getShape());
+    array.assign(order);
+    return array;
   }
 
   @Override
@@ -518,7 +1091,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray sin(DoubleArray array) {
-    return array.map(Math::sin);
+    return sin(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray sin(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.SIN, in, out);
   }
 
   @Override
@@ -528,7 +1106,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray cos(DoubleArray array) {
-    return array.map(Math::cos);
+    return cos(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray cos(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.COS, in, out);
   }
 
   @Override
@@ -538,7 +1121,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray tan(DoubleArray array) {
-    return array.map(Math::tan);
+    return tan(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray tan(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.TAN, in, out);
   }
 
   @Override
@@ -548,7 +1136,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray asin(DoubleArray array) {
-    return array.map(Math::asin);
+    return asin(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray asin(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.ASIN, in, out);
   }
 
   @Override
@@ -558,7 +1151,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray acos(DoubleArray array) {
-    return array.map(Math::acos);
+    return acos(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray acos(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.ACOS, in, out);
   }
 
   @Override
@@ -568,7 +1166,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray atan(DoubleArray array) {
-    return array.map(Math::atan);
+    return atan(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray atan(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.ATAN, in, out);
   }
 
   @Override
@@ -578,7 +1181,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray sinh(DoubleArray array) {
-    return array.map(Math::sinh);
+    return sinh(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray sinh(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.SINH, in, out);
   }
 
   @Override
@@ -588,7 +1196,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray cosh(DoubleArray array) {
-    return array.map(Math::cosh);
+    return cosh(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray cosh(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.COSH, in, out);
   }
 
   @Override
@@ -598,7 +1211,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray tanh(DoubleArray array) {
-    return array.map(Math::tanh);
+    return tanh(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray tanh(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.TANH, in, out);
   }
 
   @Override
@@ -608,7 +1226,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray exp(DoubleArray array) {
-    return array.map(Math::exp);
+    return exp(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray exp(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.EXP, in, out);
   }
 
   @Override
@@ -618,12 +1241,22 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray cbrt(DoubleArray array) {
-    return array.map(Math::cbrt);
+    return cbrt(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray cbrt(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.CBRT, in, out);
   }
 
   @Override
   public DoubleArray ceil(DoubleArray array) {
-    return array.map(Math::ceil);
+    return ceil(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray ceil(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.CEIL, in, out);
   }
 
   @Override
@@ -633,7 +1266,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray floor(DoubleArray array) {
-    return array.map(Math::floor);
+    return floor(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray floor(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.FLOOR, in, out);
   }
 
   @Override
@@ -653,7 +1291,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray abs(DoubleArray array) {
-    return array.map(Math::abs);
+    return abs(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray abs(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.ABS, in, out);
   }
 
   @Override
@@ -673,7 +1316,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray sqrt(DoubleArray array) {
-    return array.map(Math::sqrt);
+    return sqrt(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray sqrt(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.SQRT, in, out);
   }
 
   @Override
@@ -683,7 +1331,12 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray log(DoubleArray array) {
-    return array.map(Math::log);
+    return log(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray log(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.LOG, in, out);
   }
 
   @Override
@@ -694,29 +1347,329 @@ public class BaseArrayRoutines implements ArrayRoutines {
 
   @Override
   public DoubleArray log2(DoubleArray array) {
-    return array.map(x -> Math.log(x) / LOG_2);
+    return log2(array, array.newEmptyArray(array.getShape()));
+  }
+
+  @Override
+  public DoubleArray log2(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.LOG2, in, out);
   }
 
   @Override
   public DoubleArray pow(DoubleArray in, double power) {
+    return pow(in, power, in.newEmptyArray(in.getShape()));
+  }
+
+  @Override
+  public DoubleArray pow(DoubleArray in, double power, DoubleArray out) {
     if (Precision.equals(power, 2, EPS)) {
-      return in.map(x -> x * x);
+      return map(DoubleKernels.Unary.SQUARE, in, out);
+    } else if (Precision.equals(power, 0.5, EPS)) {
+      return map(DoubleKernels.Unary.SQRT, in, out);
     } else if (Precision.equals(power, 3, EPS)) {
-      return in.map(x -> x * x * x);
+      return map(x -> x * x * x, in, out);
     } else if (Precision.equals(power, 4, EPS)) {
-      return in.map(x -> x * x * x * x);
+      return map(x -> x * x * x * x, in, out);
     } else {
-      return in.map(x -> FastMath.pow(x, power));
+      return map(x -> FastMath.pow(x, power), in, out);
     }
   }
 
   @Override
   public DoubleArray log10(DoubleArray in) {
-    return in.map(Math::log10);
+    return log10(in, in.newEmptyArray(in.getShape()));
+  }
+
+  @Override
+  public DoubleArray log10(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.LOG10, in, out);
   }
 
   @Override
   public DoubleArray signum(DoubleArray in) {
-    return in.map(Math::signum);
+    return signum(in, in.newEmptyArray(in.getShape()));
+  }
+
+  @Override
+  public DoubleArray signum(DoubleArray in, DoubleArray out) {
+    return map(DoubleKernels.Unary.SIGNUM, in, out);
+  }
+
+  @Override
+  public DoubleArray plus(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return combine(DoubleKernels.Binary.PLUS, a, b, out);
+  }
+
+  @Override
+  public DoubleArray minus(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return combine(DoubleKernels.Binary.MINUS, a, b, out);
+  }
+
+  @Override
+  public DoubleArray times(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return combine(DoubleKernels.Binary.TIMES, a, b, out);
+  }
+
+  @Override
+  public DoubleArray div(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return combine(DoubleKernels.Binary.DIV, a, b, out);
+  }
+
+  @Override
+  public DoubleArray min(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return combine(DoubleKernels.Binary.MIN, a, b, out);
+  }
+
+  @Override
+  public DoubleArray max(DoubleArray a, DoubleArray b, DoubleArray out) {
+    return combine(DoubleKernels.Binary.MAX, a, b, out);
+  }
+
+  @Override
+  public DoubleArray fma(DoubleArray a, DoubleArray b, DoubleArray c, DoubleArray out) {
+    a = operand(a, out);
+    b = operand(b, out);
+    c = operand(c, out);
+    StridedLayout la = segment(a), lb = segment(b), lc = segment(c), ly = segment(out);
+    if (la != null && lb != null && lc != null && ly != null && ly.stride() != 0) {
+      double[] ad = a.data(), bd = b.data(), cd = c.data(), yd = out.data();
+      DoubleReductions.forEachRange(1, out.size(),
+          (from, to) -> DoubleKernels.fma(ad, position(la, from), la.stride(), bd,
+              position(lb, from), lb.stride(), cd, position(lc, from), lc.stride(), yd,
+              position(ly, from), ly.stride(), to - from));
+    } else {
+      for (int i = 0; i < out.size(); i++) {
+        out.set(i, a.get(i) * b.get(i) + c.get(i));
+      }
+    }
+    return out;
+  }
+
+  @Override
+  public BooleanArray lt(DoubleArray a, DoubleArray b, BooleanArray out) {
+    return compare(DoubleKernels.Comparison.LT, a, b, out);
+  }
+
+  @Override
+  public BooleanArray lte(DoubleArray a, DoubleArray b, BooleanArray out) {
+    return compare(DoubleKernels.Comparison.LTE, a, b, out);
+  }
+
+  @Override
+  public BooleanArray gt(DoubleArray a, DoubleArray b, BooleanArray out) {
+    return compare(DoubleKernels.Comparison.GT, a, b, out);
+  }
+
+  @Override
+  public BooleanArray gte(DoubleArray a, DoubleArray b, BooleanArray out) {
+    return compare(DoubleKernels.Comparison.GTE, a, b, out);
+  }
+
+  @Override
+  public BooleanArray eq(DoubleArray a, DoubleArray b, BooleanArray out) {
+    return compare(DoubleKernels.Comparison.EQ, a, b, out);
+  }
+
+  /**
+   * Applies {@code op} to each element of {@code in} and stores the result in {@code out}. If both
+   * arrays are stored in a single segment of their storage (e.g., dense arrays and vector views),
+   * the kernel is applied to the storage directly, in parallel for large arrays.
+   *
+   * <p>
+   * The element-wise routines with an output array delegate to this method, which can be
+   * overridden by backends that store arrays elsewhere.
+   */
+  protected DoubleArray map(DoubleUnaryOperator op, DoubleArray in, DoubleArray out) {
+    Check.size(in, out);
+    StridedLayout x = segment(in), y = segment(out);
+    if (op instanceof DoubleKernels.Unary && x != null && y != null && y.stride() != 0) {
+      DoubleKernels.Unary kernel = (DoubleKernels.Unary) op;
+      double[] xd = in.data(), yd = out.data();
+      DoubleReductions.forEachRange(1, out.size(),
+          (from, to) -> DoubleKernels.map(kernel, xd, position(x, from), x.stride(), yd,
+              position(y, from), y.stride(), to - from));
+    } else {
+      for (int i = 0; i < out.size(); i++) {
+        out.set(i, op.applyAsDouble(in.get(i)));
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Stores {@code op(a[i], b[i])} in {@code out[i]}, broadcasting {@code a} and {@code b} to the
+   * shape of {@code out}.
+   *
+   * @see #map(DoubleUnaryOperator, DoubleArray, DoubleArray)
+   */
+  protected DoubleArray combine(DoubleBinaryOperator op, DoubleArray a, DoubleArray b,
+      DoubleArray out) {
+    a = operand(a, out);
+    b = operand(b, out);
+    StridedLayout la = segment(a), lb = segment(b), ly = segment(out);
+    if (op instanceof DoubleKernels.Binary && la != null && lb != null && ly != null
+        && ly.stride() != 0) {
+      DoubleKernels.Binary kernel = (DoubleKernels.Binary) op;
+      double[] ad = a.data(), bd = b.data(), yd = out.data();
+      DoubleReductions.forEachRange(1, out.size(),
+          (from, to) -> DoubleKernels.combine(kernel, ad, position(la, from), la.stride(), bd,
+              position(lb, from), lb.stride(), yd, position(ly, from), ly.stride(), to - from));
+    } else {
+      for (int i = 0; i < out.size(); i++) {
+        out.set(i, op.applyAsDouble(a.get(i), b.get(i)));
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Stores {@code op(a[i], b[i])} in {@code out[i]}, broadcasting {@code a} and {@code b} to the
+   * shape of {@code out}. If {@code a} and {@code b} are stored in a single segment of their
+   * storage and {@code out} is a packed boolean array, the results are computed a word (64
+   * elements) at a time, in parallel for large arrays.
+   */
+  private BooleanArray compare(DoubleKernels.Comparison op, DoubleArray a, DoubleArray b,
+      BooleanArray out) {
+    a = operand(a, out);
+    b = operand(b, out);
+    StridedLayout la = segment(a), lb = segment(b);
+    long[] words = out instanceof BaseBooleanArray ? ((BaseBooleanArray) out).words() : null;
+    if (la != null && lb != null && words != null) {
+      double[] ad = a.data(), bd = b.data();
+      int n = out.size();
+      DoubleReductions.forEachRange(64, words.length,
+          (from, to) -> DoubleKernels.compare(op, ad, la.position(0), la.stride(), bd,
+              lb.position(0), lb.stride(), words, from, to, n));
+    } else {
+      for (int i = 0; i < out.size(); i++) {
+        out.set(i, op.test(a.get(i), b.get(i)));
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Returns {@code x} if it has the same size as {@code out}; otherwise {@code x} broadcast to the
+   * shape of {@code out}.
+   */
+  private static DoubleArray operand(DoubleArray x, BaseArray<?> out) {
+    return x.size() == out.size() ? x : x.broadcast(out.getShape());
+  }
+
+  /**
+   * Returns the layout of {@code x} if its elements are stored (in column-major order) in a single
+   * segment of its storage; otherwise {@code null}.
+   */
+  private StridedLayout segment(DoubleArray x) {
+    if (hasDirectStorage(x)) {
+      StridedLayout layout = StridedLayout.of(x);
+      return layout.segments() == 1 ? layout : null;
+    }
+    return null;
+  }
+
+  private static int position(StridedLayout layout, int index) {
+    return layout.position(0) + index * layout.stride();
+  }
+
+  /**
+   * Returns true if the elements of {@code x} are stored in the array returned by
+   * {@link DoubleArray#data()} and are addressed using the offset and strides of {@code x}. The
+   * reductions of such arrays operate directly on the storage.
+   *
+   * @param x the array
+   * @return true if the storage of {@code x} is directly accessible
+   */
+  protected boolean hasDirectStorage(DoubleArray x) {
+    return x instanceof BaseDoubleArray;
+  }
+
+  /**
+   * @see #hasDirectStorage(DoubleArray)
+   */
+  protected boolean hasDirectStorage(IntArray x) {
+    return x instanceof BaseIntArray;
+  }
+
+  /**
+   * @see #hasDirectStorage(DoubleArray)
+   */
+  protected boolean hasDirectStorage(FloatArray x) {
+    return x instanceof BaseFloatArray;
+  }
+
+  /**
+   * Returns the elements of {@code x} in column-major order. If the storage of {@code x} holds
+   * exactly its elements, the storage itself is returned.
+   */
+  private double[] values(DoubleArray x) {
+    if (isStorage(x)) {
+      return x.data();
+    }
+    double[] values = new double[x.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = x.get(i);
+    }
+    return values;
+  }
+
+  private int[] values(IntArray x) {
+    if (isStorage(x)) {
+      return x.data();
+    }
+    int[] values = new int[x.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = x.get(i);
+    }
+    return values;
+  }
+
+  private long[] values(LongArray x) {
+    if (isStorage(x)) {
+      return ((BaseLongArray) x).data();
+    }
+    long[] values = new long[x.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = x.get(i);
+    }
+    return values;
+  }
+
+  /**
+   * Returns true if {@code x} has direct storage holding exactly its elements in column-major
+   * order. Note that a leading vector of a matrix (e.g., {@code m.getColumn(0)}) is not a view,
+   * but shares the (larger) storage of the matrix.
+   */
+  private boolean isStorage(DoubleArray x) {
+    return hasDirectStorage(x) && !x.isView() && x.data().length == x.size();
+  }
+
+  private boolean isStorage(IntArray x) {
+    return hasDirectStorage(x) && !x.isView() && x.data().length == x.size();
+  }
+
+  private boolean isStorage(LongArray x) {
+    return x instanceof BaseLongArray && !x.isView()
+        && ((BaseLongArray) x).data().length == x.size();
+  }
+
+  private boolean isStorage(DoubleArray x, double[] values) {
+    return isStorage(x) && x.data() == values;
+  }
+
+  private boolean isStorage(IntArray x, int[] values) {
+    return isStorage(x) && x.data() == values;
+  }
+
+  private boolean isStorage(LongArray x, long[] values) {
+    return isStorage(x) && ((BaseLongArray) x).data() == values;
+  }
+
+  private boolean isMatrix(DoubleArray x) {
+    return hasDirectStorage(x) && x.isMatrix();
+  }
+
+  private boolean isMatrix(IntArray x) {
+    return hasDirectStorage(x) && x.isMatrix();
   }
 }
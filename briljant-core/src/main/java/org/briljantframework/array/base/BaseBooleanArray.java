@@ -22,61 +22,237 @@
 package org.briljantframework.array.base;
 
 import java.util.Objects;
+import java.util.function.LongBinaryOperator;
+import java.util.function.Supplier;
 
+import org.briljantframework.Check;
 import org.briljantframework.array.AbstractBooleanArray;
 import org.briljantframework.array.BooleanArray;
 import org.briljantframework.array.api.ArrayFactory;
 
 /**
+ * A boolean array packing its elements as bits in a {@code long[]}, i.e., element {@code i} is
+ * stored in bit {@code i % 64} of word {@code i / 64}. Bits beyond the last element are always
+ * zero.
+ *
+ * <p>
+ * Unless the array is a view (or a leading vector of a matrix), logical operations with other
+ * such arrays of this type, {@link #cardinality()} and {@link #nextSetBit(int)} operate on a word
+ * (64 elements) at a time.
+ *
+ * <p>
+ * Note that setting different elements stored in the same word from different threads is not
+ * safe.
+ *
  * @author Isak Karlsson
  */
 class BaseBooleanArray extends AbstractBooleanArray {
 
-  private final boolean[] data;
+  private static final int ADDRESS_BITS = 6;
+
+  private final long[] words;
+  private final int size;
 
   BaseBooleanArray(ArrayFactory bj, int size) {
     super(bj, size);
-    data = new boolean[size];
+    this.size = size;
+    this.words = new long[wordCount(size)];
   }
 
   BaseBooleanArray(ArrayFactory bj, boolean[] data) {
     super(bj, Objects.requireNonNull(data).length);
-    this.data = data;
+    this.size = data.length;
+    this.words = new long[wordCount(size)];
+    for (int i = 0; i < data.length; i++) {
+      if (data[i]) {
+        words[i >>> ADDRESS_BITS] |= 1L << i;
+      }
+    }
   }
 
   public BaseBooleanArray(ArrayFactory bj, int[] shape) {
     super(bj, shape);
-    this.data = new boolean[size()];
+    this.size = size();
+    this.words = new long[wordCount(size)];
   }
 
-  public BaseBooleanArray(ArrayFactory bj, int offset, int[] shape, int[] stride, int majorStride,
-      boolean[] data) {
+  BaseBooleanArray(ArrayFactory bj, int offset, int[] shape, int[] stride, int majorStride,
+      int size, long[] words) {
     super(bj, offset, shape, stride, majorStride);
-    this.data = data;
+    this.size = size;
+    this.words = words;
+  }
+
+  private static int wordCount(int size) {
+    return (size + (1 << ADDRESS_BITS) - 1) >>> ADDRESS_BITS;
   }
 
   @Override
   public BooleanArray asView(int offset, int[] shape, int[] stride, int majorStride) {
-    return new BaseBooleanArray(getArrayFactory(), offset, shape, stride, majorStride, data);
+    return new BaseBooleanArray(getArrayFactory(), offset, shape, stride, majorStride, size,
+        words);
   }
 
   @Override
   protected int elementSize() {
-    return data.length;
+    return size;
   }
 
   @Override
   public void setElement(int index, boolean value) {
-    data[index] = value;
+    if (value) {
+      words[index >>> ADDRESS_BITS] |= 1L << index;
+    } else {
+      words[index >>> ADDRESS_BITS] &= ~(1L << index);
+    }
   }
 
   @Override
   public boolean getElement(int index) {
-    return data[index];
+    return (words[index >>> ADDRESS_BITS] & (1L << index)) != 0;
   }
 
   @Override
   public BooleanArray newEmptyArray(int... shape) {
     return new BaseBooleanArray(getArrayFactory(), shape);
   }
+
+  @Override
+  public void assign(boolean value) {
+    if (!isWords()) {
+      super.assign(value);
+    } else {
+      java.util.Arrays.fill(words, value ? -1L : 0L);
+      clearUnusedBits(words, size);
+    }
+  }
+
+  @Override
+  public BooleanArray copy() {
+    if (!isWords()) {
+      return super.copy();
+    }
+    return newArray(words.clone());
+  }
+
+  @Override
+  public int cardinality() {
+    if (!isWords()) {
+      return super.cardinality();
+    }
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  @Override
+  public int nextSetBit(int fromIndex) {
+    if (fromIndex < 0) {
+      throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+    }
+    if (!isWords()) {
+      return super.nextSetBit(fromIndex);
+    }
+    if (fromIndex >= size) {
+      return -1;
+    }
+
+    int i = fromIndex >>> ADDRESS_BITS;
+    long word = words[i] & (-1L << fromIndex);
+    while (word == 0) {
+      if (++i == words.length) {
+        return -1;
+      }
+      word = words[i];
+    }
+    return (i << ADDRESS_BITS) + Long.numberOfTrailingZeros(word);
+  }
+
+  @Override
+  public BooleanArray xor(BooleanArray other) {
+    return combine(other, (a, b) -> a ^ b, () -> super.xor(other));
+  }
+
+  @Override
+  public BooleanArray or(BooleanArray other) {
+    return combine(other, (a, b) -> a | b, () -> super.or(other));
+  }
+
+  @Override
+  public BooleanArray orNot(BooleanArray other) {
+    return combine(other, (a, b) -> a | ~b, () -> super.orNot(other));
+  }
+
+  @Override
+  public BooleanArray and(BooleanArray other) {
+    return combine(other, (a, b) -> a & b, () -> super.and(other));
+  }
+
+  @Override
+  public BooleanArray andNot(BooleanArray other) {
+    return combine(other, (a, b) -> a & ~b, () -> super.andNot(other));
+  }
+
+  @Override
+  public BooleanArray not() {
+    if (!isWords()) {
+      return super.not();
+    }
+    long[] result = new long[words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = ~words[i];
+    }
+    clearUnusedBits(result, size);
+    return newArray(result);
+  }
+
+  /**
+   * Combines the words of this array and {@code other} using {@code operator} if the words of
+   * both hold exactly their elements; otherwise, falls back to the element-wise {@code fallback}.
+   */
+  private BooleanArray combine(BooleanArray other, LongBinaryOperator operator,
+      Supplier<BooleanArray> fallback) {
+    Check.shape(this, other);
+    if (!isWords() || !(other instanceof BaseBooleanArray)
+        || !((BaseBooleanArray) other).isWords()) {
+      return fallback.get();
+    }
+
+    long[] otherWords = ((BaseBooleanArray) other).words;
+    long[] result = new long[words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = operator.applyAsLong(words[i], otherWords[i]);
+    }
+    clearUnusedBits(result, size);
+    return newArray(result);
+  }
+
+  /**
+   * Returns true if the words hold exactly the elements of this array, in column-major order.
+   * This is not the case for views, nor for leading vectors of a matrix, which are not views but
+   * share the words of the matrix.
+   */
+  private boolean isWords() {
+    return !isView() && size == size();
+  }
+
+  /**
+   * Returns the words of this array, or {@code null} unless the words hold exactly the elements
+   * of this array (see {@link #isWords()}).
+   */
+  long[] words() {
+    return isWords() ? words : null;
+  }
+
+  private BooleanArray newArray(long[] words) {
+    return new BaseBooleanArray(getArrayFactory(), 0, getShape(), getStride(), 0, size, words);
+  }
+
+  private static void clearUnusedBits(long[] words, int size) {
+    if (words.length > 0) {
+      words[words.length - 1] &= -1L >>> -size;
+    }
+  }
 }
@@ -0,0 +1,436 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.ChunkedDoubleArray;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.api.ArrayFactory;
+
+/**
+ * A chunked array where the chunks are {@code double[]} of {@code chunkSize} elements (the last
+ * chunk can be shorter). A view shares the chunks and is offset into them.
+ *
+ * <p>
+ * Parallel operations split {@code [0, size)} recursively at the midpoint, until the ranges have at
+ * most {@link DoubleReductions#PARALLEL_THRESHOLD} elements. Each range is then processed one
+ * <i>segment</i> (i.e., the part of the range stored in a single chunk) at a time, using the
+ * kernels in {@link DoubleKernels} and {@link DoubleReductions}.
+ *
+ * @author Isak Karlsson
+ */
+final class BaseChunkedDoubleArray implements ChunkedDoubleArray {
+
+  private final ArrayFactory bj;
+  private final double[][] data;
+  private final int chunkSize;
+  private final long offset;
+  private final long size;
+
+  BaseChunkedDoubleArray(ArrayFactory bj, long size, int chunkSize) {
+    Check.argument(size >= 0, "Illegal size: %s", size);
+    Check.argument(chunkSize > 0, "Illegal chunk size: %s", chunkSize);
+    long chunks = (size + chunkSize - 1) / chunkSize;
+    Check.argument(chunks <= Integer.MAX_VALUE, "Too many chunks: %s", chunks);
+    this.bj = bj;
+    this.data = new double[(int) chunks][];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = new double[(int) Math.min(chunkSize, size - (long) i * chunkSize)];
+    }
+    this.chunkSize = chunkSize;
+    this.offset = 0;
+    this.size = size;
+  }
+
+  private BaseChunkedDoubleArray(ArrayFactory bj, double[][] data, int chunkSize, long offset,
+      long size) {
+    this.bj = bj;
+    this.data = data;
+    this.chunkSize = chunkSize;
+    this.offset = offset;
+    this.size = size;
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  @Override
+  public int chunks() {
+    if (size == 0) {
+      return 0;
+    }
+    return (int) ((offset + size - 1) / chunkSize - offset / chunkSize + 1);
+  }
+
+  @Override
+  public DoubleArray getChunk(int i) {
+    if (i < 0 || i >= chunks()) {
+      throw new IndexOutOfBoundsException(
+          String.format("Chunk %d out of bounds for %d chunks", i, chunks()));
+    }
+    int chunk = (int) (offset / chunkSize) + i;
+    long first = Math.max(offset, (long) chunk * chunkSize);
+    long last = Math.min(offset + size, (long) chunk * chunkSize + data[chunk].length);
+    return view(chunk, (int) (first - (long) chunk * chunkSize), (int) (last - first));
+  }
+
+  @Override
+  public double get(long index) {
+    long position = position(index);
+    return data[(int) (position / chunkSize)][(int) (position % chunkSize)];
+  }
+
+  @Override
+  public void set(long index, double value) {
+    long position = position(index);
+    data[(int) (position / chunkSize)][(int) (position % chunkSize)] = value;
+  }
+
+  @Override
+  public void addTo(long index, double value) {
+    long position = position(index);
+    data[(int) (position / chunkSize)][(int) (position % chunkSize)] += value;
+  }
+
+  @Override
+  public ChunkedDoubleArray getView(long offset, long length) {
+    Check.argument(offset >= 0 && length >= 0 && offset + length <= size,
+        "Illegal view [%s, %s) of array with %s elements", offset, offset + length, size);
+    return new BaseChunkedDoubleArray(bj, data, chunkSize, this.offset + offset, length);
+  }
+
+  @Override
+  public DoubleArray getDense(long offset, int length) {
+    Check.argument(offset >= 0 && length >= 0 && offset + length <= size,
+        "Illegal range [%s, %s) of array with %s elements", offset, offset + length, size);
+    long position = this.offset + offset;
+    int chunk = (int) (position / chunkSize);
+    int from = (int) (position % chunkSize);
+    Check.argument(from + length <= chunkSize, "The elements are stored in several chunks");
+    return view(chunk, from, length);
+  }
+
+  @Override
+  public void assign(double value) {
+    parallel((from, to) -> forEachSegment(from, to,
+        (data, position, length, index) -> Arrays.fill(data, position, position + length,
+            value)));
+  }
+
+  @Override
+  public void assign(ChunkedDoubleArray other) {
+    Check.argument(other.size() == size, "Size does not match. (%s != %s)", other.size(), size);
+    if (other instanceof BaseChunkedDoubleArray) {
+      parallel((from, to) -> forEachPair((BaseChunkedDoubleArray) other, from, to,
+          (a, ap, b, bp, length) -> System.arraycopy(b, bp, a, ap, length)));
+    } else {
+      for (long i = 0; i < size; i++) {
+        set(i, other.get(i));
+      }
+    }
+  }
+
+  @Override
+  public void assign(ChunkedDoubleArray other, DoubleBinaryOperator combine) {
+    Check.argument(other.size() == size, "Size does not match. (%s != %s)", other.size(), size);
+    if (other instanceof BaseChunkedDoubleArray) {
+      parallel((from, to) -> forEachPair((BaseChunkedDoubleArray) other, from, to,
+          (a, ap, b, bp, length) -> {
+            if (combine instanceof DoubleKernels.Binary) {
+              DoubleKernels.combine((DoubleKernels.Binary) combine, a, ap, 1, b, bp, 1, a, ap, 1,
+                  length);
+            } else {
+              for (int i = 0; i < length; i++) {
+                a[ap + i] = combine.applyAsDouble(a[ap + i], b[bp + i]);
+              }
+            }
+          }));
+    } else {
+      for (long i = 0; i < size; i++) {
+        set(i, combine.applyAsDouble(get(i), other.get(i)));
+      }
+    }
+  }
+
+  @Override
+  public void apply(DoubleUnaryOperator operator) {
+    parallel((from, to) -> forEachSegment(from, to, (data, position, length, index) -> {
+      if (operator instanceof DoubleKernels.Unary) {
+        DoubleKernels.map((DoubleKernels.Unary) operator, data, position, 1, data, position, 1,
+            length);
+      } else {
+        for (int i = position; i < position + length; i++) {
+          data[i] = operator.applyAsDouble(data[i]);
+        }
+      }
+    }));
+  }
+
+  @Override
+  public ChunkedDoubleArray map(DoubleUnaryOperator operator) {
+    ChunkedDoubleArray copy = copy();
+    copy.apply(operator);
+    return copy;
+  }
+
+  @Override
+  public void plusAssign(ChunkedDoubleArray other) {
+    assign(other, DoubleKernels.Binary.PLUS);
+  }
+
+  @Override
+  public void minusAssign(ChunkedDoubleArray other) {
+    assign(other, DoubleKernels.Binary.MINUS);
+  }
+
+  @Override
+  public void timesAssign(ChunkedDoubleArray other) {
+    assign(other, DoubleKernels.Binary.TIMES);
+  }
+
+  @Override
+  public void timesAssign(double scalar) {
+    parallel((from, to) -> forEachSegment(from, to,
+        (data, position, length, index) -> DoubleKernels.scal(scalar, data, position, 1, length)));
+  }
+
+  @Override
+  public double reduce(double identity, DoubleBinaryOperator reduce) {
+    double[] result = {identity};
+    forEachSegment(0, size, (data, position, length, index) -> {
+      for (int i = position; i < position + length; i++) {
+        result[0] = reduce.applyAsDouble(result[0], data[i]);
+      }
+    });
+    return result[0];
+  }
+
+  @Override
+  public double sum() {
+    return reduce(DoubleReductions.Op.SUM);
+  }
+
+  @Override
+  public double min() {
+    return reduce(DoubleReductions.Op.MIN);
+  }
+
+  @Override
+  public double max() {
+    return reduce(DoubleReductions.Op.MAX);
+  }
+
+  @Override
+  public double inner(ChunkedDoubleArray other) {
+    Check.argument(other.size() == size, "Size does not match. (%s != %s)", other.size(), size);
+    if (!(other instanceof BaseChunkedDoubleArray)) {
+      double sum = 0;
+      for (long i = 0; i < size; i++) {
+        sum += get(i) * other.get(i);
+      }
+      return sum;
+    }
+    BaseChunkedDoubleArray b = (BaseChunkedDoubleArray) other;
+    return reduce((x, y) -> x + y, (from, to) -> {
+      double[] sum = {0};
+      forEachPair(b, from, to,
+          (x, xp, y, yp, length) -> sum[0] += DoubleKernels.inner(x, xp, 1, y, yp, 1, length));
+      return sum[0];
+    });
+  }
+
+  @Override
+  public ChunkedDoubleArray copy() {
+    BaseChunkedDoubleArray copy = new BaseChunkedDoubleArray(bj, size, chunkSize);
+    copy.assign(this);
+    return copy;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("ChunkedDoubleArray(size=").append(size);
+    builder.append(", chunkSize=").append(chunkSize).append(", [");
+    for (long i = 0; i < Math.min(size, 10); i++) {
+      builder.append(i > 0 ? ", " : "").append(get(i));
+    }
+    return builder.append(size > 10 ? ", ...])" : "])").toString();
+  }
+
+  private long position(long index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(
+          String.format("Index %d out of bounds for size %d", index, size));
+    }
+    return offset + index;
+  }
+
+  private DoubleArray view(int chunk, int from, int length) {
+    return bj.array(data[chunk]).asView(from, new int[] {length}, new int[] {1});
+  }
+
+  private double reduce(DoubleReductions.Op op) {
+    return reduce(op::combine, (from, to) -> {
+      double[] result = {op.identity};
+      forEachSegment(from, to, (data, position, length, index) -> result[0] =
+          op.combine(result[0], DoubleReductions.reduce(op, data, position, 1, length)));
+      return result[0];
+    });
+  }
+
+  /**
+   * Calls {@code action} for each segment of the elements {@code [from, to)}.
+   */
+  private void forEachSegment(long from, long to, SegmentAction action) {
+    long position = offset + from;
+    long end = offset + to;
+    while (position < end) {
+      int chunk = (int) (position / chunkSize);
+      int start = (int) (position % chunkSize);
+      int length = (int) Math.min(chunkSize - start, end - position);
+      action.apply(data[chunk], start, length, position - offset);
+      position += length;
+    }
+  }
+
+  /**
+   * Calls {@code action} for the elements {@code [from, to)} of this array and {@code other}, one
+   * pair of segments (stored in a single chunk of each array) at a time.
+   */
+  private void forEachPair(BaseChunkedDoubleArray other, long from, long to, PairAction action) {
+    long a = offset + from;
+    long b = other.offset + from;
+    long remaining = to - from;
+    while (remaining > 0) {
+      int ap = (int) (a % chunkSize);
+      int bp = (int) (b % other.chunkSize);
+      int length = (int) Math.min(remaining, Math.min(chunkSize - ap, other.chunkSize - bp));
+      action.apply(data[(int) (a / chunkSize)], ap, other.data[(int) (b / other.chunkSize)], bp,
+          length);
+      a += length;
+      b += length;
+      remaining -= length;
+    }
+  }
+
+  private void parallel(RangeAction action) {
+    if (size < DoubleReductions.PARALLEL_THRESHOLD) {
+      action.apply(0, size);
+    } else {
+      ForkJoinPool.commonPool().invoke(new ParallelAction(0, size, action));
+    }
+  }
+
+  private double reduce(DoubleBinaryOperator combine, RangeReduction reduction) {
+    if (size < DoubleReductions.PARALLEL_THRESHOLD) {
+      return reduction.apply(0, size);
+    }
+    return ForkJoinPool.commonPool().invoke(new ParallelReduction(0, size, combine, reduction));
+  }
+
+  private interface SegmentAction {
+
+    void apply(double[] data, int position, int length, long index);
+  }
+
+  private interface PairAction {
+
+    void apply(double[] a, int ap, double[] b, int bp, int length);
+  }
+
+  private interface RangeAction {
+
+    void apply(long from, long to);
+  }
+
+  private interface RangeReduction {
+
+    double apply(long from, long to);
+  }
+
+  private static final class ParallelAction extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long from, to;
+    private final RangeAction action;
+
+    ParallelAction(long from, long to, RangeAction action) {
+      this.from = from;
+      this.to = to;
+      this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= DoubleReductions.PARALLEL_THRESHOLD) {
+        action.apply(from, to);
+      } else {
+        long mid = (from + to) >>> 1;
+        invokeAll(new ParallelAction(from, mid, action), new ParallelAction(mid, to, action));
+      }
+    }
+  }
+
+  private static final class ParallelReduction extends RecursiveTask<Double> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long from, to;
+    private final DoubleBinaryOperator combine;
+    private final RangeReduction reduction;
+
+    ParallelReduction(long from, long to, DoubleBinaryOperator combine,
+        RangeReduction reduction) {
+      this.from = from;
+      this.to = to;
+      this.combine = combine;
+      this.reduction = reduction;
+    }
+
+    @Override
+    protected Double compute() {
+      if (to - from <= DoubleReductions.PARALLEL_THRESHOLD) {
+        return reduction.apply(from, to);
+      }
+      long mid = (from + to) >>> 1;
+      ParallelReduction left = new ParallelReduction(from, mid, combine, reduction);
+      ParallelReduction right = new ParallelReduction(mid, to, combine, reduction);
+      right.fork();
+      double l = left.compute();
+      return combine.applyAsDouble(l, right.join());
+    }
+  }
+}
@@ -24,39 +24,64 @@ package org.briljantframework.array.base;
 import java.util.Objects;
 
 import org.apache.commons.math3.complex.Complex;
+import org.briljantframework.Check;
 import org.briljantframework.array.AbstractComplexArray;
 import org.briljantframework.array.ComplexArray;
+import org.briljantframework.array.Indexer;
 import org.briljantframework.array.api.ArrayFactory;
 
 /**
+ * A complex array storing the real and imaginary parts interleaved in a {@code double[]}, i.e.,
+ * the real part of element {@code i} is stored at {@code 2 * i} and the imaginary part at
+ * {@code 2 * i + 1}.
+ *
  * @author Isak Karlsson
  */
 class BaseComplexArray extends AbstractComplexArray {
 
-  private Complex[] data;
-  private Complex defaultValue = Complex.ZERO;
+  private double[] data;
 
   BaseComplexArray(ArrayFactory bj, int size) {
     super(bj, size);
-    this.data = new Complex[size];
+    this.data = new double[Math.multiplyExact(size, 2)];
   }
 
   BaseComplexArray(ArrayFactory bj, Complex[] data) {
     super(bj, Objects.requireNonNull(data).length);
-    this.data = data;
+    this.data = new double[Math.multiplyExact(data.length, 2)];
+    for (int i = 0; i < data.length; i++) {
+      Complex c = data[i];
+      if (c != null) {
+        this.data[i * 2] = c.getReal();
+        this.data[i * 2 + 1] = c.getImaginary();
+      }
+    }
   }
 
   BaseComplexArray(ArrayFactory bj, int[] shape) {
     super(bj, shape);
-    this.data = new Complex[size()];
+    this.data = new double[Math.multiplyExact(size(), 2)];
   }
 
   BaseComplexArray(ArrayFactory bj, int offset, int[] shape, int[] stride, int majorStride,
-      Complex[] data) {
+      double[] data) {
     super(bj, offset, shape, stride, majorStride);
     this.data = data;
   }
 
+  /**
+   * Returns a new complex vector with the interleaved real and imaginary parts in {@code data},
+   * which is used as storage.
+   *
+   * @param bj the array factory
+   * @param data the interleaved real and imaginary parts
+   * @return a new complex vector
+   */
+  static BaseComplexArray interleaved(ArrayFactory bj, double[] data) {
+    int[] shape = {Objects.requireNonNull(data).length / 2};
+    return new BaseComplexArray(bj, 0, shape, Indexer.computeStride(1, shape), 0, data);
+  }
+
   @Override
   public ComplexArray newEmptyArray(int... shape) {
     return new BaseComplexArray(getArrayFactory(), shape);
@@ -67,23 +92,67 @@ class BaseComplexArray extends AbstractComplexArray {
     return new BaseComplexArray(getArrayFactory(), offset, shape, stride, majorStride, data);
   }
 
+  @Override
+  public ComplexArray copy() {
+    if (isView()) {
+      return super.copy();
+    }
+    return new BaseComplexArray(getArrayFactory(), 0, getShape(), getStride(), 0, data.clone());
+  }
+
+  @Override
+  public void assign(double[] value) {
+    if (isView()) {
+      super.assign(value);
+    } else {
+      Check.size(data.length, value.length);
+      System.arraycopy(value, 0, data, 0, data.length);
+    }
+  }
+
+  @Override
+  public double[] data() {
+    return isView() ? super.data() : data;
+  }
+
+  /**
+   * Returns true unless the storage holds exactly the elements of this array, in column-major
+   * order. Hence, leading vectors of a matrix, which share the storage of the matrix, are views.
+   */
+  @Override
+  public boolean isView() {
+    return super.isView() || data.length != 2 * size();
+  }
+
   @Override
   protected int elementSize() {
-    return data.length;
+    return data.length / 2;
   }
 
   @Override
   protected void setElement(int i, Complex value) {
-    data[i] = value;
+    data[i * 2] = value.getReal();
+    data[i * 2 + 1] = value.getImaginary();
   }
 
   @Override
   protected Complex getElement(int i) {
-    Complex r = data[i];
-    if (r == null) {
-      return defaultValue;
-    } else {
-      return r;
-    }
+    return Complex.valueOf(data[i * 2], data[i * 2 + 1]);
+  }
+
+  @Override
+  protected void setElement(int i, double real, double imag) {
+    data[i * 2] = real;
+    data[i * 2 + 1] = imag;
+  }
+
+  @Override
+  protected double getRealElement(int i) {
+    return data[i * 2];
+  }
+
+  @Override
+  protected double getImaginaryElement(int i) {
+    return data[i * 2 + 1];
   }
 }
@@ -21,18 +21,47 @@
 
 package org.briljantframework.array.base;
 
+import java.util.Arrays;
+import java.util.List;
+
+import org.briljantframework.Check;
 import org.briljantframework.array.DoubleArray;
 import org.briljantframework.array.IntArray;
 import org.briljantframework.array.Op;
 import org.briljantframework.array.api.ArrayBackend;
+import org.briljantframework.array.api.ArrayFactory;
+import org.briljantframework.exceptions.NonConformantException;
 import org.briljantframework.linalg.api.AbstractLinearAlgebraRoutines;
 import org.briljantframework.linalg.decomposition.LuDecomposition;
 import org.briljantframework.linalg.decomposition.SingularValueDecomposition;
 
 /**
- * Created by isak on 27/04/15.
+ * This class implements the linear algebra routines (commonly LAPACK) in pure java, for use when
+ * no native implementation is available.
+ *
+ * <p>
+ * The routines follow the conventions of their LAPACK counterparts (e.g., pivot indices are
+ * 1-based and the results are written to the same out-parameters), so the two implementations
+ * can be used interchangeably. The factorizations are computed on column-major {@code double[]}
+ * buffers; if an argument is a view (or not a {@link BaseDoubleArray}) its values are copied to
+ * a new buffer and the results are re-inserted.
+ *
+ * @author Isak Karlsson
+ * @see DoubleLu
+ * @see DoubleQr
+ * @see DoubleEigen
+ * @see DoubleSvd
  */
-class BaseLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
+public class BaseLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
+
+  public final static double MACHINE_EPSILON = Math.ulp(1);
+  private static final String REQUIRE_2D_ARRAY = "require 2d-array";
+  private static final List<Character> SYEVR_UPLO = Arrays.asList('l', 'u');
+  private static final List<Character> ORMQR_SIDE = Arrays.asList('l', 'r');
+  private static final List<Character> GEEV_JOB_CHAR = Arrays.asList('n', 'v');
+  private static final List<Character> GESVD_JOB_CHAR = Arrays.asList('a', 's', 'o', 'n');
+  private static final List<Character> SYEVR_JOBZ_CHAR = Arrays.asList('n', 'v');
+  private static final List<Character> SYEVR_RANGE_CHAR = Arrays.asList('a', 'v', 'i');
 
   protected BaseLinearAlgebraRoutines(ArrayBackend matrixFactory) {
     super(matrixFactory);
@@ -40,82 +69,580 @@ class BaseLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
 
   @Override
   public LuDecomposition lu(DoubleArray x) {
-    throw new UnsupportedOperationException();
+    Check.argument(x.isMatrix(), REQUIRE_2D_ARRAY);
+    int m = x.size(0);
+    int n = x.size(1);
+    IntArray pivots = getArrayBackend().getArrayFactory().intArray(Math.min(m, n));
+    DoubleArray lu = x.copy();
+    getrf(lu, pivots);
+    return new LuDecomposition(lu, pivots);
   }
 
   @Override
   public DoubleArray inv(DoubleArray x) {
-    throw new UnsupportedOperationException();
+    Check.argument(x.isSquare(), "require square 2d-array");
+    LuDecomposition lu = lu(x);
+    DoubleArray out = lu.getDecomposition();
+    if (getri(out, lu.getPivot()) > 0) {
+      throw new ArithmeticException("Matrix is singular.");
+    }
+    return out;
+  }
+
+  @Override
+  public DoubleArray invBatch(DoubleArray x) {
+    Check.argument(x.dims() == 3 && x.size(0) == x.size(1), "require stack of square matrices");
+    DoubleArray out = x.newEmptyArray(x.getShape());
+    int[] info = DoubleBatch.inv(x, x instanceof BaseDoubleArray, out,
+        out instanceof BaseDoubleArray);
+    for (int i = 0; i < info.length; i++) {
+      if (info[i] > 0) {
+        throw new ArithmeticException(String.format("Matrix %d is singular.", i));
+      }
+    }
+    return out;
   }
 
   @Override
   public DoubleArray pinv(DoubleArray x) {
-    throw new UnsupportedOperationException();
+    Check.argument(x.isMatrix(), REQUIRE_2D_ARRAY);
+    ArrayFactory bj = getArrayBackend().getArrayFactory();
+    SingularValueDecomposition svd = svd(x);
+    DoubleArray d = svd.getSingularValues();
+    int r1 = 0;
+    for (int i = 0; i < d.size(); i++) {
+      if (d.get(i) > MACHINE_EPSILON) {
+        d.set(i, 1 / d.get(i));
+        r1++;
+      }
+    }
+
+    DoubleArray u = svd.getLeftSingularValues();
+    DoubleArray v = svd.getRightSingularValues();
+    u = u.getView(0, 0, u.rows(), r1);
+    v = v.getView(0, 0, v.rows(), r1);
+    d = d.get(bj.range(r1));
+
+    final int vc = v.size(1);
+    final int vr = v.size(0);
+    for (int j = 0; j < vc; j++) {
+      double dv = d.get(j);
+      for (int i = 0; i < vr; i++) {
+        v.set(i, j, dv * v.get(i, j));
+      }
+    }
+
+    DoubleArray pinv = bj.doubleArray(x.columns(), x.rows());
+    getArrayBackend().getArrayRoutines().gemm(Op.KEEP, Op.TRANSPOSE, 1, v, u, 1, pinv);
+    return pinv;
   }
 
   @Override
   public SingularValueDecomposition svd(DoubleArray x) {
-    throw new UnsupportedOperationException();
+    Check.argument(x.isMatrix(), REQUIRE_2D_ARRAY);
+    ArrayFactory bj = getArrayBackend().getArrayFactory();
+    int m = x.rows();
+    int n = x.columns();
+    DoubleArray s = bj.doubleArray(Math.min(m, n));
+    DoubleArray u = bj.doubleArray(m, m);
+    DoubleArray vt = bj.doubleArray(n, n);
+    gesdd('a', x.copy(), s, u, vt);
+    return new SingularValueDecomposition(s, u, vt.transpose());
   }
 
   @Override
   public void geev(char jobvl, char jobvr, DoubleArray a, DoubleArray wr, DoubleArray wi,
       DoubleArray vl, DoubleArray vr) {
-    throw new UnsupportedOperationException();
+    jobvl = Character.toLowerCase(jobvl);
+    jobvr = Character.toLowerCase(jobvr);
+    if (!GEEV_JOB_CHAR.contains(jobvl)) {
+      throw invalidCharacter("jobvl", jobvl, GEEV_JOB_CHAR);
+    }
+    if (!GEEV_JOB_CHAR.contains(jobvr)) {
+      throw invalidCharacter("jobvr", jobvr, GEEV_JOB_CHAR);
+    }
+    Check.argument(a.isMatrix(), REQUIRE_2D_ARRAY);
+    Check.argument(a.rows() == a.columns(), "Require square 2d-array");
+    int n = a.size(1);
+    Check.argument(wr.isVector() && wr.size() == n);
+    Check.argument(wi.isVector() && wi.size() == n);
+    if (jobvl == 'v') {
+      Check.argument(vl.isMatrix() && vl.rows() == vl.columns() && vl.rows() == n,
+          "Illegal 'vl' 2d-array");
+    }
+    if (jobvr == 'v') {
+      Check.argument(vr.isMatrix() && vr.rows() == vr.columns() && vr.rows() == n,
+          "Illegal 'vr' 2d-array");
+    }
+
+    double[] aa = getData(a);
+    double[] wra = getData(wr);
+    double[] wia = getData(wi);
+    double[] v = new double[n * n];
+    DoubleEigen.general(n, aa, v, wra, wia);
+    assignIfNeeded(a, aa);
+    assignIfNeeded(wr, wra);
+    assignIfNeeded(wi, wia);
+
+    if (jobvl == 'v') {
+      // The left eigenvectors are the rows of inv(v)
+      double[] inv = v.clone();
+      int[] ipiv = new int[n];
+      if (DoubleLu.getrf(n, n, inv, n, ipiv) > 0 || DoubleLu.getri(n, inv, n, ipiv) > 0) {
+        throw new ArithmeticException("Matrix is defective.");
+      }
+      double[] vla = getData(vl);
+      for (int j = 0; j < n; j++) {
+        for (int i = 0; i < n; i++) {
+          vla[i + j * n] = inv[j + i * n];
+        }
+      }
+      normalizeEigenvectors(n, vla, wia);
+      assignIfNeeded(vl, vla);
+    }
+
+    if (jobvr == 'v') {
+      double[] vra = getData(vr);
+      System.arraycopy(v, 0, vra, 0, n * n);
+      normalizeEigenvectors(n, vra, wia);
+      assignIfNeeded(vr, vra);
+    }
   }
 
   @Override
   public void ormqr(char side, Op transA, DoubleArray a, DoubleArray tau, DoubleArray c) {
-    throw new UnsupportedOperationException();
+    side = Character.toLowerCase(side);
+    if (!ORMQR_SIDE.contains(side)) {
+      throw invalidCharacter("side", side, ORMQR_SIDE);
+    }
+    Check.argument(a.isMatrix(), REQUIRE_2D_ARRAY);
+    Check.argument(c.isMatrix(), REQUIRE_2D_ARRAY);
+    int m = c.rows();
+    int n = c.columns();
+    int k = tau.size();
+    int nq = side == 'l' ? m : n;
+    Check.argument(tau.isVector() && k <= a.columns() && k <= nq);
+    if (a.rows() != nq) {
+      throw new NonConformantException(a, c);
+    }
 
+    double[] aa = getData(a);
+    double[] ta = getData(tau);
+    double[] ca = getData(c);
+    DoubleQr.ormqr(side == 'l', transA.isTrue(), m, n, k, aa, a.rows(), ta, ca, m);
+    assignIfNeeded(c, ca);
   }
 
   @Override
   public void geqrf(DoubleArray a, DoubleArray tau) {
-    throw new UnsupportedOperationException();
+    Check.argument(a.isMatrix(), REQUIRE_2D_ARRAY);
+    int m = a.rows();
+    int n = a.columns();
+    Check.argument(tau.isVector() && tau.size() == Math.min(m, n));
 
+    double[] aa = getData(a);
+    double[] ta = getData(tau);
+    DoubleQr.geqrf(m, n, aa, m, ta);
+    assignIfNeeded(a, aa);
+    assignIfNeeded(tau, ta);
   }
 
   @Override
   public void syev(char jobz, char uplo, DoubleArray a, DoubleArray w) {
-    throw new UnsupportedOperationException();
+    jobz = Character.toLowerCase(jobz);
+    uplo = Character.toLowerCase(uplo);
+    if (!SYEVR_JOBZ_CHAR.contains(jobz)) {
+      throw invalidCharacter("jobz", jobz, SYEVR_JOBZ_CHAR);
+    }
+    if (!SYEVR_UPLO.contains(uplo)) {
+      throw invalidCharacter("uplo", uplo, SYEVR_UPLO);
+    }
+    if (!a.isSquare()) {
+      throw new IllegalArgumentException("a is not square");
+    }
+    int n = a.rows();
+    if (!w.isVector() || w.size() != n) {
+      throw new IllegalArgumentException();
+    }
 
+    double[] aa = getData(a);
+    double[] wa = getData(w);
+    double[] v = symmetric(n, aa, uplo);
+    DoubleEigen.symmetric(n, v, wa);
+    if (jobz == 'v') {
+      System.arraycopy(v, 0, aa, 0, n * n);
+      assignIfNeeded(a, aa);
+    }
+    assignIfNeeded(w, wa);
   }
 
   @Override
   public int syevr(char jobz, char range, char uplo, DoubleArray a, double vl, double vu, int il,
       int iu, double abstol, DoubleArray w, DoubleArray z, IntArray isuppz) {
-    throw new UnsupportedOperationException();
+    Check.argument(a.isMatrix(), "a must be a 2d-array");
+    Check.argument(a.isSquare(), "a is not square.");
+    Check.argument(w.isVector(), "v must be a 1d-array");
+
+    jobz = Character.toLowerCase(jobz);
+    range = Character.toLowerCase(range);
+    uplo = Character.toLowerCase(uplo);
+    if (!SYEVR_JOBZ_CHAR.contains(jobz)) {
+      throw invalidCharacter("jobz", jobz, SYEVR_JOBZ_CHAR);
+    }
+    if (!SYEVR_RANGE_CHAR.contains(range)) {
+      throw invalidCharacter("range", range, SYEVR_RANGE_CHAR);
+    }
+    if (!SYEVR_UPLO.contains(uplo)) {
+      throw invalidCharacter("uplo", uplo, SYEVR_UPLO);
+    }
+
+    int n = a.size(0);
+    if (w.size() != n) {
+      throw new IllegalArgumentException();
+    }
+    if (jobz == 'v') {
+      Check.argument(z.isMatrix(), "z must be a 2d-array");
+      if (z.rows() != n || z.columns() > n) {
+        throw new IllegalArgumentException();
+      }
+    }
+
+    int from = 0;
+    int to = n;
+    double[] aa = getData(a);
+    double[] v = symmetric(n, aa, uplo);
+    double[] values = new double[n];
+    DoubleEigen.symmetric(n, v, values);
+    if (range == 'i') {
+      Check.argument(n == 0 || (1 <= il && il <= iu && iu <= n), "illegal range [%d, %d]", il,
+          iu);
+      from = il - 1;
+      to = iu;
+    } else if (range == 'v') {
+      Check.argument(vl < vu, "illegal range (%f, %f]", vl, vu);
+      while (from < n && values[from] <= vl) {
+        from++;
+      }
+      to = from;
+      while (to < n && values[to] <= vu) {
+        to++;
+      }
+    }
+
+    int m = to - from;
+    double[] wa = getData(w);
+    System.arraycopy(values, from, wa, 0, m);
+    assignIfNeeded(w, wa);
+    if (jobz == 'v') {
+      Check.argument(z.columns() >= m, "z must have at least %d columns", m);
+      double[] za = getData(z);
+      System.arraycopy(v, from * n, za, 0, m * n);
+      assignIfNeeded(z, za);
+
+      // The (1-based) indices of the first and last non-zero element of each eigenvector
+      if (isuppz.size() >= 2 * m) {
+        int[] ia = getData(isuppz);
+        for (int j = 0; j < m; j++) {
+          int first = 0;
+          int last = n - 1;
+          int jc = (from + j) * n;
+          while (first < last && v[first + jc] == 0) {
+            first++;
+          }
+          while (last > first && v[last + jc] == 0) {
+            last--;
+          }
+          ia[2 * j] = first + 1;
+          ia[2 * j + 1] = last + 1;
+        }
+        reassignIfNeeded(isuppz, ia);
+      }
+    }
+    return m;
   }
 
   @Override
   public int getrf(DoubleArray a, IntArray ipiv) {
-    throw new UnsupportedOperationException();
+    Check.argument(a.isMatrix(), REQUIRE_2D_ARRAY);
+    Check.argument(ipiv.isVector(), "ipiv must be a vector");
+    Check.size(Math.min(a.rows(), a.columns()), ipiv.size());
+    double[] aa = getData(a);
+    int[] ia = getData(ipiv);
+    int info = DoubleLu.getrf(a.rows(), a.columns(), aa, a.rows(), ia);
+    assignIfNeeded(a, aa);
+    reassignIfNeeded(ipiv, ia);
+    return info;
+  }
+
+  @Override
+  public IntArray getrfBatch(DoubleArray a, IntArray ipiv) {
+    Check.argument(a.dims() == 3, "require 3d-array");
+    Check.argument(ipiv.isMatrix(), "ipiv must be a matrix");
+    Check.size(ipiv.rows(), Math.min(a.size(0), a.size(1)));
+    Check.size(ipiv.columns(), a.size(2));
+    int[] info = DoubleBatch.getrf(a, a instanceof BaseDoubleArray, ipiv);
+    return getArrayBackend().getArrayFactory().array(info);
   }
 
   @Override
   public int getri(DoubleArray a, IntArray ipiv) {
-    throw new UnsupportedOperationException();
+    Check.argument(a.isSquare(), "require square 2d-array");
+    Check.argument(ipiv.isVector(), "ipiv must be a vector");
+    int n = a.size(1);
+    Check.size(ipiv.size(), n, "illegal size");
+
+    double[] aa = getData(a);
+    int[] ia = getData(ipiv);
+    int info = DoubleLu.getri(n, aa, n, ia);
+    assignIfNeeded(a, aa);
+    return info;
   }
 
   @Override
   public int gelsy(DoubleArray a, DoubleArray b, IntArray jpvt, double rcond) {
-    throw new UnsupportedOperationException();
+    Check.argument(a.isMatrix(), REQUIRE_2D_ARRAY);
+    Check.argument(b.isMatrix(), REQUIRE_2D_ARRAY);
+    int m = a.rows();
+    int n = a.columns();
+    int nrhs = b.columns();
+    if (b.rows() != Math.max(m, n)) {
+      throw new NonConformantException(a, b);
+    }
+    Check.argument(jpvt.isVector() && jpvt.size() == n, "jpvt must be a vector of size %d", n);
+
+    double[] aa = getData(a);
+    double[] ba = getData(b);
+    int[] ja = getData(jpvt);
+    int rank = DoubleQr.gelsy(m, n, nrhs, aa, m, ba, b.rows(), ja, rcond);
+    assignIfNeeded(a, aa);
+    assignIfNeeded(b, ba);
+    reassignIfNeeded(jpvt, ja);
+    return rank;
   }
 
   @Override
   public int gesv(DoubleArray a, IntArray ipiv, DoubleArray b) {
-    throw new UnsupportedOperationException();
+    if (!a.isSquare()) {
+      throw new IllegalArgumentException();
+    }
+
+    if (a.rows() != b.size(0)) {
+      throw new NonConformantException(a, b);
+    }
+
+    if (!ipiv.isVector() || a.rows() != ipiv.size()) {
+      throw new IllegalArgumentException();
+    }
+
+    int n = a.rows();
+    int nrhs = b.isMatrix() ? b.columns() : 1;
+    double[] aa = getData(a);
+    double[] ba = getData(b);
+    int[] ia = getData(ipiv);
+    int info = DoubleLu.getrf(n, n, aa, n, ia);
+    if (info == 0) {
+      DoubleLu.getrs(n, nrhs, aa, n, ia, ba, n);
+    }
+    assignIfNeeded(a, aa);
+    reassignIfNeeded(ipiv, ia);
+    assignIfNeeded(b, ba);
+    return info;
   }
 
   @Override
   public void gesvd(char jobu, char jobvt, DoubleArray a, DoubleArray s, DoubleArray u,
       DoubleArray vt) {
-    throw new UnsupportedOperationException();
+    jobu = Character.toLowerCase(jobu);
+    jobvt = Character.toLowerCase(jobvt);
+    if (!GESVD_JOB_CHAR.contains(jobu)) {
+      throw invalidCharacter("jobu", jobu, GESVD_JOB_CHAR);
+    }
+    if (!GESVD_JOB_CHAR.contains(jobvt)) {
+      throw invalidCharacter("jobvt", jobvt, GESVD_JOB_CHAR);
+    }
+    Check.argument(jobu != 'o' || jobvt != 'o', "jobu and jobvt cannot both be 'o'");
+    Check.argument(a.isMatrix(), REQUIRE_2D_ARRAY);
+
+    int m = a.rows();
+    int n = a.columns();
+    int k = Math.min(m, n);
+    if (!s.isVector() || s.size() != k) {
+      throw new IllegalArgumentException(
+          String.format("Invalid shape for s (%s)", Arrays.toString(s.getShape())));
+    }
+    if (jobu == 'a' && (u.rows() != m || u.columns() != m)) {
+      throw new IllegalArgumentException(
+          String.format("Invalid shape for u (%s)", Arrays.toString(u.getShape())));
+    }
+    if (jobu == 's' && (u.rows() != m || u.columns() != k)) {
+      throw new IllegalArgumentException(
+          String.format("Invalid shape for u (%s)", Arrays.toString(u.getShape())));
+    }
+    if (jobvt == 'a' && (vt.rows() != n || vt.columns() != n)) {
+      throw new IllegalArgumentException(
+          String.format("Invalid shape for vt (%s)", Arrays.toString(vt.getShape())));
+    }
+    if (jobvt == 's' && (vt.rows() != k || vt.columns() != n)) {
+      throw new IllegalArgumentException(
+          String.format("Invalid shape for vt (%s)", Arrays.toString(vt.getShape())));
+    }
+
+    int ucols = jobu == 'a' ? m : k;
+    int vtrows = jobvt == 'a' ? n : k;
+    double[] aa = getData(a);
+    double[] sa = getData(s);
+    double[] ua = null;
+    if (jobu == 'a' || jobu == 's') {
+      ua = getData(u);
+    } else if (jobu == 'o') {
+      ua = new double[m * k];
+    }
+    double[] vta = null;
+    if (jobvt == 'a' || jobvt == 's') {
+      vta = getData(vt);
+    } else if (jobvt == 'o') {
+      vta = new double[k * n];
+    }
+    DoubleSvd.gesvd(m, n, aa, m, sa, ua, ucols, vta, vtrows);
+
+    assignIfNeeded(s, sa);
+    if (jobu == 'o') {
+      System.arraycopy(ua, 0, aa, 0, m * k);
+      assignIfNeeded(a, aa);
+    } else if (ua != null) {
+      assignIfNeeded(u, ua);
+    }
+    if (jobvt == 'o') {
+      for (int j = 0; j < n; j++) {
+        System.arraycopy(vta, j * k, aa, j * m, k);
+      }
+      assignIfNeeded(a, aa);
+    } else if (vta != null) {
+      assignIfNeeded(vt, vta);
+    }
   }
 
   @Override
   public void gesdd(char jobz, DoubleArray a, DoubleArray s, DoubleArray u, DoubleArray vt) {
-    throw new UnsupportedOperationException();
+    jobz = Character.toLowerCase(jobz);
+    if (!GESVD_JOB_CHAR.contains(jobz)) {
+      throw invalidCharacter("jobz", jobz, GESVD_JOB_CHAR);
+    }
+    Check.argument(a.isMatrix(), REQUIRE_2D_ARRAY);
+
+    // The divide and conquer driver differs from gesvd only in how the vectors are requested
+    if (jobz == 'o') {
+      if (a.rows() >= a.columns()) {
+        gesvd('o', 'a', a, s, u, vt);
+      } else {
+        gesvd('a', 'o', a, s, u, vt);
+      }
+    } else {
+      gesvd(jobz, jobz, a, s, u, vt);
+    }
+  }
+
+  /**
+   * Returns a new {@code n x n} buffer with the symmetric matrix whose {@code uplo} triangle is
+   * stored in {@code a}. Both triangles of the returned buffer are set.
+   */
+  private static double[] symmetric(int n, double[] a, char uplo) {
+    double[] v = new double[n * n];
+    for (int j = 0; j < n; j++) {
+      for (int i = j; i < n; i++) {
+        double value = uplo == 'l' ? a[i + j * n] : a[j + i * n];
+        v[i + j * n] = value;
+        v[j + i * n] = value;
+      }
+    }
+    return v;
+  }
+
+  /**
+   * Normalizes the eigenvectors (stored as in {@link DoubleEigen#general}) to have unit euclidean
+   * norm and, for complex eigenvectors, a real component of largest magnitude (as LAPACK).
+   */
+  private static void normalizeEigenvectors(int n, double[] v, double[] wi) {
+    for (int j = 0; j < n; j++) {
+      int jc = j * n;
+      if (wi[j] == 0) {
+        double norm = DoubleQr.nrm2(n, v, jc);
+        if (norm > 0) {
+          for (int i = 0; i < n; i++) {
+            v[i + jc] /= norm;
+          }
+        }
+      } else if (j + 1 < n) {
+        int ic = jc + n;
+        double norm = Math.hypot(DoubleQr.nrm2(n, v, jc), DoubleQr.nrm2(n, v, ic));
+        if (norm > 0) {
+          int max = 0;
+          double maxAbs = -1;
+          for (int i = 0; i < n; i++) {
+            v[i + jc] /= norm;
+            v[i + ic] /= norm;
+            double abs = v[i + jc] * v[i + jc] + v[i + ic] * v[i + ic];
+            if (abs > maxAbs) {
+              maxAbs = abs;
+              max = i;
+            }
+          }
+          double r = Math.sqrt(maxAbs);
+          double c = v[max + jc] / r;
+          double s = v[max + ic] / r;
+          for (int i = 0; i < n; i++) {
+            double re = v[i + jc];
+            double im = v[i + ic];
+            v[i + jc] = c * re + s * im;
+            v[i + ic] = c * im - s * re;
+          }
+          v[max + ic] = 0;
+        }
+        j++;
+      }
+    }
+  }
+
+  /**
+   * Returns the data of the array. If a is a view (or not directly accessible), a copy is
+   * returned.
+   */
+  private double[] getData(DoubleArray a) {
+    if (a instanceof BaseDoubleArray && !a.isView()) {
+      return a.data();
+    } else {
+      return a.copy().data();
+    }
+  }
+
+  private int[] getData(IntArray a) {
+    if (a instanceof BaseIntArray && !a.isView()) {
+      return a.data();
+    } else {
+      return a.copy().data();
+    }
+  }
+
+  /**
+   * Assigns the {@code data} to {@code a} if {@code a} is a view (as defined above).
+   *
+   * <p>
+   * The data is assigned to simulate out-parameters
+   */
+  private void assignIfNeeded(DoubleArray a, double[] data) {
+    if (!(a instanceof BaseDoubleArray) || a.isView()) {
+      a.assign(data);
+    }
+  }
+
+  private void reassignIfNeeded(IntArray a, int[] data) {
+    if (!(a instanceof BaseIntArray) || a.isView()) {
+      a.assign(data);
+    }
+  }
+
+  private IllegalArgumentException invalidCharacter(String parameter, char c,
+      List<Character> chars) {
+    return new IllegalArgumentException(String.format("%s %s not in %s.", parameter, c, chars));
   }
 }
@@ -59,6 +59,10 @@ class BaseLongArray extends AbstractLongArray {
     return new BaseLongArray(getArrayFactory(), offset, shape, stride, majorStride, data);
   }
 
+  long[] data() {
+    return data;
+  }
+
   @Override
   protected int elementSize() {
     return data.length;
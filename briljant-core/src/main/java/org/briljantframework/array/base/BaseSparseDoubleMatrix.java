@@ -0,0 +1,259 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.Arrays;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.SparseDoubleMatrix;
+import org.briljantframework.array.api.ArrayFactory;
+
+/**
+ * A sparse matrix stored in three (possibly shared) arrays. See {@link SparseDoubleMatrix} for a
+ * description of the storage.
+ *
+ * @author Isak Karlsson
+ */
+final class BaseSparseDoubleMatrix implements SparseDoubleMatrix {
+
+  private final ArrayFactory bj;
+  private final Format format;
+  private final int rows;
+  private final int columns;
+  private final int[] pointers;
+  private final int[] indices;
+  private final double[] values;
+
+  BaseSparseDoubleMatrix(ArrayFactory bj, Format format, int rows, int columns, int[] pointers,
+      int[] indices, double[] values) {
+    this.bj = bj;
+    this.format = format;
+    this.rows = rows;
+    this.columns = columns;
+    this.pointers = pointers;
+    this.indices = indices;
+    this.values = values;
+  }
+
+  @Override
+  public Format getFormat() {
+    return format;
+  }
+
+  @Override
+  public int rows() {
+    return rows;
+  }
+
+  @Override
+  public int columns() {
+    return columns;
+  }
+
+  @Override
+  public int nonZeros() {
+    return pointers[major()] - pointers[0];
+  }
+
+  @Override
+  public double get(int i, int j) {
+    Check.validIndex(i, rows);
+    Check.validIndex(j, columns);
+    int k = format == Format.CSR ? i : j;
+    int position =
+        Arrays.binarySearch(indices, pointers[k], pointers[k + 1], format == Format.CSR ? j : i);
+    return position < 0 ? 0 : values[position];
+  }
+
+  @Override
+  public int[] pointers() {
+    return pointers;
+  }
+
+  @Override
+  public int[] indices() {
+    return indices;
+  }
+
+  @Override
+  public double[] values() {
+    return values;
+  }
+
+  @Override
+  public SparseDoubleMatrix transpose() {
+    return new BaseSparseDoubleMatrix(bj, format.transpose(), columns, rows, pointers, indices,
+        values);
+  }
+
+  @Override
+  public SparseDoubleMatrix getRows(int from, int to) {
+    Check.argument(0 <= from && from <= to && to <= rows, "Illegal rows [%s, %s)", from, to);
+    if (format == Format.CSR) {
+      return new BaseSparseDoubleMatrix(bj, format, to - from, columns,
+          Arrays.copyOfRange(pointers, from, to + 1), indices, values);
+    } else {
+      return minorSlice(from, to, to - from, columns);
+    }
+  }
+
+  @Override
+  public SparseDoubleMatrix getColumns(int from, int to) {
+    Check.argument(0 <= from && from <= to && to <= columns, "Illegal columns [%s, %s)", from, to);
+    if (format == Format.CSC) {
+      return new BaseSparseDoubleMatrix(bj, format, rows, to - from,
+          Arrays.copyOfRange(pointers, from, to + 1), indices, values);
+    } else {
+      return minorSlice(from, to, rows, to - from);
+    }
+  }
+
+  /**
+   * Returns a copy of the elements with minor index in {@code [from, to)}.
+   */
+  private SparseDoubleMatrix minorSlice(int from, int to, int rows, int columns) {
+    int major = major();
+    int[] newPointers = new int[major + 1];
+    for (int k = 0; k < major; k++) {
+      int count = 0;
+      for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+        if (indices[p] >= from && indices[p] < to) {
+          count++;
+        }
+      }
+      newPointers[k + 1] = newPointers[k] + count;
+    }
+
+    int[] newIndices = new int[newPointers[major]];
+    double[] newValues = new double[newPointers[major]];
+    for (int k = 0, n = 0; k < major; k++) {
+      for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+        if (indices[p] >= from && indices[p] < to) {
+          newIndices[n] = indices[p] - from;
+          newValues[n++] = values[p];
+        }
+      }
+    }
+    return new BaseSparseDoubleMatrix(bj, format, rows, columns, newPointers, newIndices,
+        newValues);
+  }
+
+  @Override
+  public SparseDoubleMatrix times(double scalar) {
+    BaseSparseDoubleMatrix copy = compact();
+    copy.timesAssign(scalar);
+    return copy;
+  }
+
+  @Override
+  public SparseDoubleMatrix times(DoubleArray scale) {
+    DoubleArray broadcast = scale.broadcast(rows, columns);
+    BaseSparseDoubleMatrix copy = compact();
+    for (int k = 0; k < major(); k++) {
+      for (int p = copy.pointers[k]; p < copy.pointers[k + 1]; p++) {
+        int minor = copy.indices[p];
+        copy.values[p] *= format == Format.CSR ? broadcast.get(k, minor) : broadcast.get(minor, k);
+      }
+    }
+    return copy;
+  }
+
+  @Override
+  public void timesAssign(double scalar) {
+    for (int p = pointers[0]; p < pointers[major()]; p++) {
+      values[p] *= scalar;
+    }
+  }
+
+  @Override
+  public SparseDoubleMatrix asFormat(Format format) {
+    if (this.format == format) {
+      return this;
+    }
+
+    // counting sort of the elements by minor index; since the major vectors are visited in
+    // order, the elements of each new major vector are sorted by (old major) index
+    int major = major();
+    int minor = format == Format.CSR ? rows : columns;
+    int[] newPointers = new int[minor + 1];
+    for (int p = pointers[0]; p < pointers[major]; p++) {
+      newPointers[indices[p] + 1]++;
+    }
+    for (int k = 0; k < minor; k++) {
+      newPointers[k + 1] += newPointers[k];
+    }
+
+    int[] next = Arrays.copyOf(newPointers, minor);
+    int[] newIndices = new int[nonZeros()];
+    double[] newValues = new double[nonZeros()];
+    for (int k = 0; k < major; k++) {
+      for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+        int position = next[indices[p]]++;
+        newIndices[position] = k;
+        newValues[position] = values[p];
+      }
+    }
+    return new BaseSparseDoubleMatrix(bj, format, rows, columns, newPointers, newIndices,
+        newValues);
+  }
+
+  @Override
+  public DoubleArray toDense() {
+    DoubleArray dense = bj.doubleArray(rows, columns);
+    for (int k = 0; k < major(); k++) {
+      for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+        if (format == Format.CSR) {
+          dense.set(k, indices[p], values[p]);
+        } else {
+          dense.set(indices[p], k, values[p]);
+        }
+      }
+    }
+    return dense;
+  }
+
+  /**
+   * Returns a copy of this matrix, which does not share storage with other matrices.
+   */
+  private BaseSparseDoubleMatrix compact() {
+    int major = major();
+    int first = pointers[0];
+    int[] newPointers = new int[major + 1];
+    for (int k = 0; k <= major; k++) {
+      newPointers[k] = pointers[k] - first;
+    }
+    return new BaseSparseDoubleMatrix(bj, format, rows, columns, newPointers,
+        Arrays.copyOfRange(indices, first, pointers[major]),
+        Arrays.copyOfRange(values, first, pointers[major]));
+  }
+
+  private int major() {
+    return format == Format.CSR ? rows : columns;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s sparse matrix with shape [%d, %d] and %d non-zeros", format, rows,
+        columns, nonZeros());
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.SparseDoubleMatrix;
+import org.briljantframework.array.api.ArrayFactory;
+import org.briljantframework.primitive.ArrayAllocations;
+
+/**
+ * Collects the elements of a sparse matrix in coordinate format and compresses them, in linear
+ * time, using two stable counting sorts (by minor and then by major index).
+ *
+ * @author Isak Karlsson
+ */
+final class BaseSparseMatrixBuilder implements SparseDoubleMatrix.Builder {
+
+  private final ArrayFactory bj;
+  private final int rows;
+  private final int columns;
+
+  private int[] rowIndices = new int[16];
+  private int[] columnIndices = new int[16];
+  private double[] values = new double[16];
+  private int size = 0;
+
+  BaseSparseMatrixBuilder(ArrayFactory bj, int rows, int columns) {
+    Check.argument(rows >= 0 && columns >= 0, "Illegal shape [%s, %s]", rows, columns);
+    this.bj = bj;
+    this.rows = rows;
+    this.columns = columns;
+  }
+
+  @Override
+  public SparseDoubleMatrix.Builder add(int i, int j, double value) {
+    Check.validIndex(i, rows);
+    Check.validIndex(j, columns);
+    rowIndices = ArrayAllocations.ensureCapacity(rowIndices, size + 1);
+    columnIndices = ArrayAllocations.ensureCapacity(columnIndices, size + 1);
+    values = ArrayAllocations.ensureCapacity(values, size + 1);
+    rowIndices[size] = i;
+    columnIndices[size] = j;
+    values[size++] = value;
+    return this;
+  }
+
+  @Override
+  public SparseDoubleMatrix.Builder addAll(DoubleArray matrix) {
+    Check.argument(matrix.isMatrix() && matrix.rows() == rows && matrix.columns() == columns,
+        "Expected a [%s, %s] matrix", rows, columns);
+    for (int j = 0; j < columns; j++) {
+      for (int i = 0; i < rows; i++) {
+        double value = matrix.get(i, j);
+        if (value != 0) {
+          add(i, j, value);
+        }
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public SparseDoubleMatrix build(SparseDoubleMatrix.Format format) {
+    boolean csr = format == SparseDoubleMatrix.Format.CSR;
+    int[] majorIndices = csr ? rowIndices : columnIndices;
+    int[] minorIndices = csr ? columnIndices : rowIndices;
+    int major = csr ? rows : columns;
+
+    int[] order = new int[size];
+    for (int e = 0; e < size; e++) {
+      order[e] = e;
+    }
+    order = sort(minorIndices, csr ? columns : rows, order);
+    order = sort(majorIndices, major, order);
+
+    // sum duplicates and drop zeros
+    int[] pointers = new int[major + 1];
+    int[] indices = new int[size];
+    double[] compressed = new double[size];
+    int n = 0;
+    for (int p = 0; p < size;) {
+      int e = order[p++];
+      int k = majorIndices[e];
+      int minor = minorIndices[e];
+      double value = values[e];
+      while (p < size && majorIndices[order[p]] == k && minorIndices[order[p]] == minor) {
+        value += values[order[p++]];
+      }
+      if (value != 0) {
+        indices[n] = minor;
+        compressed[n++] = value;
+        pointers[k + 1]++;
+      }
+    }
+    for (int k = 0; k < major; k++) {
+      pointers[k + 1] += pointers[k];
+    }
+    return new BaseSparseDoubleMatrix(bj, format, rows, columns, pointers,
+        java.util.Arrays.copyOf(indices, n), java.util.Arrays.copyOf(compressed, n));
+  }
+
+  /**
+   * Returns {@code order} stably sorted by {@code keys[order[i]]}, where the keys are in
+   * {@code [0, range)}.
+   */
+  private static int[] sort(int[] keys, int range, int[] order) {
+    int[] positions = new int[range + 1];
+    for (int e : order) {
+      positions[keys[e] + 1]++;
+    }
+    for (int k = 0; k < range; k++) {
+      positions[k + 1] += positions[k];
+    }
+    int[] sorted = new int[order.length];
+    for (int e : order) {
+      sorted[positions[keys[e]]++] = e;
+    }
+    return sorted;
+  }
+}
@@ -0,0 +1,324 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import static org.briljantframework.array.base.DoubleReductions.forEachRange;
+
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.IntArray;
+
+/**
+ * Kernels for stacks of equally shaped matrices, stored as a 3d-array where {@code x[:, :, i]} is
+ * the {@code i}:th matrix.
+ *
+ * <p>
+ * Each matrix in the stack is (usually) too small for the blocked routines (e.g.,
+ * {@link DoubleGemm} or {@link DoubleLu}) to amortize their overhead. Instead, the matrices are
+ * distributed over the common fork/join pool and the products of {@code 2 x 2}, {@code 3 x 3} and
+ * {@code 4 x 4} matrices are computed by fully unrolled kernels, keeping both operands in
+ * registers. The factorizations copy each matrix to a scratch buffer (allocated once per task),
+ * factor it using {@link DoubleLu} and copy the result back.
+ *
+ * @author Isak Karlsson
+ */
+final class DoubleBatch {
+
+  private DoubleBatch() {}
+
+  /**
+   * Computes {@code c[:, :, i] <- alpha * op(a[:, :, i]) * op(b[:, :, i]) + beta * c[:, :, i]} for
+   * each matrix in the stacks. The shapes are assumed to be checked by the caller and the arrays
+   * must have direct storage.
+   */
+  static void gemm(boolean transA, boolean transB, double alpha, DoubleArray a, DoubleArray b,
+      double beta, DoubleArray c) {
+    final int m = c.size(0);
+    final int n = c.size(1);
+    final int k = a.size(transA ? 0 : 1);
+    final double[] ad = a.data();
+    final double[] bd = b.data();
+    final double[] cd = c.data();
+    final int ars = a.stride(transA ? 1 : 0), acs = a.stride(transA ? 0 : 1), abs = a.stride(2);
+    final int brs = b.stride(transB ? 1 : 0), bcs = b.stride(transB ? 0 : 1), bbs = b.stride(2);
+    final int crs = c.stride(0), ccs = c.stride(1), cbs = c.stride(2);
+    final int unrolled = m == n && n == k ? m : 0;
+    forEachRange(work((long) m * n * k), c.size(2), (from, to) -> {
+      for (int i = from; i < to; i++) {
+        int ao = a.getOffset() + i * abs;
+        int bo = b.getOffset() + i * bbs;
+        int co = c.getOffset() + i * cbs;
+        switch (unrolled) {
+          case 2:
+            gemm2(alpha, ad, ao, ars, acs, bd, bo, brs, bcs, beta, cd, co, crs, ccs);
+            break;
+          case 3:
+            gemm3(alpha, ad, ao, ars, acs, bd, bo, brs, bcs, beta, cd, co, crs, ccs);
+            break;
+          case 4:
+            gemm4(alpha, ad, ao, ars, acs, bd, bo, brs, bcs, beta, cd, co, crs, ccs);
+            break;
+          default:
+            gemm(m, n, k, alpha, ad, ao, ars, acs, bd, bo, brs, bcs, beta, cd, co, crs, ccs);
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns the trace of each matrix in the stack {@code x}, which must have direct storage.
+   */
+  static double[] trace(DoubleArray x) {
+    final double[] data = x.data();
+    final int diagonal = x.stride(0) + x.stride(1);
+    final int stride = x.stride(2);
+    final int min = Math.min(x.size(0), x.size(1));
+    final double[] trace = new double[x.size(2)];
+    forEachRange(min, trace.length, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        int index = x.getOffset() + i * stride;
+        double sum = 0;
+        for (int j = 0; j < min; j++, index += diagonal) {
+          sum += data[index];
+        }
+        trace[i] = sum;
+      }
+    });
+    return trace;
+  }
+
+  /**
+   * Computes the LU factorization of each matrix in the stack {@code a}, writing the (1-based)
+   * pivot indices of the {@code i}:th matrix to {@code ipiv[:, i]}.
+   *
+   * @return the value returned by {@link DoubleLu#getrf} for each matrix
+   */
+  static int[] getrf(DoubleArray a, boolean direct, IntArray ipiv) {
+    final Stack stack = new Stack(a, direct);
+    final int m = a.size(0);
+    final int n = a.size(1);
+    final int mn = Math.min(m, n);
+    final int[] info = new int[a.size(2)];
+    forEachRange(work((long) m * n * mn), info.length, (from, to) -> {
+      double[] buffer = new double[m * n];
+      int[] pivots = new int[mn];
+      for (int i = from; i < to; i++) {
+        stack.load(i, buffer);
+        info[i] = DoubleLu.getrf(m, n, buffer, m, pivots);
+        stack.store(i, buffer);
+        for (int j = 0; j < mn; j++) {
+          ipiv.set(j, i, pivots[j]);
+        }
+      }
+    });
+    return info;
+  }
+
+  /**
+   * Computes the inverse of each (square) matrix in the stack {@code a} and stores it in the
+   * corresponding matrix of {@code out}. If a matrix is singular, its inverse is left unspecified.
+   *
+   * @return the value returned by {@link DoubleLu#getrf} (or {@link DoubleLu#getri}) for each
+   *         matrix
+   */
+  static int[] inv(DoubleArray a, boolean directA, DoubleArray out, boolean directOut) {
+    final Stack in = new Stack(a, directA);
+    final Stack result = new Stack(out, directOut);
+    final int n = a.size(0);
+    final int[] info = new int[a.size(2)];
+    forEachRange(work((long) n * n * n), info.length, (from, to) -> {
+      double[] buffer = new double[n * n];
+      int[] pivots = new int[n];
+      for (int i = from; i < to; i++) {
+        in.load(i, buffer);
+        info[i] = DoubleLu.getrf(n, n, buffer, n, pivots);
+        if (info[i] == 0) {
+          info[i] = DoubleLu.getri(n, buffer, n, pivots);
+        }
+        result.store(i, buffer);
+      }
+    });
+    return info;
+  }
+
+  private static int work(long ops) {
+    return (int) Math.min(Integer.MAX_VALUE, Math.max(1, ops));
+  }
+
+  private static void store(double[] c, int index, double value, double beta) {
+    // following BLAS, c is overwritten if beta is zero
+    c[index] = beta == 0 ? value : value + beta * c[index];
+  }
+
+  private static void gemm(int m, int n, int k, double alpha, double[] a, int ao, int ars,
+      int acs, double[] b, int bo, int brs, int bcs, double beta, double[] c, int co, int crs,
+      int ccs) {
+    for (int j = 0; j < n; j++) {
+      for (int i = 0; i < m; i++) {
+        double sum = 0;
+        int ai = ao + i * ars;
+        int bj = bo + j * bcs;
+        for (int p = 0; p < k; p++) {
+          sum += a[ai + p * acs] * b[bj + p * brs];
+        }
+        store(c, co + i * crs + j * ccs, alpha * sum, beta);
+      }
+    }
+  }
+
+  private static void gemm2(double alpha, double[] a, int ao, int ars, int acs, double[] b,
+      int bo, int brs, int bcs, double beta, double[] c, int co, int crs, int ccs) {
+    int ar1 = ao + ars;
+    int br1 = bo + brs;
+    int cr1 = co + crs;
+    double a00 = a[ao], a01 = a[ao + acs];
+    double a10 = a[ar1], a11 = a[ar1 + acs];
+    double b00 = b[bo], b01 = b[bo + bcs];
+    double b10 = b[br1], b11 = b[br1 + bcs];
+    store(c, co, alpha * (a00 * b00 + a01 * b10), beta);
+    store(c, co + ccs, alpha * (a00 * b01 + a01 * b11), beta);
+    store(c, cr1, alpha * (a10 * b00 + a11 * b10), beta);
+    store(c, cr1 + ccs, alpha * (a10 * b01 + a11 * b11), beta);
+  }
+
+  private static void gemm3(double alpha, double[] a, int ao, int ars, int acs, double[] b,
+      int bo, int brs, int bcs, double beta, double[] c, int co, int crs, int ccs) {
+    int ar1 = ao + ars, ar2 = ar1 + ars;
+    int ac2 = acs + acs;
+    int br1 = bo + brs, br2 = br1 + brs;
+    int bc2 = bcs + bcs;
+    int cr1 = co + crs, cr2 = cr1 + crs;
+    int cc2 = ccs + ccs;
+    double a00 = a[ao], a01 = a[ao + acs], a02 = a[ao + ac2];
+    double a10 = a[ar1], a11 = a[ar1 + acs], a12 = a[ar1 + ac2];
+    double a20 = a[ar2], a21 = a[ar2 + acs], a22 = a[ar2 + ac2];
+    double b00 = b[bo], b01 = b[bo + bcs], b02 = b[bo + bc2];
+    double b10 = b[br1], b11 = b[br1 + bcs], b12 = b[br1 + bc2];
+    double b20 = b[br2], b21 = b[br2 + bcs], b22 = b[br2 + bc2];
+    store(c, co, alpha * (a00 * b00 + a01 * b10 + a02 * b20), beta);
+    store(c, co + ccs, alpha * (a00 * b01 + a01 * b11 + a02 * b21), beta);
+    store(c, co + cc2, alpha * (a00 * b02 + a01 * b12 + a02 * b22), beta);
+    store(c, cr1, alpha * (a10 * b00 + a11 * b10 + a12 * b20), beta);
+    store(c, cr1 + ccs, alpha * (a10 * b01 + a11 * b11 + a12 * b21), beta);
+    store(c, cr1 + cc2, alpha * (a10 * b02 + a11 * b12 + a12 * b22), beta);
+    store(c, cr2, alpha * (a20 * b00 + a21 * b10 + a22 * b20), beta);
+    store(c, cr2 + ccs, alpha * (a20 * b01 + a21 * b11 + a22 * b21), beta);
+    store(c, cr2 + cc2, alpha * (a20 * b02 + a21 * b12 + a22 * b22), beta);
+  }
+
+  private static void gemm4(double alpha, double[] a, int ao, int ars, int acs, double[] b,
+      int bo, int brs, int bcs, double beta, double[] c, int co, int crs, int ccs) {
+    int ar1 = ao + ars, ar2 = ar1 + ars, ar3 = ar2 + ars;
+    int ac2 = acs + acs, ac3 = ac2 + acs;
+    int br1 = bo + brs, br2 = br1 + brs, br3 = br2 + brs;
+    int bc2 = bcs + bcs, bc3 = bc2 + bcs;
+    int cr1 = co + crs, cr2 = cr1 + crs, cr3 = cr2 + crs;
+    int cc2 = ccs + ccs, cc3 = cc2 + ccs;
+    double a00 = a[ao], a01 = a[ao + acs], a02 = a[ao + ac2], a03 = a[ao + ac3];
+    double a10 = a[ar1], a11 = a[ar1 + acs], a12 = a[ar1 + ac2], a13 = a[ar1 + ac3];
+    double a20 = a[ar2], a21 = a[ar2 + acs], a22 = a[ar2 + ac2], a23 = a[ar2 + ac3];
+    double a30 = a[ar3], a31 = a[ar3 + acs], a32 = a[ar3 + ac2], a33 = a[ar3 + ac3];
+    double b00 = b[bo], b01 = b[bo + bcs], b02 = b[bo + bc2], b03 = b[bo + bc3];
+    double b10 = b[br1], b11 = b[br1 + bcs], b12 = b[br1 + bc2], b13 = b[br1 + bc3];
+    double b20 = b[br2], b21 = b[br2 + bcs], b22 = b[br2 + bc2], b23 = b[br2 + bc3];
+    double b30 = b[br3], b31 = b[br3 + bcs], b32 = b[br3 + bc2], b33 = b[br3 + bc3];
+    store(c, co, alpha * (a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30), beta);
+    store(c, co + ccs, alpha * (a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31), beta);
+    store(c, co + cc2, alpha * (a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32), beta);
+    store(c, co + cc3, alpha * (a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33), beta);
+    store(c, cr1, alpha * (a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30), beta);
+    store(c, cr1 + ccs, alpha * (a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31), beta);
+    store(c, cr1 + cc2, alpha * (a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32), beta);
+    store(c, cr1 + cc3, alpha * (a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33), beta);
+    store(c, cr2, alpha * (a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30), beta);
+    store(c, cr2 + ccs, alpha * (a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31), beta);
+    store(c, cr2 + cc2, alpha * (a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32), beta);
+    store(c, cr2 + cc3, alpha * (a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33), beta);
+    store(c, cr3, alpha * (a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30), beta);
+    store(c, cr3 + ccs, alpha * (a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31), beta);
+    store(c, cr3 + cc2, alpha * (a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32), beta);
+    store(c, cr3 + cc3, alpha * (a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33), beta);
+  }
+
+  /**
+   * A stack of matrices, accessed either through its storage or through the array
+   */
+  private static final class Stack {
+
+    private final DoubleArray array;
+    private final double[] data;
+    private final int rows;
+    private final int columns;
+
+    Stack(DoubleArray array, boolean direct) {
+      this.array = array;
+      this.data = direct ? array.data() : null;
+      this.rows = array.size(0);
+      this.columns = array.size(1);
+    }
+
+    /**
+     * Copies the {@code k}:th matrix to the column-major {@code buffer}
+     */
+    void load(int k, double[] buffer) {
+      if (data == null) {
+        DoubleArray matrix = array.select(2, k);
+        for (int j = 0; j < columns; j++) {
+          for (int i = 0; i < rows; i++) {
+            buffer[i + j * rows] = matrix.get(i, j);
+          }
+        }
+      } else {
+        int rowStride = array.stride(0);
+        int colStride = array.stride(1);
+        int offset = array.getOffset() + k * array.stride(2);
+        for (int j = 0; j < columns; j++) {
+          for (int i = 0; i < rows; i++) {
+            buffer[i + j * rows] = data[offset + i * rowStride + j * colStride];
+          }
+        }
+      }
+    }
+
+    /**
+     * Copies the column-major {@code buffer} to the {@code k}:th matrix
+     */
+    void store(int k, double[] buffer) {
+      if (data == null) {
+        DoubleArray matrix = array.select(2, k);
+        for (int j = 0; j < columns; j++) {
+          for (int i = 0; i < rows; i++) {
+            matrix.set(i, j, buffer[i + j * rows]);
+          }
+        }
+      } else {
+        int rowStride = array.stride(0);
+        int colStride = array.stride(1);
+        int offset = array.getOffset() + k * array.stride(2);
+        for (int j = 0; j < columns; j++) {
+          for (int i = 0; i < rows; i++) {
+            data[offset + i * rowStride + j * colStride] = buffer[i + j * rows];
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,815 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.Arrays;
+
+/**
+ * Pure java eigenvalue decompositions of real matrices stored in column-major order.
+ *
+ * <p>
+ * Symmetric matrices are reduced to tridiagonal form using Householder transformations and the
+ * eigenvalues and eigenvectors of the tridiagonal matrix are found using the implicit QL method.
+ * General matrices are reduced to upper Hessenberg form using orthogonal similarity
+ * transformations and then to real Schur form using the shifted double QR algorithm, after which
+ * the eigenvectors are computed by back substitution. Both methods are derived from the Algol
+ * procedures {@code tred2}, {@code tql2}, {@code orthes} and {@code hqr2} (Wilkinson and Reinsch,
+ * Handbook for Automatic Computation, Vol. II) as adapted in EISPACK and JAMA.
+ *
+ * <p>
+ * The (symmetric) eigenvectors are accumulated column by column, so the innermost loops of the
+ * transformations traverse contiguous storage.
+ *
+ * @author Isak Karlsson
+ */
+final class DoubleEigen {
+
+  private static final double EPSILON = Math.ulp(1.0);
+  private static final int MAX_ITERATIONS = 30;
+
+  private DoubleEigen() {}
+
+  /**
+   * Computes the eigenvalues and eigenvectors of the symmetric {@code n x n} matrix {@code v}.
+   * Only the lower triangle of {@code v} is referenced. On return, {@code d} contains the
+   * eigenvalues in ascending order and the columns of {@code v} the corresponding orthonormal
+   * eigenvectors.
+   *
+   * @throws ArithmeticException if the QL iterations fail to converge
+   */
+  static void symmetric(int n, double[] v, double[] d) {
+    if (n == 0) {
+      return;
+    }
+    double[] e = new double[n];
+    tred2(n, v, d, e);
+    tql2(n, v, d, e);
+  }
+
+  /**
+   * Computes the eigenvalues and right eigenvectors of the general {@code n x n} matrix
+   * {@code h}, which is overwritten. On return, {@code wr} and {@code wi} contain the real and
+   * imaginary parts of the eigenvalues; complex conjugate pairs appear consecutively with the
+   * eigenvalue having positive imaginary part first. If {@code wi[j] == 0}, the {@code j}th column
+   * of {@code v} is the eigenvector of {@code wr[j]}; otherwise {@code v[:, j] + i * v[:, j + 1]}
+   * is the eigenvector of {@code wr[j] + i * wi[j]}.
+   *
+   * @throws ArithmeticException if the QR iterations fail to converge
+   */
+  static void general(int n, double[] h, double[] v, double[] wr, double[] wi) {
+    if (n == 0) {
+      return;
+    }
+    orthes(n, h, v);
+    hqr2(n, h, v, wr, wi);
+  }
+
+  /**
+   * Symmetric Householder reduction to tridiagonal form.
+   */
+  private static void tred2(int n, double[] v, double[] d, double[] e) {
+    for (int j = 0; j < n; j++) {
+      d[j] = v[n - 1 + j * n];
+    }
+
+    for (int i = n - 1; i > 0; i--) {
+      double scale = 0;
+      double h = 0;
+      for (int k = 0; k < i; k++) {
+        scale += Math.abs(d[k]);
+      }
+
+      if (scale == 0) {
+        e[i] = d[i - 1];
+        for (int j = 0; j < i; j++) {
+          d[j] = v[i - 1 + j * n];
+          v[i + j * n] = 0;
+          v[j + i * n] = 0;
+        }
+      } else {
+        for (int k = 0; k < i; k++) {
+          d[k] /= scale;
+          h += d[k] * d[k];
+        }
+        double f = d[i - 1];
+        double g = Math.sqrt(h);
+        if (f > 0) {
+          g = -g;
+        }
+        e[i] = scale * g;
+        h -= f * g;
+        d[i - 1] = f - g;
+        for (int j = 0; j < i; j++) {
+          e[j] = 0;
+        }
+
+        for (int j = 0; j < i; j++) {
+          int jc = j * n;
+          f = d[j];
+          v[j + i * n] = f;
+          g = e[j] + v[j + jc] * f;
+          for (int k = j + 1; k <= i - 1; k++) {
+            g += v[k + jc] * d[k];
+            e[k] += v[k + jc] * f;
+          }
+          e[j] = g;
+        }
+
+        f = 0;
+        for (int j = 0; j < i; j++) {
+          e[j] /= h;
+          f += e[j] * d[j];
+        }
+        double hh = f / (h + h);
+        for (int j = 0; j < i; j++) {
+          e[j] -= hh * d[j];
+        }
+        for (int j = 0; j < i; j++) {
+          int jc = j * n;
+          f = d[j];
+          g = e[j];
+          for (int k = j; k <= i - 1; k++) {
+            v[k + jc] -= (f * e[k] + g * d[k]);
+          }
+          d[j] = v[i - 1 + jc];
+          v[i + jc] = 0;
+        }
+      }
+      d[i] = h;
+    }
+
+    // Accumulate the transformations
+    for (int i = 0; i < n - 1; i++) {
+      int ic = i * n;
+      int nc = (i + 1) * n;
+      v[n - 1 + ic] = v[i + ic];
+      v[i + ic] = 1;
+      double h = d[i + 1];
+      if (h != 0) {
+        for (int k = 0; k <= i; k++) {
+          d[k] = v[k + nc] / h;
+        }
+        for (int j = 0; j <= i; j++) {
+          int jc = j * n;
+          double g = 0;
+          for (int k = 0; k <= i; k++) {
+            g += v[k + nc] * v[k + jc];
+          }
+          for (int k = 0; k <= i; k++) {
+            v[k + jc] -= g * d[k];
+          }
+        }
+      }
+      for (int k = 0; k <= i; k++) {
+        v[k + nc] = 0;
+      }
+    }
+    for (int j = 0; j < n; j++) {
+      d[j] = v[n - 1 + j * n];
+      v[n - 1 + j * n] = 0;
+    }
+    v[n - 1 + (n - 1) * n] = 1;
+    e[0] = 0;
+  }
+
+  /**
+   * Symmetric tridiagonal QL algorithm.
+   */
+  private static void tql2(int n, double[] v, double[] d, double[] e) {
+    for (int i = 1; i < n; i++) {
+      e[i - 1] = e[i];
+    }
+    e[n - 1] = 0;
+
+    double f = 0;
+    double tst1 = 0;
+    for (int l = 0; l < n; l++) {
+      // Find a small sub-diagonal element
+      tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+      int m = l;
+      while (m < n) {
+        if (Math.abs(e[m]) <= EPSILON * tst1) {
+          break;
+        }
+        m++;
+      }
+
+      // If m == l, d[l] is already an eigenvalue; otherwise, iterate
+      if (m > l) {
+        int iter = 0;
+        do {
+          if (++iter > MAX_ITERATIONS) {
+            throw new ArithmeticException("QL iterations failed to converge");
+          }
+          double g = d[l];
+          double p = (d[l + 1] - g) / (2 * e[l]);
+          double r = hypot(p, 1);
+          if (p < 0) {
+            r = -r;
+          }
+          d[l] = e[l] / (p + r);
+          d[l + 1] = e[l] * (p + r);
+          double dl1 = d[l + 1];
+          double h = g - d[l];
+          for (int i = l + 2; i < n; i++) {
+            d[i] -= h;
+          }
+          f += h;
+
+          // Implicit QL transformation
+          p = d[m];
+          double c = 1;
+          double c2 = c;
+          double c3 = c;
+          double el1 = e[l + 1];
+          double s = 0;
+          double s2 = 0;
+          for (int i = m - 1; i >= l; i--) {
+            c3 = c2;
+            c2 = c;
+            s2 = s;
+            g = c * e[i];
+            h = c * p;
+            r = hypot(p, e[i]);
+            e[i + 1] = s * r;
+            s = e[i] / r;
+            c = p / r;
+            p = c * d[i] - s * g;
+            d[i + 1] = h + s * (c * g + s * d[i]);
+
+            int ic = i * n;
+            int nc = (i + 1) * n;
+            for (int k = 0; k < n; k++) {
+              h = v[k + nc];
+              v[k + nc] = s * v[k + ic] + c * h;
+              v[k + ic] = c * v[k + ic] - s * h;
+            }
+          }
+          p = -s * s2 * c3 * el1 * e[l] / dl1;
+          e[l] = s * p;
+          d[l] = c * p;
+        } while (Math.abs(e[l]) > EPSILON * tst1);
+      }
+      d[l] += f;
+      e[l] = 0;
+    }
+
+    // Sort the eigenvalues and the corresponding vectors in ascending order
+    for (int i = 0; i < n - 1; i++) {
+      int k = i;
+      double p = d[i];
+      for (int j = i + 1; j < n; j++) {
+        if (d[j] < p) {
+          k = j;
+          p = d[j];
+        }
+      }
+      if (k != i) {
+        d[k] = d[i];
+        d[i] = p;
+        swapColumns(n, v, i, k);
+      }
+    }
+  }
+
+  /**
+   * Nonsymmetric reduction to Hessenberg form. On return, {@code v} contains the accumulated
+   * transformations.
+   */
+  private static void orthes(int n, double[] h, double[] v) {
+    int high = n - 1;
+    double[] ort = new double[n];
+    double[] work = new double[n];
+    for (int m = 1; m <= high - 1; m++) {
+      int mc = (m - 1) * n;
+      double scale = 0;
+      for (int i = m; i <= high; i++) {
+        scale += Math.abs(h[i + mc]);
+      }
+
+      if (scale != 0) {
+        double hh = 0;
+        for (int i = high; i >= m; i--) {
+          ort[i] = h[i + mc] / scale;
+          hh += ort[i] * ort[i];
+        }
+        double g = Math.sqrt(hh);
+        if (ort[m] > 0) {
+          g = -g;
+        }
+        hh -= ort[m] * g;
+        ort[m] -= g;
+
+        // h = (I - u * u' / hh) * h * (I - u * u' / hh)
+        for (int j = m; j < n; j++) {
+          int jc = j * n;
+          double f = 0;
+          for (int i = m; i <= high; i++) {
+            f += ort[i] * h[i + jc];
+          }
+          f /= hh;
+          for (int i = m; i <= high; i++) {
+            h[i + jc] -= f * ort[i];
+          }
+        }
+
+        Arrays.fill(work, 0, high + 1, 0);
+        for (int j = m; j <= high; j++) {
+          int jc = j * n;
+          double o = ort[j];
+          for (int i = 0; i <= high; i++) {
+            work[i] += o * h[i + jc];
+          }
+        }
+        for (int j = m; j <= high; j++) {
+          int jc = j * n;
+          double o = ort[j] / hh;
+          for (int i = 0; i <= high; i++) {
+            h[i + jc] -= work[i] * o;
+          }
+        }
+        ort[m] *= scale;
+        h[m + mc] = scale * g;
+      }
+    }
+
+    // Accumulate the transformations
+    Arrays.fill(v, 0, n * n, 0);
+    for (int i = 0; i < n; i++) {
+      v[i + i * n] = 1;
+    }
+    for (int m = high - 1; m >= 1; m--) {
+      int mc = (m - 1) * n;
+      if (h[m + mc] != 0) {
+        for (int i = m + 1; i <= high; i++) {
+          ort[i] = h[i + mc];
+        }
+        for (int j = m; j <= high; j++) {
+          int jc = j * n;
+          double g = 0;
+          for (int i = m; i <= high; i++) {
+            g += ort[i] * v[i + jc];
+          }
+          // Double division avoids possible underflow
+          g = (g / ort[m]) / h[m + mc];
+          for (int i = m; i <= high; i++) {
+            v[i + jc] += g * ort[i];
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Nonsymmetric reduction from Hessenberg to real Schur form, followed by back substitution of
+   * the eigenvectors.
+   */
+  private static void hqr2(int nn, double[] h, double[] v, double[] d, double[] e) {
+    int n = nn - 1;
+    int low = 0;
+    int high = nn - 1;
+    double exshift = 0;
+    double p = 0, q = 0, r = 0, s = 0, z = 0;
+    double t, w, x, y;
+
+    double norm = 0;
+    for (int i = 0; i < nn; i++) {
+      for (int j = Math.max(i - 1, 0); j < nn; j++) {
+        norm += Math.abs(h[i + j * nn]);
+      }
+    }
+
+    int iter = 0;
+    int total = 0;
+    while (n >= low) {
+      // Look for a single small sub-diagonal element
+      int l = n;
+      while (l > low) {
+        s = Math.abs(h[l - 1 + (l - 1) * nn]) + Math.abs(h[l + l * nn]);
+        if (s == 0) {
+          s = norm;
+        }
+        if (Math.abs(h[l + (l - 1) * nn]) < EPSILON * s) {
+          break;
+        }
+        l--;
+      }
+
+      if (l == n) {
+        // One root found
+        h[n + n * nn] += exshift;
+        d[n] = h[n + n * nn];
+        e[n] = 0;
+        n--;
+        iter = 0;
+      } else if (l == n - 1) {
+        // Two roots found
+        w = h[n + (n - 1) * nn] * h[n - 1 + n * nn];
+        p = (h[n - 1 + (n - 1) * nn] - h[n + n * nn]) / 2;
+        q = p * p + w;
+        z = Math.sqrt(Math.abs(q));
+        h[n + n * nn] += exshift;
+        h[n - 1 + (n - 1) * nn] += exshift;
+        x = h[n + n * nn];
+
+        if (q >= 0) {
+          // Real pair
+          z = p >= 0 ? p + z : p - z;
+          d[n - 1] = x + z;
+          d[n] = d[n - 1];
+          if (z != 0) {
+            d[n] = x - w / z;
+          }
+          e[n - 1] = 0;
+          e[n] = 0;
+          x = h[n + (n - 1) * nn];
+          s = Math.abs(x) + Math.abs(z);
+          p = x / s;
+          q = z / s;
+          r = Math.sqrt(p * p + q * q);
+          p /= r;
+          q /= r;
+
+          // Row modification
+          for (int j = n - 1; j < nn; j++) {
+            int jc = j * nn;
+            z = h[n - 1 + jc];
+            h[n - 1 + jc] = q * z + p * h[n + jc];
+            h[n + jc] = q * h[n + jc] - p * z;
+          }
+
+          // Column modification
+          int c1 = (n - 1) * nn;
+          int c2 = n * nn;
+          for (int i = 0; i <= n; i++) {
+            z = h[i + c1];
+            h[i + c1] = q * z + p * h[i + c2];
+            h[i + c2] = q * h[i + c2] - p * z;
+          }
+
+          // Accumulate transformations
+          for (int i = low; i <= high; i++) {
+            z = v[i + c1];
+            v[i + c1] = q * z + p * v[i + c2];
+            v[i + c2] = q * v[i + c2] - p * z;
+          }
+        } else {
+          // Complex pair
+          d[n - 1] = x + p;
+          d[n] = x + p;
+          e[n - 1] = z;
+          e[n] = -z;
+        }
+        n = n - 2;
+        iter = 0;
+      } else {
+        // No convergence yet; form the shift
+        x = h[n + n * nn];
+        y = 0;
+        w = 0;
+        if (l < n) {
+          y = h[n - 1 + (n - 1) * nn];
+          w = h[n + (n - 1) * nn] * h[n - 1 + n * nn];
+        }
+
+        // Wilkinson's original ad hoc shift
+        if (iter == 10) {
+          exshift += x;
+          for (int i = low; i <= n; i++) {
+            h[i + i * nn] -= x;
+          }
+          s = Math.abs(h[n + (n - 1) * nn]) + Math.abs(h[n - 1 + (n - 2) * nn]);
+          x = y = 0.75 * s;
+          w = -0.4375 * s * s;
+        }
+
+        // MATLAB's new ad hoc shift
+        if (iter == 30) {
+          s = (y - x) / 2;
+          s = s * s + w;
+          if (s > 0) {
+            s = Math.sqrt(s);
+            if (y < x) {
+              s = -s;
+            }
+            s = x - w / ((y - x) / 2 + s);
+            for (int i = low; i <= n; i++) {
+              h[i + i * nn] -= s;
+            }
+            exshift += s;
+            x = y = w = 0.964;
+          }
+        }
+
+        iter++;
+        if (++total > MAX_ITERATIONS * nn) {
+          throw new ArithmeticException("QR iterations failed to converge");
+        }
+
+        // Look for two consecutive small sub-diagonal elements
+        int m = n - 2;
+        while (m >= l) {
+          z = h[m + m * nn];
+          r = x - z;
+          s = y - z;
+          p = (r * s - w) / h[m + 1 + m * nn] + h[m + (m + 1) * nn];
+          q = h[m + 1 + (m + 1) * nn] - z - r - s;
+          r = h[m + 2 + (m + 1) * nn];
+          s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+          p /= s;
+          q /= s;
+          r /= s;
+          if (m == l) {
+            break;
+          }
+          if (Math.abs(h[m + (m - 1) * nn]) * (Math.abs(q) + Math.abs(r)) < EPSILON
+              * (Math.abs(p) * (Math.abs(h[m - 1 + (m - 1) * nn]) + Math.abs(z)
+                  + Math.abs(h[m + 1 + (m + 1) * nn])))) {
+            break;
+          }
+          m--;
+        }
+
+        for (int i = m + 2; i <= n; i++) {
+          h[i + (i - 2) * nn] = 0;
+          if (i > m + 2) {
+            h[i + (i - 3) * nn] = 0;
+          }
+        }
+
+        // Double QR step involving rows l:n and columns m:n
+        for (int k = m; k <= n - 1; k++) {
+          boolean notlast = k != n - 1;
+          if (k != m) {
+            p = h[k + (k - 1) * nn];
+            q = h[k + 1 + (k - 1) * nn];
+            r = notlast ? h[k + 2 + (k - 1) * nn] : 0;
+            x = Math.abs(p) + Math.abs(q) + Math.abs(r);
+            if (x == 0) {
+              continue;
+            }
+            p /= x;
+            q /= x;
+            r /= x;
+          }
+
+          s = Math.sqrt(p * p + q * q + r * r);
+          if (p < 0) {
+            s = -s;
+          }
+          if (s != 0) {
+            if (k != m) {
+              h[k + (k - 1) * nn] = -s * x;
+            } else if (l != m) {
+              h[k + (k - 1) * nn] = -h[k + (k - 1) * nn];
+            }
+            p += s;
+            x = p / s;
+            y = q / s;
+            z = r / s;
+            q /= p;
+            r /= p;
+
+            // Row modification
+            for (int j = k; j < nn; j++) {
+              int jc = j * nn;
+              p = h[k + jc] + q * h[k + 1 + jc];
+              if (notlast) {
+                p += r * h[k + 2 + jc];
+                h[k + 2 + jc] -= p * z;
+              }
+              h[k + jc] -= p * x;
+              h[k + 1 + jc] -= p * y;
+            }
+
+            // Column modification
+            int c0 = k * nn;
+            int c1 = (k + 1) * nn;
+            int c2 = (k + 2) * nn;
+            for (int i = 0; i <= Math.min(n, k + 3); i++) {
+              p = x * h[i + c0] + y * h[i + c1];
+              if (notlast) {
+                p += z * h[i + c2];
+                h[i + c2] -= p * r;
+              }
+              h[i + c0] -= p;
+              h[i + c1] -= p * q;
+            }
+
+            // Accumulate transformations
+            for (int i = low; i <= high; i++) {
+              p = x * v[i + c0] + y * v[i + c1];
+              if (notlast) {
+                p += z * v[i + c2];
+                v[i + c2] -= p * r;
+              }
+              v[i + c0] -= p;
+              v[i + c1] -= p * q;
+            }
+          }
+        }
+      }
+    }
+
+    // Back substitute to find the vectors of the upper triangular form
+    if (norm == 0) {
+      return;
+    }
+
+    double[] cdiv = new double[2];
+    for (n = nn - 1; n >= 0; n--) {
+      p = d[n];
+      q = e[n];
+      int nc = n * nn;
+      int pc = (n - 1) * nn;
+
+      if (q == 0) {
+        // Real vector
+        int l = n;
+        h[n + nc] = 1;
+        for (int i = n - 1; i >= 0; i--) {
+          w = h[i + i * nn] - p;
+          r = 0;
+          for (int j = l; j <= n; j++) {
+            r += h[i + j * nn] * h[j + nc];
+          }
+          if (e[i] < 0) {
+            z = w;
+            s = r;
+          } else {
+            l = i;
+            if (e[i] == 0) {
+              h[i + nc] = w != 0 ? -r / w : -r / (EPSILON * norm);
+            } else {
+              // Solve real equations
+              x = h[i + (i + 1) * nn];
+              y = h[i + 1 + i * nn];
+              q = (d[i] - p) * (d[i] - p) + e[i] * e[i];
+              t = (x * s - z * r) / q;
+              h[i + nc] = t;
+              if (Math.abs(x) > Math.abs(z)) {
+                h[i + 1 + nc] = (-r - w * t) / x;
+              } else {
+                h[i + 1 + nc] = (-s - y * t) / z;
+              }
+            }
+
+            // Overflow control
+            t = Math.abs(h[i + nc]);
+            if ((EPSILON * t) * t > 1) {
+              for (int j = i; j <= n; j++) {
+                h[j + nc] /= t;
+              }
+            }
+          }
+        }
+      } else if (q < 0) {
+        // Complex vector
+        int l = n - 1;
+
+        // Last vector component imaginary so matrix is triangular
+        if (Math.abs(h[n + pc]) > Math.abs(h[n - 1 + nc])) {
+          h[n - 1 + pc] = q / h[n + pc];
+          h[n - 1 + nc] = -(h[n + nc] - p) / h[n + pc];
+        } else {
+          cdiv(0, -h[n - 1 + nc], h[n - 1 + pc] - p, q, cdiv);
+          h[n - 1 + pc] = cdiv[0];
+          h[n - 1 + nc] = cdiv[1];
+        }
+        h[n + pc] = 0;
+        h[n + nc] = 1;
+        for (int i = n - 2; i >= 0; i--) {
+          double ra = 0;
+          double sa = 0;
+          for (int j = l; j <= n; j++) {
+            ra += h[i + j * nn] * h[j + pc];
+            sa += h[i + j * nn] * h[j + nc];
+          }
+          w = h[i + i * nn] - p;
+
+          if (e[i] < 0) {
+            z = w;
+            r = ra;
+            s = sa;
+          } else {
+            l = i;
+            if (e[i] == 0) {
+              cdiv(-ra, -sa, w, q, cdiv);
+              h[i + pc] = cdiv[0];
+              h[i + nc] = cdiv[1];
+            } else {
+              // Solve complex equations
+              x = h[i + (i + 1) * nn];
+              y = h[i + 1 + i * nn];
+              double vr = (d[i] - p) * (d[i] - p) + e[i] * e[i] - q * q;
+              double vi = (d[i] - p) * 2 * q;
+              if (vr == 0 && vi == 0) {
+                vr = EPSILON * norm
+                    * (Math.abs(w) + Math.abs(q) + Math.abs(x) + Math.abs(y) + Math.abs(z));
+              }
+              cdiv(x * r - z * ra + q * sa, x * s - z * sa - q * ra, vr, vi, cdiv);
+              h[i + pc] = cdiv[0];
+              h[i + nc] = cdiv[1];
+              if (Math.abs(x) > (Math.abs(z) + Math.abs(q))) {
+                h[i + 1 + pc] = (-ra - w * h[i + pc] + q * h[i + nc]) / x;
+                h[i + 1 + nc] = (-sa - w * h[i + nc] - q * h[i + pc]) / x;
+              } else {
+                cdiv(-r - y * h[i + pc], -s - y * h[i + nc], z, q, cdiv);
+                h[i + 1 + pc] = cdiv[0];
+                h[i + 1 + nc] = cdiv[1];
+              }
+            }
+
+            // Overflow control
+            t = Math.max(Math.abs(h[i + pc]), Math.abs(h[i + nc]));
+            if ((EPSILON * t) * t > 1) {
+              for (int j = i; j <= n; j++) {
+                h[j + pc] /= t;
+                h[j + nc] /= t;
+              }
+            }
+          }
+        }
+      }
+    }
+
+    // Back transformation to get the eigenvectors of the original matrix
+    double[] work = new double[nn];
+    for (int j = nn - 1; j >= low; j--) {
+      Arrays.fill(work, 0);
+      int jc = j * nn;
+      for (int k = low; k <= Math.min(j, high); k++) {
+        double hk = h[k + jc];
+        if (hk != 0) {
+          int kc = k * nn;
+          for (int i = low; i <= high; i++) {
+            work[i] += v[i + kc] * hk;
+          }
+        }
+      }
+      System.arraycopy(work, low, v, low + jc, high - low + 1);
+    }
+  }
+
+  /**
+   * Complex scalar division {@code (xr + i * xi) / (yr + i * yi)}.
+   */
+  private static void cdiv(double xr, double xi, double yr, double yi, double[] out) {
+    double r, d;
+    if (Math.abs(yr) > Math.abs(yi)) {
+      r = yi / yr;
+      d = yr + r * yi;
+      out[0] = (xr + r * xi) / d;
+      out[1] = (xi - r * xr) / d;
+    } else {
+      r = yr / yi;
+      d = yi + r * yr;
+      out[0] = (r * xr + xi) / d;
+      out[1] = (r * xi - xr) / d;
+    }
+  }
+
+  private static double hypot(double a, double b) {
+    double x = Math.abs(a);
+    double y = Math.abs(b);
+    if (x < y) {
+      double tmp = x;
+      x = y;
+      y = tmp;
+    }
+    if (x == 0) {
+      return 0;
+    }
+    double r = y / x;
+    return x * Math.sqrt(1 + r * r);
+  }
+
+  private static void swapColumns(int n, double[] v, int i, int k) {
+    int ic = i * n;
+    int kc = k * n;
+    for (int j = 0; j < n; j++) {
+      double tmp = v[j + ic];
+      v[j + ic] = v[j + kc];
+      v[j + kc] = tmp;
+    }
+  }
+}
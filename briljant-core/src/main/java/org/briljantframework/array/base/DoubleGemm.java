@@ -0,0 +1,394 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import org.briljantframework.array.DoubleArray;
+
+/**
+ * A cache-blocked and register-tiled implementation of {@code c <- alpha * op(a) * op(b) + beta *
+ * c} for double arrays.
+ *
+ * <p>
+ * The computation follows the layered approach of Goto and van de Geijn. The columns of
+ * {@code op(b)} are split in panels of (at most) {@link #NC} columns and the inner dimension in
+ * blocks of (at most) {@link #KC}; each {@code KC x NC} block of {@code op(b)} is packed into a
+ * contiguous buffer of {@link #NR} column wide micro-panels. The rows of {@code op(a)} are split
+ * in blocks of (at most) {@link #MC} rows, which are packed into {@link #MR} row high
+ * micro-panels. A {@code MR x NR} micro-kernel, which keeps its accumulators in registers, then
+ * computes each tile of {@code c}. Since the tiles of different row blocks are disjoint, the row
+ * blocks are computed in parallel using the common fork/join pool.
+ *
+ * <p>
+ * The operands are addressed using their offset and the strides of their two dimensions, so
+ * transposition and arbitrary (strided) views are handled without copying. Arrays whose storage
+ * is directly accessible are read and written directly; others are accessed using
+ * {@link DoubleArray#get(int, int)} when packed.
+ *
+ * <p>
+ * For small products (at most {@link #SMALL} multiply-add operations), where packing costs more
+ * than it saves, the product is computed directly from the operands using dot products.
+ *
+ * @author Isak Karlsson
+ */
+final class DoubleGemm {
+
+  static final int MR = 4;
+  static final int NR = 4;
+  static final int MC = 128;
+  static final int KC = 256;
+  static final int NC = 2048;
+
+  /**
+   * The number of multiply-add operations up to which operands are not packed
+   */
+  static final long SMALL = 16 * 16 * 16;
+
+  /**
+   * The number of multiply-add operations below which the row blocks are computed sequentially
+   */
+  private static final long PARALLEL_THRESHOLD = 64 * 64 * 64;
+
+  private DoubleGemm() {}
+
+  /**
+   * Computes {@code c <- alpha * op(a) * op(b) + beta * c}, where {@code op(a)} is {@code m x k},
+   * {@code op(b)} is {@code k x n} and {@code c} is {@code m x n}. The shapes are assumed to be
+   * checked by the caller.
+   *
+   * @param transA if true, {@code op(a) = a'}
+   * @param transB if true, {@code op(b) = b'}
+   * @param alpha the scalar for {@code op(a) * op(b)}
+   * @param a the matrix a
+   * @param b the matrix b
+   * @param beta the scalar for c
+   * @param c the result matrix
+   * @param direct true if {@link DoubleArray#data()} returns the storage of an array
+   */
+  static void gemm(boolean transA, boolean transB, double alpha, DoubleArray a, DoubleArray b,
+      double beta, DoubleArray c, Predicate<DoubleArray> direct) {
+    Operand opA = new Operand(a, transA, direct.test(a));
+    Operand opB = new Operand(b, transB, direct.test(b));
+    Operand opC = new Operand(c, false, direct.test(c));
+    int m = c.size(0);
+    int n = c.size(1);
+    int k = transA ? a.size(0) : a.size(1);
+
+    if ((long) m * n * k <= SMALL && opA.data != null && opB.data != null && opC.data != null) {
+      small(alpha, opA, opB, beta, opC, m, n, k);
+      return;
+    }
+
+    scale(beta, opC, m, n);
+    if (alpha == 0 || m == 0 || n == 0 || k == 0) {
+      return;
+    }
+
+    int rowBlocks = (m + MC - 1) / MC;
+    boolean parallel = rowBlocks > 1 && (long) m * n * k >= PARALLEL_THRESHOLD;
+    int ncMax = roundUp(Math.min(NC, n), NR);
+    int kcMax = Math.min(KC, k);
+    double[] packedB = new double[kcMax * ncMax];
+    for (int jc = 0; jc < n; jc += NC) {
+      int nc = Math.min(NC, n - jc);
+      for (int pc = 0; pc < k; pc += KC) {
+        int kc = Math.min(KC, k - pc);
+        packB(opB, pc, kc, jc, nc, packedB);
+        final int fjc = jc;
+        final int fpc = pc;
+        if (parallel) {
+          IntStream.range(0, rowBlocks).parallel().forEach(
+              block -> rowBlock(alpha, opA, opC, block * MC, m, fpc, kc, fjc, nc, packedB));
+        } else {
+          double[] packedA = new double[roundUp(Math.min(MC, m), MR) * kc];
+          for (int ic = 0; ic < m; ic += MC) {
+            rowBlock(alpha, opA, opC, ic, m, pc, kc, jc, nc, packedB, packedA);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes {@code c <- alpha * a * b + beta * c} without packing; all operands must be directly
+   * accessible.
+   */
+  private static void small(double alpha, Operand a, Operand b, double beta, Operand c, int m,
+      int n, int k) {
+    double[] ad = a.data, bd = b.data, cd = c.data;
+    for (int j = 0; j < n; j++) {
+      int pb = b.offset + j * b.colStride;
+      int pc = c.offset + j * c.colStride;
+      for (int i = 0; i < m; i++) {
+        int pa = a.offset + i * a.rowStride;
+        double sum = 0;
+        for (int p = 0; p < k; p++) {
+          sum += ad[pa + p * a.colStride] * bd[pb + p * b.rowStride];
+        }
+        int position = pc + i * c.rowStride;
+        cd[position] = alpha * sum + (beta == 0 ? 0 : beta * cd[position]);
+      }
+    }
+  }
+
+  private static void rowBlock(double alpha, Operand a, Operand c, int ic, int m, int pc, int kc,
+      int jc, int nc, double[] packedB) {
+    double[] packedA = new double[roundUp(Math.min(MC, m - ic), MR) * kc];
+    rowBlock(alpha, a, c, ic, m, pc, kc, jc, nc, packedB, packedA);
+  }
+
+  private static void rowBlock(double alpha, Operand a, Operand c, int ic, int m, int pc, int kc,
+      int jc, int nc, double[] packedB, double[] packedA) {
+    int mc = Math.min(MC, m - ic);
+    packA(a, ic, mc, pc, kc, packedA);
+    double[] edge = new double[MR * NR];
+    for (int jr = 0; jr < nc; jr += NR) {
+      int nr = Math.min(NR, nc - jr);
+      int pb = jr * kc;
+      for (int ir = 0; ir < mc; ir += MR) {
+        int mr = Math.min(MR, mc - ir);
+        int pa = ir * kc;
+        if (mr == MR && nr == NR && c.data != null) {
+          kernel(kc, alpha, packedA, pa, packedB, pb, c.data,
+              c.offset + (ic + ir) * c.rowStride + (jc + jr) * c.colStride, c.rowStride,
+              c.colStride);
+        } else {
+          Arrays.fill(edge, 0);
+          kernel(kc, alpha, packedA, pa, packedB, pb, edge, 0, 1, MR);
+          for (int j = 0; j < nr; j++) {
+            for (int i = 0; i < mr; i++) {
+              c.add(ic + ir + i, jc + jr + j, edge[i + j * MR]);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes {@code c[i, j] += alpha * sum(a[i, p] * b[p, j])} for a {@code MR x NR} tile, where
+   * {@code a} is a packed micro-panel (column-major, {@code MR} rows) and {@code b} is a packed
+   * micro-panel (row-major, {@code NR} columns).
+   */
+  private static void kernel(int kc, double alpha, double[] a, int pa, double[] b, int pb,
+      double[] c, int pc, int rs, int cs) {
+    double c00 = 0, c10 = 0, c20 = 0, c30 = 0;
+    double c01 = 0, c11 = 0, c21 = 0, c31 = 0;
+    double c02 = 0, c12 = 0, c22 = 0, c32 = 0;
+    double c03 = 0, c13 = 0, c23 = 0, c33 = 0;
+    for (int p = 0; p < kc; p++) {
+      double a0 = a[pa];
+      double a1 = a[pa + 1];
+      double a2 = a[pa + 2];
+      double a3 = a[pa + 3];
+      double b0 = b[pb];
+      double b1 = b[pb + 1];
+      double b2 = b[pb + 2];
+      double b3 = b[pb + 3];
+      c00 += a0 * b0;
+      c10 += a1 * b0;
+      c20 += a2 * b0;
+      c30 += a3 * b0;
+      c01 += a0 * b1;
+      c11 += a1 * b1;
+      c21 += a2 * b1;
+      c31 += a3 * b1;
+      c02 += a0 * b2;
+      c12 += a1 * b2;
+      c22 += a2 * b2;
+      c32 += a3 * b2;
+      c03 += a0 * b3;
+      c13 += a1 * b3;
+      c23 += a2 * b3;
+      c33 += a3 * b3;
+      pa += MR;
+      pb += NR;
+    }
+    int c0 = pc;
+    c[c0] += alpha * c00;
+    c[c0 + rs] += alpha * c10;
+    c[c0 + 2 * rs] += alpha * c20;
+    c[c0 + 3 * rs] += alpha * c30;
+    int c1 = c0 + cs;
+    c[c1] += alpha * c01;
+    c[c1 + rs] += alpha * c11;
+    c[c1 + 2 * rs] += alpha * c21;
+    c[c1 + 3 * rs] += alpha * c31;
+    int c2 = c1 + cs;
+    c[c2] += alpha * c02;
+    c[c2 + rs] += alpha * c12;
+    c[c2 + 2 * rs] += alpha * c22;
+    c[c2 + 3 * rs] += alpha * c32;
+    int c3 = c2 + cs;
+    c[c3] += alpha * c03;
+    c[c3 + rs] += alpha * c13;
+    c[c3 + 2 * rs] += alpha * c23;
+    c[c3 + 3 * rs] += alpha * c33;
+  }
+
+  /**
+   * Pack the {@code mc x kc} block of {@code a} starting at {@code (ic, pc)} into micro-panels of
+   * {@code MR} rows, stored column by column. Rows outside of {@code a} are padded with zeros.
+   */
+  private static void packA(Operand a, int ic, int mc, int pc, int kc, double[] packed) {
+    int index = 0;
+    for (int ir = 0; ir < mc; ir += MR) {
+      int mr = Math.min(MR, mc - ir);
+      if (a.data != null) {
+        double[] data = a.data;
+        int rs = a.rowStride;
+        int cs = a.colStride;
+        int position = a.offset + (ic + ir) * rs + pc * cs;
+        for (int p = 0; p < kc; p++) {
+          int current = position;
+          for (int i = 0; i < mr; i++) {
+            packed[index + i] = data[current];
+            current += rs;
+          }
+          for (int i = mr; i < MR; i++) {
+            packed[index + i] = 0;
+          }
+          index += MR;
+          position += cs;
+        }
+      } else {
+        for (int p = 0; p < kc; p++) {
+          for (int i = 0; i < mr; i++) {
+            packed[index + i] = a.get(ic + ir + i, pc + p);
+          }
+          for (int i = mr; i < MR; i++) {
+            packed[index + i] = 0;
+          }
+          index += MR;
+        }
+      }
+    }
+  }
+
+  /**
+   * Pack the {@code kc x nc} block of {@code b} starting at {@code (pc, jc)} into micro-panels of
+   * {@code NR} columns, stored row by row. Columns outside of {@code b} are padded with zeros.
+   */
+  private static void packB(Operand b, int pc, int kc, int jc, int nc, double[] packed) {
+    int index = 0;
+    for (int jr = 0; jr < nc; jr += NR) {
+      int nr = Math.min(NR, nc - jr);
+      if (b.data != null) {
+        double[] data = b.data;
+        int rs = b.rowStride;
+        int cs = b.colStride;
+        int position = b.offset + pc * rs + (jc + jr) * cs;
+        for (int p = 0; p < kc; p++) {
+          int current = position;
+          for (int j = 0; j < nr; j++) {
+            packed[index + j] = data[current];
+            current += cs;
+          }
+          for (int j = nr; j < NR; j++) {
+            packed[index + j] = 0;
+          }
+          index += NR;
+          position += rs;
+        }
+      } else {
+        for (int p = 0; p < kc; p++) {
+          for (int j = 0; j < nr; j++) {
+            packed[index + j] = b.get(pc + p, jc + jr + j);
+          }
+          for (int j = nr; j < NR; j++) {
+            packed[index + j] = 0;
+          }
+          index += NR;
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes {@code c <- beta * c}; following BLAS, if {@code beta == 0} c is overwritten (i.e.,
+   * {@code NaN} in c does not propagate).
+   */
+  private static void scale(double beta, Operand c, int m, int n) {
+    if (beta == 1) {
+      return;
+    }
+    for (int j = 0; j < n; j++) {
+      for (int i = 0; i < m; i++) {
+        c.set(i, j, beta == 0 ? 0 : beta * c.get(i, j));
+      }
+    }
+  }
+
+  private static int roundUp(int value, int multiple) {
+    return ((value + multiple - 1) / multiple) * multiple;
+  }
+
+  /**
+   * A (possibly transposed) matrix operand addressed as {@code (row, column)}.
+   */
+  private static final class Operand {
+
+    private final DoubleArray array;
+    private final boolean transposed;
+
+    /**
+     * The underlying storage, or {@code null} if it is not directly accessible
+     */
+    private final double[] data;
+    private final int offset;
+    private final int rowStride;
+    private final int colStride;
+
+    Operand(DoubleArray array, boolean transposed, boolean direct) {
+      this.array = array;
+      this.transposed = transposed;
+      this.data = direct ? array.data() : null;
+      this.offset = array.getOffset();
+      this.rowStride = transposed ? array.stride(1) : array.stride(0);
+      this.colStride = transposed ? array.stride(0) : array.stride(1);
+    }
+
+    double get(int i, int j) {
+      if (data != null) {
+        return data[offset + i * rowStride + j * colStride];
+      }
+      return transposed ? array.get(j, i) : array.get(i, j);
+    }
+
+    void set(int i, int j, double value) {
+      if (data != null) {
+        data[offset + i * rowStride + j * colStride] = value;
+      } else if (transposed) {
+        array.set(j, i, value);
+      } else {
+        array.set(i, j, value);
+      }
+    }
+
+    void add(int i, int j, double value) {
+      set(i, j, get(i, j) + value);
+    }
+  }
+}
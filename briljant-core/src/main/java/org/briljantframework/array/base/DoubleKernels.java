@@ -0,0 +1,489 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import org.briljantframework.function.DoubleBiPredicate;
+
+/**
+ * Element-wise kernels operating on segments of array storage, i.e., {@code n} elements starting
+ * at a position and separated by a stride.
+ *
+ * <p>
+ * The kernels are written as simple counted loops over unit-stride segments, which the JIT
+ * compiler unrolls and (for the arithmetic operations, {@code abs}, {@code sqrt}, {@code min} and
+ * {@code max}) compiles to SIMD instructions. Segments with other strides are processed in
+ * chunks of {@link #CHUNK} elements, which are gathered to (and scattered from) a unit-stride
+ * buffer. The functions without vector instructions (e.g., {@code exp}) still benefit from the
+ * monomorphic loops, since they are compiled to intrinsics.
+ *
+ * @author Isak Karlsson
+ */
+final class DoubleKernels {
+
+  static final int CHUNK = 512;
+
+  private static final double LOG_2 = Math.log(2);
+
+  private DoubleKernels() {}
+
+  /**
+   * Element-wise functions
+   */
+  enum Unary implements DoubleUnaryOperator {
+    ABS, SQRT, EXP, LOG, LOG2, LOG10, SIN, COS, TAN, ASIN, ACOS, ATAN, SINH, COSH, TANH, CBRT,
+    CEIL, FLOOR, SIGNUM, SQUARE;
+
+    @Override
+    public double applyAsDouble(double x) {
+      switch (this) {
+        case ABS:
+          return Math.abs(x);
+        case SQRT:
+          return Math.sqrt(x);
+        case EXP:
+          return Math.exp(x);
+        case LOG:
+          return Math.log(x);
+        case LOG2:
+          return Math.log(x) / LOG_2;
+        case LOG10:
+          return Math.log10(x);
+        case SIN:
+          return Math.sin(x);
+        case COS:
+          return Math.cos(x);
+        case TAN:
+          return Math.tan(x);
+        case ASIN:
+          return Math.asin(x);
+        case ACOS:
+          return Math.acos(x);
+        case ATAN:
+          return Math.atan(x);
+        case SINH:
+          return Math.sinh(x);
+        case COSH:
+          return Math.cosh(x);
+        case TANH:
+          return Math.tanh(x);
+        case CBRT:
+          return Math.cbrt(x);
+        case CEIL:
+          return Math.ceil(x);
+        case FLOOR:
+          return Math.floor(x);
+        case SIGNUM:
+          return Math.signum(x);
+        default:
+          return x * x;
+      }
+    }
+  }
+
+  /**
+   * Element-wise binary operations
+   */
+  enum Binary implements DoubleBinaryOperator {
+    PLUS, MINUS, TIMES, DIV, MIN, MAX;
+
+    @Override
+    public double applyAsDouble(double a, double b) {
+      switch (this) {
+        case PLUS:
+          return a + b;
+        case MINUS:
+          return a - b;
+        case TIMES:
+          return a * b;
+        case DIV:
+          return a / b;
+        case MIN:
+          return Math.min(a, b);
+        default:
+          return Math.max(a, b);
+      }
+    }
+  }
+
+  /**
+   * Element-wise comparisons
+   */
+  enum Comparison implements DoubleBiPredicate {
+    LT, LTE, GT, GTE, EQ;
+
+    @Override
+    public boolean test(double a, double b) {
+      switch (this) {
+        case LT:
+          return a < b;
+        case LTE:
+          return a <= b;
+        case GT:
+          return a > b;
+        case GTE:
+          return a >= b;
+        default:
+          return a == b;
+      }
+    }
+  }
+
+  /**
+   * Computes {@code y[yp + i * ys] = op(x[xp + i * xs])} for {@code i} in {@code [0, n)}.
+   */
+  static void map(Unary op, double[] x, int xp, int xs, double[] y, int yp, int ys, int n) {
+    if (xs == 1 && ys == 1) {
+      map(op, x, xp, y, yp, n);
+      return;
+    }
+    double[] buffer = new double[Math.min(n, CHUNK)];
+    for (int from = 0; from < n; from += CHUNK) {
+      int length = Math.min(CHUNK, n - from);
+      gather(x, xp + from * xs, xs, buffer, length);
+      map(op, buffer, 0, buffer, 0, length);
+      scatter(buffer, y, yp + from * ys, ys, length);
+    }
+  }
+
+  private static void map(Unary op, double[] x, int xp, double[] y, int yp, int n) {
+    switch (op) {
+      case ABS:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.abs(x[xp + i]);
+        }
+        break;
+      case SQRT:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.sqrt(x[xp + i]);
+        }
+        break;
+      case EXP:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.exp(x[xp + i]);
+        }
+        break;
+      case LOG:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.log(x[xp + i]);
+        }
+        break;
+      case LOG2:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.log(x[xp + i]) / LOG_2;
+        }
+        break;
+      case LOG10:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.log10(x[xp + i]);
+        }
+        break;
+      case SIN:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.sin(x[xp + i]);
+        }
+        break;
+      case COS:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.cos(x[xp + i]);
+        }
+        break;
+      case TAN:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.tan(x[xp + i]);
+        }
+        break;
+      case ASIN:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.asin(x[xp + i]);
+        }
+        break;
+      case ACOS:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.acos(x[xp + i]);
+        }
+        break;
+      case ATAN:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.atan(x[xp + i]);
+        }
+        break;
+      case SINH:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.sinh(x[xp + i]);
+        }
+        break;
+      case COSH:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.cosh(x[xp + i]);
+        }
+        break;
+      case TANH:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.tanh(x[xp + i]);
+        }
+        break;
+      case CBRT:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.cbrt(x[xp + i]);
+        }
+        break;
+      case CEIL:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.ceil(x[xp + i]);
+        }
+        break;
+      case FLOOR:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.floor(x[xp + i]);
+        }
+        break;
+      case SIGNUM:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.signum(x[xp + i]);
+        }
+        break;
+      default:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = x[xp + i] * x[xp + i];
+        }
+    }
+  }
+
+  /**
+   * Computes {@code y[yp + i * ys] = op(a[ap + i * as], b[bp + i * bs])} for {@code i} in
+   * {@code [0, n)}.
+   */
+  static void combine(Binary op, double[] a, int ap, int as, double[] b, int bp, int bs,
+      double[] y, int yp, int ys, int n) {
+    if (as == 1 && bs == 1 && ys == 1) {
+      combine(op, a, ap, b, bp, y, yp, n);
+      return;
+    }
+    double[] left = new double[Math.min(n, CHUNK)];
+    double[] right = new double[left.length];
+    for (int from = 0; from < n; from += CHUNK) {
+      int length = Math.min(CHUNK, n - from);
+      gather(a, ap + from * as, as, left, length);
+      gather(b, bp + from * bs, bs, right, length);
+      combine(op, left, 0, right, 0, left, 0, length);
+      scatter(left, y, yp + from * ys, ys, length);
+    }
+  }
+
+  private static void combine(Binary op, double[] a, int ap, double[] b, int bp, double[] y,
+      int yp, int n) {
+    switch (op) {
+      case PLUS:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = a[ap + i] + b[bp + i];
+        }
+        break;
+      case MINUS:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = a[ap + i] - b[bp + i];
+        }
+        break;
+      case TIMES:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = a[ap + i] * b[bp + i];
+        }
+        break;
+      case DIV:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = a[ap + i] / b[bp + i];
+        }
+        break;
+      case MIN:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.min(a[ap + i], b[bp + i]);
+        }
+        break;
+      default:
+        for (int i = 0; i < n; i++) {
+          y[yp + i] = Math.max(a[ap + i], b[bp + i]);
+        }
+    }
+  }
+
+  /**
+   * Stores {@code op(a[ap + i * as], b[bp + i * bs])} in bit {@code i % 64} of
+   * {@code words[i / 64]}, for the elements {@code i} in {@code [0, n)} of the words in
+   * {@code [from, to)}. The bits of the last word beyond {@code n} are cleared.
+   */
+  static void compare(Comparison op, double[] a, int ap, int as, double[] b, int bp, int bs,
+      long[] words, int from, int to, int n) {
+    if (as == 1 && bs == 1) {
+      for (int w = from; w < to; w++) {
+        int i = w << 6;
+        words[w] = compare(op, a, ap + i, b, bp + i, Math.min(64, n - i));
+      }
+      return;
+    }
+    double[] left = new double[64];
+    double[] right = new double[64];
+    for (int w = from; w < to; w++) {
+      int i = w << 6;
+      int length = Math.min(64, n - i);
+      gather(a, ap + i * as, as, left, length);
+      gather(b, bp + i * bs, bs, right, length);
+      words[w] = compare(op, left, 0, right, 0, length);
+    }
+  }
+
+  /**
+   * Returns a word with bit {@code i} set if {@code op(a[ap + i], b[bp + i])}, for {@code i} in
+   * {@code [0, n)} ({@code n <= 64}).
+   */
+  private static long compare(Comparison op, double[] a, int ap, double[] b, int bp, int n) {
+    long word = 0;
+    switch (op) {
+      case LT:
+        for (int i = 0; i < n; i++) {
+          word |= (a[ap + i] < b[bp + i] ? 1L : 0L) << i;
+        }
+        break;
+      case LTE:
+        for (int i = 0; i < n; i++) {
+          word |= (a[ap + i] <= b[bp + i] ? 1L : 0L) << i;
+        }
+        break;
+      case GT:
+        for (int i = 0; i < n; i++) {
+          word |= (a[ap + i] > b[bp + i] ? 1L : 0L) << i;
+        }
+        break;
+      case GTE:
+        for (int i = 0; i < n; i++) {
+          word |= (a[ap + i] >= b[bp + i] ? 1L : 0L) << i;
+        }
+        break;
+      default:
+        for (int i = 0; i < n; i++) {
+          word |= (a[ap + i] == b[bp + i] ? 1L : 0L) << i;
+        }
+    }
+    return word;
+  }
+
+  /**
+   * Computes {@code y[yp + i * ys] = a[ap + i * as] * b[bp + i * bs] + c[cp + i * cs]} for
+   * {@code i} in {@code [0, n)}.
+   */
+  static void fma(double[] a, int ap, int as, double[] b, int bp, int bs, double[] c, int cp,
+      int cs, double[] y, int yp, int ys, int n) {
+    if (as == 1 && bs == 1 && cs == 1 && ys == 1) {
+      for (int i = 0; i < n; i++) {
+        y[yp + i] = a[ap + i] * b[bp + i] + c[cp + i];
+      }
+    } else {
+      for (int i = 0; i < n; i++) {
+        y[yp + i * ys] = a[ap + i * as] * b[bp + i * bs] + c[cp + i * cs];
+      }
+    }
+  }
+
+  /**
+   * Computes {@code y[yp + i * ys] += alpha * x[xp + i * xs]} for {@code i} in {@code [0, n)}.
+   */
+  static void axpy(double alpha, double[] x, int xp, int xs, double[] y, int yp, int ys, int n) {
+    if (xs == 1 && ys == 1) {
+      for (int i = 0; i < n; i++) {
+        y[yp + i] += alpha * x[xp + i];
+      }
+    } else {
+      for (int i = 0; i < n; i++) {
+        y[yp + i * ys] += alpha * x[xp + i * xs];
+      }
+    }
+  }
+
+  /**
+   * Computes {@code x[xp + i * xs] *= alpha} for {@code i} in {@code [0, n)}.
+   */
+  static void scal(double alpha, double[] x, int xp, int xs, int n) {
+    if (xs == 1) {
+      for (int i = 0; i < n; i++) {
+        x[xp + i] *= alpha;
+      }
+    } else {
+      for (int i = 0; i < n; i++) {
+        x[xp + i * xs] *= alpha;
+      }
+    }
+  }
+
+  /**
+   * Returns the inner product of the segments. The products are summed in four independent
+   * accumulators to break the dependency between consecutive additions.
+   */
+  static double inner(double[] a, int ap, int as, double[] b, int bp, int bs, int n) {
+    double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+    if (as == 1 && bs == 1) {
+      for (; i + 3 < n; i += 4) {
+        s0 += a[ap + i] * b[bp + i];
+        s1 += a[ap + i + 1] * b[bp + i + 1];
+        s2 += a[ap + i + 2] * b[bp + i + 2];
+        s3 += a[ap + i + 3] * b[bp + i + 3];
+      }
+    }
+    for (; i < n; i++) {
+      s0 += a[ap + i * as] * b[bp + i * bs];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Returns the sum of the absolute values of the segment, using four accumulators.
+   */
+  static double asum(double[] x, int xp, int xs, int n) {
+    double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+    if (xs == 1) {
+      for (; i + 3 < n; i += 4) {
+        s0 += Math.abs(x[xp + i]);
+        s1 += Math.abs(x[xp + i + 1]);
+        s2 += Math.abs(x[xp + i + 2]);
+        s3 += Math.abs(x[xp + i + 3]);
+      }
+    }
+    for (; i < n; i++) {
+      s0 += Math.abs(x[xp + i * xs]);
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  private static void gather(double[] x, int position, int stride, double[] buffer, int n) {
+    for (int i = 0; i < n; i++, position += stride) {
+      buffer[i] = x[position];
+    }
+  }
+
+  private static void scatter(double[] buffer, double[] y, int position, int stride, int n) {
+    for (int i = 0; i < n; i++, position += stride) {
+      y[position] = buffer[i];
+    }
+  }
+}
@@ -0,0 +1,266 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.stream.IntStream;
+
+/**
+ * Pure java implementations of the LAPACK routines {@code dgetrf}, {@code dgetrs} and
+ * {@code dgetri} operating on column-major storage.
+ *
+ * <p>
+ * The factorization is right-looking and blocked. Each panel of (at most) {@link #NB} columns is
+ * factored using partial pivoting, after which the row interchanges are applied to the remaining
+ * columns, the block row of {@code U} is solved and the trailing sub-matrix is updated. The
+ * updates traverse the storage column by column and, for large trailing matrices, the columns
+ * are updated in parallel using the common fork/join pool.
+ *
+ * <p>
+ * As in LAPACK, the pivot indices are 1-based; row {@code i} was interchanged with row
+ * {@code ipiv[i] - 1}.
+ *
+ * @author Isak Karlsson
+ */
+final class DoubleLu {
+
+  static final int NB = 48;
+
+  /**
+   * The number of multiply-add operations below which the trailing update is sequential
+   */
+  private static final long PARALLEL_THRESHOLD = 64 * 64 * 64;
+
+  private DoubleLu() {}
+
+  /**
+   * Computes the LU factorization, with partial pivoting, of the {@code m x n} matrix stored in
+   * {@code a}.
+   *
+   * @return {@code 0} or, if {@code u[i, i]} is exactly zero, {@code i + 1}
+   */
+  static int getrf(int m, int n, double[] a, int lda, int[] ipiv) {
+    int info = 0;
+    int mn = Math.min(m, n);
+    for (int j = 0; j < mn; j += NB) {
+      int jb = Math.min(NB, mn - j);
+      int panelInfo = getf2(m, j, jb, a, lda, ipiv);
+      if (info == 0 && panelInfo > 0) {
+        info = panelInfo;
+      }
+
+      for (int i = j; i < j + jb; i++) {
+        int p = ipiv[i] - 1;
+        if (p != i) {
+          swapRows(a, lda, i, p, 0, j);
+          swapRows(a, lda, i, p, j + jb, n);
+        }
+      }
+
+      final int start = j;
+      final int end = j + jb;
+      if (end < n) {
+        IntStream columns = IntStream.range(end, n);
+        if ((long) (m - end) * (n - end) * jb >= PARALLEL_THRESHOLD) {
+          columns = columns.parallel();
+        }
+        columns.forEach(c -> updateColumn(m, start, end, a, lda, c));
+      }
+    }
+    return info;
+  }
+
+  /**
+   * Solves {@code l11 * u12 = a12} and updates {@code a22 <- a22 - l21 * u12} for the column
+   * {@code c}, where the panel spans the columns {@code [start, end)}.
+   */
+  private static void updateColumn(int m, int start, int end, double[] a, int lda, int c) {
+    int cc = c * lda;
+    for (int k = start; k < end; k++) {
+      double v = a[k + cc];
+      if (v != 0) {
+        int kc = k * lda;
+        for (int i = k + 1; i < m; i++) {
+          a[i + cc] -= v * a[i + kc];
+        }
+      }
+    }
+  }
+
+  /**
+   * Unblocked factorization of the panel {@code a[j:m, j:j+jb]}. The interchanges are only
+   * applied to the columns of the panel.
+   */
+  private static int getf2(int m, int j, int jb, double[] a, int lda, int[] ipiv) {
+    int info = 0;
+    int end = j + jb;
+    for (int k = j; k < end; k++) {
+      int kc = k * lda;
+      int p = k;
+      double max = Math.abs(a[k + kc]);
+      for (int i = k + 1; i < m; i++) {
+        double abs = Math.abs(a[i + kc]);
+        if (abs > max) {
+          max = abs;
+          p = i;
+        }
+      }
+      ipiv[k] = p + 1;
+
+      if (a[p + kc] != 0) {
+        if (p != k) {
+          swapRows(a, lda, k, p, j, end);
+        }
+        double r = 1 / a[k + kc];
+        for (int i = k + 1; i < m; i++) {
+          a[i + kc] *= r;
+        }
+      } else if (info == 0) {
+        info = k + 1;
+      }
+
+      for (int c = k + 1; c < end; c++) {
+        int cc = c * lda;
+        double v = a[k + cc];
+        if (v != 0) {
+          for (int i = k + 1; i < m; i++) {
+            a[i + cc] -= v * a[i + kc];
+          }
+        }
+      }
+    }
+    return info;
+  }
+
+  /**
+   * Solves {@code a * x = b} using the factorization computed by {@link #getrf}. The solution
+   * overwrites {@code b}.
+   */
+  static void getrs(int n, int nrhs, double[] a, int lda, int[] ipiv, double[] b, int ldb) {
+    for (int i = 0; i < n; i++) {
+      int p = ipiv[i] - 1;
+      if (p != i) {
+        swapRows(b, ldb, i, p, 0, nrhs);
+      }
+    }
+
+    for (int c = 0; c < nrhs; c++) {
+      int bc = c * ldb;
+      for (int k = 0; k < n; k++) {
+        double v = b[k + bc];
+        if (v != 0) {
+          int kc = k * lda;
+          for (int i = k + 1; i < n; i++) {
+            b[i + bc] -= v * a[i + kc];
+          }
+        }
+      }
+      for (int k = n - 1; k >= 0; k--) {
+        int kc = k * lda;
+        double v = b[k + bc] / a[k + kc];
+        b[k + bc] = v;
+        if (v != 0) {
+          for (int i = 0; i < k; i++) {
+            b[i + bc] -= v * a[i + kc];
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the inverse of a matrix using the factorization computed by {@link #getrf}.
+   *
+   * @return {@code 0} or, if {@code u[i, i]} is exactly zero, {@code i + 1}
+   */
+  static int getri(int n, double[] a, int lda, int[] ipiv) {
+    for (int i = 0; i < n; i++) {
+      if (a[i + i * lda] == 0) {
+        return i + 1;
+      }
+    }
+
+    // inv(u), column by column
+    for (int j = 0; j < n; j++) {
+      int jc = j * lda;
+      a[j + jc] = 1 / a[j + jc];
+      double ajj = -a[j + jc];
+      for (int k = 0; k < j; k++) {
+        double v = a[k + jc];
+        if (v != 0) {
+          int kc = k * lda;
+          for (int i = 0; i < k; i++) {
+            a[i + jc] += v * a[i + kc];
+          }
+          a[k + jc] = v * a[k + kc];
+        }
+      }
+      for (int i = 0; i < j; i++) {
+        a[i + jc] *= ajj;
+      }
+    }
+
+    // solve inv(a) * l = inv(u)
+    double[] work = new double[n];
+    for (int j = n - 1; j >= 0; j--) {
+      int jc = j * lda;
+      for (int i = j + 1; i < n; i++) {
+        work[i] = a[i + jc];
+        a[i + jc] = 0;
+      }
+      for (int k = j + 1; k < n; k++) {
+        double v = work[k];
+        if (v != 0) {
+          int kc = k * lda;
+          for (int i = 0; i < n; i++) {
+            a[i + jc] -= v * a[i + kc];
+          }
+        }
+      }
+    }
+
+    for (int j = n - 2; j >= 0; j--) {
+      int p = ipiv[j] - 1;
+      if (p != j) {
+        int jc = j * lda;
+        int pc = p * lda;
+        for (int i = 0; i < n; i++) {
+          double tmp = a[i + jc];
+          a[i + jc] = a[i + pc];
+          a[i + pc] = tmp;
+        }
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Interchanges the rows {@code i} and {@code p} in the columns {@code [from, to)}.
+   */
+  static void swapRows(double[] a, int lda, int i, int p, int from, int to) {
+    for (int c = from; c < to; c++) {
+      int cc = c * lda;
+      double tmp = a[i + cc];
+      a[i + cc] = a[p + cc];
+      a[p + cc] = tmp;
+    }
+  }
+}
@@ -0,0 +1,361 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.Arrays;
+
+/**
+ * Pure java implementations of the LAPACK routines {@code dgeqrf}, {@code dormqr},
+ * {@code dgeqp3} and {@code dgelsy} operating on column-major storage.
+ *
+ * <p>
+ * The orthogonal matrix {@code q} is represented, as in LAPACK, as a product of elementary
+ * reflectors {@code h(i) = I - tau[i] * v * v'}, where {@code v[i] = 1} is implicit and the
+ * remaining non-zero elements of {@code v} are stored below the diagonal in column {@code i}.
+ * Reflectors are always applied column by column, so that the innermost loops traverse
+ * contiguous storage.
+ *
+ * @author Isak Karlsson
+ */
+final class DoubleQr {
+
+  private static final double EPSILON = Math.ulp(1.0);
+
+  private DoubleQr() {}
+
+  /**
+   * Computes the QR factorization of the {@code m x n} matrix stored in {@code a}.
+   */
+  static void geqrf(int m, int n, double[] a, int lda, double[] tau) {
+    int k = Math.min(m, n);
+    for (int i = 0; i < k; i++) {
+      tau[i] = larfg(m - i, a, i + i * lda);
+      applyLeft(m, i, a, i * lda, tau[i], a, lda, i + 1, n);
+    }
+  }
+
+  /**
+   * Overwrites the {@code m x n} matrix {@code c} with {@code q * c}, {@code q' * c},
+   * {@code c * q} or {@code c * q'}, where {@code q} is the product of the {@code k} elementary
+   * reflectors stored in {@code a} and {@code tau}.
+   *
+   * @param left if true, apply {@code q} from the left; otherwise from the right
+   * @param transpose if true, apply {@code q'} instead of {@code q}
+   */
+  static void ormqr(boolean left, boolean transpose, int m, int n, int k, double[] a, int lda,
+      double[] tau, double[] c, int ldc) {
+    // q = h(0) h(1) ... h(k - 1)
+    boolean forward = left == transpose;
+    for (int j = 0; j < k; j++) {
+      int i = forward ? j : k - 1 - j;
+      if (left) {
+        applyLeft(m, i, a, i * lda, tau[i], c, ldc, 0, n);
+      } else {
+        applyRight(m, n, i, a, i * lda, tau[i], c, ldc);
+      }
+    }
+  }
+
+  /**
+   * Computes the QR factorization with column pivoting of the {@code m x n} matrix stored in
+   * {@code a}. On return, the column {@code j} of {@code a * p} was the column {@code jpvt[j] - 1}
+   * of {@code a}.
+   */
+  static void geqp3(int m, int n, double[] a, int lda, int[] jpvt, double[] tau) {
+    double[] norms = new double[n];
+    double[] initialNorms = new double[n];
+    for (int j = 0; j < n; j++) {
+      jpvt[j] = j + 1;
+      norms[j] = nrm2(m, a, j * lda);
+      initialNorms[j] = norms[j];
+    }
+
+    double tolerance = Math.sqrt(EPSILON);
+    int k = Math.min(m, n);
+    for (int i = 0; i < k; i++) {
+      int p = i;
+      for (int j = i + 1; j < n; j++) {
+        if (norms[j] > norms[p]) {
+          p = j;
+        }
+      }
+      if (p != i) {
+        int ic = i * lda;
+        int pc = p * lda;
+        for (int r = 0; r < m; r++) {
+          double tmp = a[r + ic];
+          a[r + ic] = a[r + pc];
+          a[r + pc] = tmp;
+        }
+        int tmp = jpvt[p];
+        jpvt[p] = jpvt[i];
+        jpvt[i] = tmp;
+        norms[p] = norms[i];
+        initialNorms[p] = initialNorms[i];
+      }
+
+      tau[i] = larfg(m - i, a, i + i * lda);
+      applyLeft(m, i, a, i * lda, tau[i], a, lda, i + 1, n);
+
+      // Downdate the partial column norms (recomputing them when cancellation is severe)
+      for (int j = i + 1; j < n; j++) {
+        if (norms[j] != 0) {
+          double ratio = Math.abs(a[i + j * lda]) / norms[j];
+          double temp = Math.max(0, 1 - ratio * ratio);
+          double scaled = norms[j] / initialNorms[j];
+          if (temp * scaled * scaled <= tolerance) {
+            norms[j] = nrm2(m - i - 1, a, i + 1 + j * lda);
+            initialNorms[j] = norms[j];
+          } else {
+            norms[j] *= Math.sqrt(temp);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the minimum-norm solution to the (possibly rank-deficient) least squares problem
+   * {@code min || a * x - b ||} using a complete orthogonal factorization of {@code a}.
+   *
+   * <p>
+   * The effective rank is the largest {@code r} such that {@code |r[i, i]| > rcond * |r[0, 0]|}
+   * for all {@code i < r}, where {@code r} is the triangular factor of the QR factorization with
+   * column pivoting. On return, the first {@code n} rows of {@code b} contain the solution.
+   *
+   * @return the effective rank of {@code a}
+   */
+  static int gelsy(int m, int n, int nrhs, double[] a, int lda, double[] b, int ldb, int[] jpvt,
+      double rcond) {
+    int k = Math.min(m, n);
+    double[] tau = new double[k];
+    geqp3(m, n, a, lda, jpvt, tau);
+
+    int rank = 0;
+    if (k > 0) {
+      double max = Math.abs(a[0]);
+      while (rank < k && max > 0 && Math.abs(a[rank + rank * lda]) > rcond * max) {
+        rank++;
+      }
+    }
+
+    // b <- q' * b
+    ormqr(true, true, m, nrhs, k, a, lda, tau, b, ldb);
+
+    // Reduce [r11 r12] to [t11 0] using reflectors z(i) applied from the right
+    double[] tauz = new double[rank];
+    if (rank < n) {
+      for (int i = rank - 1; i >= 0; i--) {
+        tauz[i] = larfgRow(n, rank, i, a, lda);
+        double t = tauz[i];
+        if (t != 0) {
+          for (int r = 0; r < i; r++) {
+            double w = a[r + i * lda];
+            for (int l = rank; l < n; l++) {
+              w += a[r + l * lda] * a[i + l * lda];
+            }
+            w *= t;
+            a[r + i * lda] -= w;
+            for (int l = rank; l < n; l++) {
+              a[r + l * lda] -= w * a[i + l * lda];
+            }
+          }
+        }
+      }
+    }
+
+    double[] x = new double[n];
+    for (int c = 0; c < nrhs; c++) {
+      int bc = c * ldb;
+      Arrays.fill(x, 0);
+      for (int i = rank - 1; i >= 0; i--) {
+        double v = b[i + bc];
+        for (int j = i + 1; j < rank; j++) {
+          v -= a[i + j * lda] * x[j];
+        }
+        x[i] = v / a[i + i * lda];
+      }
+
+      if (rank < n) {
+        for (int i = 0; i < rank; i++) {
+          double t = tauz[i];
+          if (t != 0) {
+            double w = x[i];
+            for (int l = rank; l < n; l++) {
+              w += a[i + l * lda] * x[l];
+            }
+            w *= t;
+            x[i] -= w;
+            for (int l = rank; l < n; l++) {
+              x[l] -= w * a[i + l * lda];
+            }
+          }
+        }
+      }
+
+      for (int j = 0; j < n; j++) {
+        b[jpvt[j] - 1 + bc] = x[j];
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * Generates an elementary reflector annihilating the {@code n - 1} elements following
+   * {@code a[pos]}. On return, {@code a[pos] = beta} and the following elements contain
+   * {@code v}.
+   *
+   * @return the scalar factor {@code tau}
+   */
+  static double larfg(int n, double[] a, int pos) {
+    if (n <= 1) {
+      return 0;
+    }
+    double xnorm = nrm2(n - 1, a, pos + 1);
+    if (xnorm == 0) {
+      return 0;
+    }
+    double alpha = a[pos];
+    double beta = -Math.copySign(Math.hypot(alpha, xnorm), alpha);
+    double scale = 1 / (alpha - beta);
+    for (int i = pos + 1; i < pos + n; i++) {
+      a[i] *= scale;
+    }
+    a[pos] = beta;
+    return (beta - alpha) / beta;
+  }
+
+  /**
+   * Generates an elementary reflector annihilating {@code a[i, l:n]} using {@code a[i, i]} as
+   * pivot.
+   */
+  private static double larfgRow(int n, int l, int i, double[] a, int lda) {
+    double sum = 0;
+    double scale = 0;
+    for (int j = l; j < n; j++) {
+      scale = Math.max(scale, Math.abs(a[i + j * lda]));
+    }
+    if (scale == 0) {
+      return 0;
+    }
+    for (int j = l; j < n; j++) {
+      double v = a[i + j * lda] / scale;
+      sum += v * v;
+    }
+    double xnorm = scale * Math.sqrt(sum);
+    double alpha = a[i + i * lda];
+    double beta = -Math.copySign(Math.hypot(alpha, xnorm), alpha);
+    double s = 1 / (alpha - beta);
+    for (int j = l; j < n; j++) {
+      a[i + j * lda] *= s;
+    }
+    a[i + i * lda] = beta;
+    return (beta - alpha) / beta;
+  }
+
+  /**
+   * Applies {@code h(i) = I - tau * v * v'} from the left to the columns {@code [from, to)} of
+   * {@code c}, where {@code v[i] = 1} and {@code v[i + 1:m]} is stored in {@code a} starting at
+   * {@code vpos + i + 1}.
+   */
+  private static void applyLeft(int m, int i, double[] a, int vpos, double tau, double[] c,
+      int ldc, int from, int to) {
+    if (tau == 0) {
+      return;
+    }
+    for (int j = from; j < to; j++) {
+      int cc = j * ldc;
+      double w = c[i + cc];
+      for (int r = i + 1; r < m; r++) {
+        w += a[vpos + r] * c[r + cc];
+      }
+      w *= tau;
+      c[i + cc] -= w;
+      for (int r = i + 1; r < m; r++) {
+        c[r + cc] -= w * a[vpos + r];
+      }
+    }
+  }
+
+  /**
+   * Applies {@code h(i)} from the right to the {@code m x n} matrix {@code c}.
+   */
+  private static void applyRight(int m, int n, int i, double[] a, int vpos, double tau,
+      double[] c, int ldc) {
+    if (tau == 0) {
+      return;
+    }
+    double[] w = new double[m];
+    System.arraycopy(c, i * ldc, w, 0, m);
+    for (int j = i + 1; j < n; j++) {
+      double v = a[vpos + j];
+      if (v != 0) {
+        int cc = j * ldc;
+        for (int r = 0; r < m; r++) {
+          w[r] += v * c[r + cc];
+        }
+      }
+    }
+
+    int ic = i * ldc;
+    for (int r = 0; r < m; r++) {
+      c[r + ic] -= tau * w[r];
+    }
+    for (int j = i + 1; j < n; j++) {
+      double v = tau * a[vpos + j];
+      if (v != 0) {
+        int cc = j * ldc;
+        for (int r = 0; r < m; r++) {
+          c[r + cc] -= v * w[r];
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the euclidean norm of the {@code n} elements starting at {@code a[pos]}, avoiding
+   * unnecessary overflow and underflow.
+   */
+  static double nrm2(int n, double[] a, int pos) {
+    double sum = 0;
+    for (int i = pos; i < pos + n; i++) {
+      sum += a[i] * a[i];
+    }
+    if (sum > Double.MIN_NORMAL && sum < Double.POSITIVE_INFINITY) {
+      return Math.sqrt(sum);
+    }
+
+    double scale = 0;
+    for (int i = pos; i < pos + n; i++) {
+      scale = Math.max(scale, Math.abs(a[i]));
+    }
+    if (scale == 0) {
+      return 0;
+    }
+    sum = 0;
+    for (int i = pos; i < pos + n; i++) {
+      double v = a[i] / scale;
+      sum += v * v;
+    }
+    return scale * Math.sqrt(sum);
+  }
+}
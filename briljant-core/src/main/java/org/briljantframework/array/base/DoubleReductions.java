@@ -0,0 +1,473 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.Indexer;
+
+/**
+ * Reductions of double arrays operating directly on their storage (see
+ * {@link BaseArrayRoutines#hasDirectStorage(DoubleArray)}).
+ *
+ * <p>
+ * Full reductions iterate the array as a sequence of strided segments (see
+ * {@link StridedLayout}). Sums use pairwise summation, which has an error growing with
+ * {@code O(log n)} rather than {@code O(n)}. The variance is computed in a single pass over the
+ * storage; each block of {@link #BLOCK} elements is reduced to its mean and sum of squared
+ * deviations (in cache) and merged with the running result using the update formula of Chan et
+ * al. (the pairwise generalization of Welford's algorithm).
+ *
+ * <p>
+ * Reductions along a dimension of a matrix iterate the dimension with the smallest stride in the
+ * inner loop. If the reduced dimension has the smallest stride, each vector is reduced as above;
+ * otherwise the results of all vectors are accumulated element-wise while traversing the
+ * reduced dimension (using Welford's update for the variance).
+ *
+ * <p>
+ * Arrays with at least {@link #PARALLEL_THRESHOLD} elements are split and reduced in parallel
+ * using the common fork/join pool. The partial results are combined in a fixed order, so the
+ * result does not depend on the scheduling.
+ *
+ * @author Isak Karlsson
+ */
+final class DoubleReductions {
+
+  static final int BLOCK = 1024;
+
+  /**
+   * The number of elements below which reductions are computed sequentially
+   */
+  static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  private static final int PAIRWISE_BLOCK = 128;
+
+  private DoubleReductions() {}
+
+  enum Op {
+    SUM(0), SUM_OF_SQUARES(0), PROD(1), MIN(Double.POSITIVE_INFINITY),
+    MAX(Double.NEGATIVE_INFINITY);
+
+    final double identity;
+
+    Op(double identity) {
+      this.identity = identity;
+    }
+
+    double combine(double a, double b) {
+      switch (this) {
+        case SUM:
+        case SUM_OF_SQUARES:
+          return a + b;
+        case PROD:
+          return a * b;
+        case MIN:
+          return Math.min(a, b);
+        default:
+          return Math.max(a, b);
+      }
+    }
+  }
+
+  /**
+   * Reduces all elements of {@code x}, which must have directly accessible storage.
+   */
+  static double reduce(Op op, DoubleArray x) {
+    double[] data = x.data();
+    StridedLayout layout = StridedLayout.of(x);
+    int size = layout.size();
+    if (size == 0) {
+      return op.identity;
+    }
+    int tasks = tasks(size);
+    if (tasks == 1) {
+      return reduce(op, data, layout, 0, size);
+    }
+
+    double[] partial = new double[tasks];
+    IntStream.range(0, tasks).parallel()
+        .forEach(t -> partial[t] = reduce(op, data, layout, split(size, tasks, t),
+            split(size, tasks, t + 1)));
+    return combine(op, partial, 0, tasks);
+  }
+
+  /**
+   * Returns the (population) variance of the elements of {@code x}, which must have directly
+   * accessible storage.
+   */
+  static double variance(DoubleArray x) {
+    double[] data = x.data();
+    StridedLayout layout = StridedLayout.of(x);
+    int size = layout.size();
+    if (size == 0) {
+      return 0;
+    }
+    int tasks = tasks(size);
+    Moments moments;
+    if (tasks == 1) {
+      moments = moments(data, layout, 0, size);
+    } else {
+      Moments[] partial = new Moments[tasks];
+      IntStream.range(0, tasks).parallel()
+          .forEach(t -> partial[t] = moments(data, layout, split(size, tasks, t),
+              split(size, tasks, t + 1)));
+      moments = partial[0];
+      for (int t = 1; t < tasks; t++) {
+        moments.merge(partial[t]);
+      }
+    }
+    return moments.variance();
+  }
+
+  /**
+   * Reduces the vectors along dimension {@code dim} of the matrix {@code x}, which must have
+   * directly accessible storage.
+   */
+  static DoubleArray reduce(Op op, int dim, DoubleArray x) {
+    double[] data = x.data();
+    int n = x.size(dim);
+    int stride = x.stride(dim);
+    int vectors = x.size(1 - dim);
+    int vectorStride = x.stride(1 - dim);
+    int offset = x.getOffset();
+    double[] result = new double[vectors];
+
+    forEachRange(n, vectors, (from, to) -> {
+      if (Math.abs(stride) <= Math.abs(vectorStride)) {
+        for (int v = from; v < to; v++) {
+          result[v] = reduce(op, data, offset + v * vectorStride, stride, n);
+        }
+      } else {
+        java.util.Arrays.fill(result, from, to, op.identity);
+        for (int j = 0; j < n; j++) {
+          accumulate(op, data, offset + j * stride + from * vectorStride, vectorStride, result,
+              from, to - from);
+        }
+      }
+    });
+    return newVector(x, dim, result);
+  }
+
+  /**
+   * Computes the (population) variance of the vectors along dimension {@code dim} of the matrix
+   * {@code x}, which must have directly accessible storage.
+   */
+  static DoubleArray variance(int dim, DoubleArray x) {
+    double[] data = x.data();
+    int n = x.size(dim);
+    int stride = x.stride(dim);
+    int vectors = x.size(1 - dim);
+    int vectorStride = x.stride(1 - dim);
+    int offset = x.getOffset();
+    double[] result = new double[vectors];
+
+    forEachRange(n, vectors, (from, to) -> {
+      if (Math.abs(stride) <= Math.abs(vectorStride)) {
+        for (int v = from; v < to; v++) {
+          Moments moments = new Moments();
+          moments(data, offset + v * vectorStride, stride, n, moments);
+          result[v] = moments.variance();
+        }
+      } else {
+        int length = to - from;
+        double[] mean = new double[length];
+        double[] m2 = new double[length];
+        for (int j = 0; j < n; j++) {
+          double scale = 1.0 / (j + 1);
+          int position = offset + j * stride + from * vectorStride;
+          for (int v = 0; v < length; v++, position += vectorStride) {
+            double value = data[position];
+            double delta = value - mean[v];
+            mean[v] += delta * scale;
+            m2[v] += delta * (value - mean[v]);
+          }
+        }
+        for (int v = 0; v < length; v++) {
+          result[from + v] = n > 1 ? m2[v] / n : 0;
+        }
+      }
+    });
+    return newVector(x, dim, result);
+  }
+
+  private static DoubleArray newVector(DoubleArray x, int dim, double[] values) {
+    DoubleArray result = x.newEmptyArray(Indexer.remove(x.getShape(), dim));
+    result.assign(values);
+    return result;
+  }
+
+  /**
+   * Reduces the elements {@code [from, to)} (in segment order) of the layout.
+   */
+  private static double reduce(Op op, double[] data, StridedLayout layout, int from, int to) {
+    double result = op.identity;
+    int length = layout.length();
+    int segment = from / length;
+    int index = from % length;
+    while (from < to) {
+      int n = Math.min(length - index, to - from);
+      int position = layout.position(segment) + index * layout.stride();
+      result = op.combine(result, reduce(op, data, position, layout.stride(), n));
+      from += n;
+      segment++;
+      index = 0;
+    }
+    return result;
+  }
+
+  /**
+   * Reduces {@code n} elements starting at {@code position}.
+   */
+  static double reduce(Op op, double[] data, int position, int stride, int n) {
+    switch (op) {
+      case SUM:
+        return sum(data, position, stride, n);
+      case SUM_OF_SQUARES:
+        return sumOfSquares(data, position, stride, n);
+      case PROD: {
+        double prod = 1;
+        for (int i = 0; i < n; i++, position += stride) {
+          prod *= data[position];
+        }
+        return prod;
+      }
+      case MIN: {
+        double m0 = Double.POSITIVE_INFINITY, m1 = m0;
+        int i = 0;
+        if (stride == 1) {
+          for (; i + 1 < n; i += 2, position += 2) {
+            m0 = Math.min(m0, data[position]);
+            m1 = Math.min(m1, data[position + 1]);
+          }
+        }
+        for (; i < n; i++, position += stride) {
+          m0 = Math.min(m0, data[position]);
+        }
+        return Math.min(m0, m1);
+      }
+      default: {
+        double m0 = Double.NEGATIVE_INFINITY, m1 = m0;
+        int i = 0;
+        if (stride == 1) {
+          for (; i + 1 < n; i += 2, position += 2) {
+            m0 = Math.max(m0, data[position]);
+            m1 = Math.max(m1, data[position + 1]);
+          }
+        }
+        for (; i < n; i++, position += stride) {
+          m0 = Math.max(m0, data[position]);
+        }
+        return Math.max(m0, m1);
+      }
+    }
+  }
+
+  /**
+   * Combines {@code length} elements, starting at {@code position}, with {@code result[offset]}
+   * to {@code result[offset + length - 1]}.
+   */
+  private static void accumulate(Op op, double[] data, int position, int stride, double[] result,
+      int offset, int length) {
+    int end = offset + length;
+    switch (op) {
+      case SUM:
+        for (int v = offset; v < end; v++, position += stride) {
+          result[v] += data[position];
+        }
+        break;
+      case SUM_OF_SQUARES:
+        for (int v = offset; v < end; v++, position += stride) {
+          double value = data[position];
+          result[v] += value * value;
+        }
+        break;
+      case PROD:
+        for (int v = offset; v < end; v++, position += stride) {
+          result[v] *= data[position];
+        }
+        break;
+      case MIN:
+        for (int v = offset; v < end; v++, position += stride) {
+          result[v] = Math.min(result[v], data[position]);
+        }
+        break;
+      default:
+        for (int v = offset; v < end; v++, position += stride) {
+          result[v] = Math.max(result[v], data[position]);
+        }
+    }
+  }
+
+  private static double sum(double[] data, int position, int stride, int n) {
+    if (n <= PAIRWISE_BLOCK) {
+      // four independent accumulators, so that consecutive additions don't wait for each other
+      double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+      int i = 0;
+      if (stride == 1) {
+        for (; i + 3 < n; i += 4, position += 4) {
+          s0 += data[position];
+          s1 += data[position + 1];
+          s2 += data[position + 2];
+          s3 += data[position + 3];
+        }
+      }
+      for (; i < n; i++, position += stride) {
+        s0 += data[position];
+      }
+      return (s0 + s1) + (s2 + s3);
+    }
+    int half = n / 2;
+    return sum(data, position, stride, half)
+        + sum(data, position + half * stride, stride, n - half);
+  }
+
+  private static double sumOfSquares(double[] data, int position, int stride, int n) {
+    if (n <= PAIRWISE_BLOCK) {
+      double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+      int i = 0;
+      if (stride == 1) {
+        for (; i + 3 < n; i += 4, position += 4) {
+          s0 += data[position] * data[position];
+          s1 += data[position + 1] * data[position + 1];
+          s2 += data[position + 2] * data[position + 2];
+          s3 += data[position + 3] * data[position + 3];
+        }
+      }
+      for (; i < n; i++, position += stride) {
+        double value = data[position];
+        s0 += value * value;
+      }
+      return (s0 + s1) + (s2 + s3);
+    }
+    int half = n / 2;
+    return sumOfSquares(data, position, stride, half)
+        + sumOfSquares(data, position + half * stride, stride, n - half);
+  }
+
+  /**
+   * Combines the partial results in {@code [from, to)} pairwise.
+   */
+  private static double combine(Op op, double[] partial, int from, int to) {
+    if (to - from == 1) {
+      return partial[from];
+    }
+    int mid = (from + to) >>> 1;
+    return op.combine(combine(op, partial, from, mid), combine(op, partial, mid, to));
+  }
+
+  private static Moments moments(double[] data, StridedLayout layout, int from, int to) {
+    Moments moments = new Moments();
+    int length = layout.length();
+    int segment = from / length;
+    int index = from % length;
+    while (from < to) {
+      int n = Math.min(length - index, to - from);
+      moments(data, layout.position(segment) + index * layout.stride(), layout.stride(), n,
+          moments);
+      from += n;
+      segment++;
+      index = 0;
+    }
+    return moments;
+  }
+
+  /**
+   * Merges the moments of {@code n} elements starting at {@code position} into {@code moments},
+   * one block at a time.
+   */
+  private static void moments(double[] data, int position, int stride, int n, Moments moments) {
+    for (int from = 0; from < n; from += BLOCK) {
+      int length = Math.min(BLOCK, n - from);
+      double mean = sum(data, position, stride, length) / length;
+      double m2 = 0;
+      for (int i = 0, p = position; i < length; i++, p += stride) {
+        double delta = data[p] - mean;
+        m2 += delta * delta;
+      }
+      moments.merge(length, mean, m2);
+      position += length * stride;
+    }
+  }
+
+  /**
+   * Calls {@code action} for consecutive ranges of {@code [0, vectors)}, in parallel if there are
+   * at least {@link #PARALLEL_THRESHOLD} elements.
+   */
+  static void forEachRange(int n, int vectors, RangeAction action) {
+    int tasks = Math.min(vectors, tasks((long) n * vectors));
+    if (tasks <= 1) {
+      action.apply(0, vectors);
+    } else {
+      IntStream.range(0, tasks).parallel()
+          .forEach(t -> action.apply(split(vectors, tasks, t), split(vectors, tasks, t + 1)));
+    }
+  }
+
+  static int tasks(long size) {
+    if (size < PARALLEL_THRESHOLD) {
+      return 1;
+    }
+    int parallelism = ForkJoinPool.getCommonPoolParallelism();
+    return (int) Math.max(1, Math.min(parallelism * 4L, size / (PARALLEL_THRESHOLD / 4)));
+  }
+
+  static int split(int size, int tasks, int task) {
+    return (int) ((long) size * task / tasks);
+  }
+
+  @FunctionalInterface
+  interface RangeAction {
+
+    void apply(int from, int to);
+  }
+
+  /**
+   * The number of elements, the mean and the sum of squared deviations from the mean.
+   */
+  private static final class Moments {
+
+    private long n;
+    private double mean;
+    private double m2;
+
+    void merge(Moments other) {
+      merge(other.n, other.mean, other.m2);
+    }
+
+    void merge(long otherN, double otherMean, double otherM2) {
+      if (otherN == 0) {
+        return;
+      }
+      long total = n + otherN;
+      double delta = otherMean - mean;
+      mean += delta * otherN / total;
+      m2 += otherM2 + delta * delta * ((double) n * otherN / total);
+      n = total;
+    }
+
+    double variance() {
+      return n > 1 ? m2 / n : 0;
+    }
+  }
+}
@@ -0,0 +1,293 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.Arrays;
+
+/**
+ * Pure java singular value decomposition of real matrices stored in column-major order, using
+ * the one-sided Jacobi method of Hestenes.
+ *
+ * <p>
+ * Tall matrices are first reduced to their (square) triangular factor using a Householder QR
+ * factorization ({@link DoubleQr}), and the rotations are then applied to the columns of the
+ * triangular factor. Each rotation touches two columns of contiguous storage and the squared
+ * column norms are updated instead of recomputed. Wide matrices are decomposed through their
+ * transpose. The singular values are returned in descending order.
+ *
+ * @author Isak Karlsson
+ */
+final class DoubleSvd {
+
+  private static final double EPSILON = Math.ulp(1.0);
+  private static final int MAX_SWEEPS = 60;
+
+  private DoubleSvd() {}
+
+  /**
+   * Computes the singular value decomposition {@code a = u * s * vt} of the {@code m x n} matrix
+   * stored in {@code a}, which is left unchanged.
+   *
+   * @param s the {@code min(m, n)} singular values (output)
+   * @param u {@code null} or the {@code m x ucols} left singular vectors (output), where
+   *        {@code ucols} is either {@code m} or {@code min(m, n)}
+   * @param vt {@code null} or the {@code vtrows x n} right singular vectors (output), where
+   *        {@code vtrows} is either {@code n} or {@code min(m, n)}
+   * @throws ArithmeticException if the Jacobi sweeps fail to converge
+   */
+  static void gesvd(int m, int n, double[] a, int lda, double[] s, double[] u, int ucols,
+      double[] vt, int vtrows) {
+    if (m >= n) {
+      double[] v = vt != null ? new double[n * n] : null;
+      tall(m, n, a, lda, s, u, ucols, v);
+      if (vt != null) {
+        // vt = v'
+        for (int j = 0; j < n; j++) {
+          for (int i = 0; i < vtrows; i++) {
+            vt[i + j * vtrows] = v[j + i * n];
+          }
+        }
+      }
+    } else {
+      double[] at = new double[n * m];
+      for (int j = 0; j < n; j++) {
+        for (int i = 0; i < m; i++) {
+          at[j + i * n] = a[i + j * lda];
+        }
+      }
+
+      // a' = u' * s * v'', hence u = v' and vt = u''
+      double[] ut = vt != null ? new double[n * vtrows] : null;
+      double[] v = u != null ? new double[m * m] : null;
+      tall(n, m, at, n, s, ut, vtrows, v);
+      if (u != null) {
+        System.arraycopy(v, 0, u, 0, m * m);
+      }
+      if (vt != null) {
+        for (int j = 0; j < n; j++) {
+          for (int i = 0; i < vtrows; i++) {
+            vt[i + j * vtrows] = ut[j + i * n];
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Decomposes the {@code m x n} matrix {@code a}, where {@code m >= n}.
+   */
+  private static void tall(int m, int n, double[] a, int lda, double[] s, double[] u, int ucols,
+      double[] v) {
+    double[] w = new double[n * n];
+    double[] qr = null;
+    double[] tau = null;
+    if (m > n) {
+      qr = new double[m * n];
+      for (int j = 0; j < n; j++) {
+        System.arraycopy(a, j * lda, qr, j * m, m);
+      }
+      tau = new double[n];
+      DoubleQr.geqrf(m, n, qr, m, tau);
+      for (int j = 0; j < n; j++) {
+        System.arraycopy(qr, j * m, w, j * n, j + 1);
+      }
+    } else {
+      for (int j = 0; j < n; j++) {
+        System.arraycopy(a, j * lda, w, j * n, n);
+      }
+    }
+
+    double[] rv = v != null ? new double[n * n] : null;
+    if (rv != null) {
+      for (int i = 0; i < n; i++) {
+        rv[i + i * n] = 1;
+      }
+    }
+    jacobi(n, w, rv);
+
+    // Order the singular values descending
+    Integer[] order = new Integer[n];
+    double[] norms = new double[n];
+    for (int j = 0; j < n; j++) {
+      order[j] = j;
+      norms[j] = DoubleQr.nrm2(n, w, j * n);
+    }
+    Arrays.sort(order, (i, j) -> Double.compare(norms[j], norms[i]));
+    for (int j = 0; j < n; j++) {
+      s[j] = norms[order[j]];
+    }
+
+    if (v != null) {
+      for (int j = 0; j < n; j++) {
+        System.arraycopy(rv, order[j] * n, v, j * n, n);
+      }
+    }
+
+    if (u != null) {
+      // The left singular vectors of the triangular factor
+      double[] ur = new double[n * n];
+      double tolerance = n * EPSILON * (n > 0 ? s[0] : 0);
+      boolean deficient = false;
+      for (int j = 0; j < n; j++) {
+        if (s[j] > tolerance && s[j] > 0) {
+          int from = order[j] * n;
+          double scale = 1 / s[j];
+          for (int i = 0; i < n; i++) {
+            ur[i + j * n] = w[from + i] * scale;
+          }
+        } else {
+          deficient = true;
+        }
+      }
+      if (deficient) {
+        complete(n, ur, s, tolerance);
+      }
+
+      if (m > n) {
+        Arrays.fill(u, 0, m * ucols, 0);
+        for (int j = 0; j < n; j++) {
+          System.arraycopy(ur, j * n, u, j * m, n);
+        }
+        for (int j = n; j < ucols; j++) {
+          u[j + j * m] = 1;
+        }
+        DoubleQr.ormqr(true, false, m, ucols, n, qr, m, tau, u, m);
+      } else {
+        System.arraycopy(ur, 0, u, 0, n * n);
+      }
+    }
+  }
+
+  /**
+   * Applies Jacobi rotations to the columns of the {@code n x n} matrix {@code w} until they are
+   * mutually orthogonal, accumulating the rotations in {@code v} (if not {@code null}).
+   */
+  private static void jacobi(int n, double[] w, double[] v) {
+    double[] norms = new double[n];
+    for (int j = 0; j < n; j++) {
+      norms[j] = dot(n, w, j * n, j * n);
+    }
+
+    for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+      boolean rotated = false;
+      for (int p = 0; p < n - 1; p++) {
+        int pc = p * n;
+        for (int q = p + 1; q < n; q++) {
+          double alpha = norms[p];
+          double beta = norms[q];
+          if (alpha == 0 || beta == 0) {
+            continue;
+          }
+          int qc = q * n;
+          double gamma = dot(n, w, pc, qc);
+          if (Math.abs(gamma) <= EPSILON * Math.sqrt(alpha * beta)) {
+            continue;
+          }
+          rotated = true;
+
+          double zeta = (beta - alpha) / (2 * gamma);
+          double t = Math.copySign(1, zeta) / (Math.abs(zeta) + Math.sqrt(1 + zeta * zeta));
+          double c = 1 / Math.sqrt(1 + t * t);
+          double s = c * t;
+          rotate(n, w, pc, qc, c, s);
+          if (v != null) {
+            rotate(n, v, pc, qc, c, s);
+          }
+          norms[p] = alpha - t * gamma;
+          norms[q] = beta + t * gamma;
+        }
+      }
+
+      if (!rotated) {
+        return;
+      }
+
+      // Refresh the norms to avoid the accumulation of rounding errors
+      for (int j = 0; j < n; j++) {
+        norms[j] = dot(n, w, j * n, j * n);
+      }
+    }
+    throw new ArithmeticException("Jacobi sweeps failed to converge");
+  }
+
+  /**
+   * Replaces the columns of {@code u} corresponding to (numerically) zero singular values with
+   * an orthonormal basis for the complement of the remaining columns.
+   */
+  private static void complete(int n, double[] u, double[] s, double tolerance) {
+    double[] x = new double[n];
+    int candidate = 0;
+    for (int j = 0; j < n; j++) {
+      if (s[j] > tolerance && s[j] > 0) {
+        continue;
+      }
+      while (candidate < n) {
+        Arrays.fill(x, 0);
+        x[candidate++] = 1;
+        // Orthogonalize twice against the accepted columns
+        for (int pass = 0; pass < 2; pass++) {
+          for (int k = 0; k < n; k++) {
+            if (k == j || (k > j && !(s[k] > tolerance && s[k] > 0))) {
+              continue;
+            }
+            double d = dot(n, u, k * n, x);
+            for (int i = 0; i < n; i++) {
+              x[i] -= d * u[i + k * n];
+            }
+          }
+        }
+        double norm = DoubleQr.nrm2(n, x, 0);
+        if (norm > 0.5) {
+          for (int i = 0; i < n; i++) {
+            u[i + j * n] = x[i] / norm;
+          }
+          break;
+        }
+      }
+    }
+  }
+
+  private static double dot(int n, double[] w, int p, int q) {
+    double sum = 0;
+    for (int i = 0; i < n; i++) {
+      sum += w[p + i] * w[q + i];
+    }
+    return sum;
+  }
+
+  private static double dot(int n, double[] u, int p, double[] x) {
+    double sum = 0;
+    for (int i = 0; i < n; i++) {
+      sum += u[p + i] * x[i];
+    }
+    return sum;
+  }
+
+  private static void rotate(int n, double[] w, int p, int q, double c, double s) {
+    for (int i = 0; i < n; i++) {
+      double wp = w[p + i];
+      double wq = w[q + i];
+      w[p + i] = c * wp - s * wq;
+      w[q + i] = s * wp + c * wq;
+    }
+  }
+}
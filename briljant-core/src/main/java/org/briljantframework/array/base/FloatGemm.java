@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.Arrays;
+
+import org.briljantframework.array.FloatArray;
+
+/**
+ * A pure java implementation of {@code sgemm} for arrays with directly accessible storage.
+ *
+ * <p>
+ * Each column of {@code c} is accumulated in a double precision buffer, i.e., only the final
+ * result is rounded to single precision. If the rows of {@code op(a)} are contiguous (e.g., if
+ * {@code a} is transposed), each element is computed as an inner product; otherwise, the columns
+ * of {@code op(a)} are accumulated (scaled by the elements of the column of {@code op(b)}).
+ * Columns are computed in parallel for large products.
+ *
+ * @author Isak Karlsson
+ */
+final class FloatGemm {
+
+  private FloatGemm() {}
+
+  /**
+   * Computes {@code c <- alpha * op(a) * op(b) + beta * c}. The shapes are assumed to be checked
+   * by the caller.
+   */
+  static void gemm(boolean transA, boolean transB, float alpha, FloatArray a, FloatArray b,
+      float beta, FloatArray c) {
+    final int m = c.size(0);
+    final int n = c.size(1);
+    final int k = a.size(transA ? 0 : 1);
+    final float[] ad = a.data();
+    final float[] bd = b.data();
+    final float[] cd = c.data();
+    final int ao = a.getOffset(), ars = a.stride(transA ? 1 : 0), acs = a.stride(transA ? 0 : 1);
+    final int bo = b.getOffset(), brs = b.stride(transB ? 1 : 0), bcs = b.stride(transB ? 0 : 1);
+    final int co = c.getOffset(), crs = c.stride(0), ccs = c.stride(1);
+    final boolean inner = acs == 1 && ars != 1;
+    int work = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (long) m * k));
+    DoubleReductions.forEachRange(work, n, (from, to) -> {
+      double[] column = new double[m];
+      for (int j = from; j < to; j++) {
+        int bj = bo + j * bcs;
+        if (inner) {
+          for (int i = 0; i < m; i++) {
+            int ai = ao + i * ars;
+            double sum = 0;
+            for (int p = 0; p < k; p++) {
+              sum += (double) ad[ai + p] * bd[bj + p * brs];
+            }
+            column[i] = sum;
+          }
+        } else {
+          Arrays.fill(column, 0);
+          for (int p = 0; p < k; p++) {
+            double bpj = bd[bj + p * brs];
+            if (bpj != 0) {
+              int ap = ao + p * acs;
+              for (int i = 0; i < m; i++) {
+                column[i] += ad[ap + i * ars] * bpj;
+              }
+            }
+          }
+        }
+
+        int cj = co + j * ccs;
+        for (int i = 0; i < m; i++) {
+          int index = cj + i * crs;
+          // following BLAS, c is overwritten if beta is zero
+          double value = alpha * column[i];
+          cd[index] = (float) (beta == 0 ? value : value + beta * cd[index]);
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.stream.IntStream;
+
+import org.briljantframework.array.FloatArray;
+import org.briljantframework.array.Indexer;
+
+/**
+ * Reductions of float arrays operating directly on their storage (see
+ * {@link BaseArrayRoutines#hasDirectStorage(FloatArray)}). See {@link DoubleReductions} for a
+ * description of the traversal order and parallelization.
+ *
+ * <p>
+ * The elements are widened and accumulated in double precision, so the result of, e.g., a sum of
+ * many single precision values is only rounded once.
+ *
+ * @author Isak Karlsson
+ */
+final class FloatReductions {
+
+  private FloatReductions() {}
+
+  enum Op {
+    SUM(0), SUM_OF_SQUARES(0), MIN(Double.POSITIVE_INFINITY), MAX(Double.NEGATIVE_INFINITY);
+
+    final double identity;
+
+    Op(double identity) {
+      this.identity = identity;
+    }
+
+    double combine(double a, double b) {
+      switch (this) {
+        case SUM:
+        case SUM_OF_SQUARES:
+          return a + b;
+        case MIN:
+          return Math.min(a, b);
+        default:
+          return Math.max(a, b);
+      }
+    }
+  }
+
+  /**
+   * Reduces all elements of {@code x}, which must have directly accessible storage.
+   */
+  static double reduce(Op op, FloatArray x) {
+    float[] data = x.data();
+    StridedLayout layout = StridedLayout.of(x);
+    int size = layout.size();
+    int tasks = DoubleReductions.tasks(size);
+    if (tasks == 1) {
+      return reduce(op, data, layout, 0, size);
+    }
+
+    double[] partial = new double[tasks];
+    IntStream.range(0, tasks).parallel()
+        .forEach(t -> partial[t] = reduce(op, data, layout,
+            DoubleReductions.split(size, tasks, t), DoubleReductions.split(size, tasks, t + 1)));
+    double result = op.identity;
+    for (double value : partial) {
+      result = op.combine(result, value);
+    }
+    return result;
+  }
+
+  /**
+   * Reduces the vectors along dimension {@code dim} of the matrix {@code x}, which must have
+   * directly accessible storage.
+   */
+  static FloatArray reduce(Op op, int dim, FloatArray x) {
+    float[] data = x.data();
+    int n = x.size(dim);
+    int stride = x.stride(dim);
+    int vectors = x.size(1 - dim);
+    int vectorStride = x.stride(1 - dim);
+    int offset = x.getOffset();
+    double[] result = new double[vectors];
+
+    DoubleReductions.forEachRange(n, vectors, (from, to) -> {
+      if (Math.abs(stride) <= Math.abs(vectorStride)) {
+        for (int v = from; v < to; v++) {
+          result[v] = reduce(op, data, offset + v * vectorStride, stride, n);
+        }
+      } else {
+        java.util.Arrays.fill(result, from, to, op.identity);
+        for (int j = 0; j < n; j++) {
+          int position = offset + j * stride + from * vectorStride;
+          for (int v = from; v < to; v++, position += vectorStride) {
+            double value = data[position];
+            result[v] = op.combine(result[v], op == Op.SUM_OF_SQUARES ? value * value : value);
+          }
+        }
+      }
+    });
+
+    FloatArray reduced = x.newEmptyArray(Indexer.remove(x.getShape(), dim));
+    for (int i = 0; i < vectors; i++) {
+      reduced.set(i, (float) result[i]);
+    }
+    return reduced;
+  }
+
+  /**
+   * Returns the inner product of the first {@code n} elements of {@code a} and {@code b}.
+   */
+  static double inner(float[] a, float[] b, int n) {
+    int tasks = DoubleReductions.tasks(n);
+    if (tasks == 1) {
+      return inner(a, b, 0, n);
+    }
+    double[] partial = new double[tasks];
+    IntStream.range(0, tasks).parallel()
+        .forEach(t -> partial[t] = inner(a, b, DoubleReductions.split(n, tasks, t),
+            DoubleReductions.split(n, tasks, t + 1)));
+    double result = 0;
+    for (double value : partial) {
+      result += value;
+    }
+    return result;
+  }
+
+  private static double inner(float[] a, float[] b, int from, int to) {
+    double sum = 0;
+    for (int i = from; i < to; i++) {
+      sum += (double) a[i] * b[i];
+    }
+    return sum;
+  }
+
+  private static double reduce(Op op, float[] data, StridedLayout layout, int from, int to) {
+    double result = op.identity;
+    int length = layout.length();
+    int segment = from / length;
+    int index = from % length;
+    while (from < to) {
+      int n = Math.min(length - index, to - from);
+      int position = layout.position(segment) + index * layout.stride();
+      result = op.combine(result, reduce(op, data, position, layout.stride(), n));
+      from += n;
+      segment++;
+      index = 0;
+    }
+    return result;
+  }
+
+  private static double reduce(Op op, float[] data, int position, int stride, int n) {
+    switch (op) {
+      case SUM: {
+        double sum = 0;
+        for (int i = 0; i < n; i++, position += stride) {
+          sum += data[position];
+        }
+        return sum;
+      }
+      case SUM_OF_SQUARES: {
+        double sum = 0;
+        for (int i = 0; i < n; i++, position += stride) {
+          double value = data[position];
+          sum += value * value;
+        }
+        return sum;
+      }
+      case MIN: {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++, position += stride) {
+          min = Math.min(min, data[position]);
+        }
+        return min;
+      }
+      default: {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++, position += stride) {
+          max = Math.max(max, data[position]);
+        }
+        return max;
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+/**
+ * Gather and scatter kernels for dense (column-major) storage of any primitive type. An array is
+ * viewed as a {@code [inner, n, outer]} array, where {@code n} is the size of the indexed dimension
+ * and {@code inner} ({@code outer}) is the product of the sizes of the dimensions before (after)
+ * it. Hence, each index selects {@code outer} contiguous blocks of {@code inner} elements, and runs
+ * of consecutive indices select longer blocks, which are copied using {@link System#arraycopy}.
+ *
+ * @author Isak Karlsson
+ */
+final class Gather {
+
+  private Gather() {}
+
+  /**
+   * Copies {@code src[:, index[i], :]} to {@code dst[:, i, :]} for {@code i} in
+   * {@code [from, to)}, where {@code src} has {@code n} and {@code dst} has {@code m} elements
+   * along the indexed dimension.
+   */
+  static void take(Object src, int n, int inner, int outer, int[] index, int from, int to,
+      Object dst, int m) {
+    for (int b = 0; b < outer; b++) {
+      for (int i = from; i < to;) {
+        int run = run(index, i, to);
+        copy(src, inner * (index[i] + n * b), dst, inner * (i + m * b), inner * run);
+        i += run;
+      }
+    }
+  }
+
+  /**
+   * Copies {@code src[:, i, :]} to {@code dst[:, index[i], :]} for the outer blocks in
+   * {@code [from, to)}, where {@code dst} has {@code n} and {@code src} has {@code m} elements
+   * along the indexed dimension. If an index is repeated, the last value is retained.
+   */
+  static void put(Object dst, int n, int inner, int from, int to, int[] index, Object src, int m) {
+    for (int b = from; b < to; b++) {
+      for (int i = 0; i < m;) {
+        int run = run(index, i, m);
+        copy(src, inner * (i + m * b), dst, inner * (index[i] + n * b), inner * run);
+        i += run;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of consecutive indices starting at {@code index[i]}.
+   */
+  private static int run(int[] index, int i, int to) {
+    int run = 1;
+    while (i + run < to && index[i + run] == index[i] + run) {
+      run++;
+    }
+    return run;
+  }
+
+  private static void copy(Object src, int srcPos, Object dst, int dstPos, int length) {
+    if (length > 1) {
+      System.arraycopy(src, srcPos, dst, dstPos, length);
+    } else if (src instanceof double[]) {
+      ((double[]) dst)[dstPos] = ((double[]) src)[srcPos];
+    } else if (src instanceof int[]) {
+      ((int[]) dst)[dstPos] = ((int[]) src)[srcPos];
+    } else if (src instanceof long[]) {
+      ((long[]) dst)[dstPos] = ((long[]) src)[srcPos];
+    } else {
+      System.arraycopy(src, srcPos, dst, dstPos, length);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.stream.IntStream;
+
+import org.briljantframework.array.IntArray;
+import org.briljantframework.array.Indexer;
+
+/**
+ * Reductions of int arrays operating directly on their storage (see
+ * {@link BaseArrayRoutines#hasDirectStorage(IntArray)}). See
+ * {@link DoubleReductions} for a description of the traversal order and parallelization.
+ * Sums overflow (silently) as for ordinary {@code int} arithmetic.
+ *
+ * @author Isak Karlsson
+ */
+final class IntReductions {
+
+  private IntReductions() {}
+
+  enum Op {
+    SUM(0), MIN(Integer.MAX_VALUE), MAX(Integer.MIN_VALUE);
+
+    final int identity;
+
+    Op(int identity) {
+      this.identity = identity;
+    }
+
+    int combine(int a, int b) {
+      switch (this) {
+        case SUM:
+          return a + b;
+        case MIN:
+          return Math.min(a, b);
+        default:
+          return Math.max(a, b);
+      }
+    }
+  }
+
+  /**
+   * Reduces all elements of {@code x}, which must have directly accessible storage.
+   */
+  static int reduce(Op op, IntArray x) {
+    int[] data = x.data();
+    StridedLayout layout = StridedLayout.of(x);
+    int size = layout.size();
+    if (size == 0) {
+      return op.identity;
+    }
+    int tasks = DoubleReductions.tasks(size);
+    if (tasks == 1) {
+      return reduce(op, data, layout, 0, size);
+    }
+
+    int[] partial = new int[tasks];
+    IntStream.range(0, tasks).parallel()
+        .forEach(t -> partial[t] = reduce(op, data, layout,
+            DoubleReductions.split(size, tasks, t), DoubleReductions.split(size, tasks, t + 1)));
+    int result = op.identity;
+    for (int value : partial) {
+      result = op.combine(result, value);
+    }
+    return result;
+  }
+
+  /**
+   * Reduces the vectors along dimension {@code dim} of the matrix {@code x}, which must have
+   * directly accessible storage.
+   */
+  static IntArray reduce(Op op, int dim, IntArray x) {
+    int[] data = x.data();
+    int n = x.size(dim);
+    int stride = x.stride(dim);
+    int vectors = x.size(1 - dim);
+    int vectorStride = x.stride(1 - dim);
+    int offset = x.getOffset();
+    int[] result = new int[vectors];
+
+    DoubleReductions.forEachRange(n, vectors, (from, to) -> {
+      if (Math.abs(stride) <= Math.abs(vectorStride)) {
+        for (int v = from; v < to; v++) {
+          result[v] = reduce(op, data, offset + v * vectorStride, stride, n);
+        }
+      } else {
+        java.util.Arrays.fill(result, from, to, op.identity);
+        for (int j = 0; j < n; j++) {
+          int position = offset + j * stride + from * vectorStride;
+          for (int v = from; v < to; v++, position += vectorStride) {
+            result[v] = op.combine(result[v], data[position]);
+          }
+        }
+      }
+    });
+
+    IntArray reduced = x.newEmptyArray(Indexer.remove(x.getShape(), dim));
+    reduced.assign(result);
+    return reduced;
+  }
+
+  private static int reduce(Op op, int[] data, StridedLayout layout, int from, int to) {
+    int result = op.identity;
+    int length = layout.length();
+    int segment = from / length;
+    int index = from % length;
+    while (from < to) {
+      int n = Math.min(length - index, to - from);
+      int position = layout.position(segment) + index * layout.stride();
+      result = op.combine(result, reduce(op, data, position, layout.stride(), n));
+      from += n;
+      segment++;
+      index = 0;
+    }
+    return result;
+  }
+
+  private static int reduce(Op op, int[] data, int position, int stride, int n) {
+    switch (op) {
+      case SUM: {
+        int sum = 0;
+        for (int i = 0; i < n; i++, position += stride) {
+          sum += data[position];
+        }
+        return sum;
+      }
+      case MIN: {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++, position += stride) {
+          min = Math.min(min, data[position]);
+        }
+        return min;
+      }
+      default: {
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++, position += stride) {
+          max = Math.max(max, data[position]);
+        }
+        return max;
+      }
+    }
+  }
+}
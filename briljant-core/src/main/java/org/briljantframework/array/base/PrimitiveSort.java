@@ -0,0 +1,453 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Sorting kernels for dense, column-major primitive storage. Integer and long keys are sorted with
+ * a stable least-significant-digit radix sort, eight bits per pass, where passes in which every key
+ * has the same digit are skipped. Doubles are sorted with {@link Arrays#sort(double[])} or, for
+ * large arrays, {@link Arrays#parallelSort(double[])}. Permutations of doubles are computed by
+ * radix sorting the order-preserving {@code long} transform of the values, which orders values
+ * as {@link Double#compare(double, double)}.
+ *
+ * <p>
+ * Sorting along a dimension sorts each vector independently, in parallel for large arrays.
+ *
+ * @author Isak Karlsson
+ */
+final class PrimitiveSort {
+
+  /**
+   * Permutations of at most this many elements are computed using a stable insertion sort.
+   */
+  static final int INSERTION_THRESHOLD = 32;
+
+  /**
+   * Integer and long values are radix sorted if there are at least this many elements.
+   */
+  static final int RADIX_THRESHOLD = 1024;
+
+  private static final int RADIX = 256;
+  private static final int MASK = RADIX - 1;
+
+  private PrimitiveSort() {}
+
+  static void sort(double[] values) {
+    if (values.length >= DoubleReductions.PARALLEL_THRESHOLD) {
+      Arrays.parallelSort(values);
+    } else {
+      Arrays.sort(values);
+    }
+  }
+
+  static void sort(int[] values) {
+    sort(values, DoubleReductions.tasks(values.length));
+  }
+
+  static void sort(long[] values) {
+    sort(values, DoubleReductions.tasks(values.length));
+  }
+
+  static int[] argsort(double[] values) {
+    return argsort(sortableKeys(values), DoubleReductions.tasks(values.length));
+  }
+
+  static int[] argsort(int[] values) {
+    return argsort(values.clone(), DoubleReductions.tasks(values.length));
+  }
+
+  static int[] argsort(long[] values) {
+    return argsort(values.clone(), DoubleReductions.tasks(values.length));
+  }
+
+  /**
+   * Sorts each vector along {@code dim} of the column-major array {@code data} with the given
+   * shape.
+   */
+  static void sort(int dim, int[] shape, double[] data) {
+    VectorLayout layout = new VectorLayout(dim, shape);
+    int n = layout.length;
+    DoubleReductions.forEachRange(n, layout.vectors, (from, to) -> {
+      double[] buffer = layout.stride == 1 ? null : new double[n];
+      for (int i = from; i < to; i++) {
+        int position = layout.position(i);
+        if (buffer == null) {
+          Arrays.sort(data, position, position + n);
+        } else {
+          for (int j = 0; j < n; j++) {
+            buffer[j] = data[position + j * layout.stride];
+          }
+          Arrays.sort(buffer);
+          for (int j = 0; j < n; j++) {
+            data[position + j * layout.stride] = buffer[j];
+          }
+        }
+      }
+    });
+  }
+
+  static void sort(int dim, int[] shape, int[] data) {
+    VectorLayout layout = new VectorLayout(dim, shape);
+    int n = layout.length;
+    DoubleReductions.forEachRange(n, layout.vectors, (from, to) -> {
+      int[] buffer = new int[n];
+      for (int i = from; i < to; i++) {
+        int position = layout.position(i);
+        for (int j = 0; j < n; j++) {
+          buffer[j] = data[position + j * layout.stride];
+        }
+        sort(buffer, 1);
+        for (int j = 0; j < n; j++) {
+          data[position + j * layout.stride] = buffer[j];
+        }
+      }
+    });
+  }
+
+  static void sort(int dim, int[] shape, long[] data) {
+    VectorLayout layout = new VectorLayout(dim, shape);
+    int n = layout.length;
+    DoubleReductions.forEachRange(n, layout.vectors, (from, to) -> {
+      long[] buffer = new long[n];
+      for (int i = from; i < to; i++) {
+        int position = layout.position(i);
+        for (int j = 0; j < n; j++) {
+          buffer[j] = data[position + j * layout.stride];
+        }
+        sort(buffer, 1);
+        for (int j = 0; j < n; j++) {
+          data[position + j * layout.stride] = buffer[j];
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns, in column-major order, the position within its vector along {@code dim} of each
+   * element of the sorted vectors of the column-major array {@code data}.
+   */
+  static int[] argsort(int dim, int[] shape, double[] data) {
+    VectorLayout layout = new VectorLayout(dim, shape);
+    int n = layout.length;
+    int[] order = new int[data.length];
+    DoubleReductions.forEachRange(n, layout.vectors, (from, to) -> {
+      long[] keys = new long[n];
+      for (int i = from; i < to; i++) {
+        int position = layout.position(i);
+        for (int j = 0; j < n; j++) {
+          keys[j] = sortableKey(data[position + j * layout.stride]);
+        }
+        layout.scatter(argsort(keys, 1), order, position);
+      }
+    });
+    return order;
+  }
+
+  static int[] argsort(int dim, int[] shape, int[] data) {
+    VectorLayout layout = new VectorLayout(dim, shape);
+    int n = layout.length;
+    int[] order = new int[data.length];
+    DoubleReductions.forEachRange(n, layout.vectors, (from, to) -> {
+      int[] keys = new int[n];
+      for (int i = from; i < to; i++) {
+        int position = layout.position(i);
+        for (int j = 0; j < n; j++) {
+          keys[j] = data[position + j * layout.stride];
+        }
+        layout.scatter(argsort(keys, 1), order, position);
+      }
+    });
+    return order;
+  }
+
+  static int[] argsort(int dim, int[] shape, long[] data) {
+    VectorLayout layout = new VectorLayout(dim, shape);
+    int n = layout.length;
+    int[] order = new int[data.length];
+    DoubleReductions.forEachRange(n, layout.vectors, (from, to) -> {
+      long[] keys = new long[n];
+      for (int i = from; i < to; i++) {
+        int position = layout.position(i);
+        for (int j = 0; j < n; j++) {
+          keys[j] = data[position + j * layout.stride];
+        }
+        layout.scatter(argsort(keys, 1), order, position);
+      }
+    });
+    return order;
+  }
+
+  /**
+   * Maps a double to a long with the same order as {@link Double#compare(double, double)}, i.e.,
+   * {@code -0.0 < 0.0} and {@code NaN} is larger than every other value.
+   */
+  static long sortableKey(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return bits ^ ((bits >> 63) >>> 1);
+  }
+
+  private static long[] sortableKeys(double[] values) {
+    long[] keys = new long[values.length];
+    for (int i = 0; i < values.length; i++) {
+      keys[i] = sortableKey(values[i]);
+    }
+    return keys;
+  }
+
+  private static void sort(int[] values, int tasks) {
+    if (values.length < RADIX_THRESHOLD) {
+      Arrays.sort(values);
+    } else {
+      radixSort(values, null, tasks);
+    }
+  }
+
+  private static void sort(long[] values, int tasks) {
+    if (values.length < RADIX_THRESHOLD) {
+      Arrays.sort(values);
+    } else {
+      radixSort(values, null, tasks);
+    }
+  }
+
+  /**
+   * Returns the stable sort permutation of {@code keys}; the keys are sorted in the process.
+   */
+  private static int[] argsort(int[] keys, int tasks) {
+    int n = keys.length;
+    int[] index = new int[n];
+    for (int i = 0; i < n; i++) {
+      index[i] = i;
+    }
+    if (n <= INSERTION_THRESHOLD) {
+      for (int i = 1; i < n; i++) {
+        int key = keys[i];
+        int j = i - 1;
+        while (j >= 0 && keys[j] > key) {
+          keys[j + 1] = keys[j];
+          index[j + 1] = index[j];
+          j--;
+        }
+        keys[j + 1] = key;
+        index[j + 1] = i;
+      }
+    } else {
+      radixSort(keys, index, tasks);
+    }
+    return index;
+  }
+
+  private static int[] argsort(long[] keys, int tasks) {
+    int n = keys.length;
+    int[] index = new int[n];
+    for (int i = 0; i < n; i++) {
+      index[i] = i;
+    }
+    if (n <= INSERTION_THRESHOLD) {
+      for (int i = 1; i < n; i++) {
+        long key = keys[i];
+        int j = i - 1;
+        while (j >= 0 && keys[j] > key) {
+          keys[j + 1] = keys[j];
+          index[j + 1] = index[j];
+          j--;
+        }
+        keys[j + 1] = key;
+        index[j + 1] = i;
+      }
+    } else {
+      radixSort(keys, index, tasks);
+    }
+    return index;
+  }
+
+  /**
+   * Stable radix sort of {@code keys}, applying the same permutation to {@code index} unless it is
+   * {@code null}. Each pass histograms and scatters {@code tasks} consecutive ranges in parallel;
+   * since the offsets of a digit are assigned to the ranges in order, the result is independent of
+   * the number of tasks.
+   */
+  private static void radixSort(int[] keys, int[] index, int tasks) {
+    int n = keys.length;
+    int[][] counts = new int[tasks][RADIX];
+    int[] src = keys, dst = new int[n];
+    int[] srcIndex = index, dstIndex = index != null ? new int[n] : null;
+    for (int shift = 0; shift < Integer.SIZE; shift += 8) {
+      int s = shift;
+      int[] from = src, to = dst, fromIndex = srcIndex, toIndex = dstIndex;
+      forEachTask(n, tasks, (t, lo, hi) -> {
+        int[] count = counts[t];
+        Arrays.fill(count, 0);
+        for (int i = lo; i < hi; i++) {
+          count[digit(from[i], s)]++;
+        }
+      });
+      if (!offsets(counts, n)) {
+        continue;
+      }
+      forEachTask(n, tasks, (t, lo, hi) -> {
+        int[] offset = counts[t];
+        for (int i = lo; i < hi; i++) {
+          int p = offset[digit(from[i], s)]++;
+          to[p] = from[i];
+          if (toIndex != null) {
+            toIndex[p] = fromIndex[i];
+          }
+        }
+      });
+      src = to;
+      dst = from;
+      srcIndex = toIndex;
+      dstIndex = fromIndex;
+    }
+    if (src != keys) {
+      System.arraycopy(src, 0, keys, 0, n);
+      if (index != null) {
+        System.arraycopy(srcIndex, 0, index, 0, n);
+      }
+    }
+  }
+
+  private static void radixSort(long[] keys, int[] index, int tasks) {
+    int n = keys.length;
+    int[][] counts = new int[tasks][RADIX];
+    long[] src = keys, dst = new long[n];
+    int[] srcIndex = index, dstIndex = index != null ? new int[n] : null;
+    for (int shift = 0; shift < Long.SIZE; shift += 8) {
+      int s = shift;
+      long[] from = src, to = dst;
+      int[] fromIndex = srcIndex, toIndex = dstIndex;
+      forEachTask(n, tasks, (t, lo, hi) -> {
+        int[] count = counts[t];
+        Arrays.fill(count, 0);
+        for (int i = lo; i < hi; i++) {
+          count[digit(from[i], s)]++;
+        }
+      });
+      if (!offsets(counts, n)) {
+        continue;
+      }
+      forEachTask(n, tasks, (t, lo, hi) -> {
+        int[] offset = counts[t];
+        for (int i = lo; i < hi; i++) {
+          int p = offset[digit(from[i], s)]++;
+          to[p] = from[i];
+          if (toIndex != null) {
+            toIndex[p] = fromIndex[i];
+          }
+        }
+      });
+      src = to;
+      dst = from;
+      srcIndex = toIndex;
+      dstIndex = fromIndex;
+    }
+    if (src != keys) {
+      System.arraycopy(src, 0, keys, 0, n);
+      if (index != null) {
+        System.arraycopy(srcIndex, 0, index, 0, n);
+      }
+    }
+  }
+
+  /**
+   * Replaces the per-task digit counts with the position where each task writes its first key with
+   * that digit. Returns {@code false} if all {@code n} keys share the same digit, in which case the
+   * pass can be skipped.
+   */
+  private static boolean offsets(int[][] counts, int n) {
+    int total = 0;
+    for (int d = 0; d < RADIX; d++) {
+      int digitTotal = 0;
+      for (int[] count : counts) {
+        digitTotal += count[d];
+      }
+      if (digitTotal == n) {
+        return false;
+      }
+      for (int[] count : counts) {
+        int c = count[d];
+        count[d] = total;
+        total += c;
+      }
+    }
+    return true;
+  }
+
+  private static int digit(int key, int shift) {
+    return ((key ^ Integer.MIN_VALUE) >>> shift) & MASK;
+  }
+
+  private static int digit(long key, int shift) {
+    return (int) ((key ^ Long.MIN_VALUE) >>> shift) & MASK;
+  }
+
+  private static void forEachTask(int n, int tasks, TaskAction action) {
+    if (tasks <= 1) {
+      action.apply(0, 0, n);
+    } else {
+      IntStream.range(0, tasks).parallel().forEach(t -> action
+          .apply(t, DoubleReductions.split(n, tasks, t), DoubleReductions.split(n, tasks, t + 1)));
+    }
+  }
+
+  @FunctionalInterface
+  private interface TaskAction {
+
+    void apply(int task, int from, int to);
+  }
+
+  /**
+   * The vectors along a dimension of a dense column-major array.
+   */
+  private static final class VectorLayout {
+
+    private final int vectors, length, stride;
+
+    VectorLayout(int dim, int[] shape) {
+      int inner = 1;
+      int size = 1;
+      for (int i = 0; i < shape.length; i++) {
+        if (i < dim) {
+          inner *= shape[i];
+        }
+        size *= shape[i];
+      }
+      this.length = shape[dim];
+      this.stride = inner;
+      this.vectors = length == 0 ? 0 : size / length;
+    }
+
+    int position(int vector) {
+      return vector % stride + (vector / stride) * stride * length;
+    }
+
+    void scatter(int[] order, int[] to, int position) {
+      for (int j = 0; j < length; j++) {
+        to[position + j * stride] = order[j];
+      }
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import java.util.stream.IntStream;
+
+import org.briljantframework.array.SparseDoubleMatrix;
+
+/**
+ * Sparse-dense matrix products. The dense operands are given as column-major storage.
+ *
+ * <p>
+ * If the major vectors of the sparse matrix are the rows of {@code op(a)} (e.g., a CSR matrix
+ * which is not transposed), each element of the result is an inner product of a major vector
+ * (<i>gather</i>); otherwise, each major vector is added to the result (<i>scatter</i>). Gathers
+ * are computed in parallel over disjoint ranges of the result. Scatters are computed in parallel
+ * over disjoint ranges of the major vectors, each accumulating in a private buffer.
+ *
+ * @author Isak Karlsson
+ */
+final class SparseKernels {
+
+  private SparseKernels() {}
+
+  /**
+   * Computes {@code y <- alpha * op(a) * x + beta * y}, where {@code y} has {@code m} elements.
+   */
+  static void gemv(boolean transpose, double alpha, SparseDoubleMatrix a, double[] x,
+      double beta, double[] y, int m) {
+    int[] pointers = a.pointers();
+    if (isGather(transpose, a)) {
+      int n = Math.max(1, a.nonZeros() / Math.max(1, m));
+      DoubleReductions.forEachRange(n, m,
+          (from, to) -> gather(alpha, a, x, 0, 1, beta, y, 0, from, to));
+    } else {
+      scale(beta, y, 0, m);
+      int major = pointers.length - 1;
+      int tasks = Math.min(major, DoubleReductions.tasks(a.nonZeros()));
+      if (tasks <= 1) {
+        scatter(alpha, a, x, 0, 1, y, 0, 0, major);
+      } else {
+        double[][] partial = new double[tasks][];
+        IntStream.range(0, tasks).parallel().forEach(t -> {
+          partial[t] = new double[m];
+          scatter(alpha, a, x, 0, 1, partial[t], 0, DoubleReductions.split(major, tasks, t),
+              DoubleReductions.split(major, tasks, t + 1));
+        });
+        DoubleReductions.forEachRange(tasks, m, (from, to) -> {
+          for (double[] values : partial) {
+            for (int i = from; i < to; i++) {
+              y[i] += values[i];
+            }
+          }
+        });
+      }
+    }
+  }
+
+  /**
+   * Computes {@code c <- alpha * op(a) * op(b) + beta * c}, where {@code b} has {@code ldb} rows
+   * and {@code c} has {@code m} rows and {@code n} columns. The columns of {@code c} are computed
+   * in parallel.
+   */
+  static void gemm(boolean transA, boolean transB, double alpha, SparseDoubleMatrix a, double[] b,
+      int ldb, double beta, double[] c, int m, int n) {
+    boolean gather = isGather(transA, a);
+    // column j of op(b) starts at position j * ldb (with stride 1) or j (with stride ldb)
+    int offset = transB ? 1 : ldb;
+    int stride = transB ? ldb : 1;
+    int major = a.pointers().length - 1;
+    DoubleReductions.forEachRange(Math.max(1, a.nonZeros()), n, (from, to) -> {
+      for (int j = from; j < to; j++) {
+        if (gather) {
+          gather(alpha, a, b, j * offset, stride, beta, c, j * m, 0, m);
+        } else {
+          scale(beta, c, j * m, m);
+          scatter(alpha, a, b, j * offset, stride, c, j * m, 0, major);
+        }
+      }
+    });
+  }
+
+  private static boolean isGather(boolean transpose, SparseDoubleMatrix a) {
+    return (a.getFormat() == SparseDoubleMatrix.Format.CSR) != transpose;
+  }
+
+  /**
+   * Computes {@code y[yOffset + k] <- alpha * a[k] * x + beta * y[yOffset + k]} for the major
+   * vectors {@code a[k]}, {@code k} in {@code [from, to)}.
+   */
+  private static void gather(double alpha, SparseDoubleMatrix a, double[] x, int xOffset,
+      int xStride, double beta, double[] y, int yOffset, int from, int to) {
+    int[] pointers = a.pointers();
+    int[] indices = a.indices();
+    double[] values = a.values();
+    for (int k = from; k < to; k++) {
+      double sum = 0;
+      for (int p = pointers[k], end = pointers[k + 1]; p < end; p++) {
+        sum += values[p] * x[xOffset + indices[p] * xStride];
+      }
+      // following BLAS, y is overwritten if beta is zero
+      y[yOffset + k] = alpha * sum + (beta == 0 ? 0 : beta * y[yOffset + k]);
+    }
+  }
+
+  /**
+   * Computes {@code y <- y + alpha * x[k] * a[k]} for the major vectors {@code a[k]}, {@code k}
+   * in {@code [from, to)}.
+   */
+  private static void scatter(double alpha, SparseDoubleMatrix a, double[] x, int xOffset,
+      int xStride, double[] y, int yOffset, int from, int to) {
+    int[] pointers = a.pointers();
+    int[] indices = a.indices();
+    double[] values = a.values();
+    for (int k = from; k < to; k++) {
+      double xk = alpha * x[xOffset + k * xStride];
+      if (xk != 0) {
+        for (int p = pointers[k], end = pointers[k + 1]; p < end; p++) {
+          y[yOffset + indices[p]] += values[p] * xk;
+        }
+      }
+    }
+  }
+
+  private static void scale(double beta, double[] y, int offset, int length) {
+    if (beta == 0) {
+      java.util.Arrays.fill(y, offset, offset + length, 0);
+    } else if (beta != 1) {
+      for (int i = offset; i < offset + length; i++) {
+        y[i] *= beta;
+      }
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import org.briljantframework.array.BaseArray;
+import org.briljantframework.array.Indexer;
+
+/**
+ * Describes the elements of an array as a sequence of equally long and equally strided
+ * segments. The inner (segment) dimension is the dimension with the smallest stride, so that
+ * iterating a segment touches the underlying storage as sequentially as possible. Arrays whose
+ * elements are densely stored in column-major order form a single segment.
+ *
+ * <p>
+ * The elements are enumerated segment by segment, i.e., element {@code k} is element
+ * {@code k % length()} of segment {@code k / length()}. Note that this order differs from the
+ * linearized (column-major) order of the array unless the inner dimension is the first.
+ *
+ * @author Isak Karlsson
+ */
+final class StridedLayout {
+
+  private final int offset;
+  private final int length;
+  private final int stride;
+  private final int segments;
+  private final int[] outerShape;
+  private final int[] outerStride;
+
+  private StridedLayout(int offset, int length, int stride, int[] outerShape, int[] outerStride) {
+    this.offset = offset;
+    this.length = length;
+    this.stride = stride;
+    this.outerShape = outerShape;
+    this.outerStride = outerStride;
+    int segments = 1;
+    for (int size : outerShape) {
+      segments *= size;
+    }
+    this.segments = segments;
+  }
+
+  static StridedLayout of(BaseArray<?> x) {
+    int[] shape = x.getShape();
+    int[] stride = x.getStride();
+    if (x.isContiguous() && java.util.Arrays.equals(stride, Indexer.computeStride(1, shape))) {
+      return new StridedLayout(x.getOffset(), x.size(), 1, new int[0], new int[0]);
+    }
+
+    int inner = 0;
+    for (int d = 1; d < shape.length; d++) {
+      if (shape[inner] == 1 || shape[d] > 1 && Math.abs(stride[d]) < Math.abs(stride[inner])) {
+        inner = d;
+      }
+    }
+    return new StridedLayout(x.getOffset(), shape[inner], stride[inner],
+        Indexer.remove(shape, inner), Indexer.remove(stride, inner));
+  }
+
+  /**
+   * Returns the number of elements in each segment.
+   */
+  int length() {
+    return length;
+  }
+
+  /**
+   * Returns the distance (in the underlying storage) between consecutive elements of a segment.
+   */
+  int stride() {
+    return stride;
+  }
+
+  /**
+   * Returns the number of segments.
+   */
+  int segments() {
+    return segments;
+  }
+
+  /**
+   * Returns the total number of elements.
+   */
+  int size() {
+    return length * segments;
+  }
+
+  /**
+   * Returns the position (in the underlying storage) of the first element of the given segment.
+   */
+  int position(int segment) {
+    int position = offset;
+    for (int d = 0; d < outerShape.length; d++) {
+      position += (segment % outerShape[d]) * outerStride[d];
+      segment /= outerShape[d];
+    }
+    return position;
+  }
+}
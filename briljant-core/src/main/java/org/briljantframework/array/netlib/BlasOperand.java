@@ -0,0 +1,188 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.netlib;
+
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.FloatArray;
+
+/**
+ * Describes the elements of a double (or float) array as a BLAS operand, i.e., as a
+ * {@code double[]} (or {@code float[]}), an offset and an increment (for vectors) or a leading
+ * dimension (for matrices).
+ *
+ * <p>
+ * Arrays with directly accessible storage are described without copying whenever their strides
+ * can be expressed this way. This includes sub-matrix views (the leading dimension is the column
+ * stride of the parent) and transposed views, which are described as the column-major storage of
+ * the transpose (see {@link #isTransposed()}). Other arrays are copied to a dense column-major
+ * array; for arrays that are written to, {@link #writeBack(DoubleArray)} copies the result back.
+ *
+ * @author Isak Karlsson
+ */
+final class BlasOperand {
+
+  private final double[] data;
+  private final float[] floats;
+  private final int offset;
+  private final int increment;
+  private final boolean transposed;
+  private final boolean copied;
+
+  private BlasOperand(double[] data, int offset, int increment, boolean transposed,
+      boolean copied) {
+    this(data, null, offset, increment, transposed, copied);
+  }
+
+  private BlasOperand(float[] floats, int offset, int increment, boolean transposed,
+      boolean copied) {
+    this(null, floats, offset, increment, transposed, copied);
+  }
+
+  private BlasOperand(double[] data, float[] floats, int offset, int increment,
+      boolean transposed, boolean copied) {
+    this.data = data;
+    this.floats = floats;
+    this.offset = offset;
+    this.increment = increment;
+    this.transposed = transposed;
+    this.copied = copied;
+  }
+
+  /**
+   * @param x a vector
+   * @param direct true if {@code x.data()} returns the storage of {@code x}
+   * @return a vector operand
+   */
+  static BlasOperand vector(DoubleArray x, boolean direct) {
+    if (direct) {
+      int increment = x.size() <= 1 ? 1 : vectorStride(x);
+      if (increment > 0) {
+        return new BlasOperand(x.data(), x.getOffset(), increment, false, false);
+      }
+    }
+    return new BlasOperand(values(x), 0, 1, false, true);
+  }
+
+  /**
+   * @param x a matrix
+   * @param direct true if {@code x.data()} returns the storage of {@code x}
+   * @return a matrix operand
+   */
+  static BlasOperand matrix(DoubleArray x, boolean direct) {
+    int ld = direct ? leadingDimension(x.rows(), x.columns(), x.stride(0), x.stride(1)) : 0;
+    if (ld != 0) {
+      return new BlasOperand(x.data(), x.getOffset(), Math.abs(ld), ld < 0, false);
+    }
+    return new BlasOperand(values(x), 0, Math.max(1, x.rows()), false, true);
+  }
+
+  /**
+   * @param x a matrix
+   * @param direct true if {@code x.data()} returns the storage of {@code x}
+   * @return a single precision matrix operand
+   */
+  static BlasOperand matrix(FloatArray x, boolean direct) {
+    int ld = direct ? leadingDimension(x.rows(), x.columns(), x.stride(0), x.stride(1)) : 0;
+    if (ld != 0) {
+      return new BlasOperand(x.data(), x.getOffset(), Math.abs(ld), ld < 0, false);
+    }
+    return new BlasOperand(x.copy().data(), 0, Math.max(1, x.rows()), false, true);
+  }
+
+  /**
+   * Returns the leading dimension of a matrix with the given strides, negated if the storage
+   * describes the transpose, or {@code 0} if the strides cannot be expressed.
+   */
+  private static int leadingDimension(int rows, int columns, int rowStride, int columnStride) {
+    if ((rows == 1 || rowStride == 1) && (columns == 1 || columnStride >= Math.max(1, rows))) {
+      return columns == 1 ? Math.max(1, rows) : columnStride;
+    }
+    if ((columns == 1 || columnStride == 1) && (rows == 1 || rowStride >= Math.max(1, columns))) {
+      return -(rows == 1 ? Math.max(1, columns) : rowStride);
+    }
+    return 0;
+  }
+
+  private static int vectorStride(DoubleArray x) {
+    if (x.dims() == 1) {
+      return x.stride(0);
+    } else if (x.isMatrix()) {
+      return x.rows() == 1 ? x.stride(1) : x.stride(0);
+    } else {
+      return -1;
+    }
+  }
+
+  private static double[] values(DoubleArray x) {
+    double[] values = new double[x.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = x.get(i);
+    }
+    return values;
+  }
+
+  double[] data() {
+    return data;
+  }
+
+  float[] floats() {
+    return floats;
+  }
+
+  int offset() {
+    return offset;
+  }
+
+  /**
+   * @return the increment of a vector operand or the leading dimension of a matrix operand
+   */
+  int increment() {
+    return increment;
+  }
+
+  /**
+   * @return true if the storage describes the transpose of the matrix, in column-major order
+   */
+  boolean isTransposed() {
+    return transposed;
+  }
+
+  /**
+   * Copies the result back to {@code x}, if the operand is a copy of {@code x}.
+   *
+   * @param x the array described by this operand
+   */
+  void writeBack(DoubleArray x) {
+    if (copied) {
+      x.assign(data);
+    }
+  }
+
+  /**
+   * @see #writeBack(DoubleArray)
+   */
+  void writeBack(FloatArray x) {
+    if (copied) {
+      x.assign(floats);
+    }
+  }
+}
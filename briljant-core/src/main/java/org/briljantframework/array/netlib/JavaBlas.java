@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.netlib;
+
+/**
+ * Java implementations of the level 1 and 2 BLAS routines used by {@link NetlibArrayRoutines},
+ * with the same arguments and results as their BLAS counterparts. For small operands, these avoid
+ * the call overhead of the native library.
+ *
+ * <p>
+ * Increments are assumed to be positive.
+ *
+ * @author Isak Karlsson
+ */
+final class JavaBlas {
+
+  private JavaBlas() {}
+
+  static double ddot(int n, double[] x, int xOffset, int incX, double[] y, int yOffset, int incY) {
+    double sum = 0;
+    for (int i = 0; i < n; i++) {
+      sum += x[xOffset + i * incX] * y[yOffset + i * incY];
+    }
+    return sum;
+  }
+
+  static void daxpy(int n, double alpha, double[] x, int xOffset, int incX, double[] y,
+      int yOffset, int incY) {
+    for (int i = 0; i < n; i++) {
+      y[yOffset + i * incY] += alpha * x[xOffset + i * incX];
+    }
+  }
+
+  /**
+   * {@code y <- alpha * op(a) * x + beta * y}, where {@code a} is {@code m x n} with leading
+   * dimension {@code lda}; if {@code beta == 0}, y is overwritten.
+   */
+  static void dgemv(boolean transA, int m, int n, double alpha, double[] a, int aOffset, int lda,
+      double[] x, int xOffset, int incX, double beta, double[] y, int yOffset, int incY) {
+    if (transA) {
+      for (int j = 0; j < n; j++) {
+        int column = aOffset + j * lda;
+        double sum = 0;
+        for (int i = 0; i < m; i++) {
+          sum += a[column + i] * x[xOffset + i * incX];
+        }
+        int position = yOffset + j * incY;
+        y[position] = alpha * sum + (beta == 0 ? 0 : beta * y[position]);
+      }
+    } else {
+      for (int i = 0; i < m; i++) {
+        int position = yOffset + i * incY;
+        y[position] = beta == 0 ? 0 : beta * y[position];
+      }
+      for (int j = 0; j < n; j++) {
+        int column = aOffset + j * lda;
+        double value = alpha * x[xOffset + j * incX];
+        for (int i = 0; i < m; i++) {
+          y[yOffset + i * incY] += value * a[column + i];
+        }
+      }
+    }
+  }
+
+  /**
+   * {@code a <- alpha * x * y' + a}, where {@code a} is {@code m x n} with leading dimension
+   * {@code lda}.
+   */
+  static void dger(int m, int n, double alpha, double[] x, int xOffset, int incX, double[] y,
+      int yOffset, int incY, double[] a, int aOffset, int lda) {
+    for (int j = 0; j < n; j++) {
+      int column = aOffset + j * lda;
+      double value = alpha * y[yOffset + j * incY];
+      for (int i = 0; i < m; i++) {
+        a[column + i] += value * x[xOffset + i * incX];
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.netlib;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.briljantframework.array.Workspace;
+
+/**
+ * Caches the optimal work array sizes of LAPACK routines, as reported by a workspace query (i.e.,
+ * a call with {@code lwork = -1}), per routine and arguments; and allocates work arrays from the
+ * {@linkplain Workspace#active() active workspace}, if any. Repeated calls with the same shapes
+ * hence avoid both the workspace query and (inside a workspace scope) the allocation.
+ *
+ * @author Isak Karlsson
+ */
+final class LapackWorkspace {
+
+  /**
+   * The maximum number of cached entries. The cache is cleared when it's full.
+   */
+  private static final int MAX_ENTRIES = 1024;
+
+  private final Map<Key, int[]> sizes = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the key of the given routine and the arguments which determine the work array sizes.
+   */
+  static Key key(String routine, int... arguments) {
+    return new Key(routine, arguments);
+  }
+
+  /**
+   * Returns a {@code double} work array with at least {@code lwork} elements.
+   */
+  static double[] work(int lwork) {
+    Workspace workspace = Workspace.active();
+    return workspace != null ? workspace.doubles(lwork) : new double[lwork];
+  }
+
+  /**
+   * Returns an {@code int} work array with at least {@code liwork} elements.
+   */
+  static int[] iwork(int liwork) {
+    Workspace workspace = Workspace.active();
+    return workspace != null ? workspace.ints(liwork) : new int[liwork];
+  }
+
+  /**
+   * Returns the cached work array sizes, or {@code null} if the routine has not been queried for
+   * these arguments.
+   */
+  int[] get(Key key) {
+    return sizes.get(key);
+  }
+
+  /**
+   * Caches the work array sizes (at least one element each) and returns them.
+   */
+  int[] put(Key key, int... sizes) {
+    for (int i = 0; i < sizes.length; i++) {
+      sizes[i] = Math.max(1, sizes[i]);
+    }
+    if (this.sizes.size() >= MAX_ENTRIES) {
+      this.sizes.clear();
+    }
+    this.sizes.put(key, sizes);
+    return sizes;
+  }
+
+  int size() {
+    return sizes.size();
+  }
+
+  static final class Key {
+
+    private final String routine;
+    private final int[] arguments;
+
+    private Key(String routine, int[] arguments) {
+      this.routine = routine;
+      this.arguments = arguments;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return routine.equals(key.routine) && Arrays.equals(arguments, key.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * routine.hashCode() + Arrays.hashCode(arguments);
+    }
+  }
+}
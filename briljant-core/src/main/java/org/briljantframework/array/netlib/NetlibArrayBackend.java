@@ -31,6 +31,9 @@ import org.briljantframework.array.api.ArrayRoutines;
 import org.briljantframework.linalg.api.LinearAlgebraRoutines;
 
 /**
+ * An array backend using netlib-java for BLAS and LAPACK routines. Small operations are computed
+ * using Java kernels, as decided by {@link NetlibCalibration#getDefault()}.
+ *
  * @author Isak Karlsson
  */
 public class NetlibArrayBackend implements ArrayBackend {
@@ -24,8 +24,10 @@ package org.briljantframework.array.netlib;
 import org.briljantframework.Check;
 import org.briljantframework.array.BaseArray;
 import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.FloatArray;
 import org.briljantframework.array.Op;
 import org.briljantframework.array.base.BaseArrayRoutines;
+import org.briljantframework.array.netlib.NetlibCalibration.Routine;
 import org.briljantframework.exceptions.NonConformantException;
 
 import com.github.fommil.netlib.BLAS;
@@ -38,10 +40,23 @@ class NetlibArrayRoutines extends BaseArrayRoutines {
   protected static final String VECTOR_REQUIRED = "vector required";
   private final static BLAS blas = BLAS.getInstance();
 
+  private final NetlibCalibration calibration;
+
+  NetlibArrayRoutines() {
+    this(NetlibCalibration.getDefault());
+  }
+
+  /**
+   * @param calibration decides, per call, between the Java kernels and the native library
+   */
+  NetlibArrayRoutines(NetlibCalibration calibration) {
+    this.calibration = calibration;
+  }
+
   @Override
   public <T extends BaseArray<T>> void copy(T from, T to) {
-    if (from instanceof NetlibDoubleArray && to instanceof NetlibDoubleArray && isView(from)
-        && isView(to)) {
+    if (from instanceof NetlibDoubleArray && to instanceof NetlibDoubleArray && !from.isView()
+        && !to.isView() && from.size() == to.size()) {
       System.arraycopy(((NetlibDoubleArray) from).data(), 0, ((NetlibDoubleArray) to).data(), 0,
           from.size());
     } else {
@@ -49,18 +64,24 @@ class NetlibArrayRoutines extends BaseArrayRoutines {
     }
   }
 
-  private <T extends BaseArray<T>> boolean isView(T array) {
-    return !(array.isContiguous() && array.stride(0) == 1);
+  @Override
+  protected boolean hasDirectStorage(DoubleArray x) {
+    return x instanceof NetlibDoubleArray || super.hasDirectStorage(x);
   }
 
   @Override
   public double inner(DoubleArray a, DoubleArray b) {
-    if (a instanceof NetlibDoubleArray && b instanceof NetlibDoubleArray) {
+    if (hasDirectStorage(a) && hasDirectStorage(b)) {
       Check.argument(a.isVector() && b.isVector(), VECTOR_REQUIRED);
       Check.size(a, b);
-      int n = a.size();
-      return blas.ddot(n, a.data(), a.getOffset(), a.getMajorStride(), b.data(), b.getOffset(),
-          b.getMajorStride());
+      BlasOperand x = vector(a);
+      BlasOperand y = vector(b);
+      if (calibration.useJava(Routine.DOT, a.size())) {
+        return JavaBlas.ddot(a.size(), x.data(), x.offset(), x.increment(), y.data(), y.offset(),
+            y.increment());
+      }
+      return blas.ddot(a.size(), x.data(), x.offset(), x.increment(), y.data(), y.offset(),
+          y.increment());
     } else {
       return super.inner(a, b);
     }
@@ -68,9 +89,10 @@ class NetlibArrayRoutines extends BaseArrayRoutines {
 
   @Override
   public double asum(DoubleArray a) {
-    if (a instanceof NetlibDoubleArray) {
+    if (hasDirectStorage(a)) {
       Check.argument(a.isVector(), VECTOR_REQUIRED);
-      return blas.dasum(a.size(), a.data(), a.getOffset(), a.getMajorStride());
+      BlasOperand x = vector(a);
+      return blas.dasum(a.size(), x.data(), x.offset(), x.increment());
     } else {
       return super.asum(a);
     }
@@ -78,9 +100,9 @@ class NetlibArrayRoutines extends BaseArrayRoutines {
 
   @Override
   public double norm2(DoubleArray a) {
-    if (a instanceof NetlibDoubleArray) {
-      Check.argument(a.isVector(), VECTOR_REQUIRED);
-      return blas.dnrm2(a.size(), a.data(), a.getOffset(), a.getMajorStride());
+    if (hasDirectStorage(a) && a.isVector()) {
+      BlasOperand x = vector(a);
+      return blas.dnrm2(a.size(), x.data(), x.offset(), x.increment());
     } else {
       return super.norm2(a);
     }
@@ -88,9 +110,11 @@ class NetlibArrayRoutines extends BaseArrayRoutines {
 
   @Override
   public int iamax(DoubleArray a) {
-    if (a instanceof NetlibDoubleArray) {
+    if (hasDirectStorage(a)) {
       Check.argument(a.isVector(), VECTOR_REQUIRED);
-      return blas.idamax(a.size(), a.data(), a.getOffset(), a.getMajorStride());
+      BlasOperand x = vector(a);
+      // idamax returns a one-based index
+      return blas.idamax(a.size(), x.data(), x.offset(), x.increment()) - 1;
     } else {
       return super.iamax(a);
     }
@@ -98,9 +122,11 @@ class NetlibArrayRoutines extends BaseArrayRoutines {
 
   @Override
   public void scal(double alpha, DoubleArray a) {
-    if (a instanceof NetlibDoubleArray && alpha != 1) {
+    if (hasDirectStorage(a) && alpha != 1) {
       Check.argument(a.isVector(), VECTOR_REQUIRED);
-      blas.dscal(a.size(), alpha, a.data(), a.getOffset(), a.getMajorStride());
+      BlasOperand x = vector(a);
+      blas.dscal(a.size(), alpha, x.data(), x.offset(), x.increment());
+      x.writeBack(a);
     } else {
       super.scal(alpha, a);
     }
@@ -111,11 +137,19 @@ class NetlibArrayRoutines extends BaseArrayRoutines {
     if (alpha == 0) {
       return;
     }
-    if (x instanceof NetlibDoubleArray && y instanceof NetlibDoubleArray) {
-      Check.argument(x.isVector() && y.isVector());
+    if (hasDirectStorage(x) && hasDirectStorage(y)) {
+      Check.argument(x.isVector() && y.isVector(), VECTOR_REQUIRED);
       Check.size(x, y);
-      blas.daxpy(x.size(), alpha, x.data(), x.getOffset(), x.getMajorStride(), y.data(),
-          y.getOffset(), y.getMajorStride());
+      BlasOperand bx = vector(x);
+      BlasOperand by = vector(y);
+      if (calibration.useJava(Routine.AXPY, x.size())) {
+        JavaBlas.daxpy(x.size(), alpha, bx.data(), bx.offset(), bx.increment(), by.data(),
+            by.offset(), by.increment());
+      } else {
+        blas.daxpy(x.size(), alpha, bx.data(), bx.offset(), bx.increment(), by.data(),
+            by.offset(), by.increment());
+      }
+      by.writeBack(y);
     } else {
       super.axpy(alpha, x, y);
     }
@@ -126,13 +160,25 @@ class NetlibArrayRoutines extends BaseArrayRoutines {
     Check.argument(a.isMatrix() && x.isVector() && y.isVector());
     Check.size(x.size(), a.rows());
     Check.size(y.size(), a.columns());
-    if (x instanceof NetlibDoubleArray && y instanceof NetlibDoubleArray
-        && a instanceof NetlibDoubleArray && a.stride(0) == 1 && a.stride(1) >= a.size(1)) {
-      blas.dger(a.rows(), a.columns(), alpha, x.data(), x.getOffset(), x.getMajorStride(), y.data(),
-          y.getOffset(), y.getMajorStride(), a.data(), a.getOffset(), Math.max(1, a.stride(1)));
+    BlasOperand bx = vector(x);
+    BlasOperand by = vector(y);
+    BlasOperand ba = matrix(a);
+    if (ba.isTransposed()) {
+      // a' = a' + alpha * y * x'
+      BlasOperand tmp = bx;
+      bx = by;
+      by = tmp;
+    }
+    int m = a.size(ba.isTransposed() ? 1 : 0);
+    int n = a.size(ba.isTransposed() ? 0 : 1);
+    if (calibration.useJava(Routine.GER, (long) m * n)) {
+      JavaBlas.dger(m, n, alpha, bx.data(), bx.offset(), bx.increment(), by.data(), by.offset(),
+          by.increment(), ba.data(), ba.offset(), ba.increment());
     } else {
-      super.ger(alpha, x, y, a);
+      blas.dger(m, n, alpha, bx.data(), bx.offset(), bx.increment(), by.data(), by.offset(),
+          by.increment(), ba.data(), ba.offset(), ba.increment());
     }
+    ba.writeBack(a);
   }
 
   @Override
@@ -141,20 +187,25 @@ class NetlibArrayRoutines extends BaseArrayRoutines {
     Check.argument(a.isMatrix());
     Check.argument(x.isVector());
     Check.argument(y.isVector());
+    Check.size(x.size(), a.size(transA.isTrue() ? 0 : 1));
+    Check.size(y.size(), a.size(transA.isTrue() ? 1 : 0));
 
-    if (a instanceof NetlibDoubleArray && a.stride(0) == 1 && a.stride(1) >= a.size(1)
-        && x instanceof NetlibDoubleArray && y instanceof NetlibDoubleArray) {
+    BlasOperand ba = matrix(a);
+    BlasOperand bx = vector(x);
+    BlasOperand by = vector(y);
 
-      int m = a.size(transA == Op.KEEP ? 0 : 1);
-      int n = a.size(transA == Op.KEEP ? 1 : 0);
-      // TODO: sanity checks
-
-      blas.dgemv(transA.asString(), m, n, alpha, a.data(), a.getOffset(), Math.max(1, a.stride(1)),
-          x.data(), x.getOffset(), x.getMajorStride(), beta, y.data(), y.getOffset(),
-          y.getMajorStride());
+    // The dimensions of the stored matrix, i.e., of a or, if transposed, of a'
+    int m = a.size(ba.isTransposed() ? 1 : 0);
+    int n = a.size(ba.isTransposed() ? 0 : 1);
+    boolean transpose = transA.isTrue() != ba.isTransposed();
+    if (calibration.useJava(Routine.GEMV, (long) m * n)) {
+      JavaBlas.dgemv(transpose, m, n, alpha, ba.data(), ba.offset(), ba.increment(), bx.data(),
+          bx.offset(), bx.increment(), beta, by.data(), by.offset(), by.increment());
     } else {
-      super.gemv(transA, alpha, a, x, beta, y);
+      blas.dgemv(transpose(transpose), m, n, alpha, ba.data(), ba.offset(), ba.increment(),
+          bx.data(), bx.offset(), bx.increment(), beta, by.data(), by.offset(), by.increment());
     }
+    by.writeBack(y);
   }
 
   @Override
@@ -180,23 +231,78 @@ class NetlibArrayRoutines extends BaseArrayRoutines {
               c.size(0), c.size(1)));
     }
 
-    // Issue: is a or b is non-netlib arrays it might be beneficial to copy here if
-    // the array is a small view of a large array since the view performs a copy of
-    // the large array and, while the copy here might be small.
-    a = a.isContiguous() && a.stride(0) == 1 ? a : a.copy();
-    b = b.isContiguous() && b.stride(0) == 1 ? b : b.copy();
-    DoubleArray maybeC =
-        c instanceof NetlibDoubleArray && c.isContiguous() && c.stride(0) == 1 ? c : c.copy();
+    if (calibration.useJava(Routine.GEMM, (long) m * n * k)) {
+      super.gemm(transA, transB, alpha, a, b, beta, c);
+      return;
+    }
+
+    // Views (e.g., sub-matrices or transposes) are passed to BLAS as is, using the stride of the
+    // parent as leading dimension. Only arrays whose layout cannot be expressed are copied.
+    BlasOperand ba = matrix(a);
+    BlasOperand bb = matrix(b);
+    BlasOperand bc = matrix(c);
+    boolean ta = transA.isTrue() != ba.isTransposed();
+    boolean tb = transB.isTrue() != bb.isTransposed();
+    if (bc.isTransposed()) {
+      // c' = op(b)' * op(a)'
+      blas.dgemm(transpose(!tb), transpose(!ta), n, m, k, alpha, bb.data(), bb.offset(),
+          bb.increment(), ba.data(), ba.offset(), ba.increment(), beta, bc.data(), bc.offset(),
+          bc.increment());
+    } else {
+      blas.dgemm(transpose(ta), transpose(tb), m, n, k, alpha, ba.data(), ba.offset(),
+          ba.increment(), bb.data(), bb.offset(), bb.increment(), beta, bc.data(), bc.offset(),
+          bc.increment());
+    }
+    bc.writeBack(c);
+  }
 
-    double[] ca = maybeC.data();
-    blas.dgemm(transA.asString(), transB.asString(), m, n, k, alpha, a.data(), a.getOffset(),
-        Math.max(1, a.stride(1)), b.data(), b.getOffset(), Math.max(1, b.stride(1)), beta, ca,
-        maybeC.getOffset(), Math.max(1, maybeC.stride(1)));
+  @Override
+  public void gemm(Op transA, Op transB, float alpha, FloatArray a, FloatArray b, float beta,
+      FloatArray c) {
+    // the java implementation reports illegal arguments
+    if (a.dims() != 2 || b.dims() != 2 || c.dims() != 2) {
+      super.gemm(transA, transB, alpha, a, b, beta, c);
+      return;
+    }
+    int m = a.size(transA == Op.KEEP ? 0 : 1);
+    int n = b.size(transB == Op.KEEP ? 1 : 0);
+    int k = a.size(transA == Op.KEEP ? 1 : 0);
+    if (calibration.useJava(Routine.GEMM, (long) m * n * k)) {
+      super.gemm(transA, transB, alpha, a, b, beta, c);
+      return;
+    }
+    if (b.size(transB == Op.KEEP ? 0 : 1) != k || m != c.size(0) || n != c.size(1)) {
+      throw new NonConformantException(
+          String.format("a has size (%d,%d), b has size (%d,%d), c has size (%d, %d)", m, k,
+              b.size(transB == Op.KEEP ? 0 : 1), n, c.size(0), c.size(1)));
+    }
 
-    // If c was copied, maybeC and c won't be the same instance.
-    // To simulate an out parameter, c is assigned the new data if this is the case.
-    if (maybeC != c) {
-      c.assign(ca);
+    BlasOperand ba = BlasOperand.matrix(a, hasDirectStorage(a));
+    BlasOperand bb = BlasOperand.matrix(b, hasDirectStorage(b));
+    BlasOperand bc = BlasOperand.matrix(c, hasDirectStorage(c));
+    boolean ta = transA.isTrue() != ba.isTransposed();
+    boolean tb = transB.isTrue() != bb.isTransposed();
+    if (bc.isTransposed()) {
+      blas.sgemm(transpose(!tb), transpose(!ta), n, m, k, alpha, bb.floats(), bb.offset(),
+          bb.increment(), ba.floats(), ba.offset(), ba.increment(), beta, bc.floats(),
+          bc.offset(), bc.increment());
+    } else {
+      blas.sgemm(transpose(ta), transpose(tb), m, n, k, alpha, ba.floats(), ba.offset(),
+          ba.increment(), bb.floats(), bb.offset(), bb.increment(), beta, bc.floats(),
+          bc.offset(), bc.increment());
     }
+    bc.writeBack(c);
+  }
+
+  private BlasOperand vector(DoubleArray x) {
+    return BlasOperand.vector(x, hasDirectStorage(x));
+  }
+
+  private BlasOperand matrix(DoubleArray x) {
+    return BlasOperand.matrix(x, hasDirectStorage(x));
+  }
+
+  private static String transpose(boolean transpose) {
+    return transpose ? Op.TRANSPOSE.asString() : Op.KEEP.asString();
   }
 }
@@ -0,0 +1,328 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.netlib;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.IntArray;
+import org.briljantframework.array.Op;
+import org.briljantframework.array.api.ArrayFactory;
+
+/**
+ * A calibration table deciding, per call, whether the netlib backend computes a routine using a
+ * Java kernel or the native BLAS/LAPACK library. For small operands, the overhead of calling the
+ * native library (and of copying operands it cannot address) dominates the few operations
+ * performed, so routines whose operation count is below the threshold of the routine are computed
+ * in Java. Both implementations have the same contract (arguments, results and return values).
+ *
+ * <p>
+ * The operation count of a routine is
+ * <ul>
+ * <li>{@code m * n * k} for {@link Routine#GEMM}</li>
+ * <li>{@code m * n} for {@link Routine#GEMV} and {@link Routine#GER}</li>
+ * <li>{@code n} for {@link Routine#DOT} and {@link Routine#AXPY}</li>
+ * <li>{@code m * n * min(m, n)} for {@link Routine#GETRF} and {@code n^3} for {@link Routine#GETRI}
+ * and {@link Routine#GESV}.</li>
+ * </ul>
+ *
+ * <p>
+ * The default thresholds were measured using {@link #measure()}. Since the crossover depends on
+ * the machine and on the native library, the thresholds can be overridden using the system
+ * properties {@code org.briljantframework.array.netlib.threshold.<routine>} (e.g.,
+ * {@code org.briljantframework.array.netlib.threshold.gemm=4096}). Setting the system property
+ * {@value #CALIBRATE_PROPERTY} to {@code true} measures the thresholds at startup instead; explicit
+ * overrides still take precedence. To generate a table offline, run the {@link #main(String[])}
+ * method, which prints the measured thresholds as system properties.
+ *
+ * @author Isak Karlsson
+ */
+public final class NetlibCalibration {
+
+  public static final String THRESHOLD_PROPERTY_PREFIX =
+      "org.briljantframework.array.netlib.threshold.";
+  public static final String CALIBRATE_PROPERTY = "org.briljantframework.array.netlib.calibrate";
+
+  private static final long NEVER = Long.MAX_VALUE;
+  private static final long MIN_TIME = 2_000_000;
+
+  private static NetlibCalibration defaultCalibration;
+
+  private final Map<Routine, Long> thresholds;
+
+  private NetlibCalibration(Map<Routine, Long> thresholds) {
+    this.thresholds = new EnumMap<>(thresholds);
+  }
+
+  /**
+   * Returns the calibration used by {@link NetlibArrayBackend}, i.e., the default thresholds (or,
+   * if {@value #CALIBRATE_PROPERTY} is {@code true}, measured thresholds) overridden by the system
+   * properties.
+   *
+   * @return the default calibration
+   */
+  public static synchronized NetlibCalibration getDefault() {
+    if (defaultCalibration == null) {
+      NetlibCalibration base = Boolean.getBoolean(CALIBRATE_PROPERTY) ? measure() : defaults();
+      defaultCalibration = base.withOverrides(System.getProperties());
+    }
+    return defaultCalibration;
+  }
+
+  /**
+   * @return the built-in thresholds
+   */
+  public static NetlibCalibration defaults() {
+    Map<Routine, Long> thresholds = new EnumMap<>(Routine.class);
+    for (Routine routine : Routine.values()) {
+      thresholds.put(routine, routine.defaultThreshold);
+    }
+    return new NetlibCalibration(thresholds);
+  }
+
+  /**
+   * @param threshold the threshold of every routine
+   * @return a calibration with the same threshold for all routines; {@code 0} always uses the
+   *         native library and {@link Long#MAX_VALUE} never does
+   */
+  public static NetlibCalibration uniform(long threshold) {
+    Check.argument(threshold >= 0, "threshold must be non-negative");
+    Map<Routine, Long> thresholds = new EnumMap<>(Routine.class);
+    for (Routine routine : Routine.values()) {
+      thresholds.put(routine, threshold);
+    }
+    return new NetlibCalibration(thresholds);
+  }
+
+  /**
+   * Returns a calibration where the thresholds present in {@code properties} (with keys as returned
+   * by {@link Routine#getProperty()}) replace those of this calibration.
+   *
+   * @param properties the properties
+   * @return a new calibration
+   */
+  public NetlibCalibration withOverrides(Properties properties) {
+    Map<Routine, Long> thresholds = new EnumMap<>(this.thresholds);
+    for (Routine routine : Routine.values()) {
+      String value = properties.getProperty(routine.getProperty());
+      if (value != null) {
+        try {
+          long threshold = Long.parseLong(value.trim());
+          Check.argument(threshold >= 0, "illegal threshold for %s: %s", routine, value);
+          thresholds.put(routine, threshold);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException(
+              String.format("illegal threshold for %s: %s", routine, value), e);
+        }
+      }
+    }
+    return new NetlibCalibration(thresholds);
+  }
+
+  /**
+   * @param routine the routine
+   * @return the operation count from which the native library is used
+   */
+  public long getThreshold(Routine routine) {
+    return thresholds.get(routine);
+  }
+
+  /**
+   * @param routine the routine
+   * @param operations the operation count of the call
+   * @return true if the call should be computed in Java
+   */
+  public boolean useJava(Routine routine, long operations) {
+    return operations < thresholds.get(routine);
+  }
+
+  /**
+   * @return the thresholds as (system) properties
+   */
+  public Properties toProperties() {
+    Properties properties = new Properties();
+    for (Map.Entry<Routine, Long> entry : thresholds.entrySet()) {
+      properties.setProperty(entry.getKey().getProperty(), Long.toString(entry.getValue()));
+    }
+    return properties;
+  }
+
+  @Override
+  public String toString() {
+    return "NetlibCalibration" + thresholds;
+  }
+
+  /**
+   * Measures, for each routine, the smallest operation count from which the native library is
+   * faster than the Java kernel for all (measured) larger operands. This takes a few seconds.
+   *
+   * @return the measured calibration
+   */
+  public static NetlibCalibration measure() {
+    NetlibArrayBackend backend = new NetlibArrayBackend();
+    ArrayFactory bj = backend.getArrayFactory();
+    NetlibArrayRoutines javaRoutines = new NetlibArrayRoutines(uniform(NEVER));
+    NetlibArrayRoutines nativeRoutines = new NetlibArrayRoutines(uniform(0));
+    NetlibLinearAlgebraRoutines javaLapack =
+        new NetlibLinearAlgebraRoutines(backend, uniform(NEVER));
+    NetlibLinearAlgebraRoutines nativeLapack = new NetlibLinearAlgebraRoutines(backend, uniform(0));
+    Random random = new Random(0);
+    IntFunction<DoubleArray> vector = n -> {
+      DoubleArray x = bj.doubleArray(n);
+      x.assign(random::nextGaussian);
+      return x;
+    };
+    IntFunction<DoubleArray> square = n -> {
+      DoubleArray x = bj.doubleArray(n, n);
+      x.assign(random::nextGaussian);
+      return x;
+    };
+
+    Map<Routine, Long> thresholds = new EnumMap<>(Routine.class);
+    int[] orders = {2, 4, 6, 8, 12, 16, 24, 32, 48, 64, 96, 128};
+    int[] lengths = {4, 16, 64, 256, 1024, 4096, 16384, 65536};
+
+    thresholds.put(Routine.GEMM, crossover(orders, n -> (long) n * n * n, n -> {
+      DoubleArray a = square.apply(n), b = square.apply(n), c = bj.doubleArray(n, n);
+      return new Runnable[] {() -> javaRoutines.gemm(Op.KEEP, Op.KEEP, 1, a, b, 0, c),
+          () -> nativeRoutines.gemm(Op.KEEP, Op.KEEP, 1, a, b, 0, c)};
+    }));
+    thresholds.put(Routine.GEMV, crossover(orders, n -> (long) n * n, n -> {
+      DoubleArray a = square.apply(n), x = vector.apply(n), y = bj.doubleArray(n);
+      return new Runnable[] {() -> javaRoutines.gemv(Op.KEEP, 1, a, x, 0, y),
+          () -> nativeRoutines.gemv(Op.KEEP, 1, a, x, 0, y)};
+    }));
+    thresholds.put(Routine.GER, crossover(orders, n -> (long) n * n, n -> {
+      DoubleArray a = square.apply(n), x = vector.apply(n), y = vector.apply(n);
+      return new Runnable[] {() -> javaRoutines.ger(1e-9, x, y, a),
+          () -> nativeRoutines.ger(1e-9, x, y, a)};
+    }));
+    thresholds.put(Routine.DOT, crossover(lengths, n -> n, n -> {
+      DoubleArray x = vector.apply(n), y = vector.apply(n);
+      return new Runnable[] {() -> javaRoutines.inner(x, y), () -> nativeRoutines.inner(x, y)};
+    }));
+    thresholds.put(Routine.AXPY, crossover(lengths, n -> n, n -> {
+      DoubleArray x = vector.apply(n), y = vector.apply(n);
+      return new Runnable[] {() -> javaRoutines.axpy(1e-9, x, y),
+          () -> nativeRoutines.axpy(1e-9, x, y)};
+    }));
+    thresholds.put(Routine.GETRF, crossover(orders, n -> (long) n * n * n, n -> {
+      DoubleArray a = square.apply(n);
+      IntArray ipiv = bj.intArray(n);
+      return new Runnable[] {() -> javaLapack.getrf(a.copy(), ipiv),
+          () -> nativeLapack.getrf(a.copy(), ipiv)};
+    }));
+    thresholds.put(Routine.GETRI, crossover(orders, n -> (long) n * n * n, n -> {
+      DoubleArray lu = square.apply(n).plus(bj.eye(n).times(n));
+      IntArray ipiv = bj.intArray(n);
+      nativeLapack.getrf(lu, ipiv);
+      return new Runnable[] {() -> javaLapack.getri(lu.copy(), ipiv),
+          () -> nativeLapack.getri(lu.copy(), ipiv)};
+    }));
+    thresholds.put(Routine.GESV, crossover(orders, n -> (long) n * n * n, n -> {
+      DoubleArray a = square.apply(n).plus(bj.eye(n).times(n)), b = bj.doubleArray(n, 1);
+      IntArray ipiv = bj.intArray(n);
+      return new Runnable[] {() -> javaLapack.gesv(a.copy(), ipiv, b.copy()),
+          () -> nativeLapack.gesv(a.copy(), ipiv, b.copy())};
+    }));
+    return new NetlibCalibration(thresholds);
+  }
+
+  /**
+   * Prints the measured thresholds as system properties, e.g., to be included in a properties
+   * file or passed on the command line.
+   *
+   * @param args ignored
+   * @throws IOException if the thresholds cannot be printed
+   */
+  public static void main(String[] args) throws IOException {
+    measure().toProperties().store(System.out, "Measured netlib thresholds");
+  }
+
+  /**
+   * @param sizes the (increasing) sizes to measure
+   * @param operations the operation count for a size
+   * @param setup returns the Java and the native computation for a size
+   * @return the operation count from which the native library is faster for all larger sizes
+   */
+  private static long crossover(int[] sizes, IntToLongFunction operations,
+      IntFunction<Runnable[]> setup) {
+    long threshold = NEVER;
+    for (int i = sizes.length - 1; i >= 0; i--) {
+      Runnable[] computations = setup.apply(sizes[i]);
+      if (time(computations[1]) >= time(computations[0])) {
+        break;
+      }
+      threshold = operations.applyAsLong(sizes[i]);
+    }
+    return threshold;
+  }
+
+  /**
+   * @return the best time per call (in nanoseconds) of three runs of at least {@link #MIN_TIME}
+   *         nanoseconds each
+   */
+  private static double time(Runnable computation) {
+    double best = Double.POSITIVE_INFINITY;
+    for (int run = 0; run < 4; run++) {
+      long calls = 0;
+      long start = System.nanoTime();
+      long elapsed;
+      do {
+        computation.run();
+        calls++;
+        elapsed = System.nanoTime() - start;
+      } while (elapsed < MIN_TIME);
+      if (run > 0) { // the first run is a warm-up
+        best = Math.min(best, (double) elapsed / calls);
+      }
+    }
+    return best;
+  }
+
+  /**
+   * The routines with a Java kernel.
+   */
+  public enum Routine {
+    GEMM(4096), GEMV(1024), GER(1024), DOT(256), AXPY(256), GETRF(512), GETRI(512), GESV(512);
+
+    private final long defaultThreshold;
+
+    Routine(long defaultThreshold) {
+      this.defaultThreshold = defaultThreshold;
+    }
+
+    /**
+     * @return the name of the system property overriding the threshold of this routine
+     */
+    public String getProperty() {
+      return THRESHOLD_PROPERTY_PREFIX + name().toLowerCase();
+    }
+  }
+}
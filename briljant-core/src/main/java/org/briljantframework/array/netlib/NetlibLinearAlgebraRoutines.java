@@ -31,6 +31,8 @@ import org.briljantframework.array.DoubleArray;
 import org.briljantframework.array.IntArray;
 import org.briljantframework.array.Op;
 import org.briljantframework.array.api.ArrayFactory;
+import org.briljantframework.array.base.BaseLinearAlgebraRoutines;
+import org.briljantframework.array.netlib.NetlibCalibration.Routine;
 import org.briljantframework.exceptions.NonConformantException;
 import org.briljantframework.linalg.api.AbstractLinearAlgebraRoutines;
 import org.briljantframework.linalg.decomposition.LuDecomposition;
@@ -49,6 +51,11 @@ import com.github.fommil.netlib.LAPACK;
  * array must be copied if: {@code a.stride(0) != 1} or {@code a.getOffset() > 0} or
  * {@code a.isView() == true}.
  *
+ * <p>
+ * For small matrices, {@link #getrf(DoubleArray, IntArray)}, {@link #getri(DoubleArray, IntArray)}
+ * and {@link #gesv(DoubleArray, IntArray, DoubleArray)} are computed in Java as decided by
+ * {@link NetlibCalibration}.
+ *
  * @author Isak Karlsson
  */
 public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
@@ -61,9 +68,19 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
   private static final List<Character> GESVD_JOB_CHAR = Arrays.asList('a', 's', 'o', 'n');
   private static final List<Character> SYEVR_JOBZ_CHAR = Arrays.asList('n', 'v');
   private static final List<Character> SYEVR_RANGE_CHAR = Arrays.asList('a', 'v', 'i');
+  private static final LapackWorkspace WORKSPACE = new LapackWorkspace();
+
+  private final NetlibCalibration calibration;
+  private final BaseLinearAlgebraRoutines java;
 
   protected NetlibLinearAlgebraRoutines(NetlibArrayBackend matrixFactory) {
+    this(matrixFactory, NetlibCalibration.getDefault());
+  }
+
+  NetlibLinearAlgebraRoutines(NetlibArrayBackend matrixFactory, NetlibCalibration calibration) {
     super(matrixFactory);
+    this.calibration = calibration;
+    this.java = new BaseLinearAlgebraRoutines(matrixFactory) {};
   }
 
   @Override
@@ -90,6 +107,24 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
     return out;
   }
 
+  @Override
+  public DoubleArray invBatch(DoubleArray x) {
+    Check.argument(x.dims() == 3 && x.size(0) == x.size(1), "require stack of square matrices");
+    long order = x.size(0);
+    if (calibration.useJava(Routine.GETRI, order * order * order)) {
+      return java.invBatch(x);
+    }
+    DoubleArray out = x.copy();
+    IntArray ipiv = getArrayBackend().getArrayFactory().intArray(x.size(0));
+    for (int i = 0; i < x.size(2); i++) {
+      DoubleArray matrix = out.select(2, i);
+      if (getrf(matrix, ipiv) > 0 || getri(matrix, ipiv) > 0) {
+        throw new ArithmeticException(String.format("Matrix %d is singular.", i));
+      }
+    }
+    return out;
+  }
+
   @Override
   public DoubleArray pinv(DoubleArray x) {
     Check.argument(x.isMatrix(), REQUIRE_2D_ARRAY);
@@ -171,14 +206,18 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
     double[] vla = getData(vl);
     double[] vra = getData(vr);
 
-    double[] work = new double[1];
-    int lwork = -1;
     intW info = new intW(0);
-    lapack.dgeev(String.valueOf(jobvl), String.valueOf(jobvr), n, aa, Math.max(1, n), wra, wia, vla,
-        ldvl, vra, ldvr, work, lwork, info);
-    ensureInfo(info);
-    lwork = (int) work[0];
-
+    LapackWorkspace.Key key = LapackWorkspace.key("dgeev", jobvl, jobvr, n, ldvl, ldvr);
+    int[] sizes = WORKSPACE.get(key);
+    if (sizes == null) {
+      double[] query = new double[1];
+      lapack.dgeev(String.valueOf(jobvl), String.valueOf(jobvr), n, aa, Math.max(1, n), wra, wia,
+          vla, ldvl, vra, ldvr, query, -1, info);
+      ensureInfo(info);
+      sizes = WORKSPACE.put(key, (int) query[0]);
+    }
+    int lwork = sizes[0];
+    double[] work = LapackWorkspace.work(lwork);
     lapack.dgeev(String.valueOf(jobvl), String.valueOf(jobvr), n, aa, Math.max(1, a.stride(1)), wra,
         wia, vla, Math.max(1, a.stride(1)), vra, Math.max(1, a.stride(1)), work, lwork, info);
 
@@ -201,15 +240,17 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
     double[] aa = getData(a);
     double[] ta = getData(tau);
 
-    double[] work = new double[1];
-    int lwork = -1;
-
     intW info = new intW(0);
-    lapack.dgeqrf(m, n, aa, lda, ta, work, lwork, info);
-    ensureInfo(info);
-    lwork = (int) work[0];
-    work = new double[lwork];
-
+    LapackWorkspace.Key key = LapackWorkspace.key("dgeqrf", m, n, lda);
+    int[] sizes = WORKSPACE.get(key);
+    if (sizes == null) {
+      double[] query = new double[1];
+      lapack.dgeqrf(m, n, aa, lda, ta, query, -1, info);
+      ensureInfo(info);
+      sizes = WORKSPACE.put(key, (int) query[0]);
+    }
+    int lwork = sizes[0];
+    double[] work = LapackWorkspace.work(lwork);
     lapack.dgeqrf(m, n, aa, lda, ta, work, lwork, info);
     ensureInfo(info);
     assignIfNeeded(a, aa);
@@ -243,14 +284,19 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
     double[] ta = getData(tau);
     double[] ca = getData(c);
 
-    double[] work = new double[1];
-    int lwork = -1;
     intW info = new intW(0);
-    lapack.dormqr(String.valueOf(side), transA.asString(), m, n, k, aa, lda, ta, ca, ldc, work,
-        lwork, info);
-    ensureInfo(info);
-    lwork = (int) work[0];
-    work = new double[lwork];
+    LapackWorkspace.Key key =
+        LapackWorkspace.key("dormqr", side, transA.ordinal(), m, n, k, lda, ldc);
+    int[] sizes = WORKSPACE.get(key);
+    if (sizes == null) {
+      double[] query = new double[1];
+      lapack.dormqr(String.valueOf(side), transA.asString(), m, n, k, aa, lda, ta, ca, ldc, query,
+          -1, info);
+      ensureInfo(info);
+      sizes = WORKSPACE.put(key, (int) query[0]);
+    }
+    int lwork = sizes[0];
+    double[] work = LapackWorkspace.work(lwork);
     lapack.dormqr(String.valueOf(side), transA.asString(), m, n, k, aa, lda, ta, ca, ldc, work,
         lwork, info);
     ensureInfo(info);
@@ -283,12 +329,16 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
     double[] wa = getData(w);
 
     intW info = new intW(0);
-    int lwork = -1;
-    double[] work = new double[1];
-    lapack.dsyev(String.valueOf(jobz), String.valueOf(uplo), n, aa, lda, wa, work, lwork, info);
-    ensureInfo(info);
-    lwork = (int) work[0];
-    work = new double[lwork];
+    LapackWorkspace.Key key = LapackWorkspace.key("dsyev", jobz, uplo, n, lda);
+    int[] sizes = WORKSPACE.get(key);
+    if (sizes == null) {
+      double[] query = new double[1];
+      lapack.dsyev(String.valueOf(jobz), String.valueOf(uplo), n, aa, lda, wa, query, -1, info);
+      ensureInfo(info);
+      sizes = WORKSPACE.put(key, (int) query[0]);
+    }
+    int lwork = sizes[0];
+    double[] work = LapackWorkspace.work(lwork);
     lapack.dsyev(String.valueOf(jobz), String.valueOf(uplo), n, aa, lda, wa, work, lwork, info);
     ensureInfo(info);
 
@@ -345,19 +395,21 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
 
     intW info = new intW(0);
     intW m = new intW(0);
-    // Workspace query
-    double[] work = new double[1];
-    int[] iwork = new int[1];
-    int lwork = -1;
-    int liwork = -1;
-
-    lapack.dsyevr(String.valueOf(jobz), String.valueOf(range), String.valueOf(uplo), n, aa, lda, vl,
-        vu, il, iu, abstol, m, wa, za, ldz, ia, work, lwork, iwork, liwork, info);
-    ensureInfo(info);
-    lwork = (int) work[0];
-    work = new double[lwork];
-    liwork = iwork[0];
-    iwork = new int[liwork];
+    LapackWorkspace.Key key = LapackWorkspace.key("dsyevr", jobz, range, uplo, n, lda, ldz);
+    int[] sizes = WORKSPACE.get(key);
+    if (sizes == null) {
+      // Workspace query
+      double[] query = new double[1];
+      int[] iquery = new int[1];
+      lapack.dsyevr(String.valueOf(jobz), String.valueOf(range), String.valueOf(uplo), n, aa, lda,
+          vl, vu, il, iu, abstol, m, wa, za, ldz, ia, query, -1, iquery, -1, info);
+      ensureInfo(info);
+      sizes = WORKSPACE.put(key, (int) query[0], iquery[0]);
+    }
+    int lwork = sizes[0];
+    int liwork = sizes[1];
+    double[] work = LapackWorkspace.work(lwork);
+    int[] iwork = LapackWorkspace.iwork(liwork);
 
     lapack.dsyevr(String.valueOf(jobz), String.valueOf(range), String.valueOf(uplo), n, aa, lda, vl,
         vu, il, iu, abstol, m, wa, za, ldz, ia, work, lwork, iwork, liwork, info);
@@ -372,6 +424,10 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
 
   @Override
   public int getrf(DoubleArray a, IntArray ipiv) {
+    long min = Math.min(a.rows(), a.columns());
+    if (calibration.useJava(Routine.GETRF, a.rows() * a.columns() * min)) {
+      return java.getrf(a, ipiv);
+    }
     Check.argument(ipiv.isVector(), "ipiv must be a vector");
     Check.size(Math.min(a.rows(), a.columns()), ipiv.size());
     double[] aa = getData(a);
@@ -384,22 +440,47 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
     return info.val;
   }
 
+  @Override
+  public IntArray getrfBatch(DoubleArray a, IntArray ipiv) {
+    Check.argument(a.dims() == 3, "require 3d-array");
+    long min = Math.min(a.size(0), a.size(1));
+    if (calibration.useJava(Routine.GETRF, a.size(0) * a.size(1) * min)) {
+      return java.getrfBatch(a, ipiv);
+    }
+    Check.argument(ipiv.isMatrix(), "ipiv must be a matrix");
+    Check.size(ipiv.rows(), (int) min);
+    Check.size(ipiv.columns(), a.size(2));
+    IntArray info = getArrayBackend().getArrayFactory().intArray(a.size(2));
+    for (int i = 0; i < info.size(); i++) {
+      info.set(i, getrf(a.select(2, i), ipiv.select(1, i)));
+    }
+    return info;
+  }
+
   @Override
   public int getri(DoubleArray a, IntArray ipiv) {
+    long order = a.size(1);
+    if (calibration.useJava(Routine.GETRI, order * order * order)) {
+      return java.getri(a, ipiv);
+    }
     Check.argument(ipiv.isVector(), "ipiv must be a vector");
     int n = a.size(1);
     Check.size(ipiv.size(), n, "illegal size");
 
     int lda = Math.max(1, a.size(0));
-    int lwork = -1;
-    double[] work = new double[1];
     double[] aa = getData(a);
     int[] ia = getData(ipiv);
     intW info = new intW(0);
-    lapack.dgetri(n, aa, lda, ia, work, lwork, info);
-    ensureInfo(info);
-    lwork = (int) work[0];
-    work = new double[lwork];
+    LapackWorkspace.Key key = LapackWorkspace.key("dgetri", n, lda);
+    int[] sizes = WORKSPACE.get(key);
+    if (sizes == null) {
+      double[] query = new double[1];
+      lapack.dgetri(n, aa, lda, ia, query, -1, info);
+      ensureInfo(info);
+      sizes = WORKSPACE.put(key, (int) query[0]);
+    }
+    int lwork = sizes[0];
+    double[] work = LapackWorkspace.work(lwork);
     lapack.dgetri(n, aa, lda, ia, work, lwork, info);
     assignIfNeeded(a, aa);
     return info.val;
@@ -413,18 +494,21 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
     int lda = Math.max(1, m);
     int ldb = Math.max(1, Math.max(m, n));
 
-    int lwork = -1;
-    double[] work = new double[1];
     intW rank = new intW(0);
     intW info = new intW(0);
     double[] aa = getData(a);
     double[] ba = getData(b);
     int[] ja = getData(jpvt);
-    lapack.dgelsy(m, n, nrhs, aa, lda, ba, ldb, ja, rcond, rank, work, lwork, info);
-    ensureInfo(info);
-
-    lwork = (int) work[0];
-    work = new double[lwork];
+    LapackWorkspace.Key key = LapackWorkspace.key("dgelsy", m, n, nrhs, lda, ldb);
+    int[] sizes = WORKSPACE.get(key);
+    if (sizes == null) {
+      double[] query = new double[1];
+      lapack.dgelsy(m, n, nrhs, aa, lda, ba, ldb, ja, rcond, rank, query, -1, info);
+      ensureInfo(info);
+      sizes = WORKSPACE.put(key, (int) query[0]);
+    }
+    int lwork = sizes[0];
+    double[] work = LapackWorkspace.work(lwork);
     lapack.dgelsy(m, n, nrhs, aa, lda, ba, ldb, ja, rcond, rank, work, lwork, info);
     ensureInfo(info);
 
@@ -436,6 +520,10 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
 
   @Override
   public int gesv(DoubleArray a, IntArray ipiv, DoubleArray b) {
+    long order = a.size(0);
+    if (calibration.useJava(Routine.GESV, order * order * order)) {
+      return java.gesv(a, ipiv, b);
+    }
     if (!a.isSquare()) {
       throw new IllegalArgumentException();
     }
@@ -515,16 +603,19 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
     double[] sa = getData(s);
     double[] vta = getData(vt);
 
-    int lwork = -1;
-    double[] work = new double[1];
     intW info = new intW(0);
-    // Find the optimal work array size
-    lapack.dgesvd(String.valueOf(jobu), String.valueOf(jobvt), m, n, aa, lda, sa, ua, ldu, vta,
-        ldvt, work, lwork, info);
-    ensureInfo("Failed to allocate workspace. (See error code for details)", info);
-
-    lwork = (int) work[0];
-    work = new double[lwork];
+    LapackWorkspace.Key key = LapackWorkspace.key("dgesvd", jobu, jobvt, m, n, lda, ldu, ldvt);
+    int[] sizes = WORKSPACE.get(key);
+    if (sizes == null) {
+      // Find the optimal work array size
+      double[] query = new double[1];
+      lapack.dgesvd(String.valueOf(jobu), String.valueOf(jobvt), m, n, aa, lda, sa, ua, ldu, vta,
+          ldvt, query, -1, info);
+      ensureInfo("Failed to allocate workspace. (See error code for details)", info);
+      sizes = WORKSPACE.put(key, (int) query[0]);
+    }
+    int lwork = sizes[0];
+    double[] work = LapackWorkspace.work(lwork);
     lapack.dgesvd(String.valueOf(jobu), String.valueOf(jobvt), m, n, aa, lda, sa, ua, ldu, vta,
         ldvt, work, lwork, info);
     ensureInfo("Convergence failure", info);
@@ -575,15 +666,19 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
     double[] sa = getData(s);
     double[] vta = getData(vt);
 
-    int lwork = -1;
-    double[] work = new double[1];
-    int[] iwork = new int[8 * Math.min(m, n)];
+    int[] iwork = LapackWorkspace.iwork(8 * Math.min(m, n));
     intW info = new intW(0);
-    lapack.dgesdd(String.valueOf(jobz), m, n, aa, lda, sa, ua, ldu, vta, ldvt, work, lwork, iwork,
-        info);
-    ensureInfo(info);
-    lwork = (int) work[0];
-    work = new double[lwork];
+    LapackWorkspace.Key key = LapackWorkspace.key("dgesdd", jobz, m, n, lda, ldu, ldvt);
+    int[] sizes = WORKSPACE.get(key);
+    if (sizes == null) {
+      double[] query = new double[1];
+      lapack.dgesdd(String.valueOf(jobz), m, n, aa, lda, sa, ua, ldu, vta, ldvt, query, -1, iwork,
+          info);
+      ensureInfo(info);
+      sizes = WORKSPACE.put(key, (int) query[0]);
+    }
+    int lwork = sizes[0];
+    double[] work = LapackWorkspace.work(lwork);
     lapack.dgesdd(String.valueOf(jobz), m, n, aa, lda, sa, ua, ldu, vta, ldvt, work, lwork, iwork,
         info);
     ensureInfo(info);
@@ -627,7 +722,10 @@ public class NetlibLinearAlgebraRoutines extends AbstractLinearAlgebraRoutines {
   }
 
   private void assignIfNeeded(ComplexArray a, double[] data) {
-    a.assign(data);
+    // data() returns the storage unless a is a view
+    if (a.isView()) {
+      a.assign(data);
+    }
   }
 
   private void reassignIfNeeded(IntArray a, int[] data) {
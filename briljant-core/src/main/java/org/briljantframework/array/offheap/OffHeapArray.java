@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.offheap;
+
+/**
+ * An array whose elements are stored in natively allocated (off-heap) memory.
+ *
+ * <p>
+ * The memory of an off-heap array is shared between the array and all its views. It is freed
+ * explicitly using {@link #release()}, when the {@linkplain OffHeapScope scope} in which it was
+ * allocated is closed or, as a last resort, after the array (and its views) has been garbage
+ * collected. Accessing an array whose memory has been released throws an
+ * {@link IllegalStateException}.
+ *
+ * @author Isak Karlsson
+ */
+public interface OffHeapArray {
+
+  /**
+   * Frees the memory of this array and of all views sharing it.
+   */
+  void release();
+
+  /**
+   * Returns true if the memory of this array has been released.
+   *
+   * @return true if released
+   */
+  boolean isReleased();
+}
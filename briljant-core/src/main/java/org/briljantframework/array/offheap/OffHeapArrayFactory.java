@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.offheap;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.BaseArray;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.IntArray;
+import org.briljantframework.array.LongArray;
+import org.briljantframework.array.base.BaseArrayFactory;
+
+/**
+ * An array factory which allocates the storage of double, int and long arrays off-heap. Other
+ * array types are allocated on the heap (as in {@link BaseArrayFactory}).
+ *
+ * <p>
+ * The memory of an off-heap array is freed using {@link #release(BaseArray)} (or
+ * {@link OffHeapArray#release()}) or, for all arrays allocated by the current thread while a
+ * scope is open, when the {@linkplain #openScope() scope} is closed.
+ *
+ * @author Isak Karlsson
+ */
+public class OffHeapArrayFactory extends BaseArrayFactory {
+
+  private final ThreadLocal<Deque<OffHeapScope>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+
+  OffHeapArrayFactory() {}
+
+  /**
+   * Opens a new scope for the current thread. All off-heap memory allocated by the current thread
+   * is released when the returned scope is closed.
+   *
+   * @return a new scope
+   */
+  public OffHeapScope openScope() {
+    Deque<OffHeapScope> scopes = this.scopes.get();
+    OffHeapScope scope = new OffHeapScope(scopes);
+    scopes.push(scope);
+    return scope;
+  }
+
+  /**
+   * Frees the off-heap memory of the given array (and all views sharing it).
+   *
+   * @param array the array
+   * @throws IllegalArgumentException if the array is not allocated off-heap
+   */
+  public void release(BaseArray<?> array) {
+    Check.argument(array instanceof OffHeapArray, "not an off-heap array");
+    ((OffHeapArray) array).release();
+  }
+
+  OffHeapMemory allocate(int size, int shift) {
+    OffHeapMemory memory = OffHeapMemory.allocate(size, shift);
+    OffHeapScope scope = scopes.get().peek();
+    if (scope != null) {
+      scope.register(memory);
+    }
+    return memory;
+  }
+
+  @Override
+  public DoubleArray array(double[] data) {
+    return new OffHeapDoubleArray(this, data);
+  }
+
+  @Override
+  public DoubleArray doubleArray(int... shape) {
+    return new OffHeapDoubleArray(this, shape);
+  }
+
+  @Override
+  public IntArray array(int[] data) {
+    return new OffHeapIntArray(this, true, data);
+  }
+
+  @Override
+  public IntArray intArray(int... shape) {
+    return new OffHeapIntArray(this, shape);
+  }
+
+  @Override
+  public LongArray array(long[] data) {
+    return new OffHeapLongArray(this, data);
+  }
+
+  @Override
+  public LongArray longArray(int... shape) {
+    return new OffHeapLongArray(this, shape);
+  }
+}
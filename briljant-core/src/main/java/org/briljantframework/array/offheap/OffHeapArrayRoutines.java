@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package org.briljantframework.array.offheap;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.IntArray;
+import org.briljantframework.array.base.BaseArrayRoutines;
+
+/**
+ * Array routines which, for off-heap arrays, read and write the native memory directly instead
+ * of going through the (linearized) element accessors.
+ *
+ * <p>
+ * The reductions, the element-wise routines (through
+ * {@link #map(DoubleUnaryOperator, DoubleArray, DoubleArray)} and
+ * {@link #combine(DoubleBinaryOperator, DoubleArray, DoubleArray, DoubleArray)}) and the BLAS
+ * level 1 routines use the {@link OffHeapKernels}. The reductions along a dimension reduce each
+ * vector (a view of the same memory) using these kernels.
+ *
+ * @author Isak Karlsson
+ */
+class OffHeapArrayRoutines extends BaseArrayRoutines {
+
+  @Override
+  public double sum(DoubleArray x) {
+    if (x instanceof OffHeapDoubleArray) {
+      return OffHeapKernels.reduce((OffHeapDoubleArray) x, 0, Double::sum);
+    }
+    return super.sum(x);
+  }
+
+  @Override
+  public int sum(IntArray x) {
+    if (x instanceof OffHeapIntArray) {
+      return OffHeapKernels.reduce((OffHeapIntArray) x, 0, Integer::sum);
+    }
+    return super.sum(x);
+  }
+
+  @Override
+  public double prod(DoubleArray x) {
+    if (x instanceof OffHeapDoubleArray) {
+      return OffHeapKernels.reduce((OffHeapDoubleArray) x, 1, (p, v) -> p * v);
+    }
+    return super.prod(x);
+  }
+
+  @Override
+  public double var(DoubleArray x) {
+    if (x instanceof OffHeapDoubleArray) {
+      return OffHeapKernels.variance((OffHeapDoubleArray) x);
+    }
+    return super.var(x);
+  }
+
+  @Override
+  public double min(DoubleArray x) {
+    if (x instanceof OffHeapDoubleArray) {
+      return OffHeapKernels.reduce((OffHeapDoubleArray) x, Double.POSITIVE_INFINITY, Math::min);
+    }
+    return super.min(x);
+  }
+
+  @Override
+  public int min(IntArray x) {
+    if (x instanceof OffHeapIntArray) {
+      return OffHeapKernels.reduce((OffHeapIntArray) x, Integer.MAX_VALUE, Math::min);
+    }
+    return super.min(x);
+  }
+
+  @Override
+  public double max(DoubleArray x) {
+    if (x instanceof OffHeapDoubleArray) {
+      return OffHeapKernels.reduce((OffHeapDoubleArray) x, Double.NEGATIVE_INFINITY, Math::max);
+    }
+    return super.max(x);
+  }
+
+  @Override
+  public int max(IntArray x) {
+    if (x instanceof OffHeapIntArray) {
+      return OffHeapKernels.reduce((OffHeapIntArray) x, Integer.MIN_VALUE, Math::max);
+    }
+    return super.max(x);
+  }
+
+  @Override
+  public double inner(DoubleArray a, DoubleArray b) {
+    if (a instanceof OffHeapDoubleArray && b instanceof OffHeapDoubleArray) {
+      Check.size(a, b);
+      return OffHeapKernels.inner((OffHeapDoubleArray) a, (OffHeapDoubleArray) b);
+    }
+    return super.inner(a, b);
+  }
+
+  @Override
+  public double norm2(DoubleArray a) {
+    if (a instanceof OffHeapDoubleArray) {
+      return Math.sqrt(OffHeapKernels.reduce((OffHeapDoubleArray) a, 0, (s, v) -> s + v * v));
+    }
+    return super.norm2(a);
+  }
+
+  @Override
+  public double asum(DoubleArray a) {
+    if (a instanceof OffHeapDoubleArray) {
+      return OffHeapKernels.reduce((OffHeapDoubleArray) a, 0, (s, v) -> s + Math.abs(v));
+    }
+    return super.asum(a);
+  }
+
+  @Override
+  public void scal(double alpha, DoubleArray x) {
+    if (x instanceof OffHeapDoubleArray) {
+      if (alpha != 1) {
+        OffHeapKernels.map(v -> alpha * v, (OffHeapDoubleArray) x, (OffHeapDoubleArray) x);
+      }
+    } else {
+      super.scal(alpha, x);
+    }
+  }
+
+  @Override
+  public void axpy(double alpha, DoubleArray x, DoubleArray y) {
+    if (x instanceof OffHeapDoubleArray && y instanceof OffHeapDoubleArray) {
+      Check.size(x, y);
+      if (alpha != 0) {
+        OffHeapKernels.combine((a, b) -> alpha * a + b, (OffHeapDoubleArray) x,
+            (OffHeapDoubleArray) y, (OffHeapDoubleArray) y);
+      }
+    } else {
+      super.axpy(alpha, x, y);
+    }
+  }
+
+  @Override
+  protected DoubleArray map(DoubleUnaryOperator op, DoubleArray in, DoubleArray out) {
+    if (in instanceof OffHeapDoubleArray && out instanceof OffHeapDoubleArray) {
+      Check.size(in, out);
+      OffHeapKernels.map(op, (OffHeapDoubleArray) in, (OffHeapDoubleArray) out);
+      return out;
+    }
+    return super.map(op, in, out);
+  }
+
+  @Override
+  protected DoubleArray combine(DoubleBinaryOperator op, DoubleArray a, DoubleArray b,
+      DoubleArray out) {
+    a = a.size() == out.size() ? a : a.broadcast(out.getShape());
+    b = b.size() == out.size() ? b : b.broadcast(out.getShape());
+    if (a instanceof OffHeapDoubleArray && b instanceof OffHeapDoubleArray
+        && out instanceof OffHeapDoubleArray) {
+      OffHeapKernels.combine(op, (OffHeapDoubleArray) a, (OffHeapDoubleArray) b,
+          (OffHeapDoubleArray) out);
+      return out;
+    }
+    return super.combine(op, a, b, out);
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.offheap;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.AbstractDoubleArray;
+import org.briljantframework.array.DoubleArray;
+
+/**
+ * A double array stored in off-heap memory. The bulk operations pin the memory once and access
+ * the elements using {@link OffHeapKernels}; single elements are pinned on each access.
+ *
+ * @author Isak Karlsson
+ */
+class OffHeapDoubleArray extends AbstractDoubleArray implements OffHeapArray {
+
+  private final OffHeapMemory memory;
+
+  OffHeapDoubleArray(OffHeapArrayFactory bj, int[] shape) {
+    super(bj, shape);
+    this.memory = bj.allocate(size(), OffHeapMemory.DOUBLE_SHIFT);
+  }
+
+  OffHeapDoubleArray(OffHeapArrayFactory bj, double[] data) {
+    super(bj, new int[] {data.length});
+    this.memory = bj.allocate(data.length, OffHeapMemory.DOUBLE_SHIFT);
+    assign(data);
+  }
+
+  private OffHeapDoubleArray(OffHeapArrayFactory bj, int offset, int[] shape, int[] stride,
+      int majorStride, OffHeapMemory memory) {
+    super(bj, offset, shape, stride, majorStride);
+    this.memory = memory;
+  }
+
+  @Override
+  public DoubleArray asView(int offset, int[] shape, int[] stride, int majorStride) {
+    return new OffHeapDoubleArray(getArrayFactory(), offset, shape, stride, majorStride, memory);
+  }
+
+  @Override
+  public DoubleArray newEmptyArray(int... shape) {
+    return new OffHeapDoubleArray(getArrayFactory(), shape);
+  }
+
+  @Override
+  protected OffHeapArrayFactory getArrayFactory() {
+    return (OffHeapArrayFactory) super.getArrayFactory();
+  }
+
+  @Override
+  protected int elementSize() {
+    return memory.size();
+  }
+
+  @Override
+  protected double getElement(int i) {
+    return memory.getDouble(i);
+  }
+
+  @Override
+  protected void setElement(int i, double value) {
+    memory.putDouble(i, value);
+  }
+
+  /**
+   * Returns a copy of the elements (in linear order), since the elements are not stored in a
+   * java array. Hence, the returned array never writes through to this array.
+   */
+  @Override
+  public double[] data() {
+    double[] data = new double[size()];
+    OffHeapKernels.forEach(this, memory, (i, p) -> data[i] = memory.getDoubleUnchecked(p));
+    return data;
+  }
+
+  @Override
+  public void assign(double value) {
+    OffHeapKernels.forEach(this, memory, (i, p) -> memory.putDoubleUnchecked(p, value));
+  }
+
+  @Override
+  public void assign(double[] array) {
+    Check.size(size(), array.length);
+    OffHeapKernels.forEach(this, memory, (i, p) -> memory.putDoubleUnchecked(p, array[i]));
+  }
+
+  @Override
+  public void assign(DoubleSupplier supplier) {
+    OffHeapKernels.forEach(this, memory,
+        (i, p) -> memory.putDoubleUnchecked(p, supplier.getAsDouble()));
+  }
+
+  @Override
+  public void assign(DoubleArray matrix, DoubleUnaryOperator operator) {
+    DoubleArray other = broadcastOperand(matrix);
+    if (other instanceof OffHeapDoubleArray) {
+      OffHeapKernels.map(operator, (OffHeapDoubleArray) other, this);
+    } else {
+      super.assign(matrix, operator);
+    }
+  }
+
+  @Override
+  public void assign(DoubleArray matrix, DoubleBinaryOperator combine) {
+    DoubleArray other = broadcastOperand(matrix);
+    if (other instanceof OffHeapDoubleArray) {
+      OffHeapKernels.combine(combine, this, (OffHeapDoubleArray) other, this);
+    } else {
+      super.assign(matrix, combine);
+    }
+  }
+
+  @Override
+  public void apply(DoubleUnaryOperator operator) {
+    OffHeapKernels.map(operator, this, this);
+  }
+
+  @Override
+  public DoubleArray map(DoubleUnaryOperator operator) {
+    OffHeapDoubleArray result = new OffHeapDoubleArray(getArrayFactory(), getShape());
+    OffHeapKernels.map(operator, this, result);
+    return result;
+  }
+
+  @Override
+  public DoubleArray copy() {
+    return map(DoubleUnaryOperator.identity());
+  }
+
+  @Override
+  public void forEachDouble(DoubleConsumer consumer) {
+    OffHeapKernels.forEach(this, memory, (i, p) -> consumer.accept(memory.getDoubleUnchecked(p)));
+  }
+
+  @Override
+  public double reduce(double identity, DoubleBinaryOperator reduce, DoubleUnaryOperator map) {
+    return OffHeapKernels.reduce(this, identity,
+        (result, value) -> reduce.applyAsDouble(result, map.applyAsDouble(value)));
+  }
+
+  @Override
+  public DoubleArray times(double alpha, DoubleArray other, double beta) {
+    if (!isOperand(other)) {
+      return super.times(alpha, other, beta);
+    }
+    return combine((OffHeapDoubleArray) other, (a, b) -> alpha * a * b * beta);
+  }
+
+  @Override
+  public DoubleArray plus(double alpha, DoubleArray other, double beta) {
+    if (!isOperand(other)) {
+      return super.plus(alpha, other, beta);
+    }
+    return combine((OffHeapDoubleArray) other, (a, b) -> alpha * a + b * beta);
+  }
+
+  @Override
+  public DoubleArray minus(double alpha, DoubleArray other, double beta) {
+    if (!isOperand(other)) {
+      return super.minus(alpha, other, beta);
+    }
+    return combine((OffHeapDoubleArray) other, (a, b) -> alpha * a - b * beta);
+  }
+
+  @Override
+  public DoubleArray div(DoubleArray other) {
+    if (!isOperand(other)) {
+      return super.div(other);
+    }
+    return combine((OffHeapDoubleArray) other, (a, b) -> a / b);
+  }
+
+  /**
+   * Returns true if {@code other} is an off-heap array with the same shape as this array, i.e.,
+   * can be combined with this array without broadcasting.
+   */
+  private boolean isOperand(DoubleArray other) {
+    return other instanceof OffHeapDoubleArray
+        && java.util.Arrays.equals(getShape(), other.getShape());
+  }
+
+  private DoubleArray combine(OffHeapDoubleArray other, DoubleBinaryOperator combine) {
+    OffHeapDoubleArray result = new OffHeapDoubleArray(getArrayFactory(), getShape());
+    OffHeapKernels.combine(combine, this, other, result);
+    return result;
+  }
+
+  /**
+   * Returns {@code true}, since {@link #data()} never returns the storage of this array.
+   */
+  @Override
+  public boolean isView() {
+    return true;
+  }
+
+  @Override
+  public void release() {
+    memory.release();
+  }
+
+  @Override
+  public boolean isReleased() {
+    return memory.isReleased();
+  }
+
+  OffHeapMemory memory() {
+    return memory;
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.offheap;
+
+import net.mintern.primitive.Primitive;
+import net.mintern.primitive.comparators.IntComparator;
+
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.AbstractIntArray;
+import org.briljantframework.array.IntArray;
+
+/**
+ * An int array stored in off-heap memory. The bulk operations pin the memory once and access the
+ * elements using {@link OffHeapKernels}; single elements are pinned on each access.
+ *
+ * @author Isak Karlsson
+ */
+class OffHeapIntArray extends AbstractIntArray implements OffHeapArray {
+
+  private final OffHeapMemory memory;
+
+  OffHeapIntArray(OffHeapArrayFactory bj, int[] shape) {
+    super(bj, shape);
+    this.memory = bj.allocate(size(), OffHeapMemory.INT_SHIFT);
+  }
+
+  OffHeapIntArray(OffHeapArrayFactory bj, boolean ignore, int[] data) {
+    super(bj, new int[] {data.length});
+    this.memory = bj.allocate(data.length, OffHeapMemory.INT_SHIFT);
+    assign(data);
+  }
+
+  private OffHeapIntArray(OffHeapArrayFactory bj, int offset, int[] shape, int[] stride,
+      int majorStride, OffHeapMemory memory) {
+    super(bj, offset, shape, stride, majorStride);
+    this.memory = memory;
+  }
+
+  @Override
+  public IntArray asView(int offset, int[] shape, int[] stride, int majorStride) {
+    return new OffHeapIntArray(getArrayFactory(), offset, shape, stride, majorStride, memory);
+  }
+
+  @Override
+  public IntArray newEmptyArray(int... shape) {
+    return new OffHeapIntArray(getArrayFactory(), shape);
+  }
+
+  @Override
+  protected OffHeapArrayFactory getArrayFactory() {
+    return (OffHeapArrayFactory) super.getArrayFactory();
+  }
+
+  @Override
+  protected int elementSize() {
+    return memory.size();
+  }
+
+  @Override
+  protected int getElement(int i) {
+    return memory.getInt(i);
+  }
+
+  @Override
+  protected void setElement(int i, int value) {
+    memory.putInt(i, value);
+  }
+
+  /**
+   * Returns a copy of the elements (in linear order), since the elements are not stored in a
+   * java array. Hence, the returned array never writes through to this array.
+   */
+  @Override
+  public int[] data() {
+    int[] data = new int[size()];
+    OffHeapKernels.forEach(this, memory, (i, p) -> data[i] = memory.getIntUnchecked(p));
+    return data;
+  }
+
+  @Override
+  public void assign(int value) {
+    OffHeapKernels.forEach(this, memory, (i, p) -> memory.putIntUnchecked(p, value));
+  }
+
+  @Override
+  public void assign(int[] data) {
+    Check.size(size(), data.length);
+    OffHeapKernels.forEach(this, memory, (i, p) -> memory.putIntUnchecked(p, data[i]));
+  }
+
+  @Override
+  public void assign(IntSupplier supplier) {
+    OffHeapKernels.forEach(this, memory, (i, p) -> memory.putIntUnchecked(p, supplier.getAsInt()));
+  }
+
+  @Override
+  public void assign(IntArray matrix, IntUnaryOperator operator) {
+    IntArray other = broadcastOperand(matrix);
+    Check.shape(this, other);
+    if (other instanceof OffHeapIntArray) {
+      OffHeapMemory m = ((OffHeapIntArray) other).memory;
+      OffHeapKernels.forEach(other, m, this, memory,
+          (p, q) -> memory.putIntUnchecked(q, operator.applyAsInt(m.getIntUnchecked(p))));
+    } else {
+      super.assign(matrix, operator);
+    }
+  }
+
+  @Override
+  public void assign(IntArray matrix, IntBinaryOperator combine) {
+    IntArray other = broadcastOperand(matrix);
+    Check.shape(this, other);
+    if (other instanceof OffHeapIntArray) {
+      OffHeapMemory m = ((OffHeapIntArray) other).memory;
+      OffHeapKernels.forEach(other, m, this, memory, (p, q) -> memory.putIntUnchecked(q,
+          combine.applyAsInt(memory.getIntUnchecked(q), m.getIntUnchecked(p))));
+    } else {
+      super.assign(matrix, combine);
+    }
+  }
+
+  @Override
+  public void apply(IntUnaryOperator operator) {
+    OffHeapKernels.forEach(this, memory,
+        (i, p) -> memory.putIntUnchecked(p, operator.applyAsInt(memory.getIntUnchecked(p))));
+  }
+
+  @Override
+  public IntArray map(IntUnaryOperator operator) {
+    OffHeapIntArray result = new OffHeapIntArray(getArrayFactory(), getShape());
+    result.assign(this, operator);
+    return result;
+  }
+
+  @Override
+  public IntArray copy() {
+    return map(IntUnaryOperator.identity());
+  }
+
+  @Override
+  public void forEach(IntConsumer consumer) {
+    OffHeapKernels.forEach(this, memory, (i, p) -> consumer.accept(memory.getIntUnchecked(p)));
+  }
+
+  @Override
+  public int reduce(int identity, IntBinaryOperator reduce, IntUnaryOperator map) {
+    return OffHeapKernels.reduce(this, identity,
+        (result, value) -> reduce.applyAsInt(map.applyAsInt(value), result));
+  }
+
+  @Override
+  public void sort(IntComparator cmp) {
+    int[] data = data();
+    Primitive.sort(data, 0, data.length, cmp);
+    assign(data);
+  }
+
+  /**
+   * Returns {@code true}, since {@link #data()} never returns the storage of this array.
+   */
+  @Override
+  public boolean isView() {
+    return true;
+  }
+
+  @Override
+  public void release() {
+    memory.release();
+  }
+
+  @Override
+  public boolean isReleased() {
+    return memory.isReleased();
+  }
+
+  OffHeapMemory memory() {
+    return memory;
+  }
+}
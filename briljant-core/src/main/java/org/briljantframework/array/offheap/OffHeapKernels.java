@@ -0,0 +1,265 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.offheap;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntBinaryOperator;
+
+import org.briljantframework.array.BaseArray;
+import org.briljantframework.array.Indexer;
+import org.briljantframework.array.StrideCursor;
+
+/**
+ * Kernels operating directly on the native memory of off-heap arrays.
+ *
+ * <p>
+ * Each kernel pins the memory of its operands once, checking that all positions of the operands
+ * are within bounds, and then accesses the elements without further checks. Operands with a
+ * dense (column-major) layout are traversed with a simple loop; other operands using a
+ * {@link StrideCursor}.
+ *
+ * @author Isak Karlsson
+ */
+final class OffHeapKernels {
+
+  private OffHeapKernels() {}
+
+  static double reduce(OffHeapDoubleArray x, double identity, DoubleBinaryOperator op) {
+    OffHeapMemory m = x.memory();
+    m.pin(x);
+    try {
+      double result = identity;
+      if (isDense(x)) {
+        int position = x.getOffset();
+        int end = position + x.size();
+        for (; position < end; position++) {
+          result = op.applyAsDouble(result, m.getDoubleUnchecked(position));
+        }
+      } else {
+        StrideCursor cursor = StrideCursor.of(x);
+        while (cursor.hasNext()) {
+          result = op.applyAsDouble(result, m.getDoubleUnchecked(cursor.next()));
+        }
+      }
+      return result;
+    } finally {
+      m.unpin();
+    }
+  }
+
+  static int reduce(OffHeapIntArray x, int identity, IntBinaryOperator op) {
+    OffHeapMemory m = x.memory();
+    m.pin(x);
+    try {
+      int result = identity;
+      if (isDense(x)) {
+        int position = x.getOffset();
+        int end = position + x.size();
+        for (; position < end; position++) {
+          result = op.applyAsInt(result, m.getIntUnchecked(position));
+        }
+      } else {
+        StrideCursor cursor = StrideCursor.of(x);
+        while (cursor.hasNext()) {
+          result = op.applyAsInt(result, m.getIntUnchecked(cursor.next()));
+        }
+      }
+      return result;
+    } finally {
+      m.unpin();
+    }
+  }
+
+  /**
+   * Returns the (population) variance of the elements of {@code x}, computed in two passes.
+   */
+  static double variance(OffHeapDoubleArray x) {
+    int n = x.size();
+    if (n < 2) {
+      return 0;
+    }
+    double mean = reduce(x, 0, Double::sum) / n;
+    return reduce(x, 0, (sum, v) -> sum + (v - mean) * (v - mean)) / n;
+  }
+
+  static double inner(OffHeapDoubleArray a, OffHeapDoubleArray b) {
+    OffHeapMemory am = a.memory(), bm = b.memory();
+    am.pin(a);
+    try {
+      bm.pin(b);
+      try {
+        double sum = 0;
+        if (isDense(a) && isDense(b)) {
+          int ap = a.getOffset(), bp = b.getOffset();
+          for (int i = 0, n = a.size(); i < n; i++) {
+            sum += am.getDoubleUnchecked(ap + i) * bm.getDoubleUnchecked(bp + i);
+          }
+        } else {
+          StrideCursor ac = StrideCursor.of(a), bc = StrideCursor.of(b);
+          while (ac.hasNext()) {
+            sum += am.getDoubleUnchecked(ac.next()) * bm.getDoubleUnchecked(bc.next());
+          }
+        }
+        return sum;
+      } finally {
+        bm.unpin();
+      }
+    } finally {
+      am.unpin();
+    }
+  }
+
+  /**
+   * Stores {@code op(x[i])} in {@code y[i]}; the arrays must have the same size.
+   */
+  static void map(DoubleUnaryOperator op, OffHeapDoubleArray x, OffHeapDoubleArray y) {
+    OffHeapMemory xm = x.memory(), ym = y.memory();
+    xm.pin(x);
+    try {
+      ym.pin(y);
+      try {
+        if (isDense(x) && isDense(y)) {
+          int xp = x.getOffset(), yp = y.getOffset();
+          for (int i = 0, n = y.size(); i < n; i++) {
+            ym.putDoubleUnchecked(yp + i, op.applyAsDouble(xm.getDoubleUnchecked(xp + i)));
+          }
+        } else {
+          StrideCursor xc = StrideCursor.of(x), yc = StrideCursor.of(y);
+          while (yc.hasNext()) {
+            ym.putDoubleUnchecked(yc.next(), op.applyAsDouble(xm.getDoubleUnchecked(xc.next())));
+          }
+        }
+      } finally {
+        ym.unpin();
+      }
+    } finally {
+      xm.unpin();
+    }
+  }
+
+  /**
+   * Stores {@code op(a[i], b[i])} in {@code y[i]}; the arrays must have the same size.
+   */
+  static void combine(DoubleBinaryOperator op, OffHeapDoubleArray a, OffHeapDoubleArray b,
+      OffHeapDoubleArray y) {
+    OffHeapMemory am = a.memory(), bm = b.memory(), ym = y.memory();
+    am.pin(a);
+    try {
+      bm.pin(b);
+      try {
+        ym.pin(y);
+        try {
+          if (isDense(a) && isDense(b) && isDense(y)) {
+            int ap = a.getOffset(), bp = b.getOffset(), yp = y.getOffset();
+            for (int i = 0, n = y.size(); i < n; i++) {
+              ym.putDoubleUnchecked(yp + i,
+                  op.applyAsDouble(am.getDoubleUnchecked(ap + i), bm.getDoubleUnchecked(bp + i)));
+            }
+          } else {
+            StrideCursor ac = StrideCursor.of(a), bc = StrideCursor.of(b), yc = StrideCursor.of(y);
+            while (yc.hasNext()) {
+              ym.putDoubleUnchecked(yc.next(), op.applyAsDouble(am.getDoubleUnchecked(ac.next()),
+                  bm.getDoubleUnchecked(bc.next())));
+            }
+          }
+        } finally {
+          ym.unpin();
+        }
+      } finally {
+        bm.unpin();
+      }
+    } finally {
+      am.unpin();
+    }
+  }
+
+  /**
+   * Calls {@code action} with the linearized index and the position of each element of {@code x},
+   * whose storage is {@code m}, with the memory pinned.
+   */
+  static void forEach(BaseArray<?> x, OffHeapMemory m, PositionAction action) {
+    m.pin(x);
+    try {
+      if (isDense(x)) {
+        int offset = x.getOffset();
+        for (int i = 0, n = x.size(); i < n; i++) {
+          action.apply(i, offset + i);
+        }
+      } else {
+        StrideCursor cursor = StrideCursor.of(x);
+        for (int i = 0; cursor.hasNext(); i++) {
+          action.apply(i, cursor.next());
+        }
+      }
+    } finally {
+      m.unpin();
+    }
+  }
+
+  /**
+   * Calls {@code action} with the positions of the corresponding elements of {@code x} and
+   * {@code y}, whose storages are {@code xm} and {@code ym}, with both memories pinned. The arrays
+   * must have the same size.
+   */
+  static void forEach(BaseArray<?> x, OffHeapMemory xm, BaseArray<?> y, OffHeapMemory ym,
+      PositionAction action) {
+    xm.pin(x);
+    try {
+      ym.pin(y);
+      try {
+        if (isDense(x) && isDense(y)) {
+          int xp = x.getOffset(), yp = y.getOffset();
+          for (int i = 0, n = y.size(); i < n; i++) {
+            action.apply(xp + i, yp + i);
+          }
+        } else {
+          StrideCursor xc = StrideCursor.of(x), yc = StrideCursor.of(y);
+          while (yc.hasNext()) {
+            action.apply(xc.next(), yc.next());
+          }
+        }
+      } finally {
+        ym.unpin();
+      }
+    } finally {
+      xm.unpin();
+    }
+  }
+
+  /**
+   * Returns true if the elements of {@code x} are stored densely, in column-major order,
+   * starting at its offset.
+   */
+  private static boolean isDense(BaseArray<?> x) {
+    return java.util.Arrays.equals(x.getStride(), Indexer.computeStride(1, x.getShape()));
+  }
+
+  /**
+   * An action on a pair of positions (or an index and a position) of pinned memory.
+   */
+  @FunctionalInterface
+  interface PositionAction {
+
+    void apply(int a, int b);
+  }
+}
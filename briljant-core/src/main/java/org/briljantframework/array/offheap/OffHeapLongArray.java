@@ -0,0 +1,179 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.offheap;
+
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.AbstractLongArray;
+import org.briljantframework.array.LongArray;
+
+/**
+ * A long array stored in off-heap memory. The bulk operations pin the memory once and access the
+ * elements using {@link OffHeapKernels}; single elements are pinned on each access.
+ *
+ * @author Isak Karlsson
+ */
+class OffHeapLongArray extends AbstractLongArray implements OffHeapArray {
+
+  private final OffHeapMemory memory;
+
+  OffHeapLongArray(OffHeapArrayFactory bj, int[] shape) {
+    super(bj, shape);
+    this.memory = bj.allocate(size(), OffHeapMemory.LONG_SHIFT);
+  }
+
+  OffHeapLongArray(OffHeapArrayFactory bj, long[] data) {
+    super(bj, new int[] {data.length});
+    this.memory = bj.allocate(data.length, OffHeapMemory.LONG_SHIFT);
+    assign(data);
+  }
+
+  private OffHeapLongArray(OffHeapArrayFactory bj, int offset, int[] shape, int[] stride,
+      int majorStride, OffHeapMemory memory) {
+    super(bj, offset, shape, stride, majorStride);
+    this.memory = memory;
+  }
+
+  @Override
+  public LongArray asView(int offset, int[] shape, int[] stride, int majorStride) {
+    return new OffHeapLongArray(getArrayFactory(), offset, shape, stride, majorStride, memory);
+  }
+
+  @Override
+  public LongArray newEmptyArray(int... shape) {
+    return new OffHeapLongArray(getArrayFactory(), shape);
+  }
+
+  @Override
+  protected OffHeapArrayFactory getArrayFactory() {
+    return (OffHeapArrayFactory) super.getArrayFactory();
+  }
+
+  @Override
+  protected int elementSize() {
+    return memory.size();
+  }
+
+  @Override
+  protected long getElement(int i) {
+    return memory.getLong(i);
+  }
+
+  @Override
+  protected void setElement(int i, long value) {
+    memory.putLong(i, value);
+  }
+
+  @Override
+  public LongArray assign(long value) {
+    OffHeapKernels.forEach(this, memory, (i, p) -> memory.putLongUnchecked(p, value));
+    return this;
+  }
+
+  @Override
+  public void assign(long[] values) {
+    Check.size(size(), values.length);
+    OffHeapKernels.forEach(this, memory, (i, p) -> memory.putLongUnchecked(p, values[i]));
+  }
+
+  @Override
+  public LongArray assign(LongSupplier supplier) {
+    OffHeapKernels.forEach(this, memory,
+        (i, p) -> memory.putLongUnchecked(p, supplier.getAsLong()));
+    return this;
+  }
+
+  @Override
+  public LongArray assign(LongArray matrix, LongUnaryOperator operator) {
+    LongArray other = broadcastOperand(matrix);
+    if (other instanceof OffHeapLongArray) {
+      OffHeapMemory m = ((OffHeapLongArray) other).memory;
+      OffHeapKernels.forEach(other, m, this, memory,
+          (p, q) -> memory.putLongUnchecked(q, operator.applyAsLong(m.getLongUnchecked(p))));
+      return this;
+    }
+    return super.assign(matrix, operator);
+  }
+
+  @Override
+  public LongArray assign(LongArray matrix, LongBinaryOperator combine) {
+    LongArray other = broadcastOperand(matrix);
+    Check.shape(this, other);
+    if (other instanceof OffHeapLongArray) {
+      OffHeapMemory m = ((OffHeapLongArray) other).memory;
+      OffHeapKernels.forEach(other, m, this, memory, (p, q) -> memory.putLongUnchecked(q,
+          combine.applyAsLong(memory.getLongUnchecked(q), m.getLongUnchecked(p))));
+      return this;
+    }
+    return super.assign(matrix, combine);
+  }
+
+  @Override
+  public void apply(LongUnaryOperator operator) {
+    OffHeapKernels.forEach(this, memory,
+        (i, p) -> memory.putLongUnchecked(p, operator.applyAsLong(memory.getLongUnchecked(p))));
+  }
+
+  @Override
+  public LongArray map(LongUnaryOperator operator) {
+    OffHeapLongArray result = new OffHeapLongArray(getArrayFactory(), getShape());
+    return result.assign(this, operator);
+  }
+
+  @Override
+  public LongArray copy() {
+    return map(LongUnaryOperator.identity());
+  }
+
+  @Override
+  public long reduce(long identity, LongBinaryOperator reduce, LongUnaryOperator map) {
+    long[] result = {identity};
+    OffHeapKernels.forEach(this, memory, (i, p) -> result[0] =
+        reduce.applyAsLong(map.applyAsLong(memory.getLongUnchecked(p)), result[0]));
+    return result[0];
+  }
+
+  /**
+   * Returns {@code true}, since the elements are not stored in a java array.
+   */
+  @Override
+  public boolean isView() {
+    return true;
+  }
+
+  @Override
+  public void release() {
+    memory.release();
+  }
+
+  @Override
+  public boolean isReleased() {
+    return memory.isReleased();
+  }
+
+  OffHeapMemory memory() {
+    return memory;
+  }
+}
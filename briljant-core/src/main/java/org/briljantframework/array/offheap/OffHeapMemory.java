@@ -0,0 +1,408 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.offheap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Field;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.briljantframework.array.BaseArray;
+
+/**
+ * A block of natively allocated (off-heap) memory holding a fixed number of elements of a
+ * primitive type.
+ *
+ * <p>
+ * The memory is freed when {@link #release()} is called or, if it is never released, when the
+ * block has become unreachable and a new block is allocated. Accessing a released block throws
+ * an {@link IllegalStateException}.
+ *
+ * <p>
+ * Every access pins the block, and a released block is not freed until all accesses (from any
+ * thread) have ended. Hence, releasing a block that is concurrently read or written never frees
+ * memory that is in use. Bulk operations pin the block once, using {@link #pin(BaseArray)}, and
+ * then use the unchecked accessors until the block is {@linkplain #unpin() unpinned}.
+ *
+ * <p>
+ * The native memory is managed using {@code sun.misc.Unsafe}, which is looked up reflectively
+ * and invoked through (constant) method handles.
+ *
+ * @author Isak Karlsson
+ */
+final class OffHeapMemory {
+
+  static final int INT_SHIFT = 2;
+  static final int LONG_SHIFT = 3;
+  static final int DOUBLE_SHIFT = 3;
+
+  /**
+   * The bit of {@link #state} set when the block is released
+   */
+  private static final int RELEASED = Integer.MIN_VALUE;
+
+  private static final Object UNSAFE = findUnsafe();
+  private static final MethodHandle ALLOCATE_MEMORY = find("allocateMemory", long.class);
+  private static final MethodHandle SET_MEMORY =
+      find("setMemory", long.class, long.class, byte.class);
+  private static final MethodHandle FREE_MEMORY = find("freeMemory", long.class);
+  private static final MethodHandle GET_DOUBLE = find("getDouble", long.class);
+  private static final MethodHandle PUT_DOUBLE = find("putDouble", long.class, double.class);
+  private static final MethodHandle GET_INT = find("getInt", long.class);
+  private static final MethodHandle PUT_INT = find("putInt", long.class, int.class);
+  private static final MethodHandle GET_LONG = find("getLong", long.class);
+  private static final MethodHandle PUT_LONG = find("putLong", long.class, long.class);
+
+  private static final ReferenceQueue<OffHeapMemory> QUEUE = new ReferenceQueue<>();
+
+  /**
+   * The deallocators of the live blocks (the phantom references must remain reachable)
+   */
+  private static final Set<Deallocator> LIVE = ConcurrentHashMap.newKeySet();
+
+  private final Deallocator deallocator;
+  private final long address;
+  private final int size;
+  private final int shift;
+
+  /**
+   * The number of active accesses, with the sign bit set if the block is released
+   */
+  private final AtomicInteger state = new AtomicInteger();
+
+  private OffHeapMemory(long address, int size, int shift) {
+    this.address = address;
+    this.size = size;
+    this.shift = shift;
+    this.deallocator = new Deallocator(this, address);
+    LIVE.add(deallocator);
+  }
+
+  /**
+   * Returns true if native memory can be allocated
+   *
+   * @return true if available
+   */
+  static boolean isAvailable() {
+    return UNSAFE != null && PUT_LONG != null;
+  }
+
+  /**
+   * Allocates a new zero-filled block of {@code size} elements, each {@code 1 << shift} bytes.
+   *
+   * @param size the number of elements
+   * @param shift the base 2 logarithm of the element size
+   * @return a new block of memory
+   */
+  static OffHeapMemory allocate(int size, int shift) {
+    Deallocator stale;
+    while ((stale = (Deallocator) QUEUE.poll()) != null) {
+      stale.free();
+    }
+
+    long bytes = Math.max(1, (long) size << shift);
+    try {
+      long address = (long) ALLOCATE_MEMORY.invokeExact(bytes);
+      SET_MEMORY.invokeExact(address, bytes, (byte) 0);
+      return new OffHeapMemory(address, size, shift);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * Returns the number of elements
+   *
+   * @return the number of elements
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Releases the memory. The memory is freed immediately, or when the last active access ends.
+   * Releasing a released block has no effect.
+   */
+  void release() {
+    int current;
+    do {
+      current = state.get();
+      if (current < 0) {
+        return;
+      }
+    } while (!state.compareAndSet(current, current | RELEASED));
+    if (current == 0) {
+      deallocator.free();
+    }
+  }
+
+  boolean isReleased() {
+    return state.get() < 0;
+  }
+
+  /**
+   * Pins the memory for an access of the elements of {@code x}, after checking that all
+   * positions of {@code x} are within bounds. The memory is not freed before {@link #unpin()} is
+   * called.
+   *
+   * @param x an array with this memory as storage
+   * @throws IllegalStateException if the memory is released
+   * @throws IndexOutOfBoundsException if a position of {@code x} is out of bounds
+   */
+  void pin(BaseArray<?> x) {
+    int[] shape = x.getShape();
+    int[] stride = x.getStride();
+    long first = x.getOffset();
+    long last = first;
+    for (int i = 0; i < shape.length; i++) {
+      long extent = (long) (shape[i] - 1) * stride[i];
+      if (extent < 0) {
+        first += extent;
+      } else {
+        last += extent;
+      }
+    }
+    if (x.size() > 0 && (first < 0 || last >= size)) {
+      throw new IndexOutOfBoundsException(String.format("[%d, %d]", first, last));
+    }
+    pin();
+  }
+
+  /**
+   * Ends an access started by {@link #pin(BaseArray)}.
+   */
+  void unpin() {
+    if (state.decrementAndGet() == RELEASED) {
+      deallocator.free();
+    }
+  }
+
+  double getDouble(int index) {
+    checkIndex(index);
+    pin();
+    try {
+      return getDoubleUnchecked(index);
+    } finally {
+      unpin();
+    }
+  }
+
+  void putDouble(int index, double value) {
+    checkIndex(index);
+    pin();
+    try {
+      putDoubleUnchecked(index, value);
+    } finally {
+      unpin();
+    }
+  }
+
+  int getInt(int index) {
+    checkIndex(index);
+    pin();
+    try {
+      return getIntUnchecked(index);
+    } finally {
+      unpin();
+    }
+  }
+
+  void putInt(int index, int value) {
+    checkIndex(index);
+    pin();
+    try {
+      putIntUnchecked(index, value);
+    } finally {
+      unpin();
+    }
+  }
+
+  long getLong(int index) {
+    checkIndex(index);
+    pin();
+    try {
+      return getLongUnchecked(index);
+    } finally {
+      unpin();
+    }
+  }
+
+  void putLong(int index, long value) {
+    checkIndex(index);
+    pin();
+    try {
+      putLongUnchecked(index, value);
+    } finally {
+      unpin();
+    }
+  }
+
+  /**
+   * Returns the element with the given index without checking the index. The memory must be
+   * pinned.
+   */
+  double getDoubleUnchecked(int index) {
+    try {
+      return (double) GET_DOUBLE.invokeExact(address + ((long) index << shift));
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * @see #getDoubleUnchecked(int)
+   */
+  void putDoubleUnchecked(int index, double value) {
+    try {
+      PUT_DOUBLE.invokeExact(address + ((long) index << shift), value);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * @see #getDoubleUnchecked(int)
+   */
+  int getIntUnchecked(int index) {
+    try {
+      return (int) GET_INT.invokeExact(address + ((long) index << shift));
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * @see #getDoubleUnchecked(int)
+   */
+  void putIntUnchecked(int index, int value) {
+    try {
+      PUT_INT.invokeExact(address + ((long) index << shift), value);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * @see #getDoubleUnchecked(int)
+   */
+  long getLongUnchecked(int index) {
+    try {
+      return (long) GET_LONG.invokeExact(address + ((long) index << shift));
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * @see #getDoubleUnchecked(int)
+   */
+  void putLongUnchecked(int index, long value) {
+    try {
+      PUT_LONG.invokeExact(address + ((long) index << shift), value);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  private void pin() {
+    int current;
+    do {
+      current = state.get();
+      if (current < 0) {
+        throw new IllegalStateException("Memory has been released.");
+      }
+    } while (!state.compareAndSet(current, current + 1));
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+  }
+
+  private static RuntimeException rethrow(Throwable e) {
+    if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    }
+    if (e instanceof Error) {
+      throw (Error) e;
+    }
+    throw new IllegalStateException(e);
+  }
+
+  private static Object findUnsafe() {
+    try {
+      Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      return field.get(null);
+    } catch (Exception | LinkageError e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a handle to the method of {@code sun.misc.Unsafe} with the given name and parameter
+   * types, bound to the unsafe instance; or {@code null} if unavailable.
+   */
+  private static MethodHandle find(String name, Class<?>... parameterTypes) {
+    if (UNSAFE == null) {
+      return null;
+    }
+    try {
+      return MethodHandles.lookup()
+          .unreflect(UNSAFE.getClass().getMethod(name, parameterTypes)).bindTo(UNSAFE);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Frees the native memory of a block, either explicitly or once it has become phantom
+   * reachable.
+   */
+  private static final class Deallocator extends PhantomReference<OffHeapMemory> {
+
+    private final long address;
+    private boolean freed = false;
+
+    Deallocator(OffHeapMemory memory, long address) {
+      super(memory, QUEUE);
+      this.address = address;
+    }
+
+    synchronized void free() {
+      if (!freed) {
+        freed = true;
+        try {
+          FREE_MEMORY.invokeExact(address);
+        } catch (Throwable e) {
+          throw rethrow(e);
+        }
+        LIVE.remove(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.offheap;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.briljantframework.Check;
+
+/**
+ * A scope in which all off-heap memory allocated by the current thread (using an
+ * {@link OffHeapArrayFactory}) is released when the scope is closed.
+ *
+ * <pre>
+ * {@code
+ * try (OffHeapScope scope = factory.openScope()) {
+ *   DoubleArray x = factory.doubleArray(10000, 10000);
+ *   DoubleArray y = x.plus(x); // also released when the scope is closed
+ *   ...
+ * }
+ * }
+ * </pre>
+ *
+ * <p>
+ * Scopes can be nested, in which case the memory is owned by the innermost scope. Scopes must be
+ * closed in the reverse order of opening, by the thread that opened them.
+ *
+ * @author Isak Karlsson
+ */
+public final class OffHeapScope implements AutoCloseable {
+
+  private final Deque<OffHeapScope> scopes;
+  private final List<OffHeapMemory> allocated = new ArrayList<>();
+
+  OffHeapScope(Deque<OffHeapScope> scopes) {
+    this.scopes = scopes;
+  }
+
+  void register(OffHeapMemory memory) {
+    allocated.add(memory);
+  }
+
+  /**
+   * Releases all memory allocated in this scope.
+   */
+  @Override
+  public void close() {
+    Check.state(scopes.peek() == this,
+        "Scopes must be closed in reverse order by the thread that opened them");
+    scopes.pop();
+    allocated.forEach(OffHeapMemory::release);
+    allocated.clear();
+  }
+}
@@ -71,4 +71,18 @@ public final class Sample {
     return out;
   }
 
+  /**
+   * Randomly permutes the elements of {@code array} in place (using the Fisher-Yates shuffle).
+   *
+   * @param rng the random number generator
+   * @param array the array to shuffle
+   */
+  public static void shuffle(Random rng, int[] array) {
+    for (int i = array.length - 1; i > 0; i--) {
+      int j = rng.nextInt(i + 1);
+      int tmp = array[i];
+      array[i] = array[j];
+      array[j] = tmp;
+    }
+  }
 }
@@ -87,6 +87,21 @@ public class MutableComplex {
     this(complex.getReal(), complex.getImaginary());
   }
 
+  /**
+   * Sets the real and imaginary parts of the receiver.
+   *
+   * @param real the real part
+   * @param imag the imaginary part
+   * @return receiver modified
+   */
+  public MutableComplex set(double real, double imag) {
+    this.real = real;
+    this.imag = imag;
+    this.isNaN = Double.isNaN(real) || Double.isNaN(imag);
+    this.isInfinite = !isNaN && (Double.isInfinite(real) || Double.isInfinite(imag));
+    return this;
+  }
+
   public MutableComplex plus(Complex other) {
     if (isNaN) {
       return this;
@@ -137,10 +137,8 @@ public abstract class AbstractDataFrame implements DataFrame {
       }
       builder.setIndex(getIndex());
     } else if (array.isVector()) { // Select rows;
-      for (int i = 0; i < array.size(); i++) {
-        if (array.get(i)) {
-          builder.setRecord(getIndex().getKey(i), Vectors.transferableBuilder(loc().getRecord(i)));
-        }
+      for (int i = array.nextSetBit(0); i >= 0; i = array.nextSetBit(i + 1)) {
+        builder.setRecord(getIndex().getKey(i), Vectors.transferableBuilder(loc().getRecord(i)));
       }
       builder.setColumnIndex(getColumnIndex());
     } else {
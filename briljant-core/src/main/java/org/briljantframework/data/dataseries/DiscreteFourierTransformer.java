@@ -21,19 +21,20 @@
 
 package org.briljantframework.data.dataseries;
 
-import static org.briljantframework.math.transform.DiscreteFourierTransform.fft;
-import static org.briljantframework.math.transform.DiscreteFourierTransform.ifft;
+import java.util.List;
 
 import org.apache.commons.math3.complex.Complex;
 import org.briljantframework.Check;
-import org.briljantframework.array.ComplexArray;
-import org.briljantframework.array.DoubleArray;
 import org.briljantframework.data.dataframe.DataFrame;
 import org.briljantframework.data.dataframe.transform.InvertibleTransformer;
 import org.briljantframework.data.vector.Vector;
 import org.briljantframework.data.vector.VectorType;
+import org.briljantframework.math.transform.DiscreteFourierTransform;
 
 /**
+ * Transforms each record of a data frame into (or from) the frequency domain. The records are
+ * transformed in parallel using {@link DiscreteFourierTransform}.
+ *
  * @author Isak Karlsson
  */
 public class DiscreteFourierTransformer implements InvertibleTransformer {
@@ -44,14 +45,29 @@ public class DiscreteFourierTransformer implements InvertibleTransformer {
    */
   @Override
   public DataFrame transform(DataFrame x) {
-    DataSeriesCollection.Builder builder = new DataSeriesCollection.Builder(Complex.class);
-    for (Vector row : x.getRecords()) {
+    List<Vector> records = x.getRecords();
+    double[][] series = new double[records.size()][];
+    for (int i = 0; i < series.length; i++) {
+      Vector row = records.get(i);
       Check.type(row, VectorType.DOUBLE);
-      DoubleArray timeDomain = row.toDoubleArray();
-      ComplexArray frequencyDomain = fft(timeDomain);
-      Vector.Builder rowBuilder = VectorType.of(Complex.class).newBuilder(timeDomain.size());
-      for (int i = 0; i < frequencyDomain.size(); i++) {
-        rowBuilder.loc().set(i, frequencyDomain.get(i));
+      double[] values = new double[row.size()];
+      for (int j = 0; j < values.length; j++) {
+        values[j] = row.loc().getAsDouble(j);
+      }
+      series[i] = values;
+    }
+
+    double[][] spectra = DiscreteFourierTransform.rfft(series);
+    DataSeriesCollection.Builder builder = new DataSeriesCollection.Builder(Complex.class);
+    for (int i = 0; i < spectra.length; i++) {
+      int n = series[i].length;
+      double[] spectrum = spectra[i];
+      Vector.Builder rowBuilder = VectorType.of(Complex.class).newBuilder(n);
+      for (int k = 0; k < n; k++) {
+        // the spectrum of a real series is Hermitian, i.e., y[k] = conj(y[n - k])
+        Complex value = k <= n / 2 ? new Complex(spectrum[2 * k], spectrum[2 * k + 1])
+            : new Complex(spectrum[2 * (n - k)], -spectrum[2 * (n - k) + 1]);
+        rowBuilder.loc().set(k, value);
       }
       builder.addRecord(rowBuilder);
     }
@@ -60,14 +76,26 @@ public class DiscreteFourierTransformer implements InvertibleTransformer {
 
   @Override
   public DataFrame inverseTransform(DataFrame x) {
-    DataSeriesCollection.Builder builder = new DataSeriesCollection.Builder(VectorType.DOUBLE);
-    for (Vector row : x.getRecords()) {
+    List<Vector> records = x.getRecords();
+    double[][] spectra = new double[records.size()][];
+    for (int i = 0; i < spectra.length; i++) {
+      Vector row = records.get(i);
       Check.type(row, VectorType.of(Complex.class));
-      ComplexArray timeDomain = row.toComplexArray();
-      DoubleArray frequencyDomain = ifft(timeDomain).asDouble();
-      Vector.Builder rowBuilder = Vector.Builder.of(Double.class);/* (0, frequencyDomain.size()); */
-      for (int i = 0; i < frequencyDomain.size(); i++) {
-        rowBuilder.loc().set(i, frequencyDomain.get(i));
+      double[] values = new double[row.size() * 2];
+      for (int j = 0; j < row.size(); j++) {
+        Complex value = row.loc().get(Complex.class, j);
+        values[2 * j] = value.getReal();
+        values[2 * j + 1] = value.getImaginary();
+      }
+      spectra[i] = values;
+    }
+
+    DiscreteFourierTransform.ifft(spectra);
+    DataSeriesCollection.Builder builder = new DataSeriesCollection.Builder(VectorType.DOUBLE);
+    for (double[] timeDomain : spectra) {
+      Vector.Builder rowBuilder = Vector.Builder.of(Double.class);
+      for (int i = 0; i < timeDomain.length / 2; i++) {
+        rowBuilder.loc().set(i, timeDomain[2 * i]);
       }
       builder.addRecord(rowBuilder);
     }
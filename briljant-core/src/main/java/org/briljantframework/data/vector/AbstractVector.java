@@ -246,10 +246,8 @@ public abstract class AbstractVector implements Vector {
     Check.argument(array.isVector(), "1d-array required");
     Check.size(this.size(), array.size());
     Builder builder = newBuilder();
-    for (int i = 0; i < array.size(); i++) {
-      if (array.get(i)) {
-        builder.set(getIndex().getKey(i), this, i);
-      }
+    for (int i = array.nextSetBit(0); i >= 0; i = array.nextSetBit(i + 1)) {
+      builder.set(getIndex().getKey(i), this, i);
     }
     return builder.build();
   }
@@ -36,6 +36,16 @@ public interface LinearAlgebraRoutines {
 
   DoubleArray inv(DoubleArray x);
 
+  /**
+   * Computes the inverse of each matrix in a stack of equally shaped square matrices, i.e., a
+   * 3d-array where the last dimension enumerates the matrices.
+   *
+   * @param x the stack of matrices
+   * @return a new stack with the inverses
+   * @throws ArithmeticException if any of the matrices is singular
+   */
+  DoubleArray invBatch(DoubleArray x);
+
   DoubleArray pinv(DoubleArray x);
 
   SingularValueDecomposition svd(DoubleArray x);
@@ -183,6 +193,18 @@ public interface LinearAlgebraRoutines {
    */
   int getrf(DoubleArray a, IntArray ipiv);
 
+  /**
+   * Computes the LU factorization of each matrix in a stack of equally shaped matrices, i.e., a
+   * 3d-array where the last dimension enumerates the matrices. The factors of the {@code i}:th
+   * matrix overwrites {@code a[:, :, i]} and its pivot indices are stored in {@code ipiv[:, i]}.
+   *
+   * @param a (input/output) the stack of {@code M-by-N} matrices to be factored
+   * @param ipiv (output) an int matrix with dimension (min(M,N), K), where K is the number of
+   *        matrices
+   * @return the value returned by {@link #getrf(DoubleArray, IntArray)} for each matrix
+   */
+  IntArray getrfBatch(DoubleArray a, IntArray ipiv);
+
   int getri(DoubleArray a, IntArray ipiv);
 
   /**
@@ -0,0 +1,233 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.math.transform;
+
+import java.util.Arrays;
+
+import org.briljantframework.Check;
+
+/**
+ * Computes discrete linear convolutions of real series. Short kernels (or short series) are
+ * convolved directly. Otherwise, the convolution is computed using FFT overlap-add: the series is
+ * split into blocks that are convolved with the (once transformed) kernel and added together.
+ * Two real blocks are transformed at once by packing them into the real and imaginary parts of a
+ * single complex block.
+ *
+ * <p>
+ * The full convolution of a series of length {@code n} and a kernel of length {@code m} has
+ * {@code n + m - 1} elements. The methods compute the {@code out.length} consecutive elements of
+ * the full convolution starting at {@code start}, which covers the full, same and valid modes of
+ * {@link org.briljantframework.array.api.ArrayRoutines#convolve}.
+ *
+ * @author Isak Karlsson
+ */
+public final class Convolution {
+
+  private Convolution() {}
+
+  /**
+   * Computes {@code out[k] = sum(x[start + k - j] * h[j])} for {@code 0 <= k < out.length}, where
+   * out of bounds elements of {@code x} are zero.
+   *
+   * @param x the series
+   * @param h the kernel
+   * @param out the output
+   * @param start the index of the first output element in the full convolution
+   */
+  public static void convolve(double[] x, double[] h, double[] out, int start) {
+    checkArguments(x.length, h, out.length, start);
+    OverlapAdd overlapAdd = OverlapAdd.of(x.length, h, out.length);
+    if (overlapAdd == null) {
+      direct(x, h, out, start);
+    } else {
+      overlapAdd.apply(x, out, start, overlapAdd.newBlock(), overlapAdd.newWork());
+    }
+  }
+
+  /**
+   * Convolves each series with {@code h}, as {@link #convolve(double[], double[], double[], int)}
+   * with {@code out[i]} as output for {@code x[i]}. The kernel is transformed once and the series
+   * are convolved in parallel.
+   *
+   * @param x the series
+   * @param h the kernel
+   * @param out the output
+   * @param start the index of the first output element in the full convolution
+   */
+  public static void convolve(double[][] x, double[] h, double[][] out, int start) {
+    Check.argument(x.length == out.length, "expected %d outputs, got %d", x.length, out.length);
+    int n = 0;
+    int length = 0;
+    long elements = 0;
+    for (int i = 0; i < x.length; i++) {
+      checkArguments(x[i].length, h, out[i].length, start);
+      n = Math.max(n, x[i].length);
+      length = Math.max(length, out[i].length);
+      elements += x[i].length;
+    }
+
+    OverlapAdd overlapAdd = OverlapAdd.of(n, h, length);
+    DiscreteFourierTransform.forEachRange(x.length, elements * h.length, (from, to) -> {
+      if (overlapAdd == null) {
+        for (int i = from; i < to; i++) {
+          direct(x[i], h, out[i], start);
+        }
+      } else {
+        double[] block = overlapAdd.newBlock();
+        double[] work = overlapAdd.newWork();
+        for (int i = from; i < to; i++) {
+          overlapAdd.apply(x[i], out[i], start, block, work);
+        }
+      }
+    });
+  }
+
+  private static void checkArguments(int n, double[] h, int length, int start) {
+    Check.argument(n > 0 && h.length > 0, "empty series or kernel");
+    Check.argument(start >= 0 && start + length <= n + h.length - 1,
+        "output range [%d, %d) out of bounds for full convolution of length %d", start,
+        start + length, n + h.length - 1);
+  }
+
+  private static void direct(double[] x, double[] h, double[] out, int start) {
+    int n = x.length;
+    int m = h.length;
+    for (int k = 0; k < out.length; k++) {
+      int index = start + k;
+      int from = Math.max(0, index - n + 1);
+      int to = Math.min(m - 1, index);
+      double sum = 0;
+      for (int j = from; j <= to; j++) {
+        sum += h[j] * x[index - j];
+      }
+      out[k] = sum;
+    }
+  }
+
+  /**
+   * The transformed kernel and block size for overlap-add convolution.
+   */
+  private static final class OverlapAdd {
+
+    private final FftPlan plan;
+    private final int m;
+
+    /**
+     * The number of input elements per block
+     */
+    private final int blockSize;
+
+    /**
+     * The (interleaved) transform of the zero-padded kernel
+     */
+    private final double[] spectrum;
+
+    private OverlapAdd(double[] h, int size) {
+      this.plan = FftPlan.of(size);
+      this.m = h.length;
+      this.blockSize = size - m + 1;
+      this.spectrum = new double[2 * size];
+      for (int i = 0; i < m; i++) {
+        spectrum[2 * i] = h[i];
+      }
+      plan.forward(spectrum, 0, newWork(), 0);
+    }
+
+    /**
+     * Returns the overlap-add convolution for series of (at most) length {@code n} or
+     * {@code null} if a direct convolution is cheaper.
+     */
+    static OverlapAdd of(int n, double[] h, int length) {
+      int m = h.length;
+      int full = n + m - 1;
+      int size = powerOfTwo(Math.min(full, 4 * m));
+      int blocks = (n + size - m) / (size - m + 1);
+      long fftCost = 6L * (blocks + 1) * size * (31 - Integer.numberOfLeadingZeros(size));
+      long directCost = (long) length * Math.min(n, m);
+      return directCost <= fftCost ? null : new OverlapAdd(h, size);
+    }
+
+    double[] newBlock() {
+      return new double[2 * plan.size()];
+    }
+
+    double[] newWork() {
+      return new double[plan.workSize()];
+    }
+
+    void apply(double[] x, double[] out, int start, double[] block, double[] work) {
+      int n = x.length;
+      int size = plan.size();
+      int end = start + out.length;
+      Arrays.fill(out, 0);
+      for (int first = 0; first < n && first < end; first += 2 * blockSize) {
+        int second = first + blockSize;
+        int firstLength = Math.min(blockSize, n - first);
+        int secondLength = Math.max(0, Math.min(blockSize, n - second));
+        if (first + firstLength + m - 1 <= start
+            && (secondLength == 0 || second + secondLength + m - 1 <= start)) {
+          continue; // neither block contributes to the output range
+        }
+
+        // the first block in the real parts and the second in the imaginary parts
+        Arrays.fill(block, 0, 2 * size, 0);
+        for (int i = 0; i < firstLength; i++) {
+          block[2 * i] = x[first + i];
+        }
+        for (int i = 0; i < secondLength; i++) {
+          block[2 * i + 1] = x[second + i];
+        }
+
+        plan.forward(block, 0, work, 0);
+        for (int i = 0; i < 2 * size; i += 2) {
+          double re = block[i] * spectrum[i] - block[i + 1] * spectrum[i + 1];
+          double im = block[i] * spectrum[i + 1] + block[i + 1] * spectrum[i];
+          block[i] = re;
+          block[i + 1] = im;
+        }
+        plan.inverse(block, 0, work, 0);
+
+        accumulate(block, 0, first, firstLength + m - 1, out, start);
+        if (secondLength > 0) {
+          accumulate(block, 1, second, secondLength + m - 1, out, start);
+        }
+      }
+    }
+
+    /*
+     * Adds the length (real or imaginary) parts of the block to the output, where the block
+     * starts at position of the full convolution.
+     */
+    private static void accumulate(double[] block, int part, int position, int length,
+        double[] out, int start) {
+      int from = Math.max(0, start - position);
+      int to = Math.min(length, start + out.length - position);
+      for (int i = from; i < to; i++) {
+        out[position + i - start] += block[2 * i + part];
+      }
+    }
+
+    private static int powerOfTwo(int n) {
+      return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+  }
+}
@@ -21,174 +21,286 @@
 
 package org.briljantframework.math.transform;
 
-import org.apache.commons.math3.complex.Complex;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.briljantframework.Check;
 import org.briljantframework.array.ComplexArray;
 import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.Workspace;
 
 /**
+ * Computes the discrete Fourier transform of complex arrays. The transforms operate directly on
+ * the interleaved real and imaginary parts of the array (see {@link ComplexArray#data()}).
+ *
+ * <p>
+ * Twiddle factors and factorizations are computed once per transform length and cached (the
+ * least recently used lengths are evicted). Lengths with only small prime factors use a
+ * mixed-radix algorithm and other lengths use Bluestein's algorithm. Real input is transformed
+ * using a complex transform of half the length.
+ *
+ * <p>
+ * The {@code double[]} methods work on caller supplied buffers and borrow their scratch space
+ * from the active {@link Workspace}, if any. The batched methods transform many series in
+ * parallel.
+ *
  * @author Isak Karlsson
  */
 public final class DiscreteFourierTransform {
 
-  private DiscreteFourierTransform() {}
+  /**
+   * Batches with fewer elements than this are transformed sequentially
+   */
+  private static final int PARALLEL_THRESHOLD = 1 << 15;
 
-  private static void fftInplace(ComplexArray a) {
-    int n = a.size();
-    if ((n & (n - 1)) == 0) { // n is a power of 2?
-      transformRadix2(a);
-    } else {
-      transformBluestein(a);
-    }
-  }
+  private DiscreteFourierTransform() {}
 
   public static ComplexArray fft(ComplexArray a) {
     ComplexArray copy = a.copy();
-    fftInplace(copy);
+    double[] x = copy.data();
+    fft(x, 0, copy.size());
+    assignIfNeeded(copy, x);
     return copy;
   }
 
   public static ComplexArray ifft(ComplexArray a) {
-    ComplexArray copy = ComplexArray.zeros(a.size());
-    for (int i = 0; i < a.size(); i++) {
-      Complex c = a.get(i);
-      copy.set(i, new Complex(c.getImaginary(), c.getReal()));
-    }
-    fftInplace(copy);
-
-    int n = copy.size();
-
-    // Reversing and scaling
-    for (int i = 0; i < n; i++) {
-      Complex c = copy.get(i);
-      copy.set(i, new Complex(c.getImaginary() / n, c.getReal() / n));
-    }
+    ComplexArray copy = a.copy();
+    double[] x = copy.data();
+    ifft(x, 0, copy.size());
+    assignIfNeeded(copy, x);
     return copy;
   }
 
+  /**
+   * Computes the transform of the (flattened) real array {@code a}, using a real-input transform.
+   *
+   * @param a the array
+   * @return the full spectrum
+   */
   public static ComplexArray fft(DoubleArray a) {
-    return fft(a.asComplex());
-  }
-
-  private static void transformBluestein(ComplexArray a) {
-    // Find a power-of-2 convolution length m such that m >= n * 2 + 1
     int n = a.size();
-    if (n >= 0x20000000) { // n >= 536870912
-      throw new IllegalArgumentException("");
-    }
-    int m = Integer.highestOneBit(n * 2 + 1) << 1;
-
-    // Trigonometric tables
-    DoubleArray cosTable = DoubleArray.zeros(n);
-    DoubleArray sinTable = DoubleArray.zeros(n);
+    double[] x = new double[n];
     for (int i = 0; i < n; i++) {
-      int j = (int) ((long) i * i % (n * 2));
-      cosTable.set(i, Math.cos(Math.PI * j / n));
-      sinTable.set(i, Math.sin(Math.PI * j / n));
+      x[i] = a.get(i);
     }
+    ComplexArray y = ComplexArray.zeros(n);
+    double[] spectrum = y.data();
+    rfft(x, 0, n, spectrum, 0);
+    hermitian(spectrum, 0, n);
+    assignIfNeeded(y, spectrum);
+    return y;
+  }
 
-    ComplexArray an = ComplexArray.zeros(m);
-    ComplexArray bn = ComplexArray.zeros(m);
-
-    bn.set(0, new Complex(cosTable.get(0), sinTable.get(0)));
-    for (int i = 0; i < n; i++) {
-      double cos = cosTable.get(i);
-      double sin = sinTable.get(i);
-      Complex complex = a.get(i);
-      double real = complex.getReal() * cos + complex.getImaginary() * sin;
-      double imag = -complex.getReal() * sin + complex.getImaginary() * cos;
-      an.set(i, new Complex(real, imag));
-
-      int j = i + 1;
-      if (j < n) {
-        Complex bcVal = Complex.valueOf(cosTable.get(j), sinTable.get(j));
-        bn.set(j, bcVal);
-        bn.set(m - j, bcVal);
+  /**
+   * Computes the transform of each vector along dimension {@code dim} of the real array
+   * {@code a}. The vectors are transformed in parallel.
+   *
+   * <pre>
+   * DoubleArray series = ...; // one series per row
+   * ComplexArray spectra = DiscreteFourierTransform.fft(series, 1);
+   * </pre>
+   *
+   * @param a the array
+   * @param dim the dimension
+   * @return an array with the same shape as {@code a}, with the full spectra of the vectors
+   */
+  public static ComplexArray fft(DoubleArray a, int dim) {
+    Check.argument(dim >= 0 && dim < a.dims(), "illegal dimension: %d", dim);
+    int n = a.size(dim);
+    int vectors = a.vectors(dim);
+    ComplexArray y = ComplexArray.zeros(a.getShape());
+    RealFftPlan plan = RealFftPlan.of(n);
+    forEachRange(vectors, (long) n * vectors, (from, to) -> {
+      double[] x = new double[n];
+      double[] spectrum = new double[2 * n];
+      double[] work = new double[plan.workSize()];
+      for (int i = from; i < to; i++) {
+        DoubleArray vector = a.getVector(dim, i);
+        for (int j = 0; j < n; j++) {
+          x[j] = vector.get(j);
+        }
+        plan.forward(x, 0, spectrum, 0, work, 0);
+        hermitian(spectrum, 0, n);
+        ComplexArray out = y.getVector(dim, i);
+        for (int j = 0; j < n; j++) {
+          out.set(j, spectrum[2 * j], spectrum[2 * j + 1]);
+        }
       }
-    }
+    });
+    return y;
+  }
 
-    // Convolution
-    ComplexArray cc = convolve(an, bn);
-    for (int i = 0; i < n; i++) {
-      double cos = cosTable.get(i);
-      double sin = sinTable.get(i);
+  /**
+   * Computes the transform of the {@code n} complex values, with interleaved real and imaginary
+   * parts, starting at {@code x[offset]} in place.
+   *
+   * @param x the values
+   * @param offset the offset of the first real part
+   * @param n the number of complex values
+   */
+  public static void fft(double[] x, int offset, int n) {
+    checkRange(x, offset, 2 * n);
+    FftPlan plan = FftPlan.of(n);
+    plan.forward(x, offset, work(plan.workSize()), 0);
+  }
 
-      Complex cv = cc.get(i);
-      double real = cv.getReal() * cos + cv.getImaginary() * sin;
-      double imag = -cv.getReal() * sin + cv.getImaginary() * cos;
-      a.set(i, new Complex(real, imag));
-    }
+  /**
+   * Computes the inverse transform of the {@code n} complex values, with interleaved real and
+   * imaginary parts, starting at {@code x[offset]} in place.
+   *
+   * @param x the values
+   * @param offset the offset of the first real part
+   * @param n the number of complex values
+   */
+  public static void ifft(double[] x, int offset, int n) {
+    checkRange(x, offset, 2 * n);
+    FftPlan plan = FftPlan.of(n);
+    plan.inverse(x, offset, work(plan.workSize()), 0);
   }
 
-  /*
-   * Computes the circular convolution of the given complex vectors. Each vector's length must be
-   * the same.
+  /**
+   * Computes the transform of the {@code n} real values starting at {@code x[offset]}. Since the
+   * spectrum of a real signal is Hermitian ({@code y[n - k] = conj(y[k])}), only the first
+   * {@code n / 2 + 1} complex values are written (interleaved) to {@code out} starting at
+   * {@code outOffset}.
+   *
+   * @param x the real values
+   * @param offset the offset of the first value
+   * @param n the number of values
+   * @param out the output; must have room for {@code 2 * (n / 2 + 1)} values
+   * @param outOffset the offset of the first output value
    */
-  private static ComplexArray convolve(ComplexArray x, ComplexArray y) {
-    int n = x.size();
-    ComplexArray xt = fft(x);
-    ComplexArray yt = fft(y);
+  public static void rfft(double[] x, int offset, int n, double[] out, int outOffset) {
+    checkRange(x, offset, n);
+    checkRange(out, outOffset, 2 * (n / 2 + 1));
+    RealFftPlan plan = RealFftPlan.of(n);
+    plan.forward(x, offset, out, outOffset, work(plan.workSize()), 0);
+  }
 
-    for (int i = 0; i < n; i++) {
-      xt.set(i, xt.get(i).multiply(yt.get(i)));
-    }
+  /**
+   * Computes the transform of each (interleaved complex) series in place. The series are
+   * transformed in parallel.
+   *
+   * @param series the series
+   */
+  public static void fft(double[][] series) {
+    transform(series, false);
+  }
 
-    // TODO: do not 'hand-reverse'
-    for (int i = 0; i < n; i++) {
-      Complex complex = xt.get(i);
-      xt.set(i, new Complex(complex.getImaginary(), complex.getReal()));
+  /**
+   * Computes the inverse transform of each (interleaved complex) series in place. The series are
+   * transformed in parallel.
+   *
+   * @param series the series
+   */
+  public static void ifft(double[][] series) {
+    transform(series, true);
+  }
+
+  /**
+   * Computes the transform of each real series. The series are transformed in parallel and can
+   * have different lengths.
+   *
+   * @param series the real series
+   * @return the first {@code n / 2 + 1} (interleaved complex) values of each spectrum
+   * @see #rfft(double[], int, int, double[], int)
+   */
+  public static double[][] rfft(double[][] series) {
+    double[][] spectra = new double[series.length][];
+    forEachRange(series.length, elements(series), (from, to) -> {
+      double[] work = new double[0];
+      for (int i = from; i < to; i++) {
+        int n = series[i].length;
+        RealFftPlan plan = RealFftPlan.of(n);
+        if (work.length < plan.workSize()) {
+          work = new double[plan.workSize()];
+        }
+        spectra[i] = new double[2 * (n / 2 + 1)];
+        plan.forward(series[i], 0, spectra[i], 0, work, 0);
+      }
+    });
+    return spectra;
+  }
+
+  private static void transform(double[][] series, boolean inverse) {
+    for (double[] x : series) {
+      Check.argument(x.length % 2 == 0, "series must have interleaved complex values");
     }
+    forEachRange(series.length, elements(series), (from, to) -> {
+      double[] work = new double[0];
+      for (int i = from; i < to; i++) {
+        FftPlan plan = FftPlan.of(series[i].length / 2);
+        if (work.length < plan.workSize()) {
+          work = new double[plan.workSize()];
+        }
+        if (inverse) {
+          plan.inverse(series[i], 0, work, 0);
+        } else {
+          plan.forward(series[i], 0, work, 0);
+        }
+      }
+    });
+  }
 
-    fftInplace(xt); // inverse transform, since xt is reversed above
-    for (int i = 0; i < n; i++) {
-      Complex c = xt.get(i);
-      xt.set(i, Complex.valueOf(c.getImaginary() / n, c.getReal() / n));
+  /**
+   * Fills in {@code y[k] = conj(y[n - k])} for {@code n / 2 < k < n} of the spectrum of a real
+   * signal.
+   */
+  private static void hermitian(double[] y, int offset, int n) {
+    for (int k = n / 2 + 1; k < n; k++) {
+      y[offset + 2 * k] = y[offset + 2 * (n - k)];
+      y[offset + 2 * k + 1] = -y[offset + 2 * (n - k) + 1];
     }
-    return xt;
   }
 
-  private static void transformRadix2(ComplexArray a) {
-    final int n = a.size();
-    int levels = (int) Math.floor(Math.log(n) / Math.log(2));
-    if (1 << levels != n) {
-      throw new IllegalArgumentException();
+  /**
+   * Assigns {@code x}, returned by {@link ComplexArray#data()}, to {@code a} unless {@code x} is
+   * the storage of {@code a}, i.e., if {@code a} is a view.
+   */
+  private static void assignIfNeeded(ComplexArray a, double[] x) {
+    if (a.isView()) {
+      a.assign(x);
     }
+  }
 
-    DoubleArray cosTable = DoubleArray.zeros(n / 2);
-    DoubleArray sinTable = DoubleArray.zeros(n / 2);
-    final double v = 2 * Math.PI;
-    for (int i = 0; i < n / 2; i++) {
-      cosTable.set(i, Math.cos(v * i / n));
-      sinTable.set(i, Math.sin(v * i / n));
+  private static void checkRange(double[] x, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > x.length) {
+      throw new IndexOutOfBoundsException(String.format(
+          "range [%d, %d) out of bounds for length %d", offset, offset + length, x.length));
     }
+  }
 
-    // Bit-reversed addressing permutation (i.e. even addresses in the first half and odd in the
-    // second half)
-    for (int i = 0; i < n; i++) {
-      int j = Integer.reverse(i) >>> (32 - levels);
-      if (j > i) {
-        a.swap(j, i);
-      }
+  private static double[] work(int size) {
+    Workspace workspace = Workspace.active();
+    return workspace != null ? workspace.doubles(size) : new double[size];
+  }
+
+  private static long elements(double[][] series) {
+    long elements = 0;
+    for (double[] x : series) {
+      elements += x.length;
     }
+    return elements;
+  }
 
-    // Cooley-Tukey decimation-in-time radix-2 FFT
-    for (int size = 2; size <= n; size *= 2) {
-      int halfSize = size / 2;
-      int tableStep = n / size;
-      for (int i = 0; i < n; i += size) {
-        for (int j = i, k = 0; j < i + halfSize; j++, k += tableStep) {
-          Complex hjVal = a.get(j + halfSize);
-          Complex jVal = a.get(j);
-          double cos = cosTable.get(k);
-          double sin = sinTable.get(k);
-          double tpre = hjVal.getReal() * cos + hjVal.getImaginary() * sin;
-          double tpim = -hjVal.getReal() * sin + hjVal.getImaginary() * cos;
-          a.set(j + halfSize, new Complex(jVal.getReal() - tpre, jVal.getImaginary() - tpim));
-          a.set(j, new Complex(jVal.getReal() + tpre, jVal.getImaginary() + tpim));
-        }
-      }
-      if (size == n) {
-        break;
-      }
+  /**
+   * Calls {@code action} for consecutive ranges of {@code [0, count)}, in parallel if there are
+   * at least {@link #PARALLEL_THRESHOLD} elements in total.
+   */
+  static void forEachRange(int count, long elements, RangeAction action) {
+    int tasks = elements < PARALLEL_THRESHOLD ? 1
+        : Math.min(count, ForkJoinPool.getCommonPoolParallelism() * 4);
+    if (tasks <= 1) {
+      action.apply(0, count);
+    } else {
+      IntStream.range(0, tasks).parallel().forEach(t -> action
+          .apply((int) ((long) count * t / tasks), (int) ((long) count * (t + 1) / tasks)));
     }
   }
+
+  @FunctionalInterface
+  interface RangeAction {
+
+    void apply(int from, int to);
+  }
 }
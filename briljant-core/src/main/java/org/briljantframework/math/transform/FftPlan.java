@@ -0,0 +1,380 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.math.transform;
+
+import java.util.Arrays;
+
+import org.briljantframework.Check;
+
+/**
+ * A precomputed plan for complex transforms of a fixed length {@code n}. Lengths whose prime
+ * factors are at most {@link #MAX_RADIX} are transformed with a mixed-radix Cooley-Tukey
+ * decimation-in-time algorithm with specialized butterflies for radix 2, 3 and 4. Other lengths
+ * are transformed with Bluestein's algorithm, using a power-of-two plan for the convolution.
+ *
+ * <p>
+ * All transforms operate on interleaved real and imaginary parts and use a caller supplied work
+ * buffer of at least {@link #workSize()} elements, so a plan never allocates.
+ *
+ * @author Isak Karlsson
+ */
+final class FftPlan {
+
+  /**
+   * Lengths with a prime factor larger than this are transformed using Bluestein's algorithm.
+   */
+  static final int MAX_RADIX = 64;
+
+  private static final PlanCache<FftPlan> PLANS = new PlanCache<>(32);
+
+  private final int n;
+
+  /**
+   * Pairs of radix {@code p} and remaining length {@code m} for each stage
+   */
+  private final int[] factors;
+
+  /**
+   * Interleaved {@code exp(-2 pi i k / n)} for {@code 0 <= k < n}
+   */
+  private final double[] twiddles;
+
+  private final int workSize;
+
+  /*
+   * Bluestein's algorithm: the convolution plan, the chirp exp(-pi i k^2 / n) and the transform
+   * of the conjugate chirp
+   */
+  private final FftPlan convolution;
+  private final double[] chirp;
+  private final double[] filter;
+
+  private FftPlan(int n) {
+    Check.argument(n > 0, "illegal transform length: %d", n);
+    this.n = n;
+    int[] factors = factor(n);
+    if (factors != null) {
+      int maxRadix = 0;
+      for (int i = 0; i < factors.length; i += 2) {
+        maxRadix = Math.max(maxRadix, factors[i]);
+      }
+      this.factors = factors;
+      this.twiddles = twiddles(n);
+      this.workSize = 2 * n + 2 * maxRadix;
+      this.convolution = null;
+      this.chirp = null;
+      this.filter = null;
+    } else {
+      Check.argument(n < 0x20000000, "transform length too large: %d", n);
+      int m = Integer.highestOneBit(n * 2 + 1) << 1;
+      this.factors = null;
+      this.twiddles = null;
+      this.convolution = of(m);
+      this.workSize = 2 * m + convolution.workSize;
+      this.chirp = new double[2 * n];
+      for (int i = 0; i < n; i++) {
+        int j = (int) ((long) i * i % (n * 2));
+        chirp[2 * i] = Math.cos(Math.PI * j / n);
+        chirp[2 * i + 1] = -Math.sin(Math.PI * j / n);
+      }
+      this.filter = new double[2 * m];
+      filter[0] = chirp[0];
+      filter[1] = -chirp[1];
+      for (int i = 1; i < n; i++) {
+        filter[2 * i] = filter[2 * (m - i)] = chirp[2 * i];
+        filter[2 * i + 1] = filter[2 * (m - i) + 1] = -chirp[2 * i + 1];
+      }
+      convolution.forward(filter, 0, new double[convolution.workSize], 0);
+    }
+  }
+
+  /**
+   * Returns the (possibly cached) plan for transforms of length {@code n}.
+   *
+   * @param n the transform length
+   * @return a plan
+   */
+  static FftPlan of(int n) {
+    return PLANS.get(n, FftPlan::new);
+  }
+
+  /**
+   * @return the transform length
+   */
+  int size() {
+    return n;
+  }
+
+  /**
+   * @return the minimum size of the work buffer passed to the transforms
+   */
+  int workSize() {
+    return workSize;
+  }
+
+  /**
+   * Computes the forward transform of the {@code n} complex values starting at {@code x[offset]}
+   * in place.
+   */
+  void forward(double[] x, int offset, double[] work, int workOffset) {
+    if (n == 1) {
+      return;
+    }
+    if (convolution != null) {
+      bluestein(x, offset, work, workOffset);
+    } else {
+      System.arraycopy(x, offset, work, workOffset, 2 * n);
+      transform(x, offset, work, workOffset, 1, 0, work, workOffset + 2 * n);
+    }
+  }
+
+  /**
+   * Computes the (scaled) inverse transform of the {@code n} complex values starting at
+   * {@code x[offset]} in place.
+   */
+  void inverse(double[] x, int offset, double[] work, int workOffset) {
+    conjugate(x, offset, n);
+    forward(x, offset, work, workOffset);
+    int end = offset + 2 * n;
+    double scale = 1.0 / n;
+    for (int i = offset; i < end; i += 2) {
+      x[i] *= scale;
+      x[i + 1] *= -scale;
+    }
+  }
+
+  private static void conjugate(double[] x, int offset, int n) {
+    int end = offset + 2 * n;
+    for (int i = offset + 1; i < end; i += 2) {
+      x[i] = -x[i];
+    }
+  }
+
+  /*
+   * Recursively transforms the p * m values of in (with stride fstride) into out, starting with
+   * the stage at factors[f].
+   */
+  private void transform(double[] out, int o, double[] in, int i, int fstride, int f,
+      double[] scratch, int s) {
+    int p = factors[f];
+    int m = factors[f + 1];
+    int end = o + 2 * p * m;
+    int step = 2 * fstride;
+    if (m == 1) {
+      for (int k = o; k < end; k += 2, i += step) {
+        out[k] = in[i];
+        out[k + 1] = in[i + 1];
+      }
+    } else {
+      for (int k = o; k < end; k += 2 * m, i += step) {
+        transform(out, k, in, i, fstride * p, f + 2, scratch, s);
+      }
+    }
+
+    switch (p) {
+      case 2:
+        butterfly2(out, o, fstride, m);
+        break;
+      case 3:
+        butterfly3(out, o, fstride, m);
+        break;
+      case 4:
+        butterfly4(out, o, fstride, m);
+        break;
+      default:
+        butterfly(out, o, fstride, m, p, scratch, s);
+    }
+  }
+
+  private void butterfly2(double[] x, int o, int fstride, int m) {
+    double[] tw = twiddles;
+    for (int k = 0, t = 0; k < m; k++, t += 2 * fstride) {
+      int a = o + 2 * k;
+      int b = a + 2 * m;
+      double tr = x[b] * tw[t] - x[b + 1] * tw[t + 1];
+      double ti = x[b] * tw[t + 1] + x[b + 1] * tw[t];
+      x[b] = x[a] - tr;
+      x[b + 1] = x[a + 1] - ti;
+      x[a] += tr;
+      x[a + 1] += ti;
+    }
+  }
+
+  private void butterfly3(double[] x, int o, int fstride, int m) {
+    double[] tw = twiddles;
+    double epi = tw[2 * fstride * m + 1];
+    for (int k = 0, t = 0; k < m; k++, t += 2 * fstride) {
+      int a0 = o + 2 * k;
+      int a1 = a0 + 2 * m;
+      int a2 = a1 + 2 * m;
+      int t2 = 2 * t;
+      double s1r = x[a1] * tw[t] - x[a1 + 1] * tw[t + 1];
+      double s1i = x[a1] * tw[t + 1] + x[a1 + 1] * tw[t];
+      double s2r = x[a2] * tw[t2] - x[a2 + 1] * tw[t2 + 1];
+      double s2i = x[a2] * tw[t2 + 1] + x[a2 + 1] * tw[t2];
+      double s3r = s1r + s2r;
+      double s3i = s1i + s2i;
+      double s0r = (s1r - s2r) * epi;
+      double s0i = (s1i - s2i) * epi;
+      double r = x[a0] - s3r * 0.5;
+      double i = x[a0 + 1] - s3i * 0.5;
+      x[a0] += s3r;
+      x[a0 + 1] += s3i;
+      x[a2] = r + s0i;
+      x[a2 + 1] = i - s0r;
+      x[a1] = r - s0i;
+      x[a1 + 1] = i + s0r;
+    }
+  }
+
+  private void butterfly4(double[] x, int o, int fstride, int m) {
+    double[] tw = twiddles;
+    for (int k = 0, t = 0; k < m; k++, t += 2 * fstride) {
+      int a0 = o + 2 * k;
+      int a1 = a0 + 2 * m;
+      int a2 = a1 + 2 * m;
+      int a3 = a2 + 2 * m;
+      int t2 = 2 * t;
+      int t3 = 3 * t;
+      double s0r = x[a1] * tw[t] - x[a1 + 1] * tw[t + 1];
+      double s0i = x[a1] * tw[t + 1] + x[a1 + 1] * tw[t];
+      double s1r = x[a2] * tw[t2] - x[a2 + 1] * tw[t2 + 1];
+      double s1i = x[a2] * tw[t2 + 1] + x[a2 + 1] * tw[t2];
+      double s2r = x[a3] * tw[t3] - x[a3 + 1] * tw[t3 + 1];
+      double s2i = x[a3] * tw[t3 + 1] + x[a3 + 1] * tw[t3];
+      double s5r = x[a0] - s1r;
+      double s5i = x[a0 + 1] - s1i;
+      double r = x[a0] + s1r;
+      double i = x[a0 + 1] + s1i;
+      double s3r = s0r + s2r;
+      double s3i = s0i + s2i;
+      double s4r = s0r - s2r;
+      double s4i = s0i - s2i;
+      x[a2] = r - s3r;
+      x[a2 + 1] = i - s3i;
+      x[a0] = r + s3r;
+      x[a0 + 1] = i + s3i;
+      x[a1] = s5r + s4i;
+      x[a1 + 1] = s5i - s4r;
+      x[a3] = s5r - s4i;
+      x[a3 + 1] = s5i + s4r;
+    }
+  }
+
+  private void butterfly(double[] x, int o, int fstride, int m, int p, double[] scratch, int s) {
+    double[] tw = twiddles;
+    for (int u = 0; u < m; u++) {
+      for (int q = 0, k = o + 2 * u; q < p; q++, k += 2 * m) {
+        scratch[s + 2 * q] = x[k];
+        scratch[s + 2 * q + 1] = x[k + 1];
+      }
+      for (int q1 = 0, k = u; q1 < p; q1++, k += m) {
+        double re = scratch[s];
+        double im = scratch[s + 1];
+        int t = 0;
+        for (int q = 1; q < p; q++) {
+          t += fstride * k;
+          if (t >= n) {
+            t -= n;
+          }
+          double sr = scratch[s + 2 * q];
+          double si = scratch[s + 2 * q + 1];
+          re += sr * tw[2 * t] - si * tw[2 * t + 1];
+          im += sr * tw[2 * t + 1] + si * tw[2 * t];
+        }
+        x[o + 2 * k] = re;
+        x[o + 2 * k + 1] = im;
+      }
+    }
+  }
+
+  private void bluestein(double[] x, int offset, double[] work, int workOffset) {
+    int m = convolution.size();
+    double[] a = work;
+    int w = workOffset;
+    for (int i = 0; i < n; i++) {
+      double re = x[offset + 2 * i];
+      double im = x[offset + 2 * i + 1];
+      double cr = chirp[2 * i];
+      double ci = chirp[2 * i + 1];
+      a[w + 2 * i] = re * cr - im * ci;
+      a[w + 2 * i + 1] = re * ci + im * cr;
+    }
+    Arrays.fill(a, w + 2 * n, w + 2 * m, 0);
+
+    convolution.forward(a, w, work, w + 2 * m);
+    for (int i = 0; i < m; i++) {
+      int j = w + 2 * i;
+      double re = a[j] * filter[2 * i] - a[j + 1] * filter[2 * i + 1];
+      double im = a[j] * filter[2 * i + 1] + a[j + 1] * filter[2 * i];
+      a[j] = re;
+      a[j + 1] = -im;
+    }
+    convolution.forward(a, w, work, w + 2 * m);
+
+    double scale = 1.0 / m;
+    for (int i = 0; i < n; i++) {
+      double re = a[w + 2 * i] * scale;
+      double im = -a[w + 2 * i + 1] * scale;
+      double cr = chirp[2 * i];
+      double ci = chirp[2 * i + 1];
+      x[offset + 2 * i] = re * cr - im * ci;
+      x[offset + 2 * i + 1] = re * ci + im * cr;
+    }
+  }
+
+  /*
+   * Factors n into radix 4, 2, 3 and then increasing odd factors. Returns null if a factor is
+   * larger than MAX_RADIX.
+   */
+  private static int[] factor(int n) {
+    int[] factors = new int[64];
+    int size = 0;
+    int p = 4;
+    int rest = n;
+    while (rest > 1) {
+      while (rest % p != 0) {
+        p = p == 4 ? 2 : p == 2 ? 3 : p + 2;
+        if ((long) p * p > rest) {
+          p = rest;
+        }
+      }
+      if (p > MAX_RADIX) {
+        return null;
+      }
+      rest /= p;
+      factors[size++] = p;
+      factors[size++] = rest;
+    }
+    return Arrays.copyOf(factors, size);
+  }
+
+  static double[] twiddles(int n) {
+    double[] twiddles = new double[2 * n];
+    for (int k = 0; k < n; k++) {
+      double phase = -2 * Math.PI * k / n;
+      twiddles[2 * k] = Math.cos(phase);
+      twiddles[2 * k + 1] = Math.sin(phase);
+    }
+    return twiddles;
+  }
+}
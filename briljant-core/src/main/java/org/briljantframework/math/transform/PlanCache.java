@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.math.transform;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * A bounded cache of transform plans keyed by transform length. The least recently used plan is
+ * evicted when the cache is full. Plans are immutable and can be shared between threads.
+ *
+ * @author Isak Karlsson
+ */
+final class PlanCache<T> {
+
+  private final Map<Integer, T> plans;
+
+  PlanCache(int capacity) {
+    this.plans = new LinkedHashMap<Integer, T>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns the plan for {@code n}, creating it with {@code factory} if it is not cached. The
+   * plan is created outside the lock, since creating a plan can require other plans.
+   */
+  T get(int n, IntFunction<T> factory) {
+    synchronized (plans) {
+      T plan = plans.get(n);
+      if (plan != null) {
+        return plan;
+      }
+    }
+    T plan = factory.apply(n);
+    synchronized (plans) {
+      T existing = plans.putIfAbsent(n, plan);
+      return existing != null ? existing : plan;
+    }
+  }
+}
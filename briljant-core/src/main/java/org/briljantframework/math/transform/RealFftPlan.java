@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.math.transform;
+
+/**
+ * A precomputed plan for transforms of real input of a fixed length {@code n}. The transform
+ * returns the {@code n / 2 + 1} non-redundant values of the (Hermitian) spectrum. For even
+ * {@code n}, the input is packed into {@code n / 2} complex values, transformed using a plan of
+ * half the length and then split into the spectrum of the even and odd samples.
+ *
+ * @author Isak Karlsson
+ */
+final class RealFftPlan {
+
+  private static final PlanCache<RealFftPlan> PLANS = new PlanCache<>(32);
+
+  private final int n;
+  private final FftPlan plan;
+
+  /**
+   * Interleaved {@code exp(-2 pi i k / n)} for {@code 0 <= k <= n / 4} (even {@code n} only)
+   */
+  private final double[] twiddles;
+
+  private RealFftPlan(int n) {
+    this.n = n;
+    if (n % 2 == 0) {
+      this.plan = FftPlan.of(n / 2);
+      this.twiddles = new double[2 * (n / 4 + 1)];
+      for (int k = 0; k <= n / 4; k++) {
+        double phase = -2 * Math.PI * k / n;
+        twiddles[2 * k] = Math.cos(phase);
+        twiddles[2 * k + 1] = Math.sin(phase);
+      }
+    } else {
+      this.plan = FftPlan.of(n);
+      this.twiddles = null;
+    }
+  }
+
+  /**
+   * Returns the (possibly cached) plan for real transforms of length {@code n}.
+   *
+   * @param n the transform length
+   * @return a plan
+   */
+  static RealFftPlan of(int n) {
+    return PLANS.get(n, RealFftPlan::new);
+  }
+
+  /**
+   * @return the minimum size of the work buffer passed to {@link #forward}
+   */
+  int workSize() {
+    return n % 2 == 0 ? plan.workSize() : 2 * n + plan.workSize();
+  }
+
+  /**
+   * Transforms the {@code n} real values starting at {@code x[offset]} and writes the
+   * {@code n / 2 + 1} complex values of the spectrum, interleaved, to {@code out} starting at
+   * {@code outOffset}. {@code x} and {@code out} can be the same array if the ranges do not
+   * overlap or {@code offset == outOffset}.
+   */
+  void forward(double[] x, int offset, double[] out, int outOffset, double[] work,
+      int workOffset) {
+    if (twiddles == null) {
+      int w = workOffset;
+      for (int i = 0; i < n; i++) {
+        work[w + 2 * i] = x[offset + i];
+        work[w + 2 * i + 1] = 0;
+      }
+      plan.forward(work, w, work, w + 2 * n);
+      System.arraycopy(work, w, out, outOffset, 2 * (n / 2 + 1));
+      return;
+    }
+
+    int h = n / 2;
+    if (x != out || offset != outOffset) {
+      System.arraycopy(x, offset, out, outOffset, n);
+    }
+    plan.forward(out, outOffset, work, workOffset);
+
+    int o = outOffset;
+    double zr = out[o];
+    double zi = out[o + 1];
+    out[o] = zr + zi;
+    out[o + 1] = 0;
+    out[o + n] = zr - zi;
+    out[o + n + 1] = 0;
+    for (int k = 1; k <= h / 2; k++) {
+      int a = o + 2 * k;
+      int b = o + 2 * (h - k);
+      double ar = out[a];
+      double ai = out[a + 1];
+      double br = out[b];
+      double bi = out[b + 1];
+
+      // the spectrum of the even (e) and odd (d) samples
+      double er = (ar + br) * 0.5;
+      double ei = (ai - bi) * 0.5;
+      double dr = (ai + bi) * 0.5;
+      double di = (br - ar) * 0.5;
+      double wr = twiddles[2 * k];
+      double wi = twiddles[2 * k + 1];
+      double tr = wr * dr - wi * di;
+      double ti = wr * di + wi * dr;
+      out[b] = er - tr;
+      out[b + 1] = ti - ei;
+      out[a] = er + tr;
+      out[a + 1] = ei + ti;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.optimize;
+
+import java.util.Random;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.Arrays;
+import org.briljantframework.array.DoubleArray;
+
+/**
+ * Mini-batch AdaGrad, which scales the learning rate of each parameter by the inverse root of
+ * its accumulated squared gradients, i.e., {@code G = G + g^2} and
+ * {@code x = x - learningRate * g / (sqrt(G) + epsilon)}.
+ *
+ * <p>
+ * References
+ * <ul>
+ * <li>Duchi, J., et.al, Adaptive Subgradient Methods for Online Learning and Stochastic
+ * Optimization, JMLR 12 2011</li>
+ * </ul>
+ *
+ * @author Isak Karlsson
+ * @see MiniBatchOptimizer
+ */
+public class AdaGradOptimizer extends MiniBatchOptimizer {
+
+  private static final double EPSILON = 1e-8;
+
+  private final double learningRate;
+
+  public AdaGradOptimizer(double learningRate, int epochs) {
+    this(learningRate, epochs, new Random(), 1);
+  }
+
+  /**
+   * @param learningRate the learning rate
+   * @param epochs the number of passes over the batches
+   * @param random the random number generator used to shuffle the batches
+   * @param threads the number of threads; with more than one thread, the updates are lock-free
+   */
+  public AdaGradOptimizer(double learningRate, int epochs, Random random, int threads) {
+    super(epochs, random, threads);
+    Check.argument(learningRate > 0, "Invalid learningRate: " + learningRate);
+    this.learningRate = learningRate;
+  }
+
+  @Override
+  Update newUpdate(int n) {
+    DoubleArray squares = Arrays.newDoubleArray(n);
+    return new Update() {
+      @Override
+      public void apply(DoubleArray x, DoubleArray gradient, DoubleArray work) {
+        Arrays.fma(gradient, gradient, squares, squares);
+        Arrays.sqrt(squares, work);
+        work.plusAssign(EPSILON);
+        Arrays.div(gradient, work, work);
+        Arrays.axpy(-learningRate, work, x);
+      }
+
+      @Override
+      public void applySparse(DoubleArray x, DoubleArray gradient) {
+        for (int i = 0, size = x.size(); i < size; i++) {
+          double g = gradient.get(i);
+          if (g != 0) {
+            double sum = squares.get(i) + g * g;
+            squares.set(i, sum);
+            x.set(i, x.get(i) - learningRate * g / (Math.sqrt(sum) + EPSILON));
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return "AdaGradOptimizer{" + "learningRate=" + learningRate + '}';
+  }
+}
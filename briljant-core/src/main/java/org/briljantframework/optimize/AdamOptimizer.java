@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.optimize;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.Arrays;
+import org.briljantframework.array.DoubleArray;
+
+/**
+ * Mini-batch Adam, which scales the steps by bias-corrected estimates of the first and second
+ * moments of the gradients, i.e., {@code m = beta1 * m + (1 - beta1) * g},
+ * {@code v = beta2 * v + (1 - beta2) * g^2} and
+ * {@code x = x - learningRate * sqrt(1 - beta2^t) / (1 - beta1^t) * m / (sqrt(v) + epsilon)}.
+ *
+ * <p>
+ * The lock-free (multi-threaded) update only decays the moments of the coordinates with a
+ * non-zero gradient (i.e., it is lazy).
+ *
+ * <p>
+ * References
+ * <ul>
+ * <li>Kingma, D. P. and Ba, J., Adam: A Method for Stochastic Optimization, ICLR 2015</li>
+ * </ul>
+ *
+ * @author Isak Karlsson
+ * @see MiniBatchOptimizer
+ */
+public class AdamOptimizer extends MiniBatchOptimizer {
+
+  private static final double EPSILON = 1e-8;
+
+  private final double learningRate;
+  private final double beta1;
+  private final double beta2;
+
+  public AdamOptimizer(double learningRate, int epochs) {
+    this(learningRate, 0.9, 0.999, epochs, new Random(), 1);
+  }
+
+  /**
+   * @param learningRate the learning rate
+   * @param beta1 the decay rate of the first moment estimate
+   * @param beta2 the decay rate of the second moment estimate
+   * @param epochs the number of passes over the batches
+   * @param random the random number generator used to shuffle the batches
+   * @param threads the number of threads; with more than one thread, the updates are lock-free
+   */
+  public AdamOptimizer(double learningRate, double beta1, double beta2, int epochs, Random random,
+      int threads) {
+    super(epochs, random, threads);
+    Check.argument(learningRate > 0, "Invalid learningRate: " + learningRate);
+    Check.argument(beta1 >= 0 && beta1 < 1, "Invalid beta1: " + beta1);
+    Check.argument(beta2 >= 0 && beta2 < 1, "Invalid beta2: " + beta2);
+    this.learningRate = learningRate;
+    this.beta1 = beta1;
+    this.beta2 = beta2;
+  }
+
+  @Override
+  Update newUpdate(int n) {
+    DoubleArray mean = Arrays.newDoubleArray(n);
+    DoubleArray variance = Arrays.newDoubleArray(n);
+    AtomicLong steps = new AtomicLong();
+    return new Update() {
+      @Override
+      public void apply(DoubleArray x, DoubleArray gradient, DoubleArray work) {
+        double stepSize = stepSize(steps.incrementAndGet());
+        Arrays.scal(beta1, mean);
+        Arrays.axpy(1 - beta1, gradient, mean);
+        Arrays.scal(beta2, variance);
+        Arrays.times(gradient, gradient, work);
+        Arrays.axpy(1 - beta2, work, variance);
+
+        Arrays.sqrt(variance, work);
+        work.plusAssign(EPSILON);
+        Arrays.div(mean, work, work);
+        Arrays.axpy(-stepSize, work, x);
+      }
+
+      @Override
+      public void applySparse(DoubleArray x, DoubleArray gradient) {
+        double stepSize = stepSize(steps.incrementAndGet());
+        for (int i = 0, size = x.size(); i < size; i++) {
+          double g = gradient.get(i);
+          if (g != 0) {
+            double m = beta1 * mean.get(i) + (1 - beta1) * g;
+            double v = beta2 * variance.get(i) + (1 - beta2) * g * g;
+            mean.set(i, m);
+            variance.set(i, v);
+            x.set(i, x.get(i) - stepSize * m / (Math.sqrt(v) + EPSILON));
+          }
+        }
+      }
+    };
+  }
+
+  private double stepSize(long t) {
+    return learningRate * Math.sqrt(1 - Math.pow(beta2, t)) / (1 - Math.pow(beta1, t));
+  }
+
+  @Override
+  public String toString() {
+    return "AdamOptimizer{" + "learningRate=" + learningRate + ", beta1=" + beta1 + ", beta2="
+        + beta2 + '}';
+  }
+}
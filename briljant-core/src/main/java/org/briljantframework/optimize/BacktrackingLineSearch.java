@@ -78,9 +78,8 @@ public class BacktrackingLineSearch {
 
     double a, b, disc, rhs1, rhs2, tmpalam;
     for (;;) {
-      for (int i = 0; i < n; i++) {
-        x.set(i, xold.get(i) + alam * p.get(i));
-      }
+      Arrays.copy(xold, x);
+      Arrays.axpy(alam, p, x);
       double f = function.cost(x);
 
       if (alam < minScale) {
@@ -24,6 +24,7 @@ package org.briljantframework.optimize;
 import org.briljantframework.Check;
 import org.briljantframework.array.Arrays;
 import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.Workspace;
 
 /**
  * @author Isak Karlsson
@@ -46,99 +47,117 @@ public class LimitedMemoryBfgsOptimizer implements NonlinearOptimizer {
     this.gradientTolerance = gradientTolerance;
   }
 
+  /**
+   * Minimizes {@code function} starting at (and updating) {@code x}. All vector operations are
+   * BLAS-1 routines ({@code axpy}, {@code inner}, {@code scal} and {@code copy}) and the history
+   * of the last {@code memory} steps is a circular buffer of contiguous vectors borrowed from a
+   * {@link Workspace}, so no memory is allocated per iteration. The workspace retains the
+   * vectors between calls, so repeated calls with the same size do not allocate them either.
+   *
+   * <p>
+   * A {@link PartitionedFunction} is evaluated in parallel over its partitions.
+   */
   @Override
   public double optimize(DifferentialFunction function, DoubleArray x) {
     int n = x.size();
-    DoubleArray currentSolution = DoubleArray.zeros(n);
-    DoubleArray currentGradient = DoubleArray.zeros(n);
-    DoubleArray direction = DoubleArray.zeros(n);
-    DoubleArray solutions = DoubleArray.zeros(memory, n);
-    DoubleArray gradients = DoubleArray.zeros(memory, n);
-    DoubleArray gradient = DoubleArray.zeros(n);
-    DoubleArray scales = DoubleArray.zeros(memory);
-    DoubleArray a = DoubleArray.zeros(memory);
-
-    double f = function.gradientCost(x, gradient);
-    double sum = 0;
-    for (int i = 0; i < n; i++) {
-      direction.set(i, -gradient.get(i));
-      double tmp = x.get(i);
-      sum += tmp * tmp;
-    }
-
-    double maxStepSize = MAXIMUM_STEP + Math.max(Math.sqrt(sum), n);
-    int iter = 1, k = 0;
-    while (iter <= maxIterations) {
-      if (Double.isNaN(lineSearch.optimize(function, x, f, gradient, direction, currentSolution,
-          maxStepSize))) {
-        break;
-      }
-      f = function.gradientCost(currentSolution, currentGradient);
-      for (int i = 0; i < n; i++) {
-        solutions.set(k, i, currentSolution.get(i) - x.get(i));
-        gradients.set(k, i, currentGradient.get(i) - gradient.get(i));
-        x.set(i, currentSolution.get(i));
-        gradient.set(i, currentGradient.get(i));
+    try (Workspace workspace = Workspace.open(8L * n * (4 + 2 * memory))) {
+      DoubleArray currentSolution = workspace.doubleArray(n);
+      DoubleArray currentGradient = workspace.doubleArray(n);
+      DoubleArray gradient = workspace.doubleArray(n);
+      DoubleArray direction = workspace.doubleArray(n);
+
+      // the last steps (s) and gradient differences (y) in a circular buffer starting at k
+      DoubleArray[] steps = new DoubleArray[memory];
+      DoubleArray[] differences = new DoubleArray[memory];
+      for (int i = 0; i < memory; i++) {
+        steps[i] = workspace.doubleArray(n);
+        differences[i] = workspace.doubleArray(n);
       }
-
-      double test = 0.0;
-      for (int i = 0; i < n; i++) {
-        double temp = Math.abs(solutions.get(k, i)) / Math.max(Math.abs(x.get(i)), 1.0);
-        if (temp > test) {
-          test = temp;
+      double[] scales = new double[memory];
+      double[] a = new double[memory];
+
+      double f = function.gradientCost(x, gradient);
+      negate(gradient, direction);
+
+      double maxStepSize = MAXIMUM_STEP + Math.max(Math.sqrt(Arrays.inner(x, x)), n);
+      int iter = 1, k = 0;
+      while (iter <= maxIterations) {
+        if (Double.isNaN(lineSearch.optimize(function, x, f, gradient, direction, currentSolution,
+            maxStepSize))) {
+          break;
         }
-      }
-
-      if (test < TOLERANCE) {
-        return f;
-      }
-
-      test = 0;
-      double den = Math.max(f, 1);
-      for (int i = 0; i < n; i++) {
-        double temp = Math.abs(gradient.get(i)) * Math.max(Math.abs(x.get(i)), 1.0) / den;
-        if (temp > test) {
-          test = temp;
+        f = function.gradientCost(currentSolution, currentGradient);
+        DoubleArray step = steps[k];
+        DoubleArray difference = differences[k];
+        Arrays.copy(currentSolution, step);
+        Arrays.axpy(-1, x, step);
+        Arrays.copy(currentGradient, difference);
+        Arrays.axpy(-1, gradient, difference);
+        Arrays.copy(currentSolution, x);
+
+        DoubleArray tmp = gradient;
+        gradient = currentGradient;
+        currentGradient = tmp;
+
+        if (maxRelativeStep(step, x) < TOLERANCE) {
+          return f;
+        }
+        if (maxRelativeGradient(gradient, x) / Math.max(f, 1) < gradientTolerance) {
+          return f;
         }
-      }
-
-      if (test < gradientTolerance) {
-        return f;
-      }
 
-      DoubleArray kGradient = gradients.getRow(k);
-      double ys = Arrays.inner(kGradient, solutions.getRow(k));
-      double yy = Arrays.inner(kGradient, kGradient);
-      double scalingFactor = ys / yy;
-
-      scales.set(k, 1.0 / ys);
-      direction.assign(gradient, v -> -v);
-
-      int cp = k;
-      int bound = iter > memory ? memory : iter;
-      for (int i = 0; i < bound; i++) {
-        a.set(cp, scales.get(cp) * Arrays.inner(solutions.getRow(cp), direction));
-        Arrays.axpy(-a.get(cp), gradients.getRow(cp), direction);
-        if (--cp == -1) {
-          cp = memory - 1;
+        double ys = Arrays.inner(difference, step);
+        double yy = Arrays.inner(difference, difference);
+        scales[k] = 1.0 / ys;
+        negate(gradient, direction);
+
+        int cp = k;
+        int bound = iter > memory ? memory : iter;
+        for (int i = 0; i < bound; i++) {
+          a[cp] = scales[cp] * Arrays.inner(steps[cp], direction);
+          Arrays.axpy(-a[cp], differences[cp], direction);
+          if (--cp == -1) {
+            cp = memory - 1;
+          }
+        }
+        Arrays.scal(ys / yy, direction);
+
+        for (int i = 0; i < bound; i++) {
+          if (++cp == memory) {
+            cp = 0;
+          }
+          double b = scales[cp] * Arrays.inner(differences[cp], direction);
+          Arrays.axpy(a[cp] - b, steps[cp], direction);
         }
-      }
-      Arrays.scal(scalingFactor, direction);
 
-      for (int i = 0; i < bound; i++) {
-        if (++cp == memory) {
-          cp = 0;
+        if (++k == memory) {
+          k = 0;
         }
-        double b = scales.get(cp) * Arrays.inner(gradients.getRow(cp), direction);
-        Arrays.axpy(a.get(cp) - b, solutions.getRow(cp), direction);
+        iter++;
       }
+      return f;
+    }
+  }
 
-      if (++k == memory) {
-        k = 0;
-      }
-      iter++;
+  private static void negate(DoubleArray x, DoubleArray out) {
+    Arrays.copy(x, out);
+    Arrays.scal(-1, out);
+  }
+
+  private static double maxRelativeStep(DoubleArray step, DoubleArray x) {
+    double max = 0;
+    for (int i = 0, n = x.size(); i < n; i++) {
+      max = Math.max(max, Math.abs(step.get(i)) / Math.max(Math.abs(x.get(i)), 1.0));
+    }
+    return max;
+  }
+
+  private static double maxRelativeGradient(DoubleArray gradient, DoubleArray x) {
+    double max = 0;
+    for (int i = 0, n = x.size(); i < n; i++) {
+      max = Math.max(max, Math.abs(gradient.get(i)) * Math.max(Math.abs(x.get(i)), 1.0));
     }
-    return f;
+    return max;
   }
 
   @Override
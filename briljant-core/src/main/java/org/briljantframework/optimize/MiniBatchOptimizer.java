@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.optimize;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.Arrays;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.Workspace;
+import org.briljantframework.array.random.Sample;
+
+/**
+ * Minimizes a {@link PartitionedFunction} using stochastic (mini-batch) gradient steps, where
+ * each partition is a batch. In each epoch, the batches are visited once in an order shuffled
+ * using {@link Sample#shuffle(Random, int[])} and the parameters are updated in place after each
+ * batch. A function that is not partitioned is treated as a single batch.
+ *
+ * <p>
+ * With more than one thread, the batches of an epoch are divided between the threads, which
+ * update the shared parameters without locking (Hogwild). Each thread only writes the
+ * coordinates with a non-zero gradient, so threads rarely interfere if the gradients are sparse.
+ *
+ * <p>
+ * References
+ * <ul>
+ * <li>Niu, F., et.al, Hogwild!: A Lock-Free Approach to Parallelizing Stochastic Gradient
+ * Descent, NIPS 2011</li>
+ * </ul>
+ *
+ * @author Isak Karlsson
+ */
+public abstract class MiniBatchOptimizer implements NonlinearOptimizer {
+
+  private final int epochs;
+  private final Random random;
+  private final int threads;
+
+  MiniBatchOptimizer(int epochs, Random random, int threads) {
+    Check.argument(epochs > 0, "Invalid epochs: " + epochs);
+    Check.argument(threads > 0, "Invalid threads: " + threads);
+    this.epochs = epochs;
+    this.random = Objects.requireNonNull(random);
+    this.threads = threads;
+  }
+
+  /**
+   * Returns a new update (with state for {@code n} parameters) for one call to
+   * {@link #optimize(DifferentialFunction, DoubleArray)}.
+   */
+  abstract Update newUpdate(int n);
+
+  /**
+   * @return the sum of the batch costs in the last epoch (each evaluated before the update of
+   *         the batch)
+   */
+  @Override
+  public double optimize(DifferentialFunction function, DoubleArray x) {
+    int n = x.size();
+    int batches = function instanceof PartitionedFunction
+        ? ((PartitionedFunction) function).partitions() : 1;
+    int[] order = new int[batches];
+    for (int i = 0; i < batches; i++) {
+      order[i] = i;
+    }
+
+    Update update = newUpdate(n);
+    int workers = Math.min(threads, batches);
+    double cost = 0;
+    if (workers <= 1) {
+      try (Workspace workspace = Workspace.open(2 * 8L * n)) {
+        DoubleArray gradient = workspace.doubleArray(n);
+        DoubleArray work = workspace.doubleArray(n);
+        for (int epoch = 0; epoch < epochs; epoch++) {
+          Sample.shuffle(random, order);
+          cost = 0;
+          for (int batch : order) {
+            cost += gradientCost(function, x, gradient, batch);
+            update.apply(x, gradient, work);
+          }
+        }
+      }
+    } else {
+      DoubleArray[] gradients = new DoubleArray[workers];
+      for (int i = 0; i < workers; i++) {
+        gradients[i] = Arrays.newDoubleArray(n);
+      }
+      double[] costs = new double[workers];
+      for (int epoch = 0; epoch < epochs; epoch++) {
+        Sample.shuffle(random, order);
+        IntStream.range(0, workers).parallel().forEach(w -> {
+          DoubleArray gradient = gradients[w];
+          double sum = 0;
+          for (int i = split(batches, workers, w); i < split(batches, workers, w + 1); i++) {
+            sum += gradientCost(function, x, gradient, order[i]);
+            update.applySparse(x, gradient);
+          }
+          costs[w] = sum;
+        });
+      }
+      for (double c : costs) {
+        cost += c;
+      }
+    }
+    return cost;
+  }
+
+  private static double gradientCost(DifferentialFunction function, DoubleArray x,
+      DoubleArray gradient, int batch) {
+    if (function instanceof PartitionedFunction) {
+      return ((PartitionedFunction) function).gradientCost(x, gradient, batch);
+    } else {
+      return function.gradientCost(x, gradient);
+    }
+  }
+
+  private static int split(int size, int parts, int part) {
+    return (int) ((long) size * part / parts);
+  }
+
+  /**
+   * A parameter update rule, with its state (e.g., moment estimates).
+   */
+  interface Update {
+
+    /**
+     * Updates {@code x} given the gradient of a batch. {@code work} is a scratch vector with the
+     * size of {@code x}.
+     */
+    void apply(DoubleArray x, DoubleArray gradient, DoubleArray work);
+
+    /**
+     * Updates the coordinates of {@code x} (and the state) with a non-zero gradient. This method
+     * is called concurrently, without synchronization.
+     */
+    void applySparse(DoubleArray x, DoubleArray gradient);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.optimize;
+
+import java.util.concurrent.RecursiveTask;
+
+import org.briljantframework.array.Arrays;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.Workspace;
+
+/**
+ * Evaluates a {@link PartitionedFunction} in parallel. The partitions are split in halves until
+ * a single partition remains. The left half is accumulated into the gradient of the parent and
+ * the right half into a gradient borrowed from the {@link Workspace} of the thread that splits,
+ * which is added to the left gradient when both halves are done. Each split opens its scope with
+ * {@link Workspace#open(long)}, so the workspace of each thread retains the buffers it has
+ * borrowed, regardless of their size, and repeated evaluations do not allocate gradients.
+ *
+ * @author Isak Karlsson
+ */
+final class PartitionedEvaluation {
+
+  private PartitionedEvaluation() {}
+
+  static double cost(PartitionedFunction function, DoubleArray x) {
+    int partitions = function.partitions();
+    if (partitions <= 1) {
+      return partitions == 1 ? function.cost(x, 0) : 0;
+    }
+    return new Cost(function, x, 0, partitions).invoke();
+  }
+
+  static double gradientCost(PartitionedFunction function, DoubleArray x, DoubleArray gradient) {
+    int partitions = function.partitions();
+    if (partitions <= 1) {
+      if (partitions == 1) {
+        return function.gradientCost(x, gradient, 0);
+      }
+      gradient.assign(0);
+      return 0;
+    }
+    return new GradientCost(function, x, gradient, 0, partitions).invoke();
+  }
+
+  private static final class Cost extends RecursiveTask<Double> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final PartitionedFunction function;
+    private final DoubleArray x;
+    private final int from, to;
+
+    Cost(PartitionedFunction function, DoubleArray x, int from, int to) {
+      this.function = function;
+      this.x = x;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Double compute() {
+      if (to - from == 1) {
+        return function.cost(x, from);
+      }
+      int mid = (from + to) >>> 1;
+      Cost right = new Cost(function, x, mid, to);
+      right.fork();
+      double left = new Cost(function, x, from, mid).compute();
+      return left + right.join();
+    }
+  }
+
+  private static final class GradientCost extends RecursiveTask<Double> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final PartitionedFunction function;
+    private final DoubleArray x;
+    private final DoubleArray gradient;
+    private final int from, to;
+
+    GradientCost(PartitionedFunction function, DoubleArray x, DoubleArray gradient, int from,
+        int to) {
+      this.function = function;
+      this.x = x;
+      this.gradient = gradient;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Double compute() {
+      if (to - from == 1) {
+        return function.gradientCost(x, gradient, from);
+      }
+      int mid = (from + to) >>> 1;
+      try (Workspace workspace = Workspace.open(8L * gradient.size())) {
+        DoubleArray rightGradient = workspace.doubleArray(gradient.size());
+        GradientCost right = new GradientCost(function, x, rightGradient, mid, to);
+        right.fork();
+        double left = new GradientCost(function, x, gradient, from, mid).compute();
+        double cost = left + right.join();
+        Arrays.axpy(1, rightGradient, gradient);
+        return cost;
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.optimize;
+
+import org.briljantframework.array.DoubleArray;
+
+/**
+ * A differentiable function that is a sum over partitions, e.g., the loss over blocks of rows of
+ * a data set. The {@link #cost(DoubleArray)} and {@link #gradientCost(DoubleArray, DoubleArray)}
+ * of the whole function are evaluated in parallel over the partitions and combined using a
+ * pairwise (tree) reduction in a fixed order. The result is therefore independent of the number
+ * of threads and of scheduling.
+ *
+ * <p>
+ * Since the optimizers (e.g., {@link LimitedMemoryBfgsOptimizer} and
+ * {@link BacktrackingLineSearch}) only call the whole-function methods, they evaluate a
+ * partitioned function in parallel without modification.
+ *
+ * <p>
+ * The partition methods are called concurrently and must not modify {@code x}.
+ *
+ * @author Isak Karlsson
+ */
+public interface PartitionedFunction extends DifferentialFunction {
+
+  /**
+   * @return the number of partitions
+   */
+  int partitions();
+
+  /**
+   * Compute the value of the {@code partition:th} term at {@code x}.
+   *
+   * @param x the value (input)
+   * @param partition the partition
+   * @return the value of the partition at {@code x}
+   */
+  double cost(DoubleArray x, int partition);
+
+  /**
+   * Compute the value of the {@code partition:th} term at {@code x} and its gradient.
+   *
+   * @param x the value (input)
+   * @param gradient the gradient of the partition (output); the initial values are unspecified
+   * @param partition the partition
+   * @return the value of the partition at {@code x}
+   */
+  double gradientCost(DoubleArray x, DoubleArray gradient, int partition);
+
+  @Override
+  default double cost(DoubleArray x) {
+    return PartitionedEvaluation.cost(this, x);
+  }
+
+  @Override
+  default double gradientCost(DoubleArray x, DoubleArray gradient) {
+    return PartitionedEvaluation.gradientCost(this, x, gradient);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.optimize;
+
+import java.util.Random;
+
+import org.briljantframework.Check;
+import org.briljantframework.array.Arrays;
+import org.briljantframework.array.DoubleArray;
+
+/**
+ * Mini-batch stochastic gradient descent with (optional) momentum, i.e.,
+ * {@code v = momentum * v + g} and {@code x = x - learningRate * v}.
+ *
+ * @author Isak Karlsson
+ * @see MiniBatchOptimizer
+ */
+public class SgdOptimizer extends MiniBatchOptimizer {
+
+  private final double learningRate;
+  private final double momentum;
+
+  public SgdOptimizer(double learningRate, int epochs) {
+    this(learningRate, 0, epochs, new Random(), 1);
+  }
+
+  /**
+   * @param learningRate the learning rate
+   * @param momentum the momentum ({@code 0} for plain gradient steps)
+   * @param epochs the number of passes over the batches
+   * @param random the random number generator used to shuffle the batches
+   * @param threads the number of threads; with more than one thread, the updates are lock-free
+   */
+  public SgdOptimizer(double learningRate, double momentum, int epochs, Random random,
+      int threads) {
+    super(epochs, random, threads);
+    Check.argument(learningRate > 0, "Invalid learningRate: " + learningRate);
+    Check.argument(momentum >= 0 && momentum < 1, "Invalid momentum: " + momentum);
+    this.learningRate = learningRate;
+    this.momentum = momentum;
+  }
+
+  @Override
+  Update newUpdate(int n) {
+    DoubleArray velocity = momentum > 0 ? Arrays.newDoubleArray(n) : null;
+    return new Update() {
+      @Override
+      public void apply(DoubleArray x, DoubleArray gradient, DoubleArray work) {
+        if (velocity == null) {
+          Arrays.axpy(-learningRate, gradient, x);
+        } else {
+          Arrays.scal(momentum, velocity);
+          Arrays.axpy(1, gradient, velocity);
+          Arrays.axpy(-learningRate, velocity, x);
+        }
+      }
+
+      @Override
+      public void applySparse(DoubleArray x, DoubleArray gradient) {
+        for (int i = 0, size = x.size(); i < size; i++) {
+          double g = gradient.get(i);
+          if (g != 0) {
+            double step = g;
+            if (velocity != null) {
+              step = momentum * velocity.get(i) + g;
+              velocity.set(i, step);
+            }
+            x.set(i, x.get(i) - learningRate * step);
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return "SgdOptimizer{" + "learningRate=" + learningRate + ", momentum=" + momentum + '}';
+  }
+}
@@ -179,6 +179,33 @@ public final class ArrayAllocations {
     return Arrays.copyOf(buffer, newCapacity);
   }
 
+  /**
+   * Alters the current size of the vector if the supplied size is larger than the current.
+   */
+  public static float[] ensureCapacity(final float[] buffer, final int newSize) {
+    if (newSize - buffer.length > 0) {
+      return grow(buffer, newSize);
+    }
+    return buffer;
+  }
+
+  /**
+   * From {@link java.util.ArrayList}
+   */
+  private static float[] grow(final float[] buffer, int minCapacity) {
+    // overflow-conscious code
+    int oldCapacity = buffer.length;
+    int newCapacity = oldCapacity + (oldCapacity >> 1);
+    if (newCapacity - minCapacity < 0) {
+      newCapacity = minCapacity;
+    }
+    if (newCapacity - MAX_ARRAY_SIZE > 0) {
+      newCapacity = hugeCapacity(minCapacity);
+    }
+    // minCapacity is usually close to size, so this is a win:
+    return Arrays.copyOf(buffer, newCapacity);
+  }
+
   /**
    * From {@link java.util.ArrayList}
    */
@@ -248,6 +248,21 @@ abstract class ArrayRoutinesSpec extends Specification {
     bj.array([1, 2, 3, -22] as long[])           | -22   | 3
   }
 
+  def "reductions of an empty array return the identity"() {
+    given:
+    def x = bj.doubleArray(0)
+    def y = bj.intArray(0)
+
+    expect:
+    bjr.sum(x) == 0.0
+    Double.isNaN(bjr.mean(x))
+    bjr.min(x) == Double.POSITIVE_INFINITY
+    bjr.max(x) == Double.NEGATIVE_INFINITY
+    bjr.var(x) == 0.0
+    bjr.prod(x) == 1.0
+    bjr.sum(y) == 0
+  }
+
   def "sorting returns a sorted array"() {
     expect:
     bjr.sort(array) == sorted
@@ -26,6 +26,7 @@ package org.briljantframework.array
 
 import org.apache.commons.math3.complex.Complex
 import org.briljantframework.array.base.BaseArrayBackend
+import org.briljantframework.exceptions.NonConformantException
 import spock.lang.Specification
 
 /**
@@ -461,6 +462,100 @@ class BaseArraySpec extends Specification {
 
   }
 
+  def "Array#broadcast repeats dimensions of size one without copying"() {
+    given:
+    def x = bj.array([1.0, 2.0, 3.0] as double[]).reshape(3, 1)
+
+    when:
+    def b = x.broadcast(2, 3, 2)
+
+    then:
+    b.shape == [2, 3, 2] as int[]
+    b.stride == [0, 1, 0] as int[]
+    !b.isContiguous()
+    b.copy() == bj.array([1.0, 1, 2, 2, 3, 3, 1, 1, 2, 2, 3, 3] as double[]).reshape(2, 3, 2)
+    b.reshape(-1) == b.copy().reshape(-1)
+    b.getVector(1, 3) == bj.array([1.0, 2, 3] as double[])
+
+    when:
+    x.set(0, 10)
+
+    then:
+    b.get(1, 0, 1) == 10
+  }
+
+  def "Array#broadcast throws an exception if the shapes are not compatible"() {
+    when:
+    bj.range(3).broadcast(3, 2)
+
+    then:
+    thrown(NonConformantException)
+  }
+
+  def "Element-wise operations broadcast operands of different size"() {
+    given:
+    def x = bj.array([[1, 2, 3], [4, 5, 6]] as int[][])
+    def row = bj.array([10, 20, 30] as int[])
+    def column = bj.array([100, 200] as int[]).reshape(2, 1)
+
+    expect:
+    x.plus(row) == bj.array([[11, 22, 33], [14, 25, 36]] as int[][])
+    x.minus(column) == bj.array([[-99, -98, -97], [-196, -195, -194]] as int[][])
+    row.times(column) == bj.array([[1000, 2000, 3000], [2000, 4000, 6000]] as int[][])
+    x.asLong().times(row.asLong()) == bj.array([10, 40, 40, 100, 90, 180] as long[]).reshape(2, 3)
+    x.asDouble().div(column.asDouble()) ==
+        bj.array([[0.01, 0.02, 0.03], [0.02, 0.025, 0.03]] as double[][])
+    x.gt(bj.array([3] as int[])) ==
+        bj.array([false, true, false, true, false, true] as boolean[]).reshape(2, 3)
+    x.asDouble().lte(row.asDouble().div(10)) ==
+        bj.array([true, false, true, false, true, false] as boolean[]).reshape(2, 3)
+    x.asLong().eq(column.asLong().minus(bj.array([98L] as long[]))) ==
+        bj.array([false, false, true, false, false, false] as boolean[]).reshape(2, 3)
+  }
+
+  def "In-place element-wise operations broadcast the operand to the shape of the array"() {
+    given:
+    def x = bj.array([[1.0, 2, 3], [4, 5, 6]] as double[][])
+    def mean = bj.array([2.5, 3.5, 4.5] as double[])
+
+    when:
+    x.minusAssign(mean)
+    x.divAssign(bj.array([3.0] as double[]))
+
+    then:
+    x == bj.array([[-0.5, -0.5, -0.5], [0.5, 0.5, 0.5]] as double[][])
+
+    when:
+    def y = bj.intArray(2, 3)
+    y.assign(bj.array([1, 2] as int[]).reshape(2, 1))
+
+    then:
+    y == bj.array([[1, 1, 1], [2, 2, 2]] as int[][])
+  }
+
+  def "Element-wise operations broadcast operands of equal size but different shapes"() {
+    given:
+    def col = bj.array([1, 2, 3] as double[]).reshape(3, 1)
+    def row = bj.array([10, 20, 30] as double[]).reshape(1, 3)
+
+    expect:
+    col.plus(row) == bj.array([[11, 21, 31], [12, 22, 32], [13, 23, 33]] as double[][])
+    col.plus(row) == col.lazy().plus(row).evaluate()
+    col.asInt().copy().times(row.asInt().copy()) ==
+        bj.array([[10, 20, 30], [20, 40, 60], [30, 60, 90]] as int[][])
+    col.asLong().copy().minus(row.asLong().copy()).asInt() ==
+        bj.array([[-9, -19, -29], [-8, -18, -28], [-7, -17, -27]] as int[][])
+    col.lt(row).with { lt -> (0..<9).every { lt.get(it) } }
+  }
+
+  def "Element-wise operations reject operands of equal size and incompatible shapes"() {
+    when:
+    bj.range(6).reshape(2, 3).plus(bj.range(6))
+
+    then:
+    thrown(NonConformantException)
+  }
+
   def getShapes(j, int n) {
     return ([j as int[]] * n);
   }
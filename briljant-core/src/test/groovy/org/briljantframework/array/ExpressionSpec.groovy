@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Isak Karlsson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.briljantframework.array
+
+import org.briljantframework.exceptions.NonConformantException
+import spock.lang.Specification
+
+class ExpressionSpec extends Specification {
+
+  def "fused double expressions equals the eager operations"() {
+    given:
+    def a = Arrays.linspace(-1, 1, 3000).reshape(30, 100)
+    def b = Arrays.linspace(2, 3, 3000).reshape(100, 30).transpose()
+    def c = Arrays.linspace(0, 1, 3000).reshape(30, 100)
+
+    when:
+    def lazy = a.lazy().times(b).plus(c).map(Math.&exp)
+    def eager = a.times(b).plus(c).map(Math.&exp)
+
+    then:
+    lazy.shape == [30, 100] as int[]
+    assertEqual(eager, lazy.evaluate())
+    Math.abs(lazy.sum() - Arrays.sum(eager)) < 1e-9
+    Math.abs(lazy.mean() - Arrays.sum(eager) / eager.size()) < 1e-12
+    Math.abs(lazy.norm2() - Math.sqrt(Arrays.sum(eager.times(eager)))) < 1e-9
+  }
+
+  def "scalars are broadcast"() {
+    given:
+    def a = DoubleArray.of(1, 2, 3)
+
+    expect:
+    a.lazy().times(2).minus(1).div(2).evaluate() == DoubleArray.of(0.5, 1.5, 2.5)
+    DoubleExpression.of(10).minus(a).evaluate() == DoubleArray.of(9, 8, 7)
+    a.lazy().negate().evaluate() == DoubleArray.of(-1, -2, -3)
+  }
+
+  def "vectors are broadcast to the rows and columns of matrices"() {
+    given:
+    def x = Arrays.newDoubleMatrix([[1, 2, 3], [4, 5, 6]] as double[][])
+    def row = DoubleArray.of(10, 20, 30)
+    def column = DoubleArray.of(100, 200).reshape(2, 1)
+
+    expect:
+    x.lazy().plus(row).evaluate() ==
+        Arrays.newDoubleMatrix([[11, 22, 33], [14, 25, 36]] as double[][])
+    x.lazy().plus(column).evaluate() ==
+        Arrays.newDoubleMatrix([[101, 102, 103], [204, 205, 206]] as double[][])
+    DoubleExpression.of(row).plus(column).evaluate() ==
+        Arrays.newDoubleMatrix([[110, 120, 130], [210, 220, 230]] as double[][])
+  }
+
+  def "incompatible shapes are not broadcast"() {
+    when:
+    DoubleArray.of(1, 2, 3).lazy().plus(DoubleArray.of(1, 2))
+
+    then:
+    thrown(NonConformantException)
+  }
+
+  def "expressions can be evaluated into views and operands"() {
+    given:
+    def x = Arrays.newDoubleArray(3, 3)
+    def a = DoubleArray.of(1, 2, 3)
+
+    when:
+    a.lazy().times(a).evaluate(x.getRow(1))
+    a.lazy().times(2).evaluate(a)
+
+    then:
+    x.getRow(1) == DoubleArray.of(1, 4, 9).reshape(1, 3)
+    x.getRow(0) == Arrays.newDoubleArray(1, 3)
+    a == DoubleArray.of(2, 4, 6)
+  }
+
+  def "combine applies the function element-wise"() {
+    expect:
+    DoubleArray.of(1, 5, 3).lazy().combine(DoubleExpression.of(DoubleArray.of(4, 2, 6)), Math.&max)
+        .evaluate() == DoubleArray.of(4, 5, 6)
+  }
+
+  def "int expressions use int arithmetic"() {
+    given:
+    def a = Arrays.range(5000).copy()
+    def b = IntArray.of(1, 2).reshape(2, 1)
+
+    when:
+    def e = a.reshape(2, 2500).lazy().times(3).plus(b).div(2)
+    def eager = a.reshape(2, 2500).times(3).plus(Arrays.repmat(b, 1, 2500)).div(2)
+
+    then:
+    e.evaluate() == eager
+    e.sum() == Arrays.sum(eager)
+    e.asDouble().sum() == Arrays.sum(eager) as double
+    IntArray.of(7, 8).lazy().map({ it % 3 }).evaluate() == IntArray.of(1, 2)
+  }
+
+  private static void assertEqual(DoubleArray expected, DoubleArray actual) {
+    assert expected.shape == actual.shape
+    for (int i = 0; i < expected.size(); i++) {
+      assert Math.abs(expected.get(i) - actual.get(i)) < 1e-12
+    }
+  }
+}
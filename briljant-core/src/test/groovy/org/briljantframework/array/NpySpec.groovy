@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Isak Karlsson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.briljantframework.array
+
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.ReadOnlyBufferException
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+
+class NpySpec extends Specification {
+
+  Path dir = Files.createTempDirectory("npy")
+
+  def cleanup() {
+    dir.toFile().deleteDir()
+  }
+
+  def "written arrays are read and mapped with the same shape and elements"() {
+    given:
+    def path = dir.resolve("a.npy")
+
+    when:
+    Npy.write(path, array)
+    def read = Npy.read(path)
+    def mapped = Npy.map(path)
+
+    then:
+    read == array
+    mapped == array
+    read.shape == array.shape
+
+    where:
+    array << [
+        Arrays.newDoubleVector(1, 2, 3, 4, 5, 6).reshape(2, 3),
+        Arrays.newDoubleVector(1, 2, 3, 4, 5, 6).reshape(3, 2).transpose(),
+        Arrays.newIntVector(1, -2, 3, 4).reshape(2, 2),
+        Arrays.newLongVector(1, 2, 3, 4, 5, 6, 7, 8).reshape(2, 2, 2),
+        Arrays.newDoubleVector(1, 2, 3)
+    ]
+  }
+
+  def "arrays in C order are read with row-major strides"() {
+    given:
+    def path = write("<f8", "False", "(2, 3)", ByteOrder.LITTLE_ENDIAN) {
+      ByteBuffer b -> (1..6).each {b.putDouble(it)}
+    }
+
+    expect:
+    Npy.read(path) == Arrays.newDoubleVector(1, 2, 3, 4, 5, 6).reshape(3, 2).transpose()
+    Npy.map(path) == Arrays.newDoubleVector(1, 2, 3, 4, 5, 6).reshape(3, 2).transpose()
+  }
+
+  def "big endian and narrow types are converted"() {
+    given:
+    def floats = write(">f4", "True", "(3,)", ByteOrder.BIG_ENDIAN) {
+      ByteBuffer b -> [1.5f, -2f, 3f].each {b.putFloat(it)}
+    }
+    def bytes = write("|u1", "True", "(3,)", ByteOrder.LITTLE_ENDIAN) {
+      ByteBuffer b -> [1, 255, 128].each {b.put((byte) it)}
+    }
+    def shorts = write("<i2", "True", "(2,)", ByteOrder.LITTLE_ENDIAN) {
+      ByteBuffer b -> [-1, 300].each {b.putShort((short) it)}
+    }
+
+    expect:
+    Npy.read(floats) == Arrays.newDoubleVector(1.5, -2, 3)
+    Npy.map(floats) == Arrays.newDoubleVector(1.5, -2, 3)
+    Npy.read(bytes) == Arrays.newIntVector(1, 255, 128)
+    Npy.map(bytes) == Arrays.newIntVector(1, 255, 128)
+    Npy.read(shorts) == Arrays.newIntVector(-1, 300)
+  }
+
+  def "read-only mapped arrays can't be modified"() {
+    given:
+    def path = dir.resolve("a.npy")
+    Npy.write(path, Arrays.newDoubleVector(1, 2, 3))
+
+    when:
+    (Npy.map(path) as DoubleArray).set(0, 10)
+
+    then:
+    thrown(ReadOnlyBufferException)
+  }
+
+  def "copy-on-write mapped arrays don't modify the file"() {
+    given:
+    def path = dir.resolve("a.npy")
+    Npy.write(path, Arrays.newDoubleVector(1, 2, 3))
+
+    when:
+    def mapped = Npy.map(path, FileChannel.MapMode.PRIVATE) as DoubleArray
+    mapped.set(0, 10)
+
+    then:
+    mapped == Arrays.newDoubleVector(10, 2, 3)
+    Npy.read(path) == Arrays.newDoubleVector(1, 2, 3)
+  }
+
+  def "read-write mapped arrays modify the file"() {
+    given:
+    def path = dir.resolve("a.npy")
+    Npy.write(path, Arrays.newIntVector(1, 2, 3))
+
+    when:
+    def mapped = Npy.map(path, FileChannel.MapMode.READ_WRITE) as IntArray
+    mapped.set(2, 10)
+
+    then:
+    Npy.read(path) == Arrays.newIntVector(1, 2, 10)
+  }
+
+  def "npz archives are written and read"() {
+    given:
+    def path = dir.resolve("a.npz")
+    def arrays = [x: Arrays.newDoubleVector(1, 2, 3, 4).reshape(2, 2),
+                  y: Arrays.newIntVector(1, 2, 3)]
+
+    when:
+    Npy.writeNpz(path, arrays)
+    def read = Npy.readNpz(path)
+
+    then:
+    read.keySet() as List == ["x", "y"]
+    read.x == arrays.x
+    read.y == arrays.y
+  }
+
+  def "invalid files are rejected"() {
+    given:
+    def path = dir.resolve("a.npy")
+    Files.write(path, "not a numpy file".bytes)
+
+    when:
+    Npy.read(path)
+
+    then:
+    thrown(IOException)
+  }
+
+  private Path write(String descr, String fortranOrder, String shape, ByteOrder order,
+                     Closure data) {
+    def header = "{'descr': '$descr', 'fortran_order': $fortranOrder, 'shape': $shape, }\n"
+    def body = ByteBuffer.allocate(64).order(order)
+    data(body)
+    def path = dir.resolve("${UUID.randomUUID()}.npy")
+    def out = new ByteArrayOutputStream()
+    out.write([0x93, 'N', 'U', 'M', 'P', 'Y'].collect {
+      it instanceof String ? (byte) it.charAt(0) : (byte) it
+    } as byte[])
+    out.write([1, 0, header.length(), 0] as byte[])
+    out.write(header.bytes)
+    out.write(body.array(), 0, body.position())
+    Files.write(path, out.toByteArray())
+    return path
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Isak Karlsson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.briljantframework.array
+
+import java.util.function.DoubleBinaryOperator
+import java.util.function.DoubleUnaryOperator
+import java.util.function.IntBinaryOperator
+import java.util.function.IntUnaryOperator
+import java.util.function.LongBinaryOperator
+import java.util.function.LongUnaryOperator
+
+import spock.lang.Specification
+
+class StrideCursorSpec extends Specification {
+
+  def "the cursor returns the same positions as the linearized index"() {
+    given:
+    def cursor = new StrideCursor(offset, shape as int[], stride as int[])
+    def size = Indexer.size(shape as int[])
+
+    expect:
+    def positions = []
+    while (cursor.hasNext()) {
+      positions << cursor.next()
+    }
+    positions == (0..<size).collect {
+      Indexer.linearized(it, offset, stride as int[], shape as int[])
+    }
+
+    where:
+    offset | shape     | stride
+    0      | [6]       | [1]
+    3      | [4]       | [2]
+    0      | [3, 4]    | [1, 3]
+    0      | [3, 4]    | [4, 1]
+    5      | [2, 2]    | [1, 6]
+    0      | [2, 1, 3] | [1, 2, 2]
+    1      | [2, 3, 2] | [1, 2, 6]
+    2      | [2, 3, 2] | [12, 4, 1]
+  }
+
+  def "the cursor of a dense array is contiguous"() {
+    expect:
+    new StrideCursor(offset, shape as int[], stride as int[]).contiguous == contiguous
+
+    where:
+    offset | shape     | stride    | contiguous
+    0      | [6]       | [1]       | true
+    0      | [3, 4]    | [1, 3]    | true
+    5      | [2, 1, 3] | [1, 2, 2] | true
+    3      | [4]       | [2]       | false
+    0      | [3, 4]    | [4, 1]    | false
+    0      | [3, 4]    | [1, 4]    | false
+  }
+
+  def "elementwise operations on dense arrays and strided views agree"() {
+    given:
+    def values = (1..12) as int[]
+    def doubles = Arrays.newDoubleArray(3, 4)
+    def doubleView = Arrays.newDoubleArray(5, 6).getView(1, 1, 3, 4)
+    def ints = Arrays.newIntArray(3, 4)
+    def intView = Arrays.newIntArray(5, 6).getView(1, 1, 3, 4)
+    def longs = Arrays.newLongArray(3, 4)
+    def longView = Arrays.newLongArray(5, 6).getView(1, 1, 3, 4)
+    [doubles, doubleView].each { it.assign(values as double[]) }
+    [ints, intView].each { it.assign(values) }
+    [longs, longView].each { it.assign(values as long[]) }
+
+    expect:
+    doubles.map({ it * 2 } as DoubleUnaryOperator) ==
+        doubleView.map({ it * 2 } as DoubleUnaryOperator)
+    doubles.copy() == doubleView.copy()
+    doubles.reduce(0, { a, b -> a + b } as DoubleBinaryOperator) ==
+        doubleView.reduce(0, { a, b -> a + b } as DoubleBinaryOperator)
+    ints.map({ it * 2 } as IntUnaryOperator) == intView.map({ it * 2 } as IntUnaryOperator)
+    ints.copy() == intView.copy()
+    ints.reduce(0, { a, b -> a + b } as IntBinaryOperator) ==
+        intView.reduce(0, { a, b -> a + b } as IntBinaryOperator)
+    longs.map({ it * 2 } as LongUnaryOperator) == longView.map({ it * 2 } as LongUnaryOperator)
+    longs.copy() == longView.copy()
+    longs.reduce(0, { a, b -> a + b } as LongBinaryOperator) ==
+        longView.reduce(0, { a, b -> a + b } as LongBinaryOperator)
+
+    when:
+    [doubles, doubleView].each { it.apply({ it - 1 } as DoubleUnaryOperator) }
+    [ints, intView].each { it.apply({ it - 1 } as IntUnaryOperator) }
+    [longs, longView].each { it.apply({ it - 1 } as LongUnaryOperator) }
+
+    then:
+    doubles == doubleView
+    ints == intView
+    longs == longView
+  }
+
+  def "elementwise operations on strided views use the cursor"() {
+    given:
+    def a = Arrays.newDoubleArray(4, 6)
+    a.assign((0..<24) as double[])
+    def view = a.getView(1, 1, 2, 3)
+
+    when:
+    def mapped = view.map { it * 2 }
+    view.assign(0)
+
+    then:
+    mapped == Arrays.newDoubleMatrix([[10, 18, 26], [12, 20, 28]] as double[][])
+    a.sum() == (0..<24).sum() - (5 + 9 + 13 + 6 + 10 + 14)
+  }
+}
@@ -25,6 +25,8 @@
 package org.briljantframework.array.base
 
 import org.briljantframework.array.ArrayRoutinesSpec
+import org.briljantframework.array.DoubleArray
+import org.briljantframework.array.Op
 
 /**
  * Created by isak on 01/06/15.
@@ -36,4 +38,53 @@ class BaseArrayRoutinesSpec extends ArrayRoutinesSpec {
     bj = b.arrayFactory
     bjr = b.arrayRoutines
   }
+
+  def "blocked gemm agrees with the definition for #transA, #transB and (#m, #n, #k)"() {
+    given:
+    def random = new Random(123)
+    def a = transA == Op.KEEP ? bj.doubleArray(m, k + 3) : bj.doubleArray(k + 3, m)
+    def b = transB == Op.KEEP ? bj.doubleArray(k, n + 2) : bj.doubleArray(n + 2, k)
+    a.assign { random.nextGaussian() }
+    b.assign { random.nextGaussian() }
+
+    // strided sub-matrix views
+    a = transA == Op.KEEP ? a.getView(0, 3, m, k) : a.getView(3, 0, k, m)
+    b = transB == Op.KEEP ? b.getView(0, 2, k, n) : b.getView(2, 0, n, k)
+    def c = bj.doubleArray(m, n)
+    c.assign { random.nextGaussian() }
+    def expected = naive(transA, transB, 2.0, a, b, 0.5, c.copy())
+
+    when:
+    bjr.gemm(transA, transB, 2.0, a, b, 0.5, c)
+
+    then:
+    (0..<m).every { i ->
+      (0..<n).every { j -> Math.abs(c.get(i, j) - expected.get(i, j)) < 1e-9 }
+    }
+
+    where:
+    transA       | transB       | m   | n   | k
+    Op.KEEP      | Op.KEEP      | 7   | 5   | 3
+    Op.TRANSPOSE | Op.KEEP      | 9   | 6   | 11
+    Op.KEEP      | Op.TRANSPOSE | 13  | 17  | 5
+    Op.TRANSPOSE | Op.TRANSPOSE | 4   | 4   | 4
+    Op.KEEP      | Op.KEEP      | 301 | 77  | 270
+    Op.TRANSPOSE | Op.TRANSPOSE | 260 | 133 | 513
+  }
+
+  private static DoubleArray naive(Op transA, Op transB, double alpha, DoubleArray a,
+                                   DoubleArray b, double beta, DoubleArray c) {
+    def opA = transA == Op.KEEP ? a : a.transpose()
+    def opB = transB == Op.KEEP ? b : b.transpose()
+    for (int i = 0; i < c.rows(); i++) {
+      for (int j = 0; j < c.columns(); j++) {
+        double sum = 0
+        for (int p = 0; p < opA.columns(); p++) {
+          sum += opA.get(i, p) * opB.get(p, j)
+        }
+        c.set(i, j, alpha * sum + beta * c.get(i, j))
+      }
+    }
+    return c
+  }
 }
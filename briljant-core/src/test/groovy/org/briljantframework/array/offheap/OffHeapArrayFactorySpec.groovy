@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Isak Karlsson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.briljantframework.array.offheap
+
+import java.util.function.IntBinaryOperator
+
+import org.briljantframework.array.ArrayFactorySpec
+
+class OffHeapArrayFactorySpec extends ArrayFactorySpec {
+
+  def setupSpec() {
+    bj = new OffHeapArrayBackend().arrayFactory
+  }
+
+  def "released arrays (and their views) cannot be accessed"() {
+    given:
+    def x = bj.doubleArray(3, 3)
+    def view = x.getColumn(1)
+
+    when:
+    bj.release(x)
+    view.get(0)
+
+    then:
+    x.released
+    thrown(IllegalStateException)
+  }
+
+  def "arrays allocated in a scope are released when the scope is closed"() {
+    given:
+    def x = bj.doubleArray(3, 3)
+    def y, z
+
+    when:
+    def scope = bj.openScope()
+    try {
+      y = bj.intArray(10)
+      z = x.plus(x)
+    } finally {
+      scope.close()
+    }
+
+    then:
+    !x.released
+    y.released
+    z.released
+  }
+
+  def "scopes must be closed in reverse order"() {
+    given:
+    def outer = bj.openScope()
+    def inner = bj.openScope()
+
+    when:
+    outer.close()
+
+    then:
+    thrown(IllegalStateException)
+
+    cleanup:
+    inner.close()
+    outer.close()
+  }
+
+  def "released memory is not freed while it is pinned"() {
+    given:
+    def x = bj.doubleArray(3, 3)
+    def memory = x.memory()
+
+    when:
+    memory.pin(x)
+    bj.release(x)
+
+    then:
+    x.released
+    memory.getDoubleUnchecked(0) == 0
+
+    when:
+    memory.unpin()
+    x.get(0)
+
+    then:
+    thrown(IllegalStateException)
+  }
+
+  def "arrays are views since data() returns a copy"() {
+    given:
+    def x = bj.array([1, 2, 3, 4] as double[]).reshape(2, 2)
+
+    when:
+    def data = x.data()
+    data[0] = 10
+
+    then:
+    x.view
+    x.getColumn(1).view
+    x.get(0) == 1
+    x.getColumn(1).data() == [3, 4] as double[]
+  }
+
+  def "bulk operations access the native memory of strided views"() {
+    given:
+    def x = bj.array([1, 2, 3, 4, 5, 6] as double[]).reshape(2, 3)
+    def y = bj.array([1, 2, 3, 4, 5, 6] as int[]).reshape(2, 3)
+    def z = bj.range(6).asLong().copy().reshape(2, 3)
+    def row = x.getRow(1)
+
+    when:
+    row.apply { it * 10 }
+    x.getColumn(0).assign([-1, -2] as double[])
+    y.getRow(0).assign(y.getRow(1), { a, b -> a + b } as IntBinaryOperator)
+    z.getRow(1).assign(7)
+
+    then:
+    x == bj.array([-1, -2, 3, 40, 5, 60] as double[]).reshape(2, 3)
+    row.map { it + 1 } == bj.array([-1, 41, 61] as double[]).reshape(1, 3)
+    row.plus(row) == bj.array([-4, 80, 120] as double[]).reshape(1, 3)
+    row.copy().data() == [-2, 40, 60] as double[]
+    row.reduce(0, { a, b -> a + b }) == 98
+    y == bj.array([3, 2, 7, 4, 11, 6] as int[]).reshape(2, 3)
+    y.getRow(0).copy().data() == [3, 7, 11] as int[]
+    y.reduce(0, { a, b -> a + b }) == 33
+    z.getRow(1).reduce(0L, { a, b -> a + b }) == 21
+    z.get(0) == 0 && z.get(2) == 2
+  }
+
+  def "bulk operations on released arrays fail"() {
+    given:
+    def x = bj.doubleArray(3, 3)
+    bj.release(x)
+
+    when:
+    x.getRow(1).assign(1.0)
+
+    then:
+    thrown(IllegalStateException)
+  }
+}
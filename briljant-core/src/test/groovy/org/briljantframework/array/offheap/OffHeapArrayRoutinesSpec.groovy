@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Isak Karlsson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.briljantframework.array.offheap
+
+import org.briljantframework.array.ArrayRoutinesSpec
+
+class OffHeapArrayRoutinesSpec extends ArrayRoutinesSpec {
+
+  def setupSpec() {
+    def b = new OffHeapArrayBackend()
+    bj = b.arrayFactory
+    bjr = b.arrayRoutines
+  }
+
+  def "reductions and element-wise routines operate on views of the native memory"() {
+    given:
+    def x = bj.array([1, -2, 3, -4, 5, -6] as double[]).reshape(2, 3)
+    def row = x.getRow(1)
+    def out = bj.doubleArray(3, 2).getColumn(1)
+
+    expect:
+    bjr.sum(row) == -12
+    bjr.asum(row) == 12
+    bjr.min(row) == -6
+    bjr.max(x.getColumn(1)) == 3
+    bjr.inner(row, x.getRow(0)) == -2 - 12 - 30
+    bjr.sum(0, x) == bj.array([-1, -1, -1] as double[])
+    bjr.abs(row, out) == bj.array([2, 4, 6] as double[]).reshape(3, 1)
+    bjr.plus(row, x.getRow(0), out) == bj.array([-1, -1, -1] as double[]).reshape(3, 1)
+  }
+
+  def "scal and axpy write to the native memory"() {
+    given:
+    def x = bj.array([1, 2, 3, 4] as double[]).reshape(2, 2)
+    def y = bj.doubleArray(4).reshape(2, 2)
+
+    when:
+    bjr.scal(2, x.getColumn(0))
+    bjr.axpy(3, x.getRow(0), y.getRow(1))
+
+    then:
+    x == bj.array([2, 4, 3, 4] as double[]).reshape(2, 2)
+    y == bj.array([0, 6, 0, 9] as double[]).reshape(2, 2)
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Isak Karlsson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.briljantframework.optimize
+
+import static org.briljantframework.optimize.PartitionedFunctionSpec.gaussian
+import static org.briljantframework.optimize.PartitionedFunctionSpec.leastSquares
+
+import org.briljantframework.array.Arrays
+import org.briljantframework.array.DoubleArray
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * @author Isak Karlsson
+ */
+class MiniBatchOptimizerSpec extends Specification {
+
+  @Unroll
+  def "#optimizer minimizes a partitioned least squares problem"() {
+    given:
+    def random = new Random(1)
+    def a = gaussian(random, 500, 3)
+    def expected = Arrays.newDoubleVector([1, -2, 3] as double[])
+    def b = Arrays.dot(a, expected.reshape(3, 1)).reshape(500)
+    def x = Arrays.newDoubleArray(3)
+
+    when:
+    def cost = optimizer.optimize(leastSquares(a, b), x)
+
+    then:
+    cost < 1e-4
+    (0..<3).every { Math.abs(x.get(it) - expected.get(it)) < 1e-3 }
+
+    where:
+    optimizer << [
+        new SgdOptimizer(0.005, 50),
+        new SgdOptimizer(0.002, 0.9, 50, new Random(2), 1),
+        new SgdOptimizer(0.005, 0, 50, new Random(2), 4),
+        new AdaGradOptimizer(0.5, 100),
+        new AdaGradOptimizer(0.5, 100, new Random(3), 4),
+        new AdamOptimizer(0.05, 200),
+        new AdamOptimizer(0.05, 0.9, 0.999, 200, new Random(4), 4)
+    ]
+  }
+
+  def "a function that is not partitioned is a single batch"() {
+    given:
+    DifferentialFunction f = new DifferentialFunction() {
+
+      @Override
+      double cost(DoubleArray x) {
+        return Math.pow(x.get(0) - 2, 2) + Math.pow(x.get(1) + 1, 2)
+      }
+    }
+    def x = Arrays.newDoubleArray(2)
+
+    when:
+    new SgdOptimizer(0.1, 200).optimize(f, x)
+
+    then:
+    Math.abs(x.get(0) - 2) < 1e-4
+    Math.abs(x.get(1) + 1) < 1e-4
+  }
+}
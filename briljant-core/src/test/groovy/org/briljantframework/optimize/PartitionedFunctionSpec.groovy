@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Isak Karlsson
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.briljantframework.optimize
+
+import org.briljantframework.array.Arrays
+import org.briljantframework.array.DoubleArray
+import spock.lang.Specification
+
+/**
+ * @author Isak Karlsson
+ */
+class PartitionedFunctionSpec extends Specification {
+
+  /**
+   * Least squares {@code sum((a[i] * x - b[i])^2)} over rows of a random problem, with the rows
+   * split into blocks of 10.
+   */
+  static PartitionedFunction leastSquares(DoubleArray a, DoubleArray b) {
+    return new PartitionedFunction() {
+
+      @Override
+      int partitions() {
+        return (a.rows() + 9).intdiv(10)
+      }
+
+      @Override
+      double cost(DoubleArray x, int partition) {
+        return gradientCost(x, Arrays.newDoubleArray(x.size()), partition)
+      }
+
+      @Override
+      double gradientCost(DoubleArray x, DoubleArray gradient, int partition) {
+        gradient.assign(0)
+        double f = 0
+        for (int i = partition * 10; i < Math.min(a.rows(), partition * 10 + 10); i++) {
+          double r = Arrays.inner(a.getRow(i).reshape(x.size()), x) - b.get(i)
+          f += r * r
+          Arrays.axpy(2 * r, a.getRow(i).reshape(x.size()), gradient)
+        }
+        return f
+      }
+    }
+  }
+
+  static DoubleArray gaussian(Random random, int... shape) {
+    def x = Arrays.newDoubleArray(shape)
+    for (int i = 0; i < x.size(); i++) {
+      x.set(i, random.nextGaussian())
+    }
+    return x
+  }
+
+  def "the partitioned gradient is the sum of the partition gradients"() {
+    given:
+    def random = new Random(123)
+    def a = gaussian(random, 95, 4)
+    def b = gaussian(random, 95)
+    def x = Arrays.newDoubleVector([1, -1, 0.5, 2] as double[])
+    def f = leastSquares(a, b)
+
+    def expectedGradient = Arrays.newDoubleArray(4)
+    def expectedCost = 0
+    for (int p = 0; p < f.partitions(); p++) {
+      def g = Arrays.newDoubleArray(4)
+      expectedCost += f.gradientCost(x, g, p)
+      expectedGradient.plusAssign(g)
+    }
+
+    when:
+    def gradient = Arrays.newDoubleArray(4)
+    def cost = f.gradientCost(x, gradient)
+
+    then:
+    Math.abs(cost - expectedCost) < 1e-9
+    Math.abs(f.cost(x) - expectedCost) < 1e-9
+    for (int i = 0; i < 4; i++) {
+      assert Math.abs(gradient.get(i) - expectedGradient.get(i)) < 1e-9
+    }
+  }
+
+  def "the partitioned evaluation is deterministic"() {
+    given:
+    def random = new Random(321)
+    def a = gaussian(random, 1000, 8)
+    def b = gaussian(random, 1000)
+    def x = gaussian(random, 8)
+    def f = leastSquares(a, b)
+    def first = Arrays.newDoubleArray(8)
+    def cost = f.gradientCost(x, first)
+
+    expect:
+    (1..10).every {
+      def gradient = Arrays.newDoubleArray(8)
+      f.gradientCost(x, gradient) == cost && (0..<8).every { gradient.get(it) == first.get(it) }
+    }
+  }
+
+  def "the limited memory optimizer minimizes a partitioned function"() {
+    given:
+    def random = new Random(1)
+    def a = gaussian(random, 200, 3)
+    def expected = Arrays.newDoubleVector([1, -2, 3] as double[])
+    def b = Arrays.dot(a, expected.reshape(3, 1)).reshape(200)
+    def x = Arrays.newDoubleArray(3)
+
+    when:
+    new LimitedMemoryBfgsOptimizer(5, 100, 1e-10).optimize(leastSquares(a, b), x)
+
+    then:
+    (0..<3).every { Math.abs(x.get(it) - expected.get(it)) < 1e-4 }
+  }
+}
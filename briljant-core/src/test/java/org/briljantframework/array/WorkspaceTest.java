@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class WorkspaceTest {
+
+  @Test
+  public void testArraysAreReusedAcrossScopes() throws Exception {
+    DoubleArray first;
+    try (Workspace workspace = Workspace.open()) {
+      first = workspace.doubleArray(3, 4);
+      first.assign(10.0);
+    }
+
+    for (int i = 0; i < 10; i++) {
+      try (Workspace workspace = Workspace.open()) {
+        DoubleArray array = workspace.doubleArray(3, 4);
+        assertSame(first, array);
+        ArrayAssert.assertArrayEquals(DoubleArray.zeros(3, 4), array, 0);
+        array.assign(1.0);
+        assertNotSame(first, workspace.doubleArray(4, 3));
+      }
+    }
+  }
+
+  @Test
+  public void testNestedScopes() throws Exception {
+    try (Workspace outer = Workspace.open()) {
+      double[] buffer = outer.doubles(100);
+      try (Workspace inner = Workspace.open()) {
+        assertSame(outer, inner);
+        assertNotSame(buffer, inner.doubles(50));
+      }
+      assertSame(outer, Workspace.active());
+
+      // the buffer of the inner scope is returned, but not the buffer of the outer scope
+      double[] reused = outer.doubles(10);
+      assertNotSame(buffer, reused);
+      assertTrue(reused.length >= 10);
+    }
+    assertNull(Workspace.active());
+  }
+
+  @Test
+  public void testRetainedBytesAreBounded() throws Exception {
+    Workspace.trim();
+    int length = (int) (Workspace.MAX_RETAINED_BYTES / 8 / 3);
+    Workspace workspace;
+    try (Workspace w = Workspace.open()) {
+      workspace = w;
+      for (int i = 0; i < 10; i++) {
+        w.doubles(length);
+      }
+      w.doubleArray(length);
+    }
+    assertTrue(workspace.retainedBytes() <= Workspace.MAX_RETAINED_BYTES);
+    assertEquals(3L * 8 * length, workspace.retainedBytes());
+
+    // a buffer larger than the limit is never retained
+    try (Workspace w = Workspace.open()) {
+      w.ints((int) (Workspace.MAX_RETAINED_BYTES / 4) + 1);
+    }
+    assertEquals(3L * 8 * length, workspace.retainedBytes());
+
+    try (Workspace w = Workspace.open()) {
+      w.doubles(length);
+      assertEquals(2L * 8 * length, w.retainedBytes());
+    }
+
+    Workspace.trim();
+    try (Workspace w = Workspace.open()) {
+      assertNotSame(workspace, w);
+      assertEquals(0, w.retainedBytes());
+    }
+  }
+
+  @Test
+  public void testRaisedLimitRetainsLargeScopes() throws Exception {
+    Workspace.trim();
+    int n = (int) (Workspace.MAX_RETAINED_BYTES / 8 / 2) + 1;
+    long bytes = 3 * 8L * n;
+    assertTrue(bytes > Workspace.MAX_RETAINED_BYTES);
+
+    DoubleArray first, second;
+    double[] buffer;
+    try (Workspace w = Workspace.open(8L * n)) {
+      first = w.doubleArray(n);
+      try (Workspace inner = Workspace.open(2 * 8L * n)) {
+        second = inner.doubleArray(n);
+        buffer = inner.doubles(n);
+      }
+    }
+    assertEquals(bytes, Workspace.open().retainedBytes());
+    Workspace.active().close();
+
+    try (Workspace w = Workspace.open(8L * n)) {
+      DoubleArray a = w.doubleArray(n);
+      try (Workspace inner = Workspace.open(2 * 8L * n)) {
+        DoubleArray b = inner.doubleArray(n);
+        assertTrue(a == first && b == second || a == second && b == first);
+        assertSame(buffer, inner.doubles(n));
+      }
+    }
+
+    Workspace.trim();
+    try (Workspace w = Workspace.open()) {
+      w.doubleArray(n);
+      w.doubleArray(n);
+    }
+    assertTrue(Workspace.open().retainedBytes() <= Workspace.MAX_RETAINED_BYTES);
+    Workspace.active().close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClosedWorkspace() throws Exception {
+    Workspace workspace;
+    try (Workspace w = Workspace.open()) {
+      workspace = w;
+    }
+    workspace.doubleArray(10);
+  }
+}
@@ -21,14 +21,28 @@
 
 package org.briljantframework.array.base;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
+import java.util.Random;
+
+import org.briljantframework.array.ArrayAssert;
 import org.briljantframework.array.ArrayPrinter;
+import org.briljantframework.array.BaseArray;
+import org.briljantframework.array.BooleanArray;
+import org.briljantframework.array.ConvolutionMode;
 import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.FloatArray;
+import org.briljantframework.array.IntArray;
+import org.briljantframework.array.LongArray;
+import org.briljantframework.array.Op;
+import org.briljantframework.array.SparseDoubleMatrix;
 import org.briljantframework.array.api.ArrayBackend;
 import org.briljantframework.array.api.ArrayFactory;
 import org.briljantframework.array.api.ArrayRoutines;
 import org.briljantframework.array.netlib.NetlibArrayBackend;
+import org.briljantframework.function.DoubleBiPredicate;
 import org.junit.Test;
 
 public class BaseArrayRoutinesTest {
@@ -39,22 +53,393 @@ public class BaseArrayRoutinesTest {
 
   @Test
   public void testMean() throws Exception {
-
+    DoubleArray x = randomMatrix(400, 300, 1);
+    assertEquals(naiveSum(x) / x.size(), bjr.mean(x), 1e-12);
+    assertEquals(naiveSum(x) / x.size(), bjr.mean(x.transpose()), 1e-12);
   }
 
   @Test
   public void testMean1() throws Exception {
-
+    DoubleArray x = randomMatrix(500, 300, 2);
+    for (DoubleArray m : new DoubleArray[] {x, x.transpose(), x.getView(10, 20, 300, 200)}) {
+      for (int dim = 0; dim < 2; dim++) {
+        DoubleArray mean = bjr.mean(dim, m);
+        assertEquals(m.size(1 - dim), mean.size());
+        for (int i = 0; i < mean.size(); i++) {
+          DoubleArray vector = vector(m, dim, i);
+          assertEquals(naiveSum(vector) / vector.size(), mean.get(i), 1e-12);
+        }
+      }
+    }
   }
 
   @Test
   public void testVar() throws Exception {
-    double[][] doubles = { {1, 2, 3}, {1, 2, 3}};
+    DoubleArray x = bj.array(new double[] {1, 2, 3, 4});
+    assertEquals(1.25, bjr.var(x), 1e-12);
+
+    // a large offset is catastrophic for the textbook (sum of squares) formula
+    DoubleArray y = randomMatrix(400, 300, 3);
+    DoubleArray shifted = y.plus(1e9);
+    assertEquals(naiveVar(y), bjr.var(shifted), 1e-6);
+    assertEquals(naiveVar(y), bjr.var(y.transpose()), 1e-12);
   }
 
   @Test
   public void testVar1() throws Exception {
-
+    DoubleArray x = randomMatrix(300, 400, 4).plus(1e6);
+    for (DoubleArray m : new DoubleArray[] {x, x.transpose()}) {
+      for (int dim = 0; dim < 2; dim++) {
+        DoubleArray var = bjr.var(dim, m);
+        DoubleArray std = bjr.std(dim, m);
+        for (int i = 0; i < var.size(); i++) {
+          double expected = naiveVar(vector(m, dim, i));
+          assertEquals(expected, var.get(i), 1e-6);
+          assertEquals(Math.sqrt(expected), std.get(i), 1e-6);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testReductions() throws Exception {
+    DoubleArray x = randomMatrix(300, 400, 5);
+    for (DoubleArray m : new DoubleArray[] {x, x.transpose(), x.getView(1, 2, 100, 200)}) {
+      double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sq = 0;
+      for (int i = 0; i < m.size(); i++) {
+        double v = m.get(i);
+        sum += v;
+        sq += v * v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+      }
+      assertEquals(sum, bjr.sum(m), 1e-9);
+      assertEquals(Math.sqrt(sq), bjr.norm2(m.copy().reshape(m.size())), 1e-9);
+      assertEquals(min, bjr.min(m), 0);
+      assertEquals(max, bjr.max(m), 0);
+
+      for (int dim = 0; dim < 2; dim++) {
+        DoubleArray sums = bjr.sum(dim, m);
+        DoubleArray mins = bjr.min(dim, m);
+        DoubleArray maxs = bjr.max(dim, m);
+        DoubleArray prods = bjr.prod(dim, m.getView(0, 0, 10, 10));
+        for (int i = 0; i < sums.size(); i++) {
+          DoubleArray vector = vector(m, dim, i);
+          assertEquals(naiveSum(vector), sums.get(i), 1e-9);
+          assertEquals(vector.reduce(Double.POSITIVE_INFINITY, Math::min), mins.get(i), 0);
+          assertEquals(vector.reduce(Double.NEGATIVE_INFINITY, Math::max), maxs.get(i), 0);
+        }
+        for (int i = 0; i < prods.size(); i++) {
+          DoubleArray vector = vector(m.getView(0, 0, 10, 10), dim, i);
+          assertEquals(vector.reduce(1, (a, b) -> a * b), prods.get(i), 1e-12);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testIntReductions() throws Exception {
+    IntArray x = bj.intArray(300, 400);
+    Random random = new Random(6);
+    x.assign(() -> random.nextInt(1000) - 500);
+    for (IntArray m : new IntArray[] {x, x.transpose()}) {
+      assertEquals(m.reduce(0, Integer::sum), bjr.sum(m));
+      assertEquals(m.reduce(Integer.MAX_VALUE, Math::min), bjr.min(m));
+      assertEquals(m.reduce(Integer.MIN_VALUE, Math::max), bjr.max(m));
+      for (int dim = 0; dim < 2; dim++) {
+        IntArray sums = bjr.sum(dim, m);
+        IntArray maxs = bjr.max(dim, m);
+        for (int i = 0; i < sums.size(); i++) {
+          assertEquals(vector(m, dim, i).reduce(0, Integer::sum), sums.get(i));
+          assertEquals(vector(m, dim, i).reduce(Integer.MIN_VALUE, Math::max), maxs.get(i));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testGemmBatch() throws Exception {
+    int batch = 50;
+    for (int size : new int[] {1, 2, 3, 4, 5, 20}) {
+      for (Op transA : Op.values()) {
+        for (Op transB : Op.values()) {
+          // op(a) is size x (size + 1) and op(b) is (size + 1) x size
+          DoubleArray a = transA.isTrue() ? randomStack(size + 1, size, batch, size)
+              : randomStack(size, size + 1, batch, size);
+          DoubleArray b = transB.isTrue() ? randomStack(size, size + 1, batch, size + 1)
+              : randomStack(size + 1, size, batch, size + 1);
+          DoubleArray c = randomStack(size, size, batch, size + 2);
+          DoubleArray expected = c.copy();
+          for (int i = 0; i < batch; i++) {
+            bjr.gemm(transA, transB, 2, a.select(2, i), b.select(2, i), 0.5, expected.select(2, i));
+          }
+          bjr.gemmBatch(transA, transB, 2, a, b, 0.5, c);
+          ArrayAssert.assertArrayEquals(expected, c, 1e-10);
+        }
+      }
+
+      // the unrolled kernels are only used for square products
+      DoubleArray a = randomStack(size, size, batch, size);
+      DoubleArray b = randomStack(size, size, batch, size + 1);
+      DoubleArray c = bj.doubleArray(size, size, batch);
+      c.assign(Double.NaN);
+      bjr.gemmBatch(Op.KEEP, Op.KEEP, 1, a, b, 0, c);
+      for (int i = 0; i < batch; i++) {
+        DoubleArray expected = bj.doubleArray(size, size);
+        bjr.gemm(Op.KEEP, Op.KEEP, 1, a.select(2, i), b.select(2, i), 0, expected);
+        ArrayAssert.assertArrayEquals(expected, c.select(2, i), 1e-10);
+      }
+    }
+  }
+
+  @Test
+  public void testTraceBatch() throws Exception {
+    DoubleArray x = randomStack(4, 3, 100, 7);
+    DoubleArray trace = bjr.traceBatch(x);
+    assertEquals(100, trace.size());
+    for (int i = 0; i < trace.size(); i++) {
+      assertEquals(bjr.trace(x.select(2, i)), trace.get(i), 1e-12);
+    }
+  }
+
+  @Test
+  public void testFloatRoutines() throws Exception {
+    DoubleArray x = randomMatrix(300, 200, 8);
+    FloatArray f = bj.floatArray(300, 200);
+    f.assign(x, v -> v);
+    for (FloatArray m : new FloatArray[] {f, f.transpose(), f.getView(1, 2, 100, 150)}) {
+      DoubleArray d = m.asDouble();
+      assertEquals(bjr.sum(d), bjr.sum(m), 1e-9);
+      assertEquals(bjr.norm2(d.copy().reshape(d.size())), bjr.norm2(m), 1e-9);
+      assertEquals((float) bjr.max(d), bjr.max(m), 0);
+      for (int dim = 0; dim < 2; dim++) {
+        ArrayAssert.assertArrayEquals(bjr.sum(dim, d.copy()), bjr.sum(dim, m).asDouble(), 1e-4);
+      }
+    }
+    FloatArray column = f.getColumn(3).copy();
+    assertEquals(bjr.inner(column.asDouble(), column.asDouble()), bjr.inner(column, column), 1e-9);
+  }
+
+  @Test
+  public void testFloatGemm() throws Exception {
+    FloatArray a = bj.floatArray(30, 40);
+    FloatArray b = bj.floatArray(40, 30);
+    Random random = new Random(9);
+    a.assign(random::nextGaussian);
+    b.assign(random::nextGaussian);
+    for (Op transA : Op.values()) {
+      for (Op transB : Op.values()) {
+        FloatArray opA = transA.isTrue() ? a.transpose().copy() : a;
+        FloatArray opB = transB.isTrue() ? b.transpose().copy() : b;
+        FloatArray c = bj.floatArray(30, 30);
+        c.assign(1);
+        DoubleArray expected = bj.doubleArray(30, 30);
+        expected.assign(1);
+        bjr.gemm(Op.KEEP, Op.KEEP, 2, a.asDouble(), b.asDouble(), 0.5, expected);
+        bjr.gemm(transA, transB, 2f, opA, opB, 0.5f, c);
+        ArrayAssert.assertArrayEquals(expected, c.asDouble(), 1e-4);
+
+        // non-direct arrays
+        c.assign(1);
+        bjr.gemm(transA, transB, 2f, opA.asDouble().asFloat(), opB, 0.5f, c.asDouble().asFloat());
+        ArrayAssert.assertArrayEquals(expected, c.asDouble(), 1e-4);
+      }
+    }
+  }
+
+  @Test
+  public void testSparseGemv() throws Exception {
+    // large enough to be computed in parallel
+    DoubleArray dense = randomMatrix(1000, 800, 10);
+    dense.apply(v -> Math.abs(v) < 1.5 ? 0 : v);
+    DoubleArray x = randomMatrix(1000, 1, 11);
+    for (SparseDoubleMatrix.Format format : SparseDoubleMatrix.Format.values()) {
+      SparseDoubleMatrix a = bj.sparseMatrix(dense, format);
+      for (Op op : new Op[] {Op.KEEP, Op.TRANSPOSE}) {
+        int m = op == Op.KEEP ? 1000 : 800;
+        DoubleArray operand = x.getView(0, 0, op == Op.KEEP ? 800 : 1000, 1);
+        DoubleArray expected = randomMatrix(m, 1, 12);
+        DoubleArray actual = expected.copy();
+        bjr.gemv(op, 2, dense, operand, 0.5, expected);
+        bjr.gemv(op, 2, a, operand, 0.5, actual);
+        ArrayAssert.assertArrayEquals(expected, actual, 1e-10);
+
+        // a non-contiguous result
+        DoubleArray view = bj.doubleArray(2, m).getRow(1);
+        bjr.gemv(op, 2, a, operand, 0, view);
+        bjr.gemv(op, 2, dense, operand, 0, expected);
+        ArrayAssert.assertArrayEquals(expected.reshape(1, m), view, 1e-10);
+      }
+    }
+  }
+
+  @Test
+  public void testSparseGemm() throws Exception {
+    DoubleArray dense = randomMatrix(300, 200, 13);
+    dense.apply(v -> Math.abs(v) < 1.5 ? 0 : v);
+    DoubleArray b = randomMatrix(300, 300, 14);
+    for (SparseDoubleMatrix.Format format : SparseDoubleMatrix.Format.values()) {
+      SparseDoubleMatrix a = bj.sparseMatrix(dense, format);
+      for (Op transA : Op.values()) {
+        for (Op transB : Op.values()) {
+          int m = transA == Op.KEEP ? 300 : 200;
+          int k = transA == Op.KEEP ? 200 : 300;
+          DoubleArray operand = transB == Op.KEEP ? b.getView(0, 0, k, 40)
+              : b.getView(0, 0, 40, k);
+          DoubleArray expected = randomMatrix(m, 40, 15);
+          DoubleArray actual = expected.copy();
+          bjr.gemm(transA, transB, 2, dense, operand, 0.5, expected);
+          bjr.gemm(transA, transB, 2, a, operand, 0.5, actual);
+          ArrayAssert.assertArrayEquals(expected, actual, 1e-10);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSparseProductsIntoLeadingViews() throws Exception {
+    DoubleArray identity = bj.doubleArray(3, 3);
+    identity.getDiagonal().assign(1);
+    DoubleArray x = bj.array(new double[] {1, 2, 3});
+    DoubleArray b = bj.array(new double[] {1, 2, 3, 4, 5, 6}).reshape(3, 2);
+    for (SparseDoubleMatrix.Format format : SparseDoubleMatrix.Format.values()) {
+      SparseDoubleMatrix a = bj.sparseMatrix(identity, format);
+      for (Op op : Op.values()) {
+        // the leading column and view are not views, but share the storage of the matrix
+        DoubleArray y = bj.doubleArray(3, 4);
+        bjr.gemv(op, 1, a, x, 0, y.getColumn(0));
+        ArrayAssert.assertArrayEquals(x.reshape(3, 1), y.getColumn(0), 1e-10);
+        assertEquals(6, bjr.sum(y), 1e-10);
+
+        DoubleArray c = bj.doubleArray(3, 4);
+        bjr.gemm(op, Op.KEEP, 1, a, b, 0, c.getView(0, 0, 3, 2));
+        ArrayAssert.assertArrayEquals(b, c.getView(0, 0, 3, 2), 1e-10);
+        assertEquals(21, bjr.sum(c), 1e-10);
+      }
+    }
+  }
+
+  @Test
+  public void testElementwiseKernels() throws Exception {
+    DoubleArray x = randomMatrix(400, 300, 16);
+    for (DoubleArray m : new DoubleArray[] {x, x.transpose(), x.getColumn(7), x.getRow(3)}) {
+      DoubleArray out = bj.doubleArray(m.getShape());
+      assertSame(out, bjr.exp(m, out));
+      for (int i = 0; i < m.size(); i++) {
+        assertEquals(Math.exp(m.get(i)), out.get(i), 0);
+      }
+      bjr.sqrt(bjr.abs(m, out), out);
+      for (int i = 0; i < m.size(); i++) {
+        assertEquals(Math.sqrt(Math.abs(m.get(i))), out.get(i), 0);
+      }
+      ArrayAssert.assertArrayEquals(m.map(v -> v * v), bjr.pow(m, 2), 0);
+    }
+
+    // in-place
+    DoubleArray y = x.copy();
+    bjr.sin(y, y);
+    for (int i = 0; i < y.size(); i++) {
+      assertEquals(Math.sin(x.get(i)), y.get(i), 0);
+    }
+  }
+
+  @Test
+  public void testBinaryKernels() throws Exception {
+    DoubleArray a = randomMatrix(400, 300, 17);
+    DoubleArray b = randomMatrix(400, 300, 18);
+    DoubleArray c = randomMatrix(400, 300, 19);
+    DoubleArray out = bj.doubleArray(400, 300);
+    bjr.plus(a, b, out);
+    ArrayAssert.assertArrayEquals(a.plus(b), out, 0);
+    bjr.div(a.transpose(), b.transpose(), out.transpose());
+    ArrayAssert.assertArrayEquals(a.div(b), out, 0);
+    bjr.fma(a, b, c, out);
+    for (int i = 0; i < out.size(); i++) {
+      assertEquals(a.get(i) * b.get(i) + c.get(i), out.get(i), 0);
+    }
+
+    DoubleArray row = b.getRow(0).copy();
+    bjr.max(a, row, out);
+    BooleanArray lt = bjr.lt(a, row, bj.booleanArray(400, 300));
+    for (int i = 0; i < 400; i++) {
+      for (int j = 0; j < 300; j++) {
+        assertEquals(Math.max(a.get(i, j), row.get(j)), out.get(i, j), 0);
+        assertEquals(a.get(i, j) < row.get(j), lt.get(i, j));
+      }
+    }
+
+    DoubleArray expected = a.getColumn(1).times(b.getColumn(2));
+    DoubleArray column = a.getColumn(1);
+    assertSame(column, bjr.times(column, b.getColumn(2), column));
+    ArrayAssert.assertArrayEquals(expected, a.getColumn(1), 0);
+  }
+
+  @Test
+  public void testComparisonKernels() throws Exception {
+    // large enough to be computed in parallel, and not a multiple of the word size
+    DoubleArray a = randomMatrix(401, 300, 20);
+    DoubleArray b = randomMatrix(401, 300, 21);
+    b.getColumn(3).assign(a.getColumn(3));
+    for (DoubleArray[] operands : new DoubleArray[][] {{a, b}, {a.getColumn(5), b.getColumn(3)},
+        {a.getRow(7), b.getRow(9)}}) {
+      DoubleArray x = operands[0], y = operands[1];
+      // packed (word-wise) and transposed (element-wise) results
+      for (BooleanArray o : new BooleanArray[] {bj.booleanArray(x.rows(), x.columns()),
+          bj.booleanArray(x.columns(), x.rows()).transpose()}) {
+        assertComparison(x, y, bjr.lt(x, y, o), (p, q) -> p < q);
+        assertComparison(x, y, bjr.lte(x, y, o), (p, q) -> p <= q);
+        assertComparison(x, y, bjr.gt(x, y, o), (p, q) -> p > q);
+        assertComparison(x, y, bjr.gte(x, y, o), (p, q) -> p >= q);
+        assertComparison(x, y, bjr.eq(x, y, o), (p, q) -> p == q);
+      }
+    }
+    assertEquals(401, bjr.eq(a.getColumn(3), b.getColumn(3), bj.booleanArray(401)).cardinality());
+  }
+
+  private static void assertComparison(DoubleArray a, DoubleArray b, BooleanArray actual,
+      DoubleBiPredicate op) {
+    int count = 0;
+    for (int i = 0; i < a.size(); i++) {
+      boolean expected = op.test(a.get(i), b.get(i));
+      assertEquals(expected, actual.get(i));
+      count += expected ? 1 : 0;
+    }
+    assertEquals(count, actual.cardinality());
+  }
+
+  private DoubleArray randomStack(int rows, int columns, int batch, long seed) {
+    Random random = new Random(seed);
+    DoubleArray x = bj.doubleArray(rows, columns, batch);
+    x.assign(random::nextGaussian);
+    return x;
+  }
+
+  private DoubleArray randomMatrix(int rows, int columns, long seed) {
+    Random random = new Random(seed);
+    DoubleArray x = bj.doubleArray(rows, columns);
+    x.assign(random::nextGaussian);
+    return x;
+  }
+
+  private static <T extends BaseArray<T>> T vector(T m, int dim, int i) {
+    return dim == 0 ? m.getColumn(i) : m.getRow(i);
+  }
+
+  private static double naiveSum(DoubleArray x) {
+    double sum = 0;
+    for (int i = 0; i < x.size(); i++) {
+      sum += x.get(i);
+    }
+    return sum;
+  }
+
+  private static double naiveVar(DoubleArray x) {
+    double mean = naiveSum(x) / x.size();
+    double sum = 0;
+    for (int i = 0; i < x.size(); i++) {
+      sum += (x.get(i) - mean) * (x.get(i) - mean);
+    }
+    return sum / x.size();
   }
 
   @Test
@@ -194,7 +579,122 @@ public class BaseArrayRoutinesTest {
 
   @Test
   public void testTake() throws Exception {
+    DoubleArray x = randomMatrix(300, 200, 20);
+    IntArray rows = bj.array(new int[] {5, 6, 7, 7, 0, 299, 8});
+    DoubleArray taken = bjr.take(x, rows, 0);
+    assertArrayEquals(new int[] {7, 200}, taken.getShape());
+    for (int i = 0; i < rows.size(); i++) {
+      ArrayAssert.assertArrayEquals(x.getRow(rows.get(i)), taken.getRow(i), 0);
+    }
+
+    // views take the generic path
+    ArrayAssert.assertArrayEquals(taken, bjr.take(x.transpose(), rows, 1).transpose(), 0);
+
+    IntArray columns = bj.array(new int[] {3, 4, 5, 199, 3});
+    DoubleArray takenColumns = bjr.take(x, columns, 1);
+    for (int i = 0; i < columns.size(); i++) {
+      ArrayAssert.assertArrayEquals(x.getColumn(columns.get(i)), takenColumns.getColumn(i), 0);
+    }
+
+    IntArray y = bj.range(4 * 3 * 5).reshape(4, 3, 5);
+    IntArray slices = bjr.take(y, bj.array(new int[] {2, 0}), 1);
+    assertArrayEquals(new int[] {4, 2, 5}, slices.getShape());
+    ArrayAssert.assertArrayEquals(y.select(1, 2), slices.select(1, 0));
+    ArrayAssert.assertArrayEquals(y.select(1, 0), slices.select(1, 1));
+
+    // large (parallel) bootstrap sample
+    DoubleArray z = randomMatrix(20000, 10, 21);
+    Random random = new Random(22);
+    IntArray sample = bj.intArray(20000);
+    sample.assign(() -> random.nextInt(20000));
+    DoubleArray bootstrap = bjr.take(z, sample, 0);
+    for (int i = 0; i < sample.size(); i += 101) {
+      ArrayAssert.assertArrayEquals(z.getRow(sample.get(i)), bootstrap.getRow(i), 0);
+    }
+
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {x.get(10), x.get(0)}),
+        bjr.take(x, bj.array(new int[] {10, 0})), 0);
+  }
+
+  @Test
+  public void testTakeWithLeadingColumn() throws Exception {
+    // the leading columns are not views, but share the storage of the matrix
+    DoubleArray x = bj.array(new double[] {10, 20, 30, 40});
+    IntArray indices = bj.array(new int[] {3, 0, 1, 2, 2, 2}).reshape(3, 2);
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {40, 10, 20}),
+        bjr.take(x, indices.getColumn(0)), 0);
+
+    DoubleArray y = bj.array(new double[] {1, 2, 3, 4, 5, 6}).reshape(3, 2);
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {3, 1}),
+        bjr.take(y.getColumn(0), bj.array(new int[] {2, 0})), 0);
+  }
 
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testTakeOutOfBounds() throws Exception {
+    bjr.take(bj.doubleArray(3, 3), bj.array(new int[] {1, 3}), 1);
+  }
+
+  @Test
+  public void testPut() throws Exception {
+    DoubleArray x = bj.doubleArray(4, 3);
+    DoubleArray values = bj.array(new double[] {1, 2, 3, 4, 5, 6}).reshape(2, 3);
+    bjr.put(x, bj.array(new int[] {3, 1}), 0, values);
+    ArrayAssert.assertArrayEquals(values.getRow(0), x.getRow(3), 0);
+    ArrayAssert.assertArrayEquals(values.getRow(1), x.getRow(1), 0);
+    assertEquals(0, bjr.sum(x.getRow(0)), 0);
+
+    DoubleArray y = bj.doubleArray(4, 3);
+    bjr.put(y.transpose(), bj.array(new int[] {3, 1}), 1, values.transpose());
+    ArrayAssert.assertArrayEquals(x, y, 0);
+
+    // the last of repeated indices is retained
+    IntArray z = bj.intArray(5);
+    bjr.put(z, bj.array(new int[] {2, 2, 4}), bj.array(new int[] {7, 8, 9}));
+    ArrayAssert.assertArrayEquals(bj.array(new int[] {0, 0, 8, 0, 9}), z);
+  }
+
+  @Test
+  public void testCompress() throws Exception {
+    IntArray x = bj.range(12).reshape(3, 4);
+    BooleanArray columns = bj.range(4).where(v -> v != 1);
+    IntArray compressed = bjr.compress(x, columns, 1);
+    ArrayAssert.assertArrayEquals(bj.array(new int[] {0, 1, 2, 6, 7, 8, 9, 10, 11}).reshape(3, 3),
+        compressed);
+    ArrayAssert.assertArrayEquals(bj.array(new int[] {6, 7, 8, 9, 10, 11}),
+        bjr.compress(x, x.where(v -> v > 5)));
+  }
+
+  @Test
+  public void testConvolve() throws Exception {
+    DoubleArray x = bj.array(new double[] {1, 2, 3});
+    DoubleArray kernel = bj.array(new double[] {0, 1, 0.5});
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {0, 1, 2.5, 4, 1.5}),
+        bjr.convolve(x, kernel, ConvolutionMode.FULL), 1e-12);
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {1, 2.5, 4}),
+        bjr.convolve(x, kernel, ConvolutionMode.SAME), 1e-12);
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {2.5}),
+        bjr.convolve(x, kernel, ConvolutionMode.VALID), 1e-12);
+
+    DoubleArray rows = bj.array(new double[] {1, 2, 3, 4, 5, 6}).reshape(2, 3).transpose();
+    DoubleArray convolved = bjr.convolve(rows, kernel, ConvolutionMode.FULL);
+    assertEquals(3, convolved.rows());
+    for (int i = 0; i < rows.rows(); i++) {
+      DoubleArray expected = bjr.convolve(rows.getRow(i).copy().reshape(2), kernel,
+          ConvolutionMode.FULL);
+      ArrayAssert.assertArrayEquals(expected.reshape(1, 4), convolved.getRow(i), 1e-12);
+    }
+  }
+
+  @Test
+  public void testCorrelate() throws Exception {
+    DoubleArray x = bj.array(new double[] {1, 2, 3});
+    DoubleArray kernel = bj.array(new double[] {0, 1, 0.5});
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {0.5, 2, 3.5, 3, 0}),
+        bjr.correlate(x, kernel, ConvolutionMode.FULL), 1e-12);
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {2, 3.5, 3}),
+        bjr.correlate(x, kernel, ConvolutionMode.SAME), 1e-12);
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {3.5}),
+        bjr.correlate(x, kernel, ConvolutionMode.VALID), 1e-12);
   }
 
   @Test
@@ -224,12 +724,132 @@ public class BaseArrayRoutinesTest {
 
   @Test
   public void testSort() throws Exception {
-
+    Random random = new Random(123);
+    for (int n : new int[] {10, 5000, 200000}) {
+      double[] doubles = new double[n];
+      int[] ints = new int[n];
+      long[] longs = new long[n];
+      for (int i = 0; i < n; i++) {
+        doubles[i] = i % 97 == 0 ? Double.NaN : random.nextGaussian();
+        ints[i] = random.nextInt();
+        longs[i] = random.nextLong();
+      }
+      doubles[0] = -0.0;
+      doubles[n - 1] = 0.0;
+      DoubleArray x = bj.array(doubles.clone());
+      IntArray y = bj.array(ints.clone());
+      LongArray z = bj.longArray(n);
+      z.assign(longs);
+
+      java.util.Arrays.sort(doubles);
+      java.util.Arrays.sort(ints);
+      java.util.Arrays.sort(longs);
+      assertEquals(bj.array(doubles), bjr.sort(x));
+      assertEquals(bj.array(ints), bjr.sort(y));
+      LongArray sortedLongs = bjr.sort(z);
+      for (int i = 0; i < n; i++) {
+        assertEquals(longs[i], sortedLongs.get(i));
+      }
+    }
+
+    // strided views
+    IntArray y = bj.array(new int[] {9, -1, 5, 3, -7, 0, 2, 8});
+    assertEquals(bj.array(new int[] {-7, 2, 5, 9}), bjr.sort(y.get(bj.range(0, 8, 2))));
+    assertEquals(bj.array(new int[] {9, -1, 5, 3, -7, 0, 2, 8}), y);
   }
 
   @Test
   public void testSort1() throws Exception {
-
+    DoubleArray x = randomMatrix(300, 400, 5);
+    for (int dim = 0; dim < 2; dim++) {
+      DoubleArray sorted = bjr.sort(dim, x);
+      for (int i = 0; i < x.vectors(dim); i++) {
+        double[] expected = vector(x, dim, i).copy().data().clone();
+        java.util.Arrays.sort(expected);
+        assertEquals(bj.array(expected), vector(sorted, dim, i).copy().reshape(expected.length));
+      }
+    }
+
+    IntArray y = bj.array(new int[] {3, 1, 2, 6, 5, 4, -1, 0, 9}).reshape(3, 3);
+    assertEquals(bj.array(new int[] {1, 2, 3, 4, 5, 6, -1, 0, 9}).reshape(3, 3), bjr.sort(0, y));
+    assertEquals(bj.array(new int[] {-1, 0, 2, 3, 1, 4, 6, 5, 9}).reshape(3, 3), bjr.sort(1, y));
+    assertEquals(bj.array(new int[] {3, 6, 1, 5}).reshape(2, 2),
+        bjr.sort(0, y.getView(0, 0, 2, 2).transpose()));
+    assertEquals(bj.array(new int[] {1, 5, 3, 6}).reshape(2, 2),
+        bjr.sort(1, y.getView(0, 0, 2, 2).transpose()));
+  }
+
+  @Test
+  public void testArgsort() throws Exception {
+    DoubleArray x = bj.array(new double[] {2, 3, 1, Double.NaN, 9, 1, -0.0, 0.0, -5});
+    assertEquals(bj.array(new int[] {8, 6, 7, 2, 5, 0, 1, 4, 3}), bjr.argsort(x));
+
+    Random random = new Random(321);
+    for (int n : new int[] {20, 5000, 200000}) {
+      IntArray y = bj.intArray(n);
+      y.assign(() -> random.nextInt(1000) - 500);
+      IntArray order = bjr.argsort(y);
+      assertSortPermutation(y, order);
+
+      DoubleArray z = bj.doubleArray(n);
+      z.assign(() -> random.nextInt(1000) - 500.5);
+      order = bjr.argsort(z);
+      for (int i = 1; i < n; i++) {
+        double a = z.get(order.get(i - 1)), b = z.get(order.get(i));
+        assertEquals(true, a < b || (a == b && order.get(i - 1) < order.get(i)));
+      }
+
+      LongArray w = bj.longArray(n);
+      for (int i = 0; i < n; i++) {
+        w.set(i, (long) y.get(i) << 40);
+      }
+      assertEquals(bjr.argsort(y), bjr.argsort(w));
+    }
+  }
+
+  @Test
+  public void testArgsort1() throws Exception {
+    IntArray y = bj.array(new int[] {3, 1, 2, 6, 5, 4, 4, 0, 9}).reshape(3, 3);
+    assertEquals(bj.array(new int[] {1, 2, 0, 2, 1, 0, 1, 0, 2}).reshape(3, 3),
+        bjr.argsort(0, y));
+    assertEquals(bj.array(new int[] {0, 2, 0, 2, 0, 1, 1, 1, 2}).reshape(3, 3),
+        bjr.argsort(1, y));
+
+    DoubleArray x = randomMatrix(300, 400, 7);
+    for (int dim = 0; dim < 2; dim++) {
+      IntArray order = bjr.argsort(dim, x);
+      for (int i = 0; i < x.vectors(dim); i++) {
+        DoubleArray v = vector(x, dim, i).copy();
+        IntArray expected = bjr.argsort(v.reshape(v.size()));
+        assertEquals(expected, vector(order, dim, i).copy().reshape(v.size()));
+      }
+    }
+  }
+
+  @Test
+  public void testArgsortOfLeadingColumn() throws Exception {
+    DoubleArray x = bj.array(new double[] {3, 1, 2, 9, 8, 7}).reshape(3, 2);
+    assertEquals(bj.array(new int[] {1, 2, 0}).reshape(3, 1), bjr.argsort(x.getColumn(0)));
+
+    IntArray y = bj.array(new int[] {3, 1, 2, 9, 8, 7}).reshape(3, 2);
+    assertEquals(bj.array(new int[] {1, 2, 0}).reshape(3, 1), bjr.argsort(y.getColumn(0)));
+
+    LongArray z = bj.array(new long[] {3, 1, 2, 9, 8, 7}).reshape(3, 2);
+    assertEquals(bj.array(new int[] {1, 2, 0}).reshape(3, 1), bjr.argsort(z.getColumn(0)));
+  }
+
+  private static void assertSortPermutation(IntArray x, IntArray order) {
+    boolean[] seen = new boolean[x.size()];
+    for (int i = 0; i < order.size(); i++) {
+      seen[order.get(i)] = true;
+      if (i > 0) {
+        int a = x.get(order.get(i - 1)), b = x.get(order.get(i));
+        assertEquals(true, a < b || (a == b && order.get(i - 1) < order.get(i)));
+      }
+    }
+    for (boolean s : seen) {
+      assertEquals(true, s);
+    }
   }
 
   static {
@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.function.BinaryOperator;
+
+import org.briljantframework.array.BooleanArray;
+import org.briljantframework.array.api.ArrayFactory;
+import org.junit.Test;
+
+public class BaseBooleanArrayTest {
+
+  ArrayFactory bj = new BaseArrayBackend().getArrayFactory();
+
+  @Test
+  public void testLogicalOperationsAcrossWords() throws Exception {
+    for (int size : new int[] {1, 63, 64, 65, 200}) {
+      boolean[] a = random(size, 1);
+      boolean[] b = random(size, 2);
+      BooleanArray x = bj.array(a);
+      BooleanArray y = bj.array(b);
+
+      assertElements(x.and(y), a, b, (p, q) -> p && q);
+      assertElements(x.or(y), a, b, (p, q) -> p || q);
+      assertElements(x.xor(y), a, b, (p, q) -> p ^ q);
+      assertElements(x.andNot(y), a, b, (p, q) -> p && !q);
+      assertElements(x.orNot(y), a, b, (p, q) -> p || !q);
+      assertElements(x.not(), a, a, (p, q) -> !p);
+    }
+  }
+
+  @Test
+  public void testNotDoesNotSetBitsBeyondSize() throws Exception {
+    BooleanArray x = bj.booleanArray(70);
+    assertEquals(70, x.not().cardinality());
+    assertEquals(-1, x.not().not().nextSetBit(0));
+
+    x.assign(true);
+    assertEquals(70, x.cardinality());
+    assertEquals(70, x.orNot(bj.booleanArray(70)).cardinality());
+  }
+
+  @Test
+  public void testCardinalityAndNextSetBit() throws Exception {
+    boolean[] a = random(300, 3);
+    BooleanArray x = bj.array(a);
+    int expectedCount = 0;
+    for (boolean v : a) {
+      expectedCount += v ? 1 : 0;
+    }
+    assertEquals(expectedCount, x.cardinality());
+
+    int i = x.nextSetBit(0);
+    for (int j = 0; j < a.length; j++) {
+      if (a[j]) {
+        assertEquals(j, i);
+        i = x.nextSetBit(i + 1);
+      }
+    }
+    assertEquals(-1, i);
+    assertEquals(-1, x.nextSetBit(300));
+  }
+
+  @Test
+  public void testViews() throws Exception {
+    BooleanArray x = bj.array(random(100, 4)).reshape(10, 10);
+    BooleanArray row = x.getRow(3);
+    BooleanArray column = x.getColumn(3).transpose();
+    BooleanArray result = row.and(column);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(row.get(i) && column.get(i), result.get(i));
+      assertEquals(!row.get(i), row.not().get(i));
+    }
+
+    row.assign(true);
+    assertEquals(10, row.cardinality());
+    assertTrue(x.get(3, 0));
+    assertEquals(3, x.getColumn(0).nextSetBit(3));
+  }
+
+  @Test
+  public void testLeadingColumnOfMatrix() throws Exception {
+    BooleanArray x = bj.booleanArray(3, 2);
+    x.assign(true);
+    BooleanArray column = x.getColumn(0);
+    assertEquals(3, column.cardinality());
+    assertEquals(-1, column.nextSetBit(3));
+    assertEquals(0, column.not().cardinality());
+    assertEquals(3, column.copy().cardinality());
+    assertEquals(3, column.and(x.getColumn(1)).cardinality());
+    assertEquals(3, column.or(bj.booleanArray(3, 1)).cardinality());
+  }
+
+  @Test
+  public void testSetElement() throws Exception {
+    BooleanArray x = bj.booleanArray(130);
+    x.set(64, true);
+    x.set(129, true);
+    assertTrue(x.get(64));
+    assertFalse(x.get(63));
+    assertEquals(129, x.nextSetBit(65));
+    x.set(64, false);
+    assertEquals(1, x.cardinality());
+  }
+
+  private static boolean[] random(int size, long seed) {
+    Random random = new Random(seed);
+    boolean[] data = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      data[i] = random.nextBoolean();
+    }
+    return data;
+  }
+
+  private static void assertElements(BooleanArray actual, boolean[] a, boolean[] b,
+      BinaryOperator<Boolean> op) {
+    assertEquals(a.length, actual.size());
+    int count = 0;
+    for (int i = 0; i < a.length; i++) {
+      boolean expected = op.apply(a[i], b[i]);
+      assertEquals(expected, actual.get(i));
+      count += expected ? 1 : 0;
+    }
+    assertEquals(count, actual.cardinality());
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.briljantframework.array.ChunkedDoubleArray;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.api.ArrayFactory;
+import org.junit.Test;
+
+public class BaseChunkedDoubleArrayTest {
+
+  ArrayFactory bj = new BaseArrayBackend().getArrayFactory();
+
+  @Test
+  public void testIndexingAndViewsAcrossChunks() throws Exception {
+    ChunkedDoubleArray x = bj.chunkedDoubleArray(2500, 1000);
+    assertEquals(3, x.chunks());
+    assertEquals(500, x.getChunk(2).size());
+    for (long i = 0; i < x.size(); i++) {
+      x.set(i, i);
+    }
+
+    ChunkedDoubleArray view = x.getView(900, 1200);
+    assertEquals(3, view.chunks());
+    assertEquals(100, view.getChunk(0).size());
+    assertEquals(1000, view.getChunk(1).size());
+    assertEquals(100, view.getChunk(2).size());
+    assertEquals(2000, view.getChunk(2).get(0), 0);
+    assertEquals(950, view.get(50), 0);
+
+    view.getChunk(1).set(0, -1);
+    assertEquals(-1, x.get(1000), 0);
+    view.addTo(1199, 1);
+    assertEquals(2100, x.get(2099), 0);
+
+    DoubleArray row = x.getDense(1900, 100);
+    assertEquals(1900, row.get(0), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetDenseAcrossChunks() throws Exception {
+    bj.chunkedDoubleArray(2500, 1000).getDense(950, 100);
+  }
+
+  @Test
+  public void testElementwiseAndReductions() throws Exception {
+    Random random = new Random(123);
+    int n = 300_000;
+    ChunkedDoubleArray x = bj.chunkedDoubleArray(n, 4096);
+    ChunkedDoubleArray y = bj.chunkedDoubleArray(n + 77, 1000).getView(77, n);
+    double[] a = new double[n];
+    double[] b = new double[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = random.nextGaussian();
+      b[i] = random.nextGaussian();
+      x.set(i, a[i]);
+      y.set(i, b[i]);
+    }
+
+    double sum = 0, inner = 0, min = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      sum += a[i];
+      inner += a[i] * b[i];
+      min = Math.min(min, a[i]);
+    }
+    assertEquals(sum, x.sum(), 1e-8);
+    assertEquals(x.sum(), x.sum(), 0);
+    assertEquals(inner, x.inner(y), 1e-8);
+    assertEquals(min, x.min(), 0);
+    assertEquals(sum, x.reduce(0, Double::sum), 1e-8);
+
+    ChunkedDoubleArray z = x.copy();
+    z.plusAssign(y);
+    z.timesAssign(2);
+    ChunkedDoubleArray exp = x.map(DoubleKernels.Unary.EXP);
+    x.apply(v -> v * v);
+    for (int i = 0; i < n; i += 997) {
+      assertEquals(2 * (a[i] + b[i]), z.get(i), 1e-12);
+      assertEquals(Math.exp(a[i]), exp.get(i), 0);
+      assertEquals(a[i] * a[i], x.get(i), 0);
+    }
+
+    y.assign(3);
+    assertEquals(3.0 * n, y.sum(), 1e-6);
+  }
+}
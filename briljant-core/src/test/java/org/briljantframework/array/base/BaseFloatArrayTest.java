@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.briljantframework.array.ArrayAssert;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.FloatArray;
+import org.briljantframework.array.api.ArrayFactory;
+import org.briljantframework.array.api.ArrayRoutines;
+import org.junit.Test;
+
+public class BaseFloatArrayTest {
+
+  ArrayFactory bj = new BaseArrayBackend().getArrayFactory();
+  ArrayRoutines bjr = new BaseArrayBackend().getArrayRoutines();
+
+  @Test
+  public void testArithmetic() throws Exception {
+    FloatArray x = bj.array(new float[] {1, 2, 3, 4}).reshape(2, 2);
+    FloatArray y = bj.array(new float[] {4, 3, 2, 1}).reshape(2, 2);
+    assertFloats(x.plus(y), 5, 5, 5, 5);
+    assertFloats(x.times(y), 4, 6, 6, 4);
+    assertFloats(x.minus(2, y, 1), -2, 1, 4, 7);
+    assertFloats(x.div(2), 0.5f, 1, 1.5f, 2);
+    assertFloats(x.reverseMinus(1), 0, -1, -2, -3);
+    assertFloats(x.map(Math::sqrt), 1, (float) Math.sqrt(2), (float) Math.sqrt(3), 2);
+
+    x.plusAssign(y);
+    x.timesAssign(0.5f);
+    assertFloats(x, 2.5f, 2.5f, 2.5f, 2.5f);
+    assertEquals(4, x.gte(2.5f).cardinality());
+  }
+
+  @Test
+  public void testViewsAndConversions() throws Exception {
+    FloatArray x = bj.floatArray(3, 4);
+    x.assign(() -> 1.5);
+    x.getView(1, 1, 2, 2).assign(7);
+    assertEquals(7f, x.get(2, 2), 0);
+    assertEquals(1.5f, x.transpose().get(3, 0), 0);
+
+    DoubleArray d = x.asDouble();
+    assertEquals(7.0, d.get(1, 1), 0);
+    d.set(0, 0, 3.25);
+    assertEquals(3.25f, x.get(0, 0), 0);
+
+    DoubleArray values = bj.array(new double[] {1, 2, 3});
+    FloatArray f = values.asFloat();
+    f.set(1, 0.1f);
+    assertEquals(0.1f, values.get(1), 0); // the rounded value is stored in the double array
+    assertTrue(f.isView());
+    ArrayAssert.assertArrayEquals(values, f.copy().asDouble(), 0);
+    assertEquals(3, bj.array(new int[] {1, 2, 3}).asFloat().get(2), 0);
+  }
+
+  @Test
+  public void testReductionsAccumulateInDoublePrecision() throws Exception {
+    int n = 1000;
+    FloatArray x = bj.floatArray(n + 2);
+    x.assign(1);
+    x.set(0, 1e8f);
+    x.set(n + 1, -1e8f);
+
+    // in single precision, 1e8 + 1 == 1e8
+    float naive = 0;
+    for (int i = 0; i < x.size(); i++) {
+      naive += x.get(i);
+    }
+    assertEquals(0, naive, 0);
+    assertEquals(n, bjr.sum(x), 0);
+    assertEquals(n, bjr.sum(x.reshape(2, (n + 2) / 2).transpose()), 0);
+    assertEquals(n, x.reduce(0, Double::sum), 0);
+    assertEquals(1e8f, bjr.max(x), 0);
+    assertEquals(-1e8f, bjr.min(x), 0);
+  }
+
+  private static void assertFloats(FloatArray actual, float... expected) {
+    assertEquals(expected.length, actual.size());
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], actual.get(i), 1e-6);
+    }
+  }
+}
@@ -0,0 +1,377 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.apache.commons.math3.complex.Complex;
+import org.briljantframework.array.ArrayAssert;
+import org.briljantframework.array.ComplexArray;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.IntArray;
+import org.briljantframework.array.Op;
+import org.briljantframework.array.api.ArrayBackend;
+import org.briljantframework.array.api.ArrayFactory;
+import org.briljantframework.array.api.ArrayRoutines;
+import org.briljantframework.linalg.api.LinearAlgebraRoutines;
+import org.briljantframework.linalg.decomposition.LuDecomposition;
+import org.briljantframework.linalg.decomposition.SingularValueDecomposition;
+import org.junit.Test;
+
+public class BaseLinearAlgebraRoutinesTest {
+
+  ArrayBackend b = new BaseArrayBackend();
+  ArrayFactory bj = b.getArrayFactory();
+  ArrayRoutines bjr = b.getArrayRoutines();
+  LinearAlgebraRoutines linalg = b.getLinearAlgebraRoutines();
+
+  @Test
+  public void testGetrf() throws Exception {
+    DoubleArray d = bj.array(new double[][] {new double[] {1.80, 2.88, 2.05, -0.89},
+        new double[] {5.25, -2.95, -0.95, -3.80}, new double[] {1.58, -2.69, -2.9, -1.4},
+        new double[] {-1.11, -0.66, -0.59, 0.8}});
+
+    IntArray ipiv1 = bj.intArray(4);
+    linalg.getrf(d, ipiv1);
+    ArrayAssert.assertArrayEquals(bj.array(new int[] {2, 2, 3, 4}), ipiv1);
+  }
+
+  @Test
+  public void testLuOfLargeMatrixReconstructsPermutedMatrix() throws Exception {
+    int n = 157;
+    DoubleArray x = random(n, n, 1);
+    LuDecomposition lu = linalg.lu(x);
+    DoubleArray l = bj.doubleArray(n, n);
+    DoubleArray u = bj.doubleArray(n, n);
+    DoubleArray f = lu.getDecomposition();
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        if (i > j) {
+          l.set(i, j, f.get(i, j));
+        } else {
+          u.set(i, j, f.get(i, j));
+        }
+      }
+      l.set(i, i, 1);
+    }
+
+    DoubleArray p = x.copy();
+    IntArray ipiv = lu.getPivot();
+    for (int i = 0; i < n; i++) {
+      bjr.swap(p.getRow(i), p.getRow(ipiv.get(i) - 1));
+    }
+    DoubleArray lu2 = bj.doubleArray(n, n);
+    bjr.gemm(Op.KEEP, Op.KEEP, 1, l, u, 0, lu2);
+    ArrayAssert.assertArrayEquals(p, lu2, 1e-10);
+  }
+
+  @Test
+  public void testGesv() throws Exception {
+    DoubleArray a = bj.array(
+        new double[] {6.80, -2.11, 5.66, 5.97, 8.23, -6.05, -3.30, 5.36, -4.44, 1.08, -0.45, 2.58,
+            -2.70, 0.27, 9.04, 8.32, 2.71, 4.35, -7.17, 2.14, -9.67, -5.14, -7.26, 6.08, -6.87})
+        .reshape(5, 5);
+
+    DoubleArray b = bj.array(new double[] {4.02, 6.19, -8.22, -7.57, -3.03, -1.56, 4.00, -8.67,
+        1.75, 2.86, 9.81, -4.09, -4.57, -8.61, 8.99}).reshape(5, 3);
+
+    IntArray ipiv = bj.intArray(5);
+    linalg.gesv(a, ipiv, b);
+
+    ArrayAssert.assertArrayEquals(bj.array(new int[] {5, 5, 3, 4, 5}), ipiv);
+    ArrayAssert.assertArrayEquals(bj.array(new double[][] {new double[] {-0.80, -0.39, 0.96},
+        new double[] {-0.70, -0.55, 0.22}, new double[] {0.59, 0.84, 1.90},
+        new double[] {1.32, -0.10, 5.36}, new double[] {0.57, 0.11, 4.04}}), b, 0.01);
+    ArrayAssert
+        .assertArrayEquals(bj.array(new double[][] {new double[] {8.23, 1.08, 9.04, 2.14, -6.87},
+            new double[] {0.83, -6.94, -7.92, 6.55, -3.99},
+            new double[] {0.69, -0.67, -14.18, 7.24, -5.19},
+            new double[] {0.73, 0.75, 0.02, -13.82, 14.19},
+            new double[] {-0.26, 0.44, -0.59, -0.34, -3.43}}), a, 0.01);
+  }
+
+  @Test
+  public void testInv() throws Exception {
+    int n = 64;
+    DoubleArray x = random(n, n, 2);
+    DoubleArray inv = linalg.inv(x);
+    DoubleArray eye = bj.doubleArray(n, n);
+    bjr.gemm(Op.KEEP, Op.KEEP, 1, x, inv, 0, eye);
+    ArrayAssert.assertArrayEquals(bj.eye(n), eye, 1e-10);
+  }
+
+  @Test
+  public void testGeqrf() throws Exception {
+    DoubleArray a = bj.array(new double[] {0.000000, 2.000000, 2.000000, -1.000000, 2.000000,
+        -1.000000, 0.000000, 1.500000, 2.000000, -1.000000, 2.000000, -1.000000}).reshape(2, 6)
+        .transpose();
+    DoubleArray tau = bj.doubleArray(2);
+    linalg.geqrf(a, tau);
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {1, 1.4}), tau, 0.01);
+
+    ArrayAssert.assertArrayEquals(bj.array(
+        new double[][] {new double[] {-4, 2}, new double[] {0.5, 2.5}, new double[] {0.5, 0.286},
+            new double[] {0, -0.429}, new double[] {0.5, 0.286}, new double[] {0.5, 0.286}}),
+        a, 0.01);
+  }
+
+  @Test
+  public void testOrmqrReconstructsMatrix() throws Exception {
+    DoubleArray x = random(40, 25, 3);
+    DoubleArray a = x.copy();
+    DoubleArray tau = bj.doubleArray(25);
+    linalg.geqrf(a, tau);
+
+    DoubleArray r = bj.doubleArray(40, 25);
+    for (int i = 0; i < 25; i++) {
+      for (int j = i; j < 25; j++) {
+        r.set(i, j, a.get(i, j));
+      }
+    }
+    linalg.ormqr('l', Op.KEEP, a, tau, r);
+    ArrayAssert.assertArrayEquals(x, r, 1e-10);
+
+    // q' * q * x = x
+    DoubleArray c = x.copy();
+    linalg.ormqr('l', Op.TRANSPOSE, a, tau, c);
+    linalg.ormqr('l', Op.KEEP, a, tau, c);
+    ArrayAssert.assertArrayEquals(x, c, 1e-10);
+  }
+
+  @Test
+  public void testSyevr() throws Exception {
+    DoubleArray a = bj
+        .array(new double[] {0.67, 0.00, 0.00, 0.00, 0.00, -0.20, 3.82, 0.00, 0.00, 0.00, 0.19,
+            -0.13, 3.27, 0.00, 0.00, -1.06, 1.06, 0.11, 5.86, 0.00, 0.46, -0.48, 1.10, -0.98, 3.54})
+        .reshape(5, 5);
+    int n = a.rows();
+    DoubleArray w = bj.doubleArray(n);
+    DoubleArray z = bj.doubleArray(n, 3);
+    IntArray isuppz = bj.intArray(2 * n);
+    int m = linalg.syevr('v', 'i', 'u', a, 0, 0, 1, 3, -1, w, z, isuppz);
+    assertEquals(3, m);
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {0.433, 2.145, 3.368}), w.get(bj.range(3)),
+        0.001);
+  }
+
+  @Test
+  public void testSyev() throws Exception {
+    int n = 60;
+    DoubleArray x = random(n, n, 4);
+    DoubleArray a = bj.doubleArray(n, n);
+    bjr.gemm(Op.TRANSPOSE, Op.KEEP, 1, x, x, 0, a);
+    DoubleArray v = a.copy();
+    DoubleArray w = bj.doubleArray(n);
+    linalg.syev('v', 'l', v, w);
+
+    for (int i = 1; i < n; i++) {
+      assertEquals(true, w.get(i - 1) <= w.get(i));
+    }
+    DoubleArray av = bj.doubleArray(n, n);
+    bjr.gemm(Op.KEEP, Op.KEEP, 1, a, v, 0, av);
+    for (int j = 0; j < n; j++) {
+      for (int i = 0; i < n; i++) {
+        assertEquals(w.get(j) * v.get(i, j), av.get(i, j), 1e-8);
+      }
+    }
+  }
+
+  @Test
+  public void testGeev() throws Exception {
+    final int n = 5;
+    DoubleArray a = bj.array(
+        new double[] {-1.01, 3.98, 3.30, 4.43, 7.31, 0.86, 0.53, 8.26, 4.96, -6.43, -4.60, -7.04,
+            -3.89, -7.66, -6.16, 3.31, 5.29, 8.20, -7.33, 2.47, -4.81, 3.55, -1.51, 6.18, 5.58})
+        .reshape(n, n);
+    DoubleArray x = a.copy();
+    DoubleArray wr = bj.doubleArray(n);
+    DoubleArray wi = bj.doubleArray(n);
+    DoubleArray vl = bj.doubleArray(n, n);
+    DoubleArray vr = bj.doubleArray(n, n);
+    linalg.geev('v', 'v', a, wr, wi, vl, vr);
+
+    ArrayAssert.assertArrayEquals(
+        bj.array(new Complex[] {Complex.valueOf(2.858132878, 10.7627498307),
+            Complex.valueOf(2.858132878, -10.7627498307),
+            Complex.valueOf(-0.6866745133, 4.7042613406),
+            Complex.valueOf(-0.6866745133, -4.7042613406), Complex.valueOf(-10.4629167295)}),
+        toComplex(wr, wi));
+
+    // x * (vr[:, j] + i * vr[:, j + 1]) = (wr[j] + i * wi[j]) * (vr[:, j] + i * vr[:, j + 1])
+    // (vl[:, j] - i * vl[:, j + 1])' * x = (wr[j] + i * wi[j]) * (vl[:, j] - i * vl[:, j + 1])'
+    for (int j = 0; j < n; j++) {
+      Complex lambda = Complex.valueOf(wr.get(j), wi.get(j));
+      for (int i = 0; i < n; i++) {
+        Complex right = Complex.ZERO;
+        Complex left = Complex.ZERO;
+        for (int k = 0; k < n; k++) {
+          right = right.add(eigenvector(vr, wi, k, j).multiply(x.get(i, k)));
+          left = left.add(eigenvector(vl, wi, k, j).conjugate().multiply(x.get(k, i)));
+        }
+        assertEquals(lambda.multiply(eigenvector(vr, wi, i, j)).getReal(), right.getReal(), 1e-8);
+        assertEquals(lambda.multiply(eigenvector(vr, wi, i, j)).getImaginary(),
+            right.getImaginary(), 1e-8);
+        Complex expected = lambda.multiply(eigenvector(vl, wi, i, j).conjugate());
+        assertEquals(expected.getReal(), left.getReal(), 1e-8);
+        assertEquals(expected.getImaginary(), left.getImaginary(), 1e-8);
+      }
+    }
+  }
+
+  @Test
+  public void testGelsy() throws Exception {
+    // rank deficient (the third column is the sum of the first two)
+    DoubleArray a = bj.array(new double[][] {new double[] {1, 2, 3}, new double[] {4, 5, 9},
+        new double[] {7, 8, 15}, new double[] {2, 1, 3}});
+    DoubleArray y = bj.array(new double[][] {new double[] {1}, new double[] {2},
+        new double[] {3}, new double[] {4}});
+    DoubleArray expected = bj.doubleArray(3, 1);
+    bjr.gemm(Op.KEEP, Op.KEEP, 1, linalg.pinv(a), y, 0, expected);
+    IntArray jpvt = bj.intArray(3);
+    int rank = linalg.gelsy(a.copy(), y, jpvt, 1e-8);
+    assertEquals(2, rank);
+    ArrayAssert.assertArrayEquals(expected, y.getView(0, 0, 3, 1), 1e-10);
+  }
+
+  @Test
+  public void testGesvdReconstructsMatrix() throws Exception {
+    for (int[] shape : new int[][] {{30, 20}, {20, 30}, {25, 25}}) {
+      int m = shape[0];
+      int n = shape[1];
+      int k = Math.min(m, n);
+      DoubleArray x = random(m, n, m * n);
+      DoubleArray s = bj.doubleArray(k);
+      DoubleArray u = bj.doubleArray(m, k);
+      DoubleArray vt = bj.doubleArray(k, n);
+      linalg.gesvd('s', 's', x.copy(), s, u, vt);
+      for (int i = 1; i < k; i++) {
+        assertEquals(true, s.get(i - 1) >= s.get(i));
+      }
+
+      DoubleArray us = u.copy();
+      for (int j = 0; j < k; j++) {
+        double sj = s.get(j);
+        us.getColumn(j).apply(v -> v * sj);
+      }
+      DoubleArray usvt = bj.doubleArray(m, n);
+      bjr.gemm(Op.KEEP, Op.KEEP, 1, us, vt, 0, usvt);
+      ArrayAssert.assertArrayEquals(x, usvt, 1e-10);
+
+      DoubleArray utu = bj.doubleArray(k, k);
+      bjr.gemm(Op.TRANSPOSE, Op.KEEP, 1, u, u, 0, utu);
+      ArrayAssert.assertArrayEquals(bj.eye(k), utu, 1e-10);
+    }
+  }
+
+  @Test
+  public void testSvdOfRankDeficientMatrixIsOrthogonal() throws Exception {
+    DoubleArray x = bj.range(12).reshape(4, 3).asDouble();
+    SingularValueDecomposition svd = linalg.svd(x);
+    DoubleArray u = svd.getLeftSingularValues();
+    DoubleArray v = svd.getRightSingularValues();
+    DoubleArray utu = bj.doubleArray(4, 4);
+    DoubleArray vtv = bj.doubleArray(3, 3);
+    bjr.gemm(Op.TRANSPOSE, Op.KEEP, 1, u, u, 0, utu);
+    bjr.gemm(Op.TRANSPOSE, Op.KEEP, 1, v, v, 0, vtv);
+    ArrayAssert.assertArrayEquals(bj.eye(4), utu, 1e-10);
+    ArrayAssert.assertArrayEquals(bj.eye(3), vtv, 1e-10);
+    assertEquals(2, linalg.rank(x), 0);
+  }
+
+  @Test
+  public void testPinv() throws Exception {
+    DoubleArray x = bj.array(new double[][] {new double[] {1, 2, 3}, new double[] {1, 2, 3}});
+    DoubleArray p = linalg.pinv(x.transpose());
+    assertArrayEquals(new double[] {0.035714285714285705, 0.03571428571428572, 0.07142857142857141,
+        0.07142857142857144, 0.10714285714285711, 0.10714285714285715}, p.data(), 1e-6);
+  }
+
+  @Test
+  public void testGetrfBatch() throws Exception {
+    int batch = 30;
+    for (int n : new int[] {2, 3, 6}) {
+      DoubleArray a = bj.doubleArray(n, n + 1, batch);
+      a.assign(new Random(n)::nextGaussian);
+      DoubleArray lu = a.copy();
+      IntArray ipiv = bj.intArray(n, batch);
+      IntArray info = linalg.getrfBatch(lu, ipiv);
+      assertEquals(batch, info.size());
+      for (int i = 0; i < batch; i++) {
+        DoubleArray expected = a.select(2, i).copy();
+        IntArray pivots = bj.intArray(n);
+        assertEquals(linalg.getrf(expected, pivots), info.get(i));
+        ArrayAssert.assertArrayEquals(expected, lu.select(2, i), 1e-12);
+        ArrayAssert.assertArrayEquals(pivots, ipiv.select(1, i));
+      }
+    }
+  }
+
+  @Test
+  public void testInvBatch() throws Exception {
+    int batch = 40;
+    int n = 3;
+    DoubleArray x = bj.doubleArray(n, n, batch);
+    x.assign(new Random(3)::nextGaussian);
+    DoubleArray inv = linalg.invBatch(x);
+    DoubleArray identity = bj.doubleArray(n, n, batch);
+    bjr.gemmBatch(Op.KEEP, Op.KEEP, 1, x, inv, 0, identity);
+    for (int i = 0; i < batch; i++) {
+      ArrayAssert.assertArrayEquals(linalg.inv(x.select(2, i)), inv.select(2, i), 1e-9);
+      ArrayAssert.assertArrayEquals(bj.eye(n), identity.select(2, i), 1e-9);
+    }
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testInvBatchSingular() throws Exception {
+    DoubleArray x = bj.doubleArray(2, 2, 3);
+    x.assign(1);
+    linalg.invBatch(x);
+  }
+
+  private DoubleArray random(int m, int n, long seed) {
+    Random random = new Random(seed);
+    DoubleArray x = bj.doubleArray(m, n);
+    x.assign(random::nextGaussian);
+    return x;
+  }
+
+  private Complex eigenvector(DoubleArray v, DoubleArray wi, int i, int j) {
+    if (wi.get(j) == 0) {
+      return Complex.valueOf(v.get(i, j));
+    } else if (wi.get(j) > 0) {
+      return Complex.valueOf(v.get(i, j), v.get(i, j + 1));
+    } else {
+      return Complex.valueOf(v.get(i, j - 1), -v.get(i, j));
+    }
+  }
+
+  private ComplexArray toComplex(DoubleArray r, DoubleArray i) {
+    ComplexArray c = bj.complexArray(r.getShape());
+    for (int j = 0; j < r.size(); j++) {
+      c.set(j, Complex.valueOf(r.get(j), i.get(j)));
+    }
+    return c;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.array.base;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.briljantframework.array.ArrayAssert;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.SparseDoubleMatrix;
+import org.briljantframework.array.SparseDoubleMatrix.Format;
+import org.briljantframework.array.api.ArrayFactory;
+import org.junit.Test;
+
+public class BaseSparseDoubleMatrixTest {
+
+  ArrayFactory bj = new BaseArrayBackend().getArrayFactory();
+
+  @Test
+  public void testBuilderSumsDuplicatesAndDropsZeros() throws Exception {
+    SparseDoubleMatrix x = bj.sparseMatrixBuilder(3, 4).add(2, 1, 3).add(0, 3, 1).add(2, 1, 2)
+        .add(1, 1, 4).add(0, 0, 2).add(1, 1, -4).build();
+    assertEquals(Format.CSR, x.getFormat());
+    assertEquals(3, x.nonZeros());
+    assertArrayEquals(new int[] {0, 2, 2, 3}, x.pointers());
+    assertArrayEquals(new int[] {0, 3, 1}, x.indices());
+    assertArrayEquals(new double[] {2, 1, 5}, x.values(), 0);
+    assertEquals(5, x.get(2, 1), 0);
+    assertEquals(0, x.get(1, 1), 0);
+
+    SparseDoubleMatrix y = bj.sparseMatrixBuilder(3, 4).add(2, 1, 5).add(0, 3, 1).add(0, 0, 2)
+        .build(Format.CSC);
+    assertArrayEquals(new int[] {0, 1, 2, 2, 3}, y.pointers());
+    assertArrayEquals(new int[] {0, 2, 0}, y.indices());
+    ArrayAssert.assertArrayEquals(x.toDense(), y.toDense(), 0);
+  }
+
+  @Test
+  public void testConversions() throws Exception {
+    DoubleArray dense = randomSparse(40, 30, 1);
+    for (Format format : Format.values()) {
+      SparseDoubleMatrix x = bj.sparseMatrix(dense, format);
+      assertEquals(format, x.getFormat());
+      ArrayAssert.assertArrayEquals(dense, x.toDense(), 0);
+      ArrayAssert.assertArrayEquals(dense, x.asFormat(format.transpose()).toDense(), 0);
+      assertSame(x, x.asFormat(format));
+      ArrayAssert.assertArrayEquals(dense.transpose(), x.transpose().toDense(), 0);
+      assertEquals(format.transpose(), x.transpose().getFormat());
+      assertEquals(dense.get(7, 3), x.transpose().get(3, 7), 0);
+    }
+  }
+
+  @Test
+  public void testSlicing() throws Exception {
+    DoubleArray dense = randomSparse(40, 30, 2);
+    for (Format format : Format.values()) {
+      SparseDoubleMatrix x = bj.sparseMatrix(dense, format);
+      ArrayAssert.assertArrayEquals(dense.getView(5, 0, 10, 30), x.getRows(5, 15).toDense(), 0);
+      ArrayAssert.assertArrayEquals(dense.getView(0, 3, 40, 20), x.getColumns(3, 23).toDense(),
+          0);
+      ArrayAssert.assertArrayEquals(dense.getView(5, 3, 10, 20),
+          x.getRows(5, 15).getColumns(3, 23).toDense(), 0);
+      ArrayAssert.assertArrayEquals(dense.getView(5, 3, 10, 20).transpose(),
+          x.getRows(5, 15).transpose().getRows(3, 23).toDense(), 0);
+    }
+
+    // slices of the major dimension share storage
+    SparseDoubleMatrix x = bj.sparseMatrix(dense, Format.CSR);
+    assertSame(x.values(), x.getRows(5, 15).values());
+    x.getRows(5, 15).timesAssign(2);
+    ArrayAssert.assertArrayEquals(dense.getView(5, 0, 10, 30).times(2),
+        x.toDense().getView(5, 0, 10, 30), 0);
+    ArrayAssert.assertArrayEquals(dense.getView(15, 0, 25, 30), x.getRows(15, 40).toDense(), 0);
+  }
+
+  @Test
+  public void testScaling() throws Exception {
+    DoubleArray dense = randomSparse(20, 10, 3);
+    DoubleArray rows = bj.linspace(1, 2, 20).reshape(20, 1);
+    DoubleArray columns = bj.linspace(-1, 1, 10);
+    for (Format format : Format.values()) {
+      SparseDoubleMatrix x = bj.sparseMatrix(dense, format);
+      ArrayAssert.assertArrayEquals(dense.times(3), x.times(3).toDense(), 0);
+      ArrayAssert.assertArrayEquals(dense.times(rows), x.times(rows).toDense(), 0);
+      ArrayAssert.assertArrayEquals(dense.times(columns), x.getRows(0, 20).times(columns)
+          .toDense(), 0);
+      ArrayAssert.assertArrayEquals(dense, x.toDense(), 0);
+    }
+  }
+
+  private DoubleArray randomSparse(int rows, int columns, long seed) {
+    Random random = new Random(seed);
+    DoubleArray x = bj.doubleArray(rows, columns);
+    x.assign(() -> random.nextDouble() < 0.1 ? random.nextGaussian() : 0);
+    return x;
+  }
+}
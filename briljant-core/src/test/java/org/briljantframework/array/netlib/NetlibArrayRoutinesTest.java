@@ -21,13 +21,20 @@
 
 package org.briljantframework.array.netlib;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.Properties;
+import java.util.Random;
+
 import org.briljantframework.array.ArrayAssert;
 import org.briljantframework.array.ArrayPrinter;
 import org.briljantframework.array.DoubleArray;
+import org.briljantframework.array.FloatArray;
 import org.briljantframework.array.Op;
 import org.briljantframework.array.api.ArrayBackend;
 import org.briljantframework.array.api.ArrayFactory;
 import org.briljantframework.array.api.ArrayRoutines;
+import org.briljantframework.array.base.BaseArrayBackend;
 import org.junit.Test;
 
 public class NetlibArrayRoutinesTest {
@@ -59,4 +66,191 @@ public class NetlibArrayRoutinesTest {
     bjr.gemv(Op.TRANSPOSE, 1, a, x, 1, y);
     ArrayAssert.assertArrayEquals(bj.array(new double[] {9, 15, 21}), y, 0.0);
   }
+
+  @Test
+  public void testGemmViews() throws Exception {
+    ArrayFactory base = new BaseArrayBackend().getArrayFactory();
+    DoubleArray large = random(bj, 9, 11, 1);
+    DoubleArray other = random(base, 12, 10, 2);
+
+    // sub-matrices, transposes, base arrays and a strided view which must be copied
+    DoubleArray[] as = {large.getView(1, 2, 4, 5), large.getView(1, 2, 5, 4).transpose(),
+        other.getView(3, 1, 4, 5), random(base, 5, 4, 3).transpose(),
+        large.get(bj.range(0, 8, 2), bj.range(0, 10, 2))};
+    DoubleArray[] bs = {large.getView(2, 3, 5, 3), other.getView(0, 0, 3, 5).transpose(),
+        random(base, 5, 3, 4)};
+    for (DoubleArray a : as) {
+      for (DoubleArray b : bs) {
+        DoubleArray expected = naiveGemm(a, b);
+        DoubleArray parent = random(bj, 6, 7, 5);
+        DoubleArray[] cs = {bj.doubleArray(4, 3), parent.getView(1, 2, 4, 3),
+            parent.getView(0, 1, 3, 4).transpose(), base.doubleArray(4, 3)};
+        for (DoubleArray c : cs) {
+          DoubleArray before = parent.copy();
+          bjr.gemm(Op.KEEP, Op.KEEP, 1, a, b, 0, c);
+          ArrayAssert.assertArrayEquals(expected, c, 1e-10);
+          // elements outside of the view are left unchanged
+          for (int i = 0; i < parent.size(); i++) {
+            if (!contains(parent, c, i)) {
+              assertEquals(before.get(i), parent.get(i), 0);
+            }
+          }
+        }
+        DoubleArray c = bj.doubleArray(3, 4);
+        bjr.gemm(Op.TRANSPOSE, Op.TRANSPOSE, 2, b, a, 0, c);
+        ArrayAssert.assertArrayEquals(expected.transpose().times(2), c, 1e-10);
+      }
+    }
+  }
+
+  @Test
+  public void testGemvAndGerViews() throws Exception {
+    ArrayFactory base = new BaseArrayBackend().getArrayFactory();
+    DoubleArray large = random(bj, 8, 8, 7);
+    DoubleArray a = large.getView(1, 1, 4, 3);
+    DoubleArray x = random(base, 4, 3, 8).getRow(1);
+    DoubleArray y = large.getView(0, 7, 4, 1);
+
+    DoubleArray expected = y.copy().plus(naiveGemm(a, x.copy().reshape(3, 1)));
+    bjr.gemv(Op.KEEP, 1, a, x, 1, y);
+    ArrayAssert.assertArrayEquals(expected, y, 1e-10);
+
+    DoubleArray at = a.transpose();
+    bjr.gemv(Op.TRANSPOSE, 1, at, x, 0, y);
+    ArrayAssert.assertArrayEquals(naiveGemm(a, x.copy().reshape(3, 1)), y, 1e-10);
+
+    DoubleArray expectedA = at.copy().plus(naiveGemm(x.copy().reshape(3, 1), y.transpose()));
+    bjr.ger(1, x, y, at);
+    ArrayAssert.assertArrayEquals(expectedA, at, 1e-10);
+  }
+
+  @Test
+  public void testLevel1Views() throws Exception {
+    ArrayFactory base = new BaseArrayBackend().getArrayFactory();
+    DoubleArray x = random(base, 5, 6, 9).getRow(2);
+    DoubleArray y = random(bj, 6, 5, 10).getColumn(3);
+    double inner = 0;
+    for (int i = 0; i < x.size(); i++) {
+      inner += x.get(i) * y.get(i);
+    }
+    assertEquals(inner, bjr.inner(x, y), 1e-10);
+
+    DoubleArray expected = y.copy().plus(x.transpose().times(2));
+    bjr.axpy(2, x, y);
+    ArrayAssert.assertArrayEquals(expected, y, 1e-10);
+
+    y.set(4, 100);
+    assertEquals(4, bjr.iamax(y));
+  }
+
+  @Test
+  public void testFloatGemm() throws Exception {
+    ArrayRoutines java = new NetlibArrayRoutines(NetlibCalibration.uniform(Long.MAX_VALUE));
+    ArrayRoutines netlib = new NetlibArrayRoutines(NetlibCalibration.uniform(0));
+    FloatArray large = bj.floatArray(10, 10);
+    Random random = new Random(14);
+    large.assign(random::nextGaussian);
+    FloatArray[] as = {large.getView(1, 1, 5, 5), large.getView(2, 3, 5, 5).transpose(),
+        large.getView(0, 0, 5, 5).copy()};
+    for (FloatArray a : as) {
+      for (Op op : new Op[] {Op.KEEP, Op.TRANSPOSE}) {
+        FloatArray c1 = bj.floatArray(5, 5);
+        FloatArray c2 = bj.floatArray(5, 5);
+        c1.assign(Float.NaN);
+        c2.assign(Float.NaN);
+        java.gemm(op, Op.KEEP, 2f, a, large.getView(5, 5, 5, 5), 0f, c1);
+        netlib.gemm(op, Op.KEEP, 2f, a, large.getView(5, 5, 5, 5), 0f, c2.transpose());
+        ArrayAssert.assertArrayEquals(c1.asDouble(), c2.transpose().asDouble(), 1e-5);
+      }
+    }
+  }
+
+  @Test
+  public void testJavaAndNativeKernelsAgree() throws Exception {
+    ArrayRoutines java = new NetlibArrayRoutines(NetlibCalibration.uniform(Long.MAX_VALUE));
+    ArrayRoutines netlib = new NetlibArrayRoutines(NetlibCalibration.uniform(0));
+    DoubleArray large = random(bj, 10, 10, 11);
+    DoubleArray[] as = {large.getView(1, 1, 5, 5), large.getView(2, 3, 5, 5).transpose(),
+        random(bj, 5, 5, 12)};
+    for (DoubleArray a : as) {
+      for (Op op : new Op[] {Op.KEEP, Op.TRANSPOSE}) {
+        DoubleArray x = random(bj, 5, 1, 13);
+        DoubleArray c1 = bj.doubleArray(5, 5);
+        DoubleArray c2 = bj.doubleArray(5, 5);
+        c1.assign(Double.NaN); // overwritten since beta is zero
+        c2.assign(Double.NaN);
+        java.gemm(op, Op.KEEP, 2, a, large.getView(0, 0, 5, 5), 0, c1);
+        netlib.gemm(op, Op.KEEP, 2, a, large.getView(0, 0, 5, 5), 0, c2);
+        ArrayAssert.assertArrayEquals(c2, c1, 1e-10);
+
+        DoubleArray y1 = large.getView(0, 9, 5, 1).copy();
+        DoubleArray y2 = y1.copy();
+        java.gemv(op, 2, a, x, 0.5, y1);
+        netlib.gemv(op, 2, a, x, 0.5, y2);
+        ArrayAssert.assertArrayEquals(y2, y1, 1e-10);
+
+        DoubleArray a1 = a.copy();
+        DoubleArray a2 = a.copy();
+        java.ger(0.5, x, y1, op == Op.KEEP ? a1 : a1.transpose());
+        netlib.ger(0.5, x, y1, op == Op.KEEP ? a2 : a2.transpose());
+        ArrayAssert.assertArrayEquals(a2, a1, 1e-10);
+      }
+    }
+    DoubleArray x = large.getRow(3);
+    DoubleArray y = large.getColumn(4);
+    assertEquals(netlib.inner(x, y), java.inner(x, y), 1e-10);
+    DoubleArray y1 = y.copy();
+    DoubleArray y2 = y.copy();
+    java.axpy(3, x, y1);
+    netlib.axpy(3, x, y2);
+    ArrayAssert.assertArrayEquals(y2, y1, 1e-10);
+  }
+
+  @Test
+  public void testCalibrationOverrides() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty(NetlibCalibration.Routine.GEMM.getProperty(), "27");
+    NetlibCalibration calibration = NetlibCalibration.defaults().withOverrides(properties);
+    assertEquals(27, calibration.getThreshold(NetlibCalibration.Routine.GEMM));
+    assertEquals(true, calibration.useJava(NetlibCalibration.Routine.GEMM, 26));
+    assertEquals(false, calibration.useJava(NetlibCalibration.Routine.GEMM, 27));
+    assertEquals(NetlibCalibration.defaults().getThreshold(NetlibCalibration.Routine.DOT),
+        calibration.getThreshold(NetlibCalibration.Routine.DOT));
+    assertEquals("27",
+        calibration.toProperties().getProperty("org.briljantframework.array.netlib.threshold.gemm"));
+  }
+
+  private static boolean contains(DoubleArray parent, DoubleArray view, int index) {
+    int position = parent.getOffset() + index % parent.rows() * parent.stride(0)
+        + index / parent.rows() * parent.stride(1);
+    for (int i = 0; i < view.rows(); i++) {
+      for (int j = 0; j < view.columns(); j++) {
+        if (view.getOffset() + i * view.stride(0) + j * view.stride(1) == position) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static DoubleArray random(ArrayFactory bj, int rows, int columns, long seed) {
+    Random random = new Random(seed);
+    DoubleArray x = bj.doubleArray(rows, columns);
+    x.assign(random::nextGaussian);
+    return x;
+  }
+
+  private DoubleArray naiveGemm(DoubleArray a, DoubleArray b) {
+    DoubleArray c = bj.doubleArray(a.rows(), b.columns());
+    for (int i = 0; i < a.rows(); i++) {
+      for (int j = 0; j < b.columns(); j++) {
+        double sum = 0;
+        for (int k = 0; k < a.columns(); k++) {
+          sum += a.get(i, k) * b.get(k, j);
+        }
+        c.set(i, j, sum);
+      }
+    }
+    return c;
+  }
 }
@@ -29,8 +29,10 @@ import org.briljantframework.array.ArrayAssert;
 import org.briljantframework.array.ComplexArray;
 import org.briljantframework.array.DoubleArray;
 import org.briljantframework.array.IntArray;
+import org.briljantframework.array.Workspace;
 import org.briljantframework.array.api.ArrayBackend;
 import org.briljantframework.array.api.ArrayFactory;
+import org.briljantframework.array.offheap.OffHeapArrayBackend;
 import org.briljantframework.linalg.api.LinearAlgebraRoutines;
 import org.briljantframework.linalg.decomposition.SingularValueDecomposition;
 import org.junit.Test;
@@ -185,6 +187,26 @@ public class NetlibLinearAlgebraRoutinesTest {
 
   }
 
+  @Test
+  public void testRepeatedSolvesInWorkspace() throws Exception {
+    DoubleArray x = bj.array(new double[] {1.80, 2.88, 2.05, -0.89, 5.25, -2.95, -0.95, -3.80, 1.58,
+        -2.69, -2.90, -1.04, -1.11, -0.66, -0.59, 0.80}).reshape(4, 4).transpose();
+    DoubleArray expected = linalg.inv(x);
+    DoubleArray tau = bj.doubleArray(4);
+    DoubleArray qr = x.copy();
+    linalg.geqrf(qr, tau);
+    for (int i = 0; i < 3; i++) {
+      try (Workspace workspace = Workspace.open()) {
+        ArrayAssert.assertArrayEquals(expected, linalg.inv(x), 1e-12);
+        DoubleArray a = x.copy();
+        DoubleArray t = workspace.doubleArray(4);
+        linalg.geqrf(a, t);
+        ArrayAssert.assertArrayEquals(qr, a, 1e-12);
+        ArrayAssert.assertArrayEquals(tau, t, 1e-12);
+      }
+    }
+  }
+
   @Test
   public void testRank() throws Exception {
     DoubleArray x = bj.range(9).reshape(3, 3).asDouble();
@@ -214,4 +236,64 @@ public class NetlibLinearAlgebraRoutinesTest {
         new double[][] {new double[] {1, 2, 3}, new double[] {2, 3, 8}, new double[] {9, 7, 1}});
     SingularValueDecomposition svd = linalg.svd(x);
   }
+
+  @Test
+  public void testJavaAndNativeKernelsAgree() throws Exception {
+    NetlibArrayBackend backend = new NetlibArrayBackend();
+    LinearAlgebraRoutines java =
+        new NetlibLinearAlgebraRoutines(backend, NetlibCalibration.uniform(Long.MAX_VALUE));
+    LinearAlgebraRoutines netlib =
+        new NetlibLinearAlgebraRoutines(backend, NetlibCalibration.uniform(0));
+    DoubleArray a = bj.array(new double[] {1.80, 5.25, 1.58, -1.11, 2.88, -2.95, -2.69, -0.66,
+        2.05, -0.95, -2.90, -0.59, -0.89, -3.80, -1.04, 0.80}).reshape(4, 4);
+    DoubleArray b = bj.array(new double[] {9.52, 24.35, 0.77, -6.22}).reshape(4, 1);
+
+    DoubleArray lu1 = a.copy(), lu2 = a.copy();
+    IntArray ipiv1 = bj.intArray(4), ipiv2 = bj.intArray(4);
+    assertEquals(netlib.getrf(lu2, ipiv2), java.getrf(lu1, ipiv1));
+    ArrayAssert.assertArrayEquals(ipiv2, ipiv1);
+    ArrayAssert.assertArrayEquals(lu2, lu1, 1e-10);
+
+    assertEquals(netlib.getri(lu2, ipiv2), java.getri(lu1, ipiv1));
+    ArrayAssert.assertArrayEquals(lu2, lu1, 1e-10);
+
+    DoubleArray a1 = a.copy(), a2 = a.copy(), b1 = b.copy(), b2 = b.copy();
+    assertEquals(netlib.gesv(a2, ipiv2, b2), java.gesv(a1, ipiv1, b1));
+    ArrayAssert.assertArrayEquals(b2, b1, 1e-10);
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {1, -1, 3, -5}).reshape(4, 1), b1, 1e-10);
+
+    DoubleArray stack = bj.doubleArray(4, 4, 3);
+    for (int i = 0; i < 3; i++) {
+      stack.select(2, i).assign(a.plus(i));
+    }
+    DoubleArray s1 = stack.copy(), s2 = stack.copy();
+    IntArray p1 = bj.intArray(4, 3), p2 = bj.intArray(4, 3);
+    ArrayAssert.assertArrayEquals(netlib.getrfBatch(s2, p2), java.getrfBatch(s1, p1));
+    ArrayAssert.assertArrayEquals(p2, p1);
+    ArrayAssert.assertArrayEquals(s2, s1, 1e-10);
+    ArrayAssert.assertArrayEquals(netlib.invBatch(stack), java.invBatch(stack), 1e-10);
+  }
+
+  @Test
+  public void testNativeKernelsWriteBackToOffHeapArrays() throws Exception {
+    LinearAlgebraRoutines netlib =
+        new NetlibLinearAlgebraRoutines(new NetlibArrayBackend(), NetlibCalibration.uniform(0));
+    ArrayFactory offHeap = new OffHeapArrayBackend().getArrayFactory();
+    double[] values = {1.80, 5.25, 1.58, -1.11, 2.88, -2.95, -2.69, -0.66, 2.05, -0.95, -2.90,
+        -0.59, -0.89, -3.80, -1.04, 0.80};
+
+    DoubleArray lu1 = bj.array(values.clone()).reshape(4, 4);
+    DoubleArray lu2 = offHeap.array(values).reshape(4, 4);
+    IntArray ipiv1 = bj.intArray(4), ipiv2 = offHeap.intArray(4);
+    assertEquals(netlib.getrf(lu1, ipiv1), netlib.getrf(lu2, ipiv2));
+    ArrayAssert.assertArrayEquals(ipiv1, ipiv2);
+    ArrayAssert.assertArrayEquals(lu1, lu2, 1e-10);
+
+    DoubleArray a = offHeap.array(values).reshape(4, 4);
+    DoubleArray b = offHeap.array(new double[] {9.52, 24.35, 0.77, -6.22}).reshape(4, 1);
+    IntArray ipiv = offHeap.intArray(4);
+    netlib.gesv(a, ipiv, b);
+    ArrayAssert.assertArrayEquals(ipiv1, ipiv);
+    ArrayAssert.assertArrayEquals(bj.array(new double[] {1, -1, 3, -5}).reshape(4, 1), b, 1e-10);
+  }
 }
@@ -21,6 +21,9 @@
 
 package org.briljantframework.array.random;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+
 import java.util.Random;
 
 import org.briljantframework.array.ArrayAssert;
@@ -35,4 +38,13 @@ public class SampleTest {
     IntArray sample = Sample.withoutReplacement(new Random(123), 10, 5);
     ArrayAssert.assertArrayEquals(sample, Arrays.newIntVector(0, 1, 5, 3, 4));
   }
+
+  @Test
+  public void testShuffle() throws Exception {
+    int[] array = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+    Sample.shuffle(new Random(123), array);
+    assertFalse(java.util.Arrays.equals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, array));
+    java.util.Arrays.sort(array);
+    assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, array);
+  }
 }
@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.math.transform;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ConvolutionTest {
+
+  private static final double EPSILON = 1e-9;
+
+  @Test
+  public void testShortKernel() throws Exception {
+    assertConvolution(1000, 5);
+    assertConvolution(3, 5);
+  }
+
+  @Test
+  public void testLongKernel() throws Exception {
+    assertConvolution(5000, 300);
+    assertConvolution(300, 5000);
+    assertConvolution(777, 777);
+  }
+
+  @Test
+  public void testOutputRange() throws Exception {
+    double[] x = random(4000, 1);
+    double[] h = random(257, 2);
+    double[] full = naive(x, h);
+    for (int start : new int[] {0, 128, 256, 3000}) {
+      double[] out = new double[1000];
+      Convolution.convolve(x, h, out, start);
+      for (int k = 0; k < out.length; k++) {
+        assertEquals(full[start + k], out[k], EPSILON);
+      }
+    }
+  }
+
+  @Test
+  public void testBatched() throws Exception {
+    double[] h = random(200, 3);
+    double[][] x = new double[50][];
+    double[][] out = new double[x.length][];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = random(2000 + i, i);
+      out[i] = new double[x[i].length];
+    }
+    Convolution.convolve(x, h, out, 99);
+    for (int i = 0; i < x.length; i++) {
+      double[] full = naive(x[i], h);
+      for (int k = 0; k < out[i].length; k++) {
+        assertEquals(full[99 + k], out[i][k], EPSILON);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutputRangeOutOfBounds() throws Exception {
+    Convolution.convolve(new double[10], new double[3], new double[10], 3);
+  }
+
+  private static void assertConvolution(int n, int m) {
+    double[] x = random(n, n);
+    double[] h = random(m, m);
+    double[] expected = naive(x, h);
+    double[] actual = new double[n + m - 1];
+    Convolution.convolve(x, h, actual, 0);
+    for (int k = 0; k < expected.length; k++) {
+      assertEquals(expected[k], actual[k], EPSILON);
+    }
+  }
+
+  private static double[] naive(double[] x, double[] h) {
+    double[] y = new double[x.length + h.length - 1];
+    for (int i = 0; i < x.length; i++) {
+      for (int j = 0; j < h.length; j++) {
+        y[i + j] += x[i] * h[j];
+      }
+    }
+    return y;
+  }
+
+  private static double[] random(int n, long seed) {
+    Random random = new Random(seed);
+    double[] x = new double[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = random.nextGaussian();
+    }
+    return x;
+  }
+}
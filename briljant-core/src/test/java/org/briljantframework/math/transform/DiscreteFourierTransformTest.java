@@ -0,0 +1,255 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Isak Karlsson
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.briljantframework.math.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.math3.complex.Complex;
+import org.briljantframework.array.Arrays;
+import org.briljantframework.array.ComplexArray;
+import org.briljantframework.array.DoubleArray;
+import org.briljantframework.complex.MutableComplex;
+import org.junit.Test;
+
+public class DiscreteFourierTransformTest {
+
+  private static final double EPSILON = 1e-9;
+
+  @Test
+  public void testFftPowerOfTwo() throws Exception {
+    ComplexArray x = randomComplex(16, 1);
+    assertComplexEquals(naiveDft(x), DiscreteFourierTransform.fft(x));
+  }
+
+  @Test
+  public void testFftBluestein() throws Exception {
+    ComplexArray x = randomComplex(15, 2);
+    assertComplexEquals(naiveDft(x), DiscreteFourierTransform.fft(x));
+  }
+
+  @Test
+  public void testFftOfView() throws Exception {
+    ComplexArray x = randomComplex(24, 3).reshape(2, 12).getRow(1);
+    assertComplexEquals(naiveDft(x), DiscreteFourierTransform.fft(x));
+  }
+
+  @Test
+  public void testFftOfLeadingColumn() throws Exception {
+    ComplexArray x = randomComplex(24, 5).reshape(12, 2).getColumn(0);
+    assertComplexEquals(naiveDft(x), DiscreteFourierTransform.fft(x));
+  }
+
+  @Test
+  public void testFftOfDoubleArray() throws Exception {
+    DoubleArray x = DoubleArray.of(1, 2, 3, 4, 5);
+    assertComplexEquals(naiveDft(x.asComplex()), DiscreteFourierTransform.fft(x));
+  }
+
+  @Test
+  public void testFftOfRealComplexArray() throws Exception {
+    ComplexArray x = Arrays.newComplexArray(new double[] {1, 2, 3, 4, 5});
+    assertComplexEquals(naiveDft(DoubleArray.of(1, 2, 3, 4, 5).asComplex()),
+        DiscreteFourierTransform.fft(x));
+  }
+
+  @Test
+  public void testIfftInvertsFft() throws Exception {
+    for (int n : new int[] {1, 8, 10, 33}) {
+      ComplexArray x = randomComplex(n, n);
+      assertComplexEquals(x, DiscreteFourierTransform.ifft(DiscreteFourierTransform.fft(x)));
+    }
+  }
+
+  @Test
+  public void testFftDoesNotModifyInput() throws Exception {
+    ComplexArray x = randomComplex(8, 4);
+    ComplexArray copy = x.copy();
+    DiscreteFourierTransform.fft(x);
+    assertComplexEquals(copy, x);
+  }
+
+  @Test
+  public void testFftMixedRadix() throws Exception {
+    for (int n : new int[] {2, 3, 5, 6, 12, 30, 45, 49, 60, 96, 105, 67 * 2}) {
+      ComplexArray x = randomComplex(n, n);
+      assertComplexEquals(naiveDft(x), DiscreteFourierTransform.fft(x));
+    }
+  }
+
+  @Test
+  public void testFftLargePrime() throws Exception {
+    for (int n : new int[] {67, 131, 2 * 3 * 101}) {
+      ComplexArray x = randomComplex(n, n);
+      assertComplexEquals(naiveDft(x), DiscreteFourierTransform.fft(x));
+    }
+  }
+
+  @Test
+  public void testFftInterleavedWithOffset() throws Exception {
+    ComplexArray x = randomComplex(10, 5);
+    double[] data = new double[24];
+    System.arraycopy(x.data(), 0, data, 2, 20);
+    DiscreteFourierTransform.fft(data, 2, 10);
+    assertEquals(0, data[0], 0);
+    assertEquals(0, data[23], 0);
+
+    ComplexArray expected = naiveDft(x);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(expected.getReal(i), data[2 + 2 * i], EPSILON);
+      assertEquals(expected.getImaginary(i), data[3 + 2 * i], EPSILON);
+    }
+
+    DiscreteFourierTransform.ifft(data, 2, 10);
+    for (int i = 0; i < 20; i++) {
+      assertEquals(x.data()[i], data[2 + i], EPSILON);
+    }
+  }
+
+  @Test
+  public void testRfft() throws Exception {
+    Random random = new Random(6);
+    for (int n : new int[] {1, 2, 7, 8, 12, 15, 30, 134, 262}) {
+      double[] x = new double[n];
+      for (int i = 0; i < n; i++) {
+        x[i] = random.nextGaussian();
+      }
+      double[] y = new double[2 * (n / 2 + 1)];
+      DiscreteFourierTransform.rfft(x, 0, n, y, 0);
+
+      ComplexArray expected = naiveDft(DoubleArray.of(x).asComplex());
+      for (int k = 0; k <= n / 2; k++) {
+        assertEquals(expected.getReal(k), y[2 * k], EPSILON);
+        assertEquals(expected.getImaginary(k), y[2 * k + 1], EPSILON);
+      }
+    }
+  }
+
+  @Test
+  public void testFftAlongDimension() throws Exception {
+    DoubleArray x = DoubleArray.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12).reshape(3, 4);
+    ComplexArray rows = DiscreteFourierTransform.fft(x, 1);
+    ComplexArray columns = DiscreteFourierTransform.fft(x, 0);
+    for (int i = 0; i < 3; i++) {
+      assertComplexEquals(naiveDft(x.getRow(i).asComplex()), rows.getRow(i));
+    }
+    for (int j = 0; j < 4; j++) {
+      assertComplexEquals(naiveDft(x.getColumn(j).asComplex()), columns.getColumn(j));
+    }
+  }
+
+  @Test
+  public void testBatchedTransforms() throws Exception {
+    double[][] series = new double[400][];
+    double[][] spectra = new double[series.length][];
+    Random random = new Random(7);
+    for (int i = 0; i < series.length; i++) {
+      series[i] = new double[100 + i % 7];
+      for (int j = 0; j < series[i].length; j++) {
+        series[i][j] = random.nextGaussian();
+      }
+      spectra[i] = DoubleArray.of(series[i]).asComplex().copy().data();
+    }
+
+    double[][] half = DiscreteFourierTransform.rfft(series);
+    DiscreteFourierTransform.fft(spectra);
+    for (int i = 0; i < series.length; i++) {
+      for (int k = 0; k < half[i].length; k++) {
+        assertEquals(spectra[i][k], half[i][k], EPSILON);
+      }
+    }
+
+    DiscreteFourierTransform.ifft(spectra);
+    for (int i = 0; i < series.length; i++) {
+      for (int j = 0; j < series[i].length; j++) {
+        assertEquals(series[i][j], spectra[i][2 * j], EPSILON);
+        assertEquals(0, spectra[i][2 * j + 1], EPSILON);
+      }
+    }
+  }
+
+  @Test
+  public void testInterleavedData() throws Exception {
+    ComplexArray x = ComplexArray.zeros(3);
+    x.set(1, 2, -1);
+    double[] data = x.data();
+    assertSame(data, x.data());
+    assertEquals(2, data[2], 0);
+    assertEquals(-1, data[3], 0);
+
+    data[4] = 5;
+    assertEquals(5, x.getReal(2), 0);
+    MutableComplex out = new MutableComplex(0);
+    assertSame(out, x.get(1, out));
+    assertEquals(2, out.getReal(), 0);
+    assertEquals(-1, out.getImaginary(), 0);
+  }
+
+  @Test
+  public void testLeadingColumnIsView() throws Exception {
+    ComplexArray matrix = randomComplex(24, 6).reshape(12, 2);
+    ComplexArray column = matrix.getColumn(0);
+    assertFalse(matrix.isView());
+    assertTrue(column.isView());
+    assertNotSame(matrix.data(), column.data());
+    assertEquals(24, column.data().length);
+  }
+
+  private static ComplexArray naiveDft(ComplexArray x) {
+    int n = x.size();
+    ComplexArray y = ComplexArray.zeros(n);
+    for (int k = 0; k < n; k++) {
+      double re = 0, im = 0;
+      for (int t = 0; t < n; t++) {
+        double angle = -2 * Math.PI * t * k / n;
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        re += x.getReal(t) * cos - x.getImaginary(t) * sin;
+        im += x.getReal(t) * sin + x.getImaginary(t) * cos;
+      }
+      y.set(k, re, im);
+    }
+    return y;
+  }
+
+  private static ComplexArray randomComplex(int n, long seed) {
+    Random random = new Random(seed);
+    ComplexArray x = ComplexArray.zeros(n);
+    for (int i = 0; i < n; i++) {
+      x.set(i, Complex.valueOf(random.nextGaussian(), random.nextGaussian()));
+    }
+    return x;
+  }
+
+  private static void assertComplexEquals(ComplexArray expected, ComplexArray actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.getReal(i), actual.getReal(i), EPSILON);
+      assertEquals(expected.getImaginary(i), actual.getImaginary(i), EPSILON);
+    }
+  }
+}